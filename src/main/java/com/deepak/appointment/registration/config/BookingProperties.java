@@ -0,0 +1,34 @@
+package com.deepak.appointment.registration.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Settings for appointment booking, bound from {@code app.booking.*} properties. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.booking")
+public class BookingProperties {
+
+  private Admission admission = new Admission();
+
+  /** Waiting room that admits bookers for a doctor's day. */
+  @Data
+  public static class Admission {
+    /** Whether bookings pass through the waiting room. */
+    private boolean enabled = true;
+
+    /** Number of bookings for the same doctor and day that may run against the database at once. */
+    private int maxConcurrent = 2;
+
+    /** How long a booker waits for their turn before being asked to retry. */
+    private Duration maxWait = Duration.ofSeconds(5);
+
+    /** How long an idle doctor-day is kept before its free slot count is reloaded. */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    /** How often a doctor-day that looks full rechecks its free slots against the database. */
+    private Duration fullRecheckInterval = Duration.ofSeconds(30);
+  }
+}
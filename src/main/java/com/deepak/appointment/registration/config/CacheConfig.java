@@ -1,16 +1,21 @@
 package com.deepak.appointment.registration.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.ArrayList;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.cache.support.CompositeCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
  * Configuration class for setting up caching with Caffeine. Cache configurations are externalized
- * through application properties.
+ * through application properties. Other modules register their own caches as {@link Cache} beans,
+ * which the cache manager serves alongside these.
  */
 @Configuration
 @EnableCaching
@@ -19,6 +24,7 @@ public class CacheConfig {
 
   public static final String CLINIC_INFO_CACHE = "clinicInfo";
   public static final String CLINIC_DOCTORS_CACHE = "clinicDoctors";
+  public static final String SLOT_AVAILABILITY_CACHE = "slotAvailability";
   public static final String DEFAULT_CACHE = "default";
 
   private final CacheProperties cacheProperties;
@@ -57,11 +63,23 @@ public class CacheConfig {
         .recordStats();
   }
 
+  @Bean
+  public Caffeine<Object, Object> slotAvailabilityCaffeineConfig() {
+    CacheProperties.CacheSpec spec = cacheProperties.getSpec(SLOT_AVAILABILITY_CACHE);
+    return Caffeine.newBuilder()
+        .expireAfterWrite(spec.getTtl())
+        .initialCapacity(spec.getInitialCapacity())
+        .maximumSize(spec.getMaxSize())
+        .recordStats();
+  }
+
   @Bean
   public CompositeCacheManager cacheManager(
       Caffeine<Object, Object> defaultCaffeineConfig,
       Caffeine<Object, Object> clinicInfoCaffeineConfig,
-      Caffeine<Object, Object> clinicDoctorsCaffeineConfig) {
+      Caffeine<Object, Object> clinicDoctorsCaffeineConfig,
+      Caffeine<Object, Object> slotAvailabilityCaffeineConfig,
+      ObjectProvider<Cache> moduleCaches) {
     CaffeineCacheManager defaultCacheManager = new CaffeineCacheManager(DEFAULT_CACHE);
     defaultCacheManager.setCaffeine(defaultCaffeineConfig);
 
@@ -71,9 +89,21 @@ public class CacheConfig {
     CaffeineCacheManager clinicDoctorsCacheManager = new CaffeineCacheManager(CLINIC_DOCTORS_CACHE);
     clinicDoctorsCacheManager.setCaffeine(clinicDoctorsCaffeineConfig);
 
+    CaffeineCacheManager slotAvailabilityCacheManager =
+        new CaffeineCacheManager(SLOT_AVAILABILITY_CACHE);
+    slotAvailabilityCacheManager.setCaffeine(slotAvailabilityCaffeineConfig);
+
+    SimpleCacheManager moduleCacheManager = new SimpleCacheManager();
+    moduleCacheManager.setCaches(new ArrayList<>(moduleCaches.orderedStream().toList()));
+    moduleCacheManager.initializeCaches();
+
     CompositeCacheManager compositeCacheManager =
         new CompositeCacheManager(
-            defaultCacheManager, clinicInfoCacheManager, clinicDoctorsCacheManager);
+            defaultCacheManager,
+            clinicInfoCacheManager,
+            clinicDoctorsCacheManager,
+            slotAvailabilityCacheManager,
+            moduleCacheManager);
     compositeCacheManager.setFallbackToNoOpCache(true);
 
     return compositeCacheManager;
@@ -17,6 +17,12 @@ public class CacheProperties {
     private Duration ttl = Duration.ofHours(1);
     private Integer maxSize = 100;
     private Integer initialCapacity = 10;
+
+    /**
+     * Maximum total weight of the entries, for caches that weigh their entries; such caches use it
+     * instead of {@code maxSize} when it is set.
+     */
+    private Long maxWeight;
   }
 
   public Map<String, CacheSpec> getSpecs() {
@@ -0,0 +1,55 @@
+package com.deepak.appointment.registration.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Settings for queue management, bound from {@code app.queue.*} properties. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.queue")
+public class QueueProperties {
+
+  private WriteBehind writeBehind = new WriteBehind();
+
+  private Archive archive = new Archive();
+
+  /** Write-behind buffering of queue entries created while booking appointments. */
+  @Data
+  public static class WriteBehind {
+    /** Whether queue entries are buffered and inserted after the booking commits. */
+    private boolean enabled = false;
+
+    /** Maximum number of buffered entries; bookings insert synchronously once it is full. */
+    private int capacity = 1000;
+
+    /** Maximum number of entries inserted per JDBC batch. */
+    private int batchSize = 100;
+
+    /** Delay between flushes of the buffer. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** Delay between checks for queue entries that were never written. */
+    private Duration reconcileInterval = Duration.ofMinutes(1);
+
+    /** Number of upcoming days (including today) checked for missing queue entries. */
+    private int reconcileDays = 2;
+  }
+
+  /** Nightly archival of past days from {@code queue_management}. */
+  @Data
+  public static class Archive {
+    /** Whether past queue entries are moved to {@code queue_management_archive}. */
+    private boolean enabled = true;
+
+    /** Number of past days kept in {@code queue_management}. */
+    private int retentionDays = 7;
+
+    /** Maximum number of entries moved per transaction. */
+    private int chunkSize = 1000;
+
+    /** When the archival job runs. */
+    private String cron = "0 30 2 * * *";
+  }
+}
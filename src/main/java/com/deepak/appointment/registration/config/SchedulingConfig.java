@@ -0,0 +1,9 @@
+package com.deepak.appointment.registration.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** Enables {@code @Scheduled} background jobs. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
@@ -3,6 +3,7 @@ package com.deepak.appointment.registration.controller;
 import com.deepak.appointment.registration.dto.AppointmentRequest;
 import com.deepak.appointment.registration.dto.AppointmentResponse;
 import com.deepak.appointment.registration.service.AppointmentService;
+import com.deepak.appointment.registration.service.BookingAdmissionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -29,9 +30,12 @@ import org.springframework.web.bind.annotation.RestController;
 public class AppointmentController {
 
   private final AppointmentService appointmentService;
+  private final BookingAdmissionService bookingAdmissionService;
 
-  public AppointmentController(AppointmentService appointmentService) {
+  public AppointmentController(
+      AppointmentService appointmentService, BookingAdmissionService bookingAdmissionService) {
     this.appointmentService = appointmentService;
+    this.bookingAdmissionService = bookingAdmissionService;
   }
 
   /**
@@ -49,6 +53,12 @@ public class AppointmentController {
         description = "Appointment created successfully",
         content = @Content(schema = @Schema(implementation = AppointmentResponse.class))),
     @ApiResponse(responseCode = "400", description = "Invalid input data"),
+    @ApiResponse(
+        responseCode = "409",
+        description = "The slot is already booked or the doctor's day is full"),
+    @ApiResponse(
+        responseCode = "429",
+        description = "Too many bookings in progress for the doctor's day; retry after the delay"),
     @ApiResponse(responseCode = "500", description = "Internal server error")
   })
   @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -61,7 +71,11 @@ public class AppointmentController {
           @RequestBody
           AppointmentRequest appointmentRequest) {
 
-    AppointmentResponse response = appointmentService.createAppointment(appointmentRequest);
+    // Admission runs outside the booking transaction so waiting bookers hold no DB connection
+    AppointmentResponse response =
+        bookingAdmissionService.admit(
+            appointmentRequest.getSlotId(),
+            () -> appointmentService.createAppointment(appointmentRequest));
     return new ResponseEntity<>(response, HttpStatus.CREATED);
   }
 
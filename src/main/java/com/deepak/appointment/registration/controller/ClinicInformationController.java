@@ -1,6 +1,5 @@
 package com.deepak.appointment.registration.controller;
 
-import com.deepak.appointment.registration.config.CacheConfig;
 import com.deepak.appointment.registration.dto.ClinicInfoDropDown;
 import com.deepak.appointment.registration.dto.DoctorInfoDropDown;
 import com.deepak.appointment.registration.model.ClinicInformation;
@@ -18,7 +17,6 @@ import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -99,7 +97,6 @@ public class ClinicInformationController {
                     mediaType = "application/json",
                     schema = @Schema(implementation = ClinicInfoDropDown.class)))
       })
-  @Cacheable(value = CacheConfig.CLINIC_INFO_CACHE, key = "'allClinics'")
   public ResponseEntity<List<ClinicInfoDropDown>> getBasicClinicInfo() {
     logger.info("GET /v1/api/get-clinic-basic called - fetching fresh data");
     return ResponseEntity.ok(clinicInformationService.getBasicClinicInfo());
@@ -119,7 +116,6 @@ public class ClinicInformationController {
                     mediaType = "application/json",
                     schema = @Schema(implementation = DoctorInfoDropDown.class)))
       })
-  @Cacheable(value = CacheConfig.CLINIC_DOCTORS_CACHE, key = "#clinicId")
   public ResponseEntity<List<DoctorInfoDropDown>> getDoctorsForClinic(
       @PathVariable Integer clinicId) {
     logger.info("GET /v1/api/get-clinic/{}/doctors called - fetching fresh data", clinicId);
@@ -0,0 +1,67 @@
+package com.deepak.appointment.registration.controller;
+
+import com.deepak.appointment.registration.dto.PaymentSettlementReport;
+import com.deepak.appointment.registration.service.PaymentSettlementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Controller for ingesting payment gateway settlement files. */
+@Tag(name = "Payments", description = "APIs for reconciling payment gateway settlements")
+@RestController
+@RequestMapping(value = "v1/api/payments", produces = MediaType.APPLICATION_JSON_VALUE)
+public class PaymentSettlementController {
+
+  private static final Logger logger = LoggerFactory.getLogger(PaymentSettlementController.class);
+
+  private final PaymentSettlementService paymentSettlementService;
+
+  public PaymentSettlementController(PaymentSettlementService paymentSettlementService) {
+    this.paymentSettlementService = paymentSettlementService;
+  }
+
+  /**
+   * Streams a settlement file and applies its payments to the matching queue entries.
+   *
+   * @param contentType {@code text/csv} (with a header row) or {@code application/x-ndjson}
+   * @param body the raw settlement file
+   * @return the per-row reconciliation report
+   */
+  @Operation(
+      summary = "Ingest a payment settlement file",
+      description =
+          "Matches each settlement row to a queue entry by transaction ID or appointment ID and "
+              + "updates its payment status. Rows need transactionId, appointmentId, paymentType "
+              + "(ADVANCE, CONSULTATION, ADVANCE_REVERT), status (SUCCESS, FAILED) and an optional amount.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "File processed; see the per-row report for outcomes",
+        content = @Content(schema = @Schema(implementation = PaymentSettlementReport.class))),
+    @ApiResponse(responseCode = "400", description = "Unsupported or malformed file"),
+    @ApiResponse(responseCode = "403", description = "Caller is not staff")
+  })
+  @PostMapping(
+      value = "/settlements",
+      consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<PaymentSettlementReport> ingestSettlementFile(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+    logger.info("POST /v1/api/payments/settlements called with content type {}", contentType);
+    PaymentSettlementReport report =
+        paymentSettlementService.ingest(body, MediaType.parseMediaType(contentType));
+    return ResponseEntity.ok(report);
+  }
+}
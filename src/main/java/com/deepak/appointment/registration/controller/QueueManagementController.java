@@ -0,0 +1,58 @@
+package com.deepak.appointment.registration.controller;
+
+import com.deepak.appointment.registration.model.QueueManagement;
+import com.deepak.appointment.registration.service.QueueManagementService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Controller for reading doctor queues. */
+@Tag(name = "Queue", description = "APIs for reading doctor queues")
+@RestController
+@RequestMapping(value = "v1/api/queue", produces = MediaType.APPLICATION_JSON_VALUE)
+public class QueueManagementController {
+
+  private static final Logger logger = LoggerFactory.getLogger(QueueManagementController.class);
+
+  private final QueueManagementService queueManagementService;
+
+  public QueueManagementController(QueueManagementService queueManagementService) {
+    this.queueManagementService = queueManagementService;
+  }
+
+  @GetMapping("/doctors/{doctorId}")
+  @Operation(
+      summary = "Get a doctor's queue",
+      description =
+          "Retrieves the queue entries that are not cancelled for a doctor on a day, in queue "
+              + "order. Defaults to today. The entries carry other patients' appointments and "
+              + "payments, so only staff can read them.",
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved the queue",
+            content = @Content(mediaType = "application/json")),
+        @ApiResponse(responseCode = "403", description = "Caller is not staff", content = @Content)
+      })
+  public ResponseEntity<List<QueueManagement>> getDoctorQueue(
+      @PathVariable String doctorId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate date) {
+    LocalDate queueDate = date != null ? date : LocalDate.now();
+    logger.info("GET /v1/api/queue/doctors/{} called with date {}", doctorId, queueDate);
+    return ResponseEntity.ok(queueManagementService.getDoctorQueue(doctorId, queueDate));
+  }
+}
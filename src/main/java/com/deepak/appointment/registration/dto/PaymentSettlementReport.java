@@ -0,0 +1,52 @@
+package com.deepak.appointment.registration.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Reconciliation report returned after ingesting a payment settlement file. */
+@Data
+@NoArgsConstructor
+public class PaymentSettlementReport {
+  private int totalRows;
+  private int updated;
+  private int unmatched;
+  private int invalid;
+  private int duplicates;
+  private List<RowResult> rows = new ArrayList<>();
+
+  /** Records the outcome of a single settlement row and updates the summary counters. */
+  public void add(RowResult result) {
+    rows.add(result);
+    totalRows++;
+    switch (result.getOutcome()) {
+      case UPDATED -> updated++;
+      case UNMATCHED -> unmatched++;
+      case INVALID -> invalid++;
+      case DUPLICATE -> duplicates++;
+    }
+  }
+
+  /** Outcome of reconciling one settlement row against the queue. */
+  public enum Outcome {
+    UPDATED,
+    UNMATCHED,
+    INVALID,
+    DUPLICATE
+  }
+
+  /** Per-row reconciliation result. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RowResult {
+    private long rowNumber;
+    private String transactionId;
+    private Long appointmentId;
+    private Integer queueManagementId;
+    private Outcome outcome;
+    private String message;
+  }
+}
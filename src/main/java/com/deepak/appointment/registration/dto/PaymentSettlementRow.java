@@ -0,0 +1,22 @@
+package com.deepak.appointment.registration.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Raw row of a payment gateway settlement file (CSV or NDJSON). All fields are kept as strings so
+ * that a single malformed value is reported against its row instead of aborting the whole file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaymentSettlementRow {
+  private String transactionId;
+  private String appointmentId;
+  private String paymentType;
+  private String status;
+  private String amount;
+}
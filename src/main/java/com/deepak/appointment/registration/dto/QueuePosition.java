@@ -0,0 +1,23 @@
+package com.deepak.appointment.registration.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Where a patient's appointment stands in a doctor's queue for the day.
+ *
+ * @param appointmentId the appointment the queue entry belongs to
+ * @param doctorId the doctor whose queue it is
+ * @param clinicId the clinic the doctor sees patients at
+ * @param queueDate the day of the queue
+ * @param queueNo the entry's current queue number
+ * @param visitStatus the entry's visit status
+ * @param patientsAhead the pending entries with a lower queue number that are not cancelled
+ */
+public record QueuePosition(
+    Long appointmentId,
+    String doctorId,
+    Integer clinicId,
+    LocalDate queueDate,
+    Integer queueNo,
+    String visitStatus,
+    long patientsAhead) {}
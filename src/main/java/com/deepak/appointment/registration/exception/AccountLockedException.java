@@ -0,0 +1,17 @@
+package com.deepak.appointment.registration.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/** Thrown when an account is locked after too many failed logins. */
+@Getter
+public class AccountLockedException extends RuntimeException {
+
+  /** How long until the account is unlocked. */
+  private final Duration retryAfter;
+
+  public AccountLockedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
@@ -0,0 +1,13 @@
+package com.deepak.appointment.registration.exception;
+
+/** Exception thrown when a request body cannot be processed as submitted. */
+public class BadRequestException extends RuntimeException {
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+
+  public BadRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -6,6 +6,7 @@ import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -60,6 +61,84 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(response, HttpStatus.CONFLICT);
   }
 
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<ErrorResponse> handleTooManyRequestsException(
+      TooManyRequestsException ex, WebRequest request) {
+    String requestId = generateRequestId();
+    String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+
+    ErrorResponse response =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+            ex.getMessage(),
+            path,
+            requestId);
+
+    logger.warn(
+        "Request not admitted - Request ID: {}, Path: {}, Message: {}",
+        requestId,
+        path,
+        ex.getMessage());
+
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(
+            HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(response);
+  }
+
+  @ExceptionHandler(AccountLockedException.class)
+  public ResponseEntity<ErrorResponse> handleAccountLockedException(
+      AccountLockedException ex, WebRequest request) {
+    String requestId = generateRequestId();
+    String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+
+    ErrorResponse response =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.LOCKED.value(),
+            HttpStatus.LOCKED.getReasonPhrase(),
+            ex.getMessage(),
+            path,
+            requestId);
+
+    logger.warn(
+        "Account locked - Request ID: {}, Path: {}, Retry after: {}",
+        requestId,
+        path,
+        ex.getRetryAfter());
+
+    return ResponseEntity.status(HttpStatus.LOCKED)
+        .header(
+            HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(response);
+  }
+
+  @ExceptionHandler(PreconditionFailedException.class)
+  public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+      PreconditionFailedException ex, WebRequest request) {
+    String requestId = generateRequestId();
+    String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+
+    ErrorResponse response =
+        new ErrorResponse(
+            LocalDateTime.now(),
+            HttpStatus.PRECONDITION_FAILED.value(),
+            HttpStatus.PRECONDITION_FAILED.getReasonPhrase(),
+            ex.getMessage(),
+            path,
+            requestId);
+
+    logger.info(
+        "Precondition failed - Request ID: {}, Path: {}, Message: {}",
+        requestId,
+        path,
+        ex.getMessage());
+
+    return new ResponseEntity<>(response, HttpStatus.PRECONDITION_FAILED);
+  }
+
   @ExceptionHandler(NotFoundException.class)
   public ResponseEntity<ErrorResponse> handleNotFoundException(
       NotFoundException ex, WebRequest request) {
@@ -146,6 +225,7 @@ public class GlobalExceptionHandler {
   }
 
   @ExceptionHandler({
+    BadRequestException.class,
     MethodArgumentTypeMismatchException.class,
     MissingServletRequestParameterException.class,
     HttpRequestMethodNotSupportedException.class
@@ -0,0 +1,9 @@
+package com.deepak.appointment.registration.exception;
+
+/** Thrown when a conditional request's precondition, such as {@code If-Match}, does not hold. */
+public class PreconditionFailedException extends RuntimeException {
+
+  public PreconditionFailedException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,17 @@
+package com.deepak.appointment.registration.exception;
+
+import java.time.Duration;
+import lombok.Getter;
+
+/** Thrown when a request cannot be admitted right now and should be retried later. */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+  /** How long the client should wait before retrying. */
+  private final Duration retryAfter;
+
+  public TooManyRequestsException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+}
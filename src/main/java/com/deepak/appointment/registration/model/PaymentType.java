@@ -0,0 +1,14 @@
+package com.deepak.appointment.registration.model;
+
+/**
+ * Kind of payment reported in a gateway settlement file. Each type maps to its own transaction ID
+ * column on {@code queue_management}.
+ */
+public enum PaymentType {
+  /** Advance paid while booking the appointment. */
+  ADVANCE,
+  /** Consultation fee paid at the clinic. */
+  CONSULTATION,
+  /** Refund of a previously paid advance. */
+  ADVANCE_REVERT
+}
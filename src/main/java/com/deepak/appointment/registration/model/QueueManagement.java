@@ -5,14 +5,23 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
-import java.util.Date;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDate;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "queue_management")
+@Table(
+    name = "queue_management",
+    indexes = {
+      @Index(name = "idx_queue_doctor_date", columnList = "doctor_id, queue_date"),
+      @Index(name = "idx_queue_date", columnList = "queue_date")
+    },
+    uniqueConstraints =
+        @UniqueConstraint(name = "uq_queue_appointment", columnNames = "appointment_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -71,6 +80,7 @@ public class QueueManagement {
   @Column(name = "transaction_id_advance_revert")
   private String transactionIdAdvanceRevert;
 
+  /** The day the patient is seen, i.e. the slot date. */
   @Column(name = "queue_date")
-  private Date date;
+  private LocalDate queueDate;
 }
@@ -0,0 +1,79 @@
+package com.deepak.appointment.registration.model;
+
+import com.deepak.appointment.registration.entity.SlotInformation;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Snapshot of a doctor's bookable slots for one day at one clinic.
+ *
+ * <p>The slots are loaded once, ordered by slot time, and a bit per slot records whether it is
+ * still available. Booking a slot clears its bit, so reads never go back to the database for the
+ * day once the snapshot is cached.
+ */
+public class SlotAvailability {
+
+  private final List<SlotInformation> slots;
+  private final BitSet available;
+
+  /**
+   * Creates a snapshot in which every given slot is available.
+   *
+   * @param availableSlots the available slots, ordered by slot time
+   */
+  public SlotAvailability(List<SlotInformation> availableSlots) {
+    this.slots = List.copyOf(availableSlots);
+    this.available = new BitSet(slots.size());
+    this.available.set(0, slots.size());
+  }
+
+  /**
+   * Builds the cache key for a doctor's day at a clinic.
+   *
+   * @param clinicId the clinic ID
+   * @param doctorId the doctor ID
+   * @param date the slot date
+   * @return the cache key
+   */
+  public static String key(Integer clinicId, String doctorId, LocalDate date) {
+    return clinicId + ":" + doctorId + ":" + date;
+  }
+
+  /**
+   * Returns the slots that are still available, ordered by slot time.
+   *
+   * @return the available slots
+   */
+  public synchronized List<SlotInformation> availableSlots() {
+    List<SlotInformation> result = new ArrayList<>(available.cardinality());
+    for (int i = available.nextSetBit(0); i >= 0; i = available.nextSetBit(i + 1)) {
+      result.add(slots.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of slots that are still available.
+   *
+   * @return the available slot count
+   */
+  public synchronized int availableCount() {
+    return available.cardinality();
+  }
+
+  /**
+   * Marks a slot as booked.
+   *
+   * @param slotId the slot ID
+   */
+  public synchronized void markBooked(Long slotId) {
+    for (int i = 0; i < slots.size(); i++) {
+      if (slots.get(i).getSlotId().equals(slotId)) {
+        available.clear(i);
+        return;
+      }
+    }
+  }
+}
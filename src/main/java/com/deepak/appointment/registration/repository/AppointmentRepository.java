@@ -2,6 +2,7 @@ package com.deepak.appointment.registration.repository;
 
 import com.deepak.appointment.registration.entity.Appointment;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -33,4 +34,17 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
           + "WHERE a.patientId = :patientId AND a.active = true AND s.slotDate = :date")
   int countActiveAppointmentsByPatientAndDate(
       @Param("patientId") Long patientId, @Param("date") LocalDate date);
+
+  /**
+   * Finds a patient's active appointments from a given time on, soonest first.
+   *
+   * @param patientId the ID of the patient
+   * @param from the earliest appointment date to include
+   * @return the patient's upcoming active appointments
+   */
+  @Query(
+      "SELECT a FROM Appointment a WHERE a.patientId = :patientId AND a.active = true "
+          + "AND a.appointmentDate >= :from ORDER BY a.appointmentDate, a.appointmentId")
+  List<Appointment> findUpcomingByPatientId(
+      @Param("patientId") Long patientId, @Param("from") LocalDateTime from);
 }
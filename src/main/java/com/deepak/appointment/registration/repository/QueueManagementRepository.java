@@ -1,10 +1,80 @@
 package com.deepak.appointment.registration.repository;
 
+import com.deepak.appointment.registration.dto.QueuePosition;
 import com.deepak.appointment.registration.model.QueueManagement;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface QueueManagementRepository extends JpaRepository<QueueManagement, Integer> {
-  // Add custom query methods if needed
+public interface QueueManagementRepository
+    extends JpaRepository<QueueManagement, Integer>, QueueManagementRepositoryCustom {
+
+  /**
+   * Finds a doctor's queue for one day in queue order, using the {@code (doctor_id, queue_date)}
+   * index.
+   *
+   * @param doctorId the doctor ID
+   * @param queueDate the day of the queue
+   * @return the day's queue entries that are not cancelled, ordered by current queue number
+   */
+  @Query(
+      "SELECT q FROM QueueManagement q WHERE q.doctorId = :doctorId AND q.queueDate = :queueDate "
+          + "AND (q.cancelled IS NULL OR q.cancelled = false) ORDER BY q.currentQueueNo")
+  List<QueueManagement> findDoctorQueue(
+      @Param("doctorId") String doctorId, @Param("queueDate") LocalDate queueDate);
+
+  /**
+   * Counts the queue entries for a day.
+   *
+   * @param queueDate the day of the queue
+   * @return the number of queue entries on that day
+   */
+  long countByQueueDate(LocalDate queueDate);
+
+  /**
+   * Finds the queue entries for the given appointments.
+   *
+   * @param appointmentIds the appointment IDs to look up
+   * @return queue entries belonging to any of the appointments
+   */
+  List<QueueManagement> findByAppointmentIdIn(Collection<Long> appointmentIds);
+
+  /**
+   * Finds queue entries that already reference any of the given gateway transaction IDs, in any of
+   * the transaction ID columns.
+   *
+   * @param transactionIds the transaction IDs to look up
+   * @return queue entries referencing any of the transaction IDs
+   */
+  @Query(
+      "SELECT q FROM QueueManagement q WHERE q.transactionIdAdvanceFee IN :ids "
+          + "OR q.transactionIdConsultationFee IN :ids OR q.transactionIdAdvanceRevert IN :ids")
+  List<QueueManagement> findByAnyTransactionIdIn(@Param("ids") Collection<String> transactionIds);
+
+  /**
+   * Finds where a patient stands in each doctor queue from a given day on. The patient's entries
+   * are found through their active appointments, and the pending entries ahead of each one are
+   * counted in the same query, so no appointment lookup is needed first.
+   *
+   * @param patientId the ID of the patient
+   * @param from the earliest queue day to include
+   * @return the patient's queue positions that are not cancelled, by day and queue number
+   */
+  @Query(
+      "SELECT new com.deepak.appointment.registration.dto.QueuePosition(q.appointmentId, "
+          + "q.doctorId, q.clinicId, q.queueDate, q.currentQueueNo, q.visitStatus, "
+          + "(SELECT COUNT(o) FROM QueueManagement o WHERE o.doctorId = q.doctorId "
+          + "AND o.queueDate = q.queueDate AND (o.cancelled IS NULL OR o.cancelled = false) "
+          + "AND o.visitStatus = 'PENDING' AND o.currentQueueNo < q.currentQueueNo)) "
+          + "FROM QueueManagement q WHERE q.appointmentId IN (SELECT a.appointmentId FROM "
+          + "Appointment a WHERE a.patientId = :patientId AND a.active = true) "
+          + "AND q.queueDate >= :from AND (q.cancelled IS NULL OR q.cancelled = false) "
+          + "ORDER BY q.queueDate, q.currentQueueNo")
+  List<QueuePosition> findQueuePositionsByPatientId(
+      @Param("patientId") Long patientId, @Param("from") LocalDate from);
 }
@@ -0,0 +1,65 @@
+package com.deepak.appointment.registration.repository;
+
+import com.deepak.appointment.registration.model.PaymentType;
+import com.deepak.appointment.registration.model.QueueManagement;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bulk operations on {@code queue_management} that bypass the persistence context and run as JDBC
+ * batches.
+ */
+public interface QueueManagementRepositoryCustom {
+
+  /**
+   * Applies settled payments to their queue entries using one JDBC batch per payment type.
+   *
+   * @param updates the payment updates to apply
+   * @return the total number of rows updated
+   */
+  int applyPaymentUpdates(List<PaymentUpdate> updates);
+
+  /**
+   * Inserts queue entries in JDBC batches, skipping any appointment that already has one.
+   *
+   * @param entries the queue entries to insert
+   * @return the number of rows inserted
+   */
+  int insertQueueEntries(List<QueueManagement> entries);
+
+  /**
+   * Creates the queue entries missing for active appointments whose slot falls within the given
+   * dates. Queue numbers are taken from the slot and the queue date is the slot date.
+   *
+   * @param from the first slot date to check (inclusive)
+   * @param to the last slot date to check (inclusive)
+   * @return the number of queue entries created
+   */
+  int insertMissingQueueEntries(LocalDate from, LocalDate to);
+
+  /**
+   * Moves up to {@code limit} queue entries dated before {@code cutoff} into {@code
+   * queue_management_archive}, oldest first, in a single transaction.
+   *
+   * @param cutoff entries with an earlier queue date are archived
+   * @param limit the maximum number of entries to move
+   * @return the number of entries archived
+   */
+  int archiveQueueEntriesBefore(LocalDate cutoff, int limit);
+
+  /**
+   * A single settled payment matched to a queue entry.
+   *
+   * @param queueManagementId the queue entry to update
+   * @param paymentType which payment columns to update
+   * @param transactionId the gateway transaction ID
+   * @param successful whether the gateway reported the payment as successful
+   * @param amount the settled amount, or {@code null} if not reported
+   */
+  record PaymentUpdate(
+      Integer queueManagementId,
+      PaymentType paymentType,
+      String transactionId,
+      boolean successful,
+      Double amount) {}
+}
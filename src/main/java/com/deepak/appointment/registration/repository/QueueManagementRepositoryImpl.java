@@ -0,0 +1,166 @@
+package com.deepak.appointment.registration.repository;
+
+import com.deepak.appointment.registration.model.PaymentType;
+import com.deepak.appointment.registration.model.QueueManagement;
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/** JDBC-backed implementation of {@link QueueManagementRepositoryCustom}. */
+@RequiredArgsConstructor
+public class QueueManagementRepositoryImpl implements QueueManagementRepositoryCustom {
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final Map<PaymentType, String> PAYMENT_UPDATE_SQL =
+      new EnumMap<>(
+          Map.of(
+              PaymentType.ADVANCE,
+              "UPDATE queue_management SET advance_paid = ?, transaction_id_advance_fee = ? "
+                  + "WHERE queue_management_id = ?",
+              PaymentType.CONSULTATION,
+              "UPDATE queue_management SET consultation_fee_paid = ?, "
+                  + "consultation_fee_amount = COALESCE(?, consultation_fee_amount), "
+                  + "transaction_id_consultation_fee = ? WHERE queue_management_id = ?",
+              PaymentType.ADVANCE_REVERT,
+              "UPDATE queue_management SET advance_paid = (advance_paid AND NOT ?), "
+                  + "transaction_id_advance_revert = ? WHERE queue_management_id = ?"));
+
+  /**
+   * Leaves an existing entry untouched when a concurrent writer (write-behind flush,
+   * reconciliation, precompute or another instance) inserted the appointment between the {@code NOT
+   * EXISTS} check and the insert; {@code uq_queue_appointment} rejects the duplicate.
+   */
+  private static final String ON_DUPLICATE_APPOINTMENT_SQL =
+      "ON DUPLICATE KEY UPDATE queue_management.appointment_id = queue_management.appointment_id";
+
+  private static final String INSERT_QUEUE_ENTRY_SQL =
+      "INSERT INTO queue_management (appointment_id, slot_id, clinic_id, doctor_id, "
+          + "initial_queue_no, current_queue_no, advance_paid, cancelled, advance_revert_if_paid, "
+          + "patient_reached, visit_status, consultation_fee_paid, consultation_fee_amount, "
+          + "queue_date) "
+          + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ? FROM DUAL WHERE NOT EXISTS "
+          + "(SELECT 1 FROM queue_management WHERE appointment_id = ?) "
+          + ON_DUPLICATE_APPOINTMENT_SQL;
+
+  private static final String INSERT_MISSING_QUEUE_ENTRIES_SQL =
+      "INSERT INTO queue_management (appointment_id, slot_id, clinic_id, doctor_id, "
+          + "initial_queue_no, current_queue_no, advance_paid, cancelled, advance_revert_if_paid, "
+          + "patient_reached, visit_status, consultation_fee_paid, consultation_fee_amount, "
+          + "queue_date) "
+          + "SELECT a.appointment_id, a.slot_id, a.clinic_id, a.doctor_id, s.slot_no, s.slot_no, "
+          + "FALSE, FALSE, FALSE, FALSE, 'PENDING', FALSE, 0, s.slot_date "
+          + "FROM appointments a JOIN slot_information s ON s.slot_id = a.slot_id "
+          + "WHERE a.active = TRUE AND s.slot_date BETWEEN ? AND ? AND NOT EXISTS "
+          + "(SELECT 1 FROM queue_management q WHERE q.appointment_id = a.appointment_id) "
+          + ON_DUPLICATE_APPOINTMENT_SQL;
+
+  private static final String SELECT_ARCHIVABLE_IDS_SQL =
+      "SELECT queue_management_id FROM queue_management WHERE queue_date < ? "
+          + "ORDER BY queue_date, queue_management_id LIMIT ?";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  public int applyPaymentUpdates(List<PaymentUpdate> updates) {
+    Map<PaymentType, List<PaymentUpdate>> byType =
+        updates.stream().collect(Collectors.groupingBy(PaymentUpdate::paymentType));
+
+    int updated = 0;
+    for (Map.Entry<PaymentType, List<PaymentUpdate>> entry : byType.entrySet()) {
+      PaymentType type = entry.getKey();
+      int[][] counts =
+          jdbcTemplate.batchUpdate(
+              PAYMENT_UPDATE_SQL.get(type),
+              entry.getValue(),
+              BATCH_SIZE,
+              (ps, update) -> {
+                int index = 1;
+                ps.setBoolean(index++, update.successful());
+                if (type == PaymentType.CONSULTATION) {
+                  if (update.successful() && update.amount() != null) {
+                    ps.setDouble(index++, update.amount());
+                  } else {
+                    ps.setNull(index++, Types.DOUBLE);
+                  }
+                }
+                ps.setString(index++, update.transactionId());
+                ps.setInt(index, update.queueManagementId());
+              });
+      updated += rowsAffected(counts);
+    }
+    return updated;
+  }
+
+  @Override
+  public int insertQueueEntries(List<QueueManagement> entries) {
+    int[][] counts =
+        jdbcTemplate.batchUpdate(
+            INSERT_QUEUE_ENTRY_SQL,
+            entries,
+            BATCH_SIZE,
+            (ps, entry) -> {
+              ps.setLong(1, entry.getAppointmentId());
+              ps.setInt(2, entry.getSlotId());
+              ps.setInt(3, entry.getClinicId());
+              ps.setString(4, entry.getDoctorId());
+              ps.setInt(5, entry.getInitialQueueNo());
+              ps.setInt(6, entry.getCurrentQueueNo());
+              ps.setBoolean(7, entry.getAdvancePaid());
+              ps.setBoolean(8, entry.getCancelled());
+              ps.setBoolean(9, entry.getAdvanceRevertIfPaid());
+              ps.setBoolean(10, entry.getPatientReached());
+              ps.setString(11, entry.getVisitStatus());
+              ps.setBoolean(12, entry.getConsultationFeePaid());
+              ps.setDouble(13, entry.getConsultationFeeAmount());
+              ps.setDate(14, Date.valueOf(entry.getQueueDate()));
+              ps.setLong(15, entry.getAppointmentId());
+            });
+    return rowsAffected(counts);
+  }
+
+  @Override
+  public int insertMissingQueueEntries(LocalDate from, LocalDate to) {
+    return jdbcTemplate.update(
+        INSERT_MISSING_QUEUE_ENTRIES_SQL, Date.valueOf(from), Date.valueOf(to));
+  }
+
+  @Override
+  @Transactional
+  public int archiveQueueEntriesBefore(LocalDate cutoff, int limit) {
+    List<Integer> ids =
+        jdbcTemplate.queryForList(
+            SELECT_ARCHIVABLE_IDS_SQL, Integer.class, Date.valueOf(cutoff), limit);
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+    Object[] args = ids.toArray();
+    jdbcTemplate.update(
+        "INSERT INTO queue_management_archive SELECT * FROM queue_management "
+            + "WHERE queue_management_id IN ("
+            + placeholders
+            + ")",
+        args);
+    return jdbcTemplate.update(
+        "DELETE FROM queue_management WHERE queue_management_id IN (" + placeholders + ")", args);
+  }
+
+  private static int rowsAffected(int[][] counts) {
+    // rewriteBatchedStatements reports SUCCESS_NO_INFO for rewritten statements
+    return Arrays.stream(counts)
+        .flatMapToInt(Arrays::stream)
+        .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0))
+        .sum();
+  }
+}
@@ -30,4 +30,22 @@ public interface SlotInformationRepository extends JpaRepository<SlotInformation
       @Param("clinicId") Integer clinicId,
       @Param("doctorId") String doctorId,
       @Param("date") LocalDate date);
+
+  @Query(
+      "SELECT s FROM SlotInformation s "
+          + "WHERE s.slotDate = :date "
+          + "AND s.isAvailable = true "
+          + "ORDER BY s.clinicId, s.doctorId, s.slotTime")
+  List<SlotInformation> findAvailableSlotsByDate(@Param("date") LocalDate date);
+
+  @Query(
+      "SELECT COUNT(s) FROM SlotInformation s "
+          + "WHERE s.clinicId = :clinicId "
+          + "AND s.doctorId = :doctorId "
+          + "AND s.slotDate = :date "
+          + "AND s.isAvailable = true")
+  int countAvailableSlotsByClinicDoctorAndDate(
+      @Param("clinicId") Integer clinicId,
+      @Param("doctorId") String doctorId,
+      @Param("date") LocalDate date);
 }
@@ -4,6 +4,7 @@ import com.deepak.appointment.registration.converter.AppointmentConverter;
 import com.deepak.appointment.registration.dto.AppointmentRequest;
 import com.deepak.appointment.registration.dto.AppointmentResponse;
 import com.deepak.appointment.registration.entity.Appointment;
+import com.deepak.appointment.registration.entity.SlotInformation;
 import com.deepak.appointment.registration.exception.ConflictException;
 import com.deepak.appointment.registration.exception.NotFoundException;
 import com.deepak.appointment.registration.model.QueueManagement;
@@ -13,10 +14,13 @@ import com.deepak.appointment.registration.repository.DoctorInformationRepositor
 import com.deepak.appointment.registration.repository.QueueManagementRepository;
 import com.deepak.appointment.registration.repository.SlotInformationRepository;
 import com.deepak.patient.registration.service.PatientService;
-import java.sql.Date;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,7 +41,9 @@ public class AppointmentService {
   private final DoctorInformationRepository doctorInformationRepository;
   private final ClinicInformationRepository clinicInformationRepository;
   private final SlotInformationRepository slotInformationRepository;
+  private final SlotInformationService slotInformationService;
   private final QueueManagementRepository queueManagementRepository;
+  private final QueueWriteBehindService queueWriteBehindService;
 
   /**
    * Creates a new appointment.
@@ -54,7 +60,7 @@ public class AppointmentService {
 
     // Validate patient exists
     Long patientId = request.getPatientId();
-    if (patientService.getPatientById(patientId) == null) {
+    if (!patientService.existsById(patientId)) {
       log.warn("Patient not found with ID: {}", patientId);
       throw new NotFoundException("Patient not found with ID: " + patientId);
     }
@@ -117,15 +123,22 @@ public class AppointmentService {
     queueManagement.setTransactionIdAdvanceFee(null);
     queueManagement.setTransactionIdConsultationFee(null);
     queueManagement.setTransactionIdAdvanceRevert(null);
-    queueManagement.setDate(Date.valueOf(LocalDate.now()));
-    log.debug(
-        "Saving queue management entry for appointment ID: {}",
-        savedAppointment.getAppointmentId());
-    queueManagementRepository.save(queueManagement);
+    queueManagement.setQueueDate(slotInfo.getSlotDate());
+    if (queueWriteBehindService.enqueueAfterCommit(queueManagement)) {
+      log.debug(
+          "Buffered queue management entry for appointment ID: {}",
+          savedAppointment.getAppointmentId());
+    } else {
+      log.debug(
+          "Saving queue management entry for appointment ID: {}",
+          savedAppointment.getAppointmentId());
+      queueManagementRepository.save(queueManagement);
+    }
 
     // Mark the slot as not available
     slotInfo.setIsAvailable(false);
     slotInformationRepository.save(slotInfo);
+    slotInformationService.markSlotBooked(slotInfo);
     log.debug("Marked slot ID: {} as not available", slotId);
 
     // Convert saved entity back to response DTO
@@ -144,7 +157,7 @@ public class AppointmentService {
     log.info("Fetching appointments for patient ID: {}", patientId);
 
     // Validate patient exists
-    if (patientService.getPatientById(patientId) == null) {
+    if (!patientService.existsById(patientId)) {
       log.warn("Patient not found with ID: {}", patientId);
       throw new NotFoundException("Patient not found with ID: " + patientId);
     }
@@ -153,37 +166,64 @@ public class AppointmentService {
     List<Appointment> appointments = appointmentRepository.findByPatientIdAndActiveTrue(patientId);
     log.debug("Found {} active appointments for patient ID: {}", appointments.size(), patientId);
 
-    // Convert entities to DTOs with additional information
+    return enrich(appointments);
+  }
+
+  /**
+   * Retrieves a patient's active appointments from a day on, soonest first. Unlike {@link
+   * #getAppointmentsByPatientId(Long)} the patient is not checked, so callers that already have the
+   * patient do not pay for the lookup.
+   *
+   * @param patientId the ID of the patient
+   * @param from the earliest appointment day to include
+   * @return the upcoming appointments with doctor, clinic and slot details
+   */
+  @Transactional(readOnly = true)
+  public List<AppointmentResponse> getUpcomingAppointments(Long patientId, LocalDate from) {
+    log.debug("Fetching upcoming appointments for patient ID: {} from {}", patientId, from);
+    return enrich(appointmentRepository.findUpcomingByPatientId(patientId, from.atStartOfDay()));
+  }
+
+  /**
+   * Converts appointments to responses with the doctor name, clinic name and slot time, loading
+   * each kind of detail with one query for all appointments.
+   */
+  private List<AppointmentResponse> enrich(List<Appointment> appointments) {
+    if (appointments.isEmpty()) {
+      return List.of();
+    }
+    Map<String, String> doctorNames = new HashMap<>();
+    doctorInformationRepository
+        .findAllById(distinct(appointments, Appointment::getDoctorId))
+        .forEach(doctor -> doctorNames.put(doctor.getDoctorId(), doctor.getDoctorName()));
+    Map<Integer, String> clinicNames = new HashMap<>();
+    clinicInformationRepository
+        .findAllById(distinct(appointments, Appointment::getClinicId))
+        .forEach(clinic -> clinicNames.put(clinic.getClinicId(), clinic.getClinicName()));
+    Map<Long, SlotInformation> slots = new HashMap<>();
+    slotInformationRepository
+        .findAllById(distinct(appointments, Appointment::getSlotId))
+        .forEach(slot -> slots.put(slot.getSlotId(), slot));
+
     return appointments.stream()
         .map(
             appointment -> {
               AppointmentResponse response = appointmentConverter.toResponse(appointment);
-
-              // Fetch and set doctor name
-              doctorInformationRepository
-                  .findById(appointment.getDoctorId())
-                  .ifPresent(doctor -> response.setDoctorName(doctor.getDoctorName()));
-
-              // Fetch and set clinic name
-              clinicInformationRepository
-                  .findById(appointment.getClinicId())
-                  .ifPresent(clinic -> response.setClinicName(clinic.getClinicName()));
-
-              // Fetch and set slot time if slotId exists
-              if (appointment.getSlotId() != null) {
-                slotInformationRepository
-                    .findById(appointment.getSlotId())
-                    .ifPresent(
-                        slot -> {
-                          // Format the time as HH:mm
-                          String formattedTime =
-                              slot.getSlotTime().format(DateTimeFormatter.ofPattern("HH:mm"));
-                          response.setSlotTime(formattedTime);
-                        });
+              response.setDoctorName(doctorNames.get(appointment.getDoctorId()));
+              response.setClinicName(clinicNames.get(appointment.getClinicId()));
+              SlotInformation slot = slots.get(appointment.getSlotId());
+              if (slot != null && slot.getSlotTime() != null) {
+                // Format the time as HH:mm
+                response.setSlotTime(
+                    slot.getSlotTime().format(DateTimeFormatter.ofPattern("HH:mm")));
               }
-
               return response;
             })
         .collect(Collectors.toList());
   }
+
+  private static <K> List<K> distinct(
+      List<Appointment> appointments, Function<Appointment, K> key) {
+    return appointments.stream().map(key).filter(Objects::nonNull).distinct().toList();
+  }
 }
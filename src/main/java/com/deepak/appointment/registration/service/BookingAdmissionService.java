@@ -0,0 +1,187 @@
+package com.deepak.appointment.registration.service;
+
+import com.deepak.appointment.registration.config.BookingProperties;
+import com.deepak.appointment.registration.entity.SlotInformation;
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.appointment.registration.exception.ConflictException;
+import com.deepak.appointment.registration.exception.NotFoundException;
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import java.time.LocalDate;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Virtual waiting room in front of appointment booking.
+ *
+ * <p>Each doctor's day has a gate that knows how many slots are still free. The gate is chosen from
+ * the slot being booked, never from dates supplied by the client, and the slot is looked up among
+ * the cached slots of its day, so a booker of a full day is turned away without a database
+ * connection. A booker first claims one of those free slots; when none are left the day is full and
+ * the booker is turned away without running the booking. Claimants then wait, in arrival order, for
+ * one of a few turns to run the booking transaction. A failed booking returns its claim, a
+ * successful one keeps it. Bookers who do not get a turn within the configured wait are asked to
+ * retry.
+ *
+ * <p>The free slot count is an estimate that starts from the cached availability and does not see
+ * bookings on other instances or slots released later. A day that looks full is therefore rechecked
+ * against the database, at most once per {@code full-recheck-interval}, so freed slots are offered
+ * again while the day keeps getting traffic. The booking transaction stays the authority on whether
+ * a slot is free.
+ */
+@Slf4j
+@Service
+public class BookingAdmissionService {
+
+  private final SlotInformationService slotInformationService;
+  private final BookingProperties.Admission properties;
+  private final LoadingCache<DoctorDay, Gate> gates;
+
+  public BookingAdmissionService(
+      SlotInformationService slotInformationService, BookingProperties bookingProperties) {
+    this.slotInformationService = slotInformationService;
+    this.properties = bookingProperties.getAdmission();
+    this.gates =
+        Caffeine.newBuilder().expireAfterAccess(properties.getIdleExpiry()).build(this::openGate);
+  }
+
+  /**
+   * Runs a booking for a slot once the booker is admitted to the slot's doctor-day.
+   *
+   * @param slotId the ID of the slot being booked
+   * @param booking the booking to run; it must not already be inside a transaction
+   * @return the result of the booking
+   * @throws BadRequestException if the slot ID is not a number
+   * @throws NotFoundException if the slot does not exist
+   * @throws ConflictException if every slot of the day is already booked or being booked
+   * @throws TooManyRequestsException if the booker did not get a turn within the configured wait
+   */
+  public <T> T admit(String slotId, Supplier<T> booking) {
+    if (!properties.isEnabled()) {
+      return booking.get();
+    }
+
+    SlotInformation slot = slotInformationService.getSlot(parseSlotId(slotId));
+    DoctorDay key = new DoctorDay(slot.getClinicId(), slot.getDoctorId(), slot.getSlotDate());
+    Gate gate = gates.get(key);
+    long token = gate.tokens.incrementAndGet();
+
+    if (!claim(key, gate)) {
+      log.info("Waiting room full for {} - token {} turned away", key, token);
+      throw new ConflictException(
+          "All slots for this doctor on " + slot.getSlotDate() + " are booked");
+    }
+
+    boolean booked = false;
+    try {
+      if (!gate.turns.tryAcquire(properties.getMaxWait().toMillis(), TimeUnit.MILLISECONDS)) {
+        log.info("Waiting room for {} - token {} timed out", key, token);
+        throw new TooManyRequestsException(
+            "Too many bookings in progress for this doctor, please retry", properties.getMaxWait());
+      }
+      try {
+        log.debug("Waiting room for {} - token {} admitted", key, token);
+        T result = booking.get();
+        booked = true;
+        return result;
+      } finally {
+        gate.turns.release();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TooManyRequestsException(
+          "Booking was interrupted, please retry", properties.getMaxWait());
+    } finally {
+      gate.claimed.decrementAndGet();
+      if (!booked) {
+        gate.freeSlots.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Claims a free slot of the day, rechecking the database when the gate looks full.
+   *
+   * @return whether a slot was claimed
+   */
+  private boolean claim(DoctorDay key, Gate gate) {
+    if (!gate.tryClaim()) {
+      synchronized (gate) {
+        long now = System.nanoTime();
+        if (gate.tryClaim()) {
+          return true;
+        }
+        if (now - gate.lastRecheck < properties.getFullRecheckInterval().toNanos()) {
+          return false;
+        }
+        gate.lastRecheck = now;
+        int available =
+            slotInformationService.countAvailableSlotsInDatabase(
+                key.clinicId(), key.doctorId(), key.date());
+        // Claims in progress have not booked their slot yet, so it still counts as available
+        gate.freeSlots.set(Math.max(0, available - gate.claimed.get()));
+        log.debug("Rechecked {} - {} slots available in the database", key, available);
+        if (!gate.tryClaim()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private Gate openGate(DoctorDay day) {
+    // The opening count may be stale, so a day that opens full is rechecked straight away
+    return new Gate(
+        slotInformationService.countAvailableSlots(day.clinicId(), day.doctorId(), day.date()),
+        properties.getMaxConcurrent(),
+        System.nanoTime() - properties.getFullRecheckInterval().toNanos());
+  }
+
+  private static Long parseSlotId(String slotId) {
+    try {
+      return Long.valueOf(slotId);
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("Invalid slot ID: " + slotId, e);
+    }
+  }
+
+  private record DoctorDay(Integer clinicId, String doctorId, LocalDate date) {}
+
+  /** Admission state of one doctor's day. */
+  private static final class Gate {
+    /** Free slots not yet claimed by a booker. */
+    final AtomicInteger freeSlots;
+
+    /** Turns to run the booking transaction, handed out in arrival order. */
+    final Semaphore turns;
+
+    /** Claims whose booking has not finished yet. */
+    final AtomicInteger claimed = new AtomicInteger();
+
+    /** Waiting-room tokens issued, in arrival order. */
+    final AtomicLong tokens = new AtomicLong();
+
+    /** When the free slot count was last rechecked against the database, in nanoseconds. */
+    long lastRecheck;
+
+    Gate(int freeSlots, int maxConcurrent, long lastRecheck) {
+      this.freeSlots = new AtomicInteger(freeSlots);
+      this.turns = new Semaphore(maxConcurrent, true);
+      this.lastRecheck = lastRecheck;
+    }
+
+    boolean tryClaim() {
+      if (freeSlots.getAndUpdate(free -> free > 0 ? free - 1 : free) <= 0) {
+        return false;
+      }
+      claimed.incrementAndGet();
+      return true;
+    }
+  }
+}
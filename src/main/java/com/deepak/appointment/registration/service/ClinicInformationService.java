@@ -1,9 +1,11 @@
 package com.deepak.appointment.registration.service;
 
+import com.deepak.appointment.registration.config.CacheConfig;
 import com.deepak.appointment.registration.dto.ClinicInfoDropDown;
 import com.deepak.appointment.registration.model.ClinicInformation;
 import com.deepak.appointment.registration.repository.ClinicInformationRepository;
 import java.util.List;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -28,8 +30,20 @@ public class ClinicInformationService {
         .orElseThrow(() -> new RuntimeException("Clinic not found with id: " + id));
   }
 
-  @Cacheable(value = "clinicBasicInfo", unless = "#result == null || #result.isEmpty()")
+  @Cacheable(
+      value = CacheConfig.CLINIC_INFO_CACHE,
+      key = "'allClinics'",
+      unless = "#result == null || #result.isEmpty()")
   public List<ClinicInfoDropDown> getBasicClinicInfo() {
     return clinicInformationRepository.findAllBasicInfo();
   }
+
+  /** Reloads the basic clinic information and replaces the cached copy. */
+  @CachePut(
+      value = CacheConfig.CLINIC_INFO_CACHE,
+      key = "'allClinics'",
+      unless = "#result == null || #result.isEmpty()")
+  public List<ClinicInfoDropDown> refreshBasicClinicInfo() {
+    return clinicInformationRepository.findAllBasicInfo();
+  }
 }
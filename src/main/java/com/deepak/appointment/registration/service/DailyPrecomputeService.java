@@ -0,0 +1,63 @@
+package com.deepak.appointment.registration.service;
+
+import com.deepak.appointment.registration.dto.ClinicInfoDropDown;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Prepares the day's data before clinics open, so the first requests of the day hit warm caches.
+ *
+ * <p>The job reloads the clinic and doctor dictionaries and today's slot availability into the
+ * local caches. It also creates any missing queue entries for today and tomorrow and touches
+ * today's slice of {@code queue_management}, so it is in the database buffers. Queues themselves
+ * are not cached locally because check-ins and payments update them throughout the day.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DailyPrecomputeService {
+
+  private final ClinicInformationService clinicInformationService;
+  private final DoctorInformationService doctorInformationService;
+  private final SlotInformationService slotInformationService;
+  private final QueueManagementRepository queueManagementRepository;
+
+  /** Runs the precomputation for the current day. */
+  @Scheduled(cron = "${app.precompute.cron:0 45 7 * * *}")
+  public void precomputeToday() {
+    precompute(LocalDate.now());
+  }
+
+  /**
+   * Warms the caches and queue skeleton for a day.
+   *
+   * @param date the day to prepare
+   */
+  public void precompute(LocalDate date) {
+    long start = System.currentTimeMillis();
+
+    List<ClinicInfoDropDown> clinics = clinicInformationService.refreshBasicClinicInfo();
+    for (ClinicInfoDropDown clinic : clinics) {
+      doctorInformationService.refreshDoctorsForClinic(clinic.getClinicId());
+    }
+
+    int doctorDays = slotInformationService.precomputeAvailability(date);
+
+    int created = queueManagementRepository.insertMissingQueueEntries(date, date.plusDays(1));
+    long queueEntries = queueManagementRepository.countByQueueDate(date);
+
+    log.info(
+        "Precomputed {} - clinics: {}, doctor-days: {}, queue entries created: {}, queued: {}, took {} ms",
+        date,
+        clinics.size(),
+        doctorDays,
+        created,
+        queueEntries,
+        System.currentTimeMillis() - start);
+  }
+}
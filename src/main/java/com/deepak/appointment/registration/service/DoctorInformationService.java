@@ -1,9 +1,11 @@
 package com.deepak.appointment.registration.service;
 
+import com.deepak.appointment.registration.config.CacheConfig;
 import com.deepak.appointment.registration.dto.DoctorInfoDropDown;
 import com.deepak.appointment.registration.repository.DoctorInformationRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
@@ -14,10 +16,19 @@ public class DoctorInformationService {
   private final DoctorInformationRepository doctorInformationRepository;
 
   @Cacheable(
-      value = "doctorsByClinic",
+      value = CacheConfig.CLINIC_DOCTORS_CACHE,
       key = "#clinicId",
       unless = "#result == null || #result.isEmpty()")
   public List<DoctorInfoDropDown> getDoctorsForClinic(Integer clinicId) {
     return doctorInformationRepository.findDoctorsByClinicId(clinicId);
   }
+
+  /** Reloads the doctors of a clinic and replaces the cached copy. */
+  @CachePut(
+      value = CacheConfig.CLINIC_DOCTORS_CACHE,
+      key = "#clinicId",
+      unless = "#result == null || #result.isEmpty()")
+  public List<DoctorInfoDropDown> refreshDoctorsForClinic(Integer clinicId) {
+    return doctorInformationRepository.findDoctorsByClinicId(clinicId);
+  }
 }
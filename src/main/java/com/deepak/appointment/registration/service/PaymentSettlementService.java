@@ -0,0 +1,274 @@
+package com.deepak.appointment.registration.service;
+
+import com.deepak.appointment.registration.dto.PaymentSettlementReport;
+import com.deepak.appointment.registration.dto.PaymentSettlementReport.Outcome;
+import com.deepak.appointment.registration.dto.PaymentSettlementReport.RowResult;
+import com.deepak.appointment.registration.dto.PaymentSettlementRow;
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.appointment.registration.model.PaymentType;
+import com.deepak.appointment.registration.model.QueueManagement;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import com.deepak.appointment.registration.repository.QueueManagementRepositoryCustom.PaymentUpdate;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reconciles payment gateway settlement files against {@code queue_management}.
+ *
+ * <p>The file is streamed in chunks. For each chunk the matching queue entries are loaded with two
+ * {@code IN} queries and indexed in hash maps by transaction ID and appointment ID; every row is
+ * then probed against those maps and the resulting updates are written with JDBC batches.
+ */
+@Slf4j
+@Service
+public class PaymentSettlementService {
+
+  public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+  static final int CHUNK_SIZE = 1000;
+
+  private final QueueManagementRepository queueManagementRepository;
+  private final ObjectReader ndjsonReader;
+  private final ObjectReader csvReader;
+
+  public PaymentSettlementService(QueueManagementRepository queueManagementRepository) {
+    this.queueManagementRepository = queueManagementRepository;
+    this.ndjsonReader =
+        new ObjectMapper()
+            .readerFor(PaymentSettlementRow.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.csvReader =
+        new CsvMapper()
+            .readerFor(PaymentSettlementRow.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  /**
+   * Ingests a settlement file and applies every matched payment to its queue entry.
+   *
+   * @param body the settlement file contents
+   * @param contentType {@code text/csv} or {@code application/x-ndjson}
+   * @return the per-row reconciliation report
+   * @throws BadRequestException if the content type is unsupported or the file is malformed
+   */
+  @Transactional
+  public PaymentSettlementReport ingest(InputStream body, MediaType contentType) {
+    ObjectReader reader = readerFor(contentType);
+    PaymentSettlementReport report = new PaymentSettlementReport();
+    Set<String> seenTransactions = new HashSet<>();
+
+    try (MappingIterator<PaymentSettlementRow> rows = reader.readValues(body)) {
+      List<ParsedRow> chunk = new ArrayList<>(CHUNK_SIZE);
+      long rowNumber = 0;
+      while (rows.hasNextValue()) {
+        chunk.add(parse(++rowNumber, rows.nextValue()));
+        if (chunk.size() == CHUNK_SIZE) {
+          reconcile(chunk, seenTransactions, report);
+          chunk.clear();
+        }
+      }
+      reconcile(chunk, seenTransactions, report);
+    } catch (IOException e) {
+      throw new BadRequestException("Malformed settlement file: " + e.getMessage(), e);
+    }
+
+    log.info(
+        "Settlement file processed - rows: {}, updated: {}, unmatched: {}, invalid: {}, duplicates: {}",
+        report.getTotalRows(),
+        report.getUpdated(),
+        report.getUnmatched(),
+        report.getInvalid(),
+        report.getDuplicates());
+    return report;
+  }
+
+  private ObjectReader readerFor(MediaType contentType) {
+    if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+      return ndjsonReader;
+    }
+    if (contentType != null && contentType.isCompatibleWith(TEXT_CSV)) {
+      return csvReader;
+    }
+    throw new BadRequestException("Unsupported settlement file type: " + contentType);
+  }
+
+  private void reconcile(
+      List<ParsedRow> chunk, Set<String> seenTransactions, PaymentSettlementReport report) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+
+    // Build side: load every queue entry the chunk could refer to and index it in memory
+    Set<String> transactionIds = new HashSet<>();
+    Set<Long> appointmentIds = new HashSet<>();
+    for (ParsedRow row : chunk) {
+      if (row.error() == null) {
+        transactionIds.add(row.transactionId());
+        if (row.appointmentId() != null) {
+          appointmentIds.add(row.appointmentId());
+        }
+      }
+    }
+
+    Map<String, QueueManagement> byTransaction = new HashMap<>();
+    if (!transactionIds.isEmpty()) {
+      for (QueueManagement entry :
+          queueManagementRepository.findByAnyTransactionIdIn(transactionIds)) {
+        indexTransaction(
+            byTransaction, PaymentType.ADVANCE, entry.getTransactionIdAdvanceFee(), entry);
+        indexTransaction(
+            byTransaction,
+            PaymentType.CONSULTATION,
+            entry.getTransactionIdConsultationFee(),
+            entry);
+        indexTransaction(
+            byTransaction,
+            PaymentType.ADVANCE_REVERT,
+            entry.getTransactionIdAdvanceRevert(),
+            entry);
+      }
+    }
+    Map<Long, QueueManagement> byAppointment = new HashMap<>();
+    if (!appointmentIds.isEmpty()) {
+      for (QueueManagement entry :
+          queueManagementRepository.findByAppointmentIdIn(appointmentIds)) {
+        byAppointment.putIfAbsent(entry.getAppointmentId(), entry);
+      }
+    }
+
+    // Probe side: match each row, preferring a previously recorded transaction ID
+    List<PaymentUpdate> updates = new ArrayList<>(chunk.size());
+    for (ParsedRow row : chunk) {
+      if (row.error() != null) {
+        report.add(result(row, null, Outcome.INVALID, row.error()));
+        continue;
+      }
+      String key = transactionKey(row.paymentType(), row.transactionId());
+      if (!seenTransactions.add(key)) {
+        report.add(result(row, null, Outcome.DUPLICATE, "Transaction repeated in file"));
+        continue;
+      }
+      QueueManagement entry = byTransaction.get(key);
+      if (entry == null && row.appointmentId() != null) {
+        entry = byAppointment.get(row.appointmentId());
+      }
+      if (entry == null) {
+        report.add(result(row, null, Outcome.UNMATCHED, "No queue entry for transaction"));
+        continue;
+      }
+      updates.add(
+          new PaymentUpdate(
+              entry.getQueueManagementId(),
+              row.paymentType(),
+              row.transactionId(),
+              row.successful(),
+              row.amount()));
+      report.add(result(row, entry.getQueueManagementId(), Outcome.UPDATED, null));
+    }
+
+    if (!updates.isEmpty()) {
+      queueManagementRepository.applyPaymentUpdates(updates);
+    }
+  }
+
+  private static void indexTransaction(
+      Map<String, QueueManagement> index,
+      PaymentType type,
+      String transactionId,
+      QueueManagement entry) {
+    if (transactionId != null) {
+      index.put(transactionKey(type, transactionId), entry);
+    }
+  }
+
+  private static String transactionKey(PaymentType type, String transactionId) {
+    return type.name() + ':' + transactionId;
+  }
+
+  private static RowResult result(
+      ParsedRow row, Integer queueManagementId, Outcome outcome, String message) {
+    return new RowResult(
+        row.rowNumber(),
+        row.transactionId(),
+        row.appointmentId(),
+        queueManagementId,
+        outcome,
+        message);
+  }
+
+  private static ParsedRow parse(long rowNumber, PaymentSettlementRow raw) {
+    String transactionId = trimToNull(raw.getTransactionId());
+    Long appointmentId = null;
+    PaymentType paymentType = null;
+    boolean successful = false;
+    Double amount = null;
+    String error = null;
+
+    try {
+      if (transactionId == null) {
+        error = "transactionId is required";
+      }
+      String appointment = trimToNull(raw.getAppointmentId());
+      if (appointment != null) {
+        appointmentId = Long.valueOf(appointment);
+      }
+      String type = trimToNull(raw.getPaymentType());
+      if (type == null) {
+        error = error != null ? error : "paymentType is required";
+      } else {
+        paymentType = PaymentType.valueOf(type.toUpperCase(Locale.ROOT));
+      }
+      String status = trimToNull(raw.getStatus());
+      if ("SUCCESS".equalsIgnoreCase(status)) {
+        successful = true;
+      } else if (!"FAILED".equalsIgnoreCase(status)) {
+        error = error != null ? error : "status must be SUCCESS or FAILED";
+      }
+      String rawAmount = trimToNull(raw.getAmount());
+      if (rawAmount != null) {
+        amount = Double.valueOf(rawAmount);
+      }
+    } catch (IllegalArgumentException e) {
+      error = "Invalid value: " + e.getMessage();
+    }
+
+    return new ParsedRow(
+        rowNumber, transactionId, appointmentId, paymentType, successful, amount, error);
+  }
+
+  private static String trimToNull(String value) {
+    if (value == null) {
+      return null;
+    }
+    String trimmed = value.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  /** A settlement row after type conversion; {@code error} is set when the row is unusable. */
+  private record ParsedRow(
+      long rowNumber,
+      String transactionId,
+      Long appointmentId,
+      PaymentType paymentType,
+      boolean successful,
+      Double amount,
+      String error) {}
+}
@@ -0,0 +1,84 @@
+package com.deepak.appointment.registration.service;
+
+import com.deepak.appointment.registration.config.QueueProperties;
+import com.deepak.appointment.registration.dto.QueuePosition;
+import com.deepak.appointment.registration.model.QueueManagement;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for reading per-day doctor queues and archiving past days.
+ *
+ * <p>Queue entries are keyed by the day the patient is seen, so a day's queue is a single range of
+ * the {@code (doctor_id, queue_date)} index. Past days are moved to {@code
+ * queue_management_archive} nightly, keeping {@code queue_management} limited to recent and
+ * upcoming days.
+ */
+@Slf4j
+@Service
+public class QueueManagementService {
+
+  private final QueueManagementRepository queueManagementRepository;
+  private final QueueProperties.Archive archiveProperties;
+
+  public QueueManagementService(
+      QueueManagementRepository queueManagementRepository, QueueProperties queueProperties) {
+    this.queueManagementRepository = queueManagementRepository;
+    this.archiveProperties = queueProperties.getArchive();
+  }
+
+  /**
+   * Retrieves a doctor's queue for a day.
+   *
+   * @param doctorId the doctor ID
+   * @param date the day of the queue
+   * @return the queue entries that are not cancelled, in queue order
+   */
+  @Transactional(readOnly = true)
+  public List<QueueManagement> getDoctorQueue(String doctorId, LocalDate date) {
+    log.debug("Fetching queue for doctor ID: {} on {}", doctorId, date);
+    return queueManagementRepository.findDoctorQueue(doctorId, date);
+  }
+
+  /**
+   * Retrieves where a patient stands in each doctor queue from a day on.
+   *
+   * @param patientId the patient ID
+   * @param from the earliest queue day to include
+   * @return the patient's queue positions, by day and queue number
+   */
+  @Transactional(readOnly = true)
+  public List<QueuePosition> getQueuePositions(Long patientId, LocalDate from) {
+    log.debug("Fetching queue positions for patient ID: {} from {}", patientId, from);
+    return queueManagementRepository.findQueuePositionsByPatientId(patientId, from);
+  }
+
+  /**
+   * Moves queue entries older than the retention period to the archive table in chunks, so each
+   * transaction only locks a bounded range of rows.
+   *
+   * @return the number of entries archived
+   */
+  @Scheduled(cron = "${app.queue.archive.cron:0 30 2 * * *}")
+  public int archivePastQueues() {
+    if (!archiveProperties.isEnabled()) {
+      return 0;
+    }
+    LocalDate cutoff = LocalDate.now().minusDays(archiveProperties.getRetentionDays());
+    int total = 0;
+    int archived;
+    do {
+      archived =
+          queueManagementRepository.archiveQueueEntriesBefore(
+              cutoff, archiveProperties.getChunkSize());
+      total += archived;
+    } while (archived == archiveProperties.getChunkSize());
+    log.info("Archived {} queue entries dated before {}", total, cutoff);
+    return total;
+  }
+}
@@ -0,0 +1,127 @@
+package com.deepak.appointment.registration.service;
+
+import com.deepak.appointment.registration.config.QueueProperties;
+import com.deepak.appointment.registration.model.QueueManagement;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Buffers queue entries created while booking appointments and inserts them in JDBC batches after
+ * the booking transaction commits.
+ *
+ * <p>Buffer space is reserved inside the booking transaction, so a booking either gets a guaranteed
+ * place in the buffer or falls back to a synchronous insert. Because the buffer lives in memory,
+ * committed appointments are the durable record: a reconciliation job creates any queue entry that
+ * is still missing (for example after a crash) for appointments in the next few days, so every
+ * entry exists before the doctor's session starts.
+ */
+@Slf4j
+@Service
+public class QueueWriteBehindService {
+
+  private final QueueManagementRepository queueManagementRepository;
+  private final QueueProperties.WriteBehind properties;
+  private final BlockingQueue<QueueManagement> buffer;
+  private final Semaphore capacity;
+  private final List<QueueManagement> pending = new ArrayList<>();
+
+  public QueueWriteBehindService(
+      QueueManagementRepository queueManagementRepository, QueueProperties queueProperties) {
+    this.queueManagementRepository = queueManagementRepository;
+    this.properties = queueProperties.getWriteBehind();
+    this.buffer = new ArrayBlockingQueue<>(properties.getCapacity());
+    this.capacity = new Semaphore(properties.getCapacity());
+  }
+
+  /**
+   * Schedules a queue entry to be inserted once the current transaction commits.
+   *
+   * @param entry the queue entry to insert
+   * @return {@code true} if the entry was buffered, or {@code false} if write-behind is disabled,
+   *     no transaction is active or the buffer is full, in which case the caller must save the
+   *     entry itself
+   */
+  public boolean enqueueAfterCommit(QueueManagement entry) {
+    if (!properties.isEnabled()
+        || !TransactionSynchronizationManager.isSynchronizationActive()
+        || !capacity.tryAcquire()) {
+      return false;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+              // Space was reserved before commit, so this cannot fail
+              buffer.add(entry);
+            } else {
+              capacity.release();
+            }
+          }
+        });
+    return true;
+  }
+
+  /**
+   * Inserts buffered entries in batches; entries are retried on the next run if the insert fails.
+   */
+  @Scheduled(fixedDelayString = "${app.queue.write-behind.flush-interval:200ms}")
+  public synchronized void flush() {
+    while (true) {
+      if (pending.isEmpty()) {
+        buffer.drainTo(pending, properties.getBatchSize());
+      }
+      if (pending.isEmpty()) {
+        return;
+      }
+      try {
+        int inserted = queueManagementRepository.insertQueueEntries(List.copyOf(pending));
+        log.debug("Flushed {} buffered queue entries, {} inserted", pending.size(), inserted);
+      } catch (DataAccessException e) {
+        log.error("Failed to flush {} buffered queue entries, will retry", pending.size(), e);
+        return;
+      }
+      capacity.release(pending.size());
+      pending.clear();
+    }
+  }
+
+  /** Creates queue entries missing for active appointments in the upcoming days. */
+  @Scheduled(
+      initialDelayString = "${app.queue.write-behind.reconcile-interval:1m}",
+      fixedDelayString = "${app.queue.write-behind.reconcile-interval:1m}")
+  public void reconcile() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    LocalDate today = LocalDate.now();
+    int created =
+        queueManagementRepository.insertMissingQueueEntries(
+            today, today.plusDays(properties.getReconcileDays() - 1L));
+    if (created > 0) {
+      log.warn("Reconciliation created {} missing queue entries", created);
+    }
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+    if (!pending.isEmpty()) {
+      log.warn(
+          "{} queue entries were not flushed on shutdown; reconciliation will create them",
+          pending.size());
+    }
+  }
+}
@@ -1,20 +1,43 @@
 package com.deepak.appointment.registration.service;
 
+import com.deepak.appointment.registration.config.CacheConfig;
 import com.deepak.appointment.registration.entity.SlotInformation;
+import com.deepak.appointment.registration.exception.NotFoundException;
+import com.deepak.appointment.registration.model.SlotAvailability;
 import com.deepak.appointment.registration.repository.SlotInformationRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class SlotInformationService {
 
+  /** Slots remembered by ID, enough for every slot of a few days across all doctors. */
+  private static final int MAX_INDEXED_SLOTS = 100_000;
+
   private final SlotInformationRepository slotInformationRepository;
+  private final Cache slotAvailabilityCache;
+
+  /**
+   * Slots by ID, filled from every snapshot that is loaded. A slot's clinic, doctor and date never
+   * change, so entries do not go stale with bookings.
+   */
+  private final Map<Long, SlotInformation> slotsById =
+      Caffeine.newBuilder().maximumSize(MAX_INDEXED_SLOTS).<Long, SlotInformation>build().asMap();
 
-  public SlotInformationService(SlotInformationRepository slotInformationRepository) {
+  public SlotInformationService(
+      SlotInformationRepository slotInformationRepository, CacheManager cacheManager) {
     this.slotInformationRepository = slotInformationRepository;
+    this.slotAvailabilityCache = cacheManager.getCache(CacheConfig.SLOT_AVAILABILITY_CACHE);
   }
 
   public List<LocalDate> getAvailableDates(Integer clinicId, String doctorId) {
@@ -23,8 +46,7 @@ public class SlotInformationService {
 
   public Map<String, List<Map<String, String>>> getAvailableSlots(
       Integer clinicId, String doctorId, LocalDate date) {
-    List<SlotInformation> slots =
-        slotInformationRepository.findAvailableSlotsByClinicDoctorAndDate(clinicId, doctorId, date);
+    List<SlotInformation> slots = availability(clinicId, doctorId, date).availableSlots();
 
     // Group slots by shift time
     return slots.stream()
@@ -38,4 +60,118 @@ public class SlotInformationService {
                             "slotId", slot.getSlotId().toString()),
                     Collectors.toList())));
   }
+
+  /**
+   * Counts a doctor's slots that are still available on a day.
+   *
+   * @param clinicId the clinic ID
+   * @param doctorId the doctor ID
+   * @param date the slot date
+   * @return the number of available slots
+   */
+  public int countAvailableSlots(Integer clinicId, String doctorId, LocalDate date) {
+    return availability(clinicId, doctorId, date).availableCount();
+  }
+
+  /**
+   * Counts a doctor's slots that are still available on a day, reading the database rather than the
+   * cached snapshot.
+   *
+   * @param clinicId the clinic ID
+   * @param doctorId the doctor ID
+   * @param date the slot date
+   * @return the number of available slots
+   */
+  public int countAvailableSlotsInDatabase(Integer clinicId, String doctorId, LocalDate date) {
+    return slotInformationRepository.countAvailableSlotsByClinicDoctorAndDate(
+        clinicId, doctorId, date);
+  }
+
+  /**
+   * Retrieves a slot, from the slots of the cached snapshots when it is in one, so bookers of a day
+   * that is already loaded do not touch the database. Only use it for the slot's clinic, doctor and
+   * date, which never change; whether it is available is not kept current.
+   *
+   * @param slotId the slot ID
+   * @return the slot
+   * @throws NotFoundException if the slot does not exist
+   */
+  public SlotInformation getSlot(Long slotId) {
+    SlotInformation slot = slotsById.get(slotId);
+    if (slot != null) {
+      return slot;
+    }
+    slot =
+        slotInformationRepository
+            .findById(slotId)
+            .orElseThrow(() -> new NotFoundException("Slot not found with ID: " + slotId));
+    slotsById.put(slotId, slot);
+    return slot;
+  }
+
+  private SlotAvailability availability(Integer clinicId, String doctorId, LocalDate date) {
+    return slotAvailabilityCache.get(
+        SlotAvailability.key(clinicId, doctorId, date),
+        () ->
+            snapshot(
+                slotInformationRepository.findAvailableSlotsByClinicDoctorAndDate(
+                    clinicId, doctorId, date)));
+  }
+
+  private SlotAvailability snapshot(List<SlotInformation> availableSlots) {
+    availableSlots.forEach(slot -> slotsById.put(slot.getSlotId(), slot));
+    return new SlotAvailability(availableSlots);
+  }
+
+  /**
+   * Loads the available slots of every doctor for a day into the slot availability cache, replacing
+   * any existing snapshots for that day.
+   *
+   * @param date the slot date
+   * @return the number of doctor-days cached
+   */
+  public int precomputeAvailability(LocalDate date) {
+    Map<String, List<SlotInformation>> byDoctor = new LinkedHashMap<>();
+    for (SlotInformation slot : slotInformationRepository.findAvailableSlotsByDate(date)) {
+      byDoctor
+          .computeIfAbsent(
+              SlotAvailability.key(slot.getClinicId(), slot.getDoctorId(), date),
+              key -> new ArrayList<>())
+          .add(slot);
+    }
+    byDoctor.forEach((key, slots) -> slotAvailabilityCache.put(key, snapshot(slots)));
+    return byDoctor.size();
+  }
+
+  /**
+   * Removes a booked slot from its cached snapshot once the current transaction commits.
+   *
+   * @param slot the slot that was booked
+   */
+  public void markSlotBooked(SlotInformation slot) {
+    afterCommit(
+        () -> {
+          SlotAvailability availability =
+              slotAvailabilityCache.get(
+                  SlotAvailability.key(slot.getClinicId(), slot.getDoctorId(), slot.getSlotDate()),
+                  SlotAvailability.class);
+          if (availability != null) {
+            availability.markBooked(slot.getSlotId());
+          }
+        });
+  }
+
+  private static void afterCommit(Runnable update) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              update.run();
+            }
+          });
+    } else {
+      update.run();
+    }
+  }
 }
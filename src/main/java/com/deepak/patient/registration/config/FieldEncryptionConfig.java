@@ -0,0 +1,15 @@
+package com.deepak.patient.registration.config;
+
+import com.deepak.patient.registration.security.FieldEncryption;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Creates the {@link FieldEncryption} of PHI columns from the configured keys. */
+@Configuration
+public class FieldEncryptionConfig {
+
+  @Bean
+  public FieldEncryption fieldEncryption(PatientProperties patientProperties) {
+    return new FieldEncryption(patientProperties.getEncryption());
+  }
+}
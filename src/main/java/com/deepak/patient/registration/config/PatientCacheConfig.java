@@ -0,0 +1,50 @@
+package com.deepak.patient.registration.config;
+
+import com.deepak.appointment.registration.config.CacheProperties;
+import com.deepak.patient.registration.service.PatientCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the caches behind {@link PatientCache}. They are picked up by the application's cache
+ * manager along with every other {@link org.springframework.cache.Cache} bean, and sized by the
+ * {@code app.cache.specs.*} settings like the other caches.
+ */
+@Configuration
+public class PatientCacheConfig {
+
+  public static final String PATIENT_CACHE = "patients";
+  public static final String PATIENT_PHONE_INDEX_CACHE = "patientPhoneIndex";
+
+  @Bean
+  public CaffeineCache patientCacheStore(CacheProperties cacheProperties) {
+    CacheProperties.CacheSpec spec = cacheProperties.getSpec(PATIENT_CACHE);
+    Caffeine<Object, Object> builder =
+        Caffeine.newBuilder()
+            .expireAfterWrite(spec.getTtl())
+            .initialCapacity(spec.getInitialCapacity())
+            .recordStats();
+    if (spec.getMaxWeight() != null) {
+      builder.maximumWeight(spec.getMaxWeight()).weigher(PatientCache::weigh);
+    } else {
+      builder.maximumSize(spec.getMaxSize());
+    }
+    return new CaffeineCache(PATIENT_CACHE, builder.build(), false);
+  }
+
+  @Bean
+  public CaffeineCache patientPhoneIndexCacheStore(CacheProperties cacheProperties) {
+    CacheProperties.CacheSpec spec = cacheProperties.getSpec(PATIENT_PHONE_INDEX_CACHE);
+    return new CaffeineCache(
+        PATIENT_PHONE_INDEX_CACHE,
+        Caffeine.newBuilder()
+            .expireAfterWrite(spec.getTtl())
+            .initialCapacity(spec.getInitialCapacity())
+            .maximumSize(spec.getMaxSize())
+            .recordStats()
+            .build(),
+        false);
+  }
+}
@@ -0,0 +1,225 @@
+package com.deepak.patient.registration.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Settings for patient accounts, bound from {@code app.patient.*} properties. */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.patient")
+public class PatientProperties {
+
+  private BulkImport bulkImport = new BulkImport();
+
+  private PasswordHashing passwordHashing = new PasswordHashing();
+
+  private LastLogin lastLogin = new LastLogin();
+
+  private Lockout lockout = new Lockout();
+
+  private BatchFetch batchFetch = new BatchFetch();
+
+  private Search search = new Search();
+
+  private Deduplication deduplication = new Deduplication();
+
+  private Archive archive = new Archive();
+
+  private MedicalInfoStorage medicalInfoStorage = new MedicalInfoStorage();
+
+  private Encryption encryption = new Encryption();
+
+  private StorageMigration storageMigration = new StorageMigration();
+
+  /** Bulk patient import. */
+  @Data
+  public static class BulkImport {
+    /** Number of rows hashed and inserted together. */
+    private int chunkSize = 500;
+  }
+
+  /** Pool that runs every password hash and verification. */
+  @Data
+  public static class PasswordHashing {
+    /** Threads hashing passwords; {@code 0} means one per available processor. */
+    private int threads = 0;
+
+    /** Hashes allowed to wait for a thread before callers are turned away. */
+    private int queueCapacity = 32;
+
+    /** Retry-After sent to callers turned away because the queue is full. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /** BCrypt cost; {@code 0} means calibrate it against {@code target-latency} at startup. */
+    private int strength = 0;
+
+    /** Time one hash should take on this hardware when the cost is calibrated. */
+    private Duration targetLatency = Duration.ofMillis(80);
+
+    /** Lowest cost calibration may choose, even if a hash then takes longer than the target. */
+    private int minStrength = 10;
+
+    /** Highest cost calibration may choose. */
+    private int maxStrength = 14;
+  }
+
+  /** Write-behind of last-login timestamps. */
+  @Data
+  public static class LastLogin {
+    /** Whether logins are recorded in memory and flushed in batches rather than written inline. */
+    private boolean enabled = true;
+
+    /** Maximum number of buffered patients; further logins are written inline once it is full. */
+    private int capacity = 100_000;
+
+    /** Delay between flushes of the buffer. */
+    private Duration flushInterval = Duration.ofSeconds(5);
+  }
+
+  /** Lockout of accounts after repeated failed logins. */
+  @Data
+  public static class Lockout {
+    /** Whether failed logins are counted and accounts locked. */
+    private boolean enabled = true;
+
+    /** Consecutive failed logins that lock an account. */
+    private int maxFailedAttempts = 5;
+
+    /** How long an account stays locked; failures older than this are forgotten. */
+    private Duration lockDuration = Duration.ofHours(1);
+
+    /** Maximum number of phone numbers tracked in memory. */
+    private int maxTrackedNumbers = 100_000;
+
+    /** Delay between writes of changed attempt counts to the database. */
+    private Duration flushInterval = Duration.ofSeconds(5);
+  }
+
+  /** Lookup of many patient summaries in one request. */
+  @Data
+  public static class BatchFetch {
+    /** Maximum number of IDs accepted in one request. */
+    private int maxIds = 100;
+  }
+
+  /** In-memory trigram index answering patient search by name, email and phone number. */
+  @Data
+  public static class Search {
+    /**
+     * Whether searches use the index; otherwise they are prefix queries on indexed columns. Off by
+     * default because the index holds every searchable field in the heap.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Most patients indexed; above it the index is dropped and searches use the database. A million
+     * patients take about 320 MB of heap.
+     */
+    private int maxPatients = 1_000_000;
+
+    /** Share of the query's trigrams a patient must have to be returned as a fuzzy match. */
+    private double minSimilarity = 0.4;
+
+    /** Maximum number of results returned by one search. */
+    private int maxResults = 50;
+
+    /** When to rebuild the index from the database, dropping stale entries. */
+    private String rebuildCron = "0 45 3 * * *";
+  }
+
+  /** Detection of patients registered more than once under different phone numbers. */
+  @Data
+  public static class Deduplication {
+    /** Whether the scheduled scan runs; on-demand scans are always allowed. */
+    private boolean enabled = true;
+
+    /** When the scheduled scan runs. */
+    private String scanCron = "0 0 4 * * *";
+
+    /** Lowest score, between 0 and 1, for a pair of patients to be reported. */
+    private double minScore = 0.85;
+
+    /** Blocks with more patients than this are skipped, as comparing them is quadratic. */
+    private int maxBlockSize = 1_000;
+
+    /** Maximum number of pairs kept from one scan, highest scores first. */
+    private int maxCandidates = 10_000;
+
+    /** Threads scoring pairs; {@code 0} means one per available processor. */
+    private int parallelism = 0;
+
+    /**
+     * Passes a scan makes over the patients, each holding only the patients whose name codes fall
+     * in it; more passes use less memory but read the table more often.
+     */
+    private int partitions = 4;
+  }
+
+  /** Nightly archival of deleted patients from {@code patients}. */
+  @Data
+  public static class Archive {
+    /** Whether deleted patients are moved to {@code patients_archive}. */
+    private boolean enabled = true;
+
+    /** Days a deleted patient stays in {@code patients} before it is archived. */
+    private int retentionDays = 30;
+
+    /**
+     * Days without a login after which an active patient is archived too; {@code 0} archives only
+     * deleted patients.
+     */
+    private int dormantDays = 0;
+
+    /** Maximum number of patients moved per transaction. */
+    private int chunkSize = 500;
+
+    /** When the archival job runs. */
+    private String cron = "0 30 3 * * *";
+  }
+
+  /** Storage format of {@code medical_info}, which grows large for chronic patients. */
+  @Data
+  public static class MedicalInfoStorage {
+    /** Whether medical info is written deflated to {@code medical_info_packed} instead of JSON. */
+    private boolean packed = false;
+
+    /** Documents with less JSON than this many characters stay as text, as they barely shrink. */
+    private int minPackedLength = 512;
+  }
+
+  /** AES-GCM encryption of {@code medical_info} and {@code insurance_details}. */
+  @Data
+  public static class Encryption {
+    /** Whether those columns are encrypted when written; encrypted rows are read either way. */
+    private boolean enabled = false;
+
+    /** ID of the key new values are encrypted with. */
+    private String activeKeyId = "";
+
+    /** Base64 256-bit AES keys by ID; keep a retired key until no row is encrypted with it. */
+    private Map<String, String> keys = new HashMap<>();
+
+    /** Base64 256-bit HMAC key of {@code phone_number_hash}; changing it invalidates the index. */
+    private String blindIndexKey = "";
+
+    /** Whether lookups by phone number use {@code phone_number_hash}; enable once it is filled. */
+    private boolean blindIndexLookups = false;
+  }
+
+  /** Job that rewrites existing rows after a storage setting changes. */
+  @Data
+  public static class StorageMigration {
+    /**
+     * Brings {@code medical_info} to the configured format, re-encrypts PHI under the active key
+     * and fills {@code phone_number_hash}.
+     */
+    private String cron = "-";
+
+    /** Maximum number of rows rewritten per batch. */
+    private int chunkSize = 500;
+  }
+}
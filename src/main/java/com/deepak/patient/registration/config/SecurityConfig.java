@@ -1,5 +1,7 @@
 package com.deepak.patient.registration.config;
 
+import static com.deepak.patient.registration.security.CustomUserDetailsService.STAFF_AUTHORITY;
+
 import com.deepak.patient.registration.security.JwtAuthenticationFilter;
 import jakarta.servlet.http.HttpServletResponse;
 import java.util.Arrays;
@@ -86,6 +88,21 @@ public class SecurityConfig {
                     .permitAll()
                     .requestMatchers(HttpMethod.POST, "/v1/api/patients/*/password")
                     .permitAll()
+                    // Staff endpoints acting on many patients
+                    .requestMatchers(HttpMethod.POST, "/v1/api/patients/import")
+                    .hasAuthority(STAFF_AUTHORITY)
+                    .requestMatchers(
+                        HttpMethod.GET,
+                        "/v1/api/patients/search",
+                        "/v1/api/patients/summary/by-ids")
+                    .hasAuthority(STAFF_AUTHORITY)
+                    .requestMatchers(
+                        "/v1/api/patients/duplicates",
+                        "/v1/api/patients/duplicates/scan",
+                        "/v1/api/patients/*/duplicates")
+                    .hasAuthority(STAFF_AUTHORITY)
+                    .requestMatchers("/v1/api/payments/**", "/v1/api/queue/**")
+                    .hasAuthority(STAFF_AUTHORITY)
                     // Protected endpoints
                     .requestMatchers("/v1/api/**")
                     .authenticated()
@@ -124,8 +141,10 @@ public class SecurityConfig {
             "Accept",
             "Origin",
             "Access-Control-Request-Method",
-            "Access-Control-Request-Headers"));
-    configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-XSRF-TOKEN"));
+            "Access-Control-Request-Headers",
+            "If-Match"));
+    configuration.setExposedHeaders(
+        Arrays.asList("Authorization", "Content-Type", "X-XSRF-TOKEN", "ETag"));
     configuration.setAllowCredentials(true);
     configuration.setMaxAge(3600L);
 
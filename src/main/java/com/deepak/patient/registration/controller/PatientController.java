@@ -1,23 +1,35 @@
 package com.deepak.patient.registration.controller;
 
+import com.deepak.appointment.registration.exception.PreconditionFailedException;
 import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientDashboard;
+import com.deepak.patient.registration.model.patient.PatientSummary;
+import com.deepak.patient.registration.model.patient.PatientSummaryBatch;
 import com.deepak.patient.registration.model.patient.UpdatePasswordRequest;
+import com.deepak.patient.registration.service.PatientDashboardService;
 import com.deepak.patient.registration.service.PatientService;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -27,11 +39,14 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("v1/api/patients")
 public class PatientController {
   private final PatientService patientService;
+  private final PatientDashboardService patientDashboardService;
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(PatientController.class);
 
-  public PatientController(PatientService patientService) {
+  public PatientController(
+      PatientService patientService, PatientDashboardService patientDashboardService) {
     this.patientService = patientService;
+    this.patientDashboardService = patientDashboardService;
   }
 
   @Operation(
@@ -47,7 +62,11 @@ public class PatientController {
             responseCode = "200",
             description = "Patient created successfully",
             content = @Content(schema = @Schema(implementation = Patient.class))),
-        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Phone number already registered",
+            content = @Content)
       })
   @PostMapping
   public ResponseEntity<Patient> createPatient(
@@ -152,7 +171,221 @@ public class PatientController {
       return ResponseEntity.notFound().build();
     }
     logger.info("Patient found for id: {}", id);
-    return ResponseEntity.ok(patient);
+    return ResponseEntity.ok().eTag(String.valueOf(patient.getVersion())).body(patient);
+  }
+
+  @Operation(
+      summary = "Get patient summary by id",
+      description =
+          "Retrieves the patient's ID, name, phone number and account flags without the medical,"
+              + " insurance or other detail sections. Use fields to return only some of them.",
+      parameters = {
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "id",
+            description = "ID of the patient",
+            required = true,
+            example = "1"),
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "fields",
+            description =
+                "Comma-separated fields to return: id, name, phoneNumber, usingDefaultPassword,"
+                    + " active, lastLoginAt. All fields are returned when omitted.",
+            example = "id,name")
+      },
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Patient found",
+            content = @Content(schema = @Schema(implementation = PatientSummary.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown field", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Patient not found", content = @Content)
+      })
+  @GetMapping("/summary/by-id")
+  public ResponseEntity<Map<String, Object>> getPatientSummaryById(
+      @RequestParam Long id, @RequestParam(required = false) List<String> fields) {
+    logger.info("Received request: Get patient summary by id: {}", id);
+    Long authenticatedUserId =
+        Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+    if (!authenticatedUserId.equals(id)) {
+      logger.warn(
+          "Access denied: Authenticated user {} attempted to access patient summary for id: {}",
+          authenticatedUserId,
+          id);
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    PatientSummary summary = patientService.getPatientSummaryById(id);
+    if (summary == null) {
+      logger.warn("Patient not found for id: {}", id);
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(summary.select(fields));
+  }
+
+  @Operation(
+      summary = "Get patient dashboard",
+      description =
+          "Retrieves the patient's summary, active appointments from today on with doctor, clinic"
+              + " and slot details, and where the patient stands in each doctor queue from today"
+              + " on. The three parts are loaded concurrently.",
+      parameters =
+          @io.swagger.v3.oas.annotations.Parameter(
+              name = "id",
+              description = "ID of the patient",
+              required = true,
+              example = "1"),
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Dashboard loaded",
+            content = @Content(schema = @Schema(implementation = PatientDashboard.class))),
+        @ApiResponse(responseCode = "404", description = "Patient not found", content = @Content)
+      })
+  @GetMapping("/{id}/dashboard")
+  public ResponseEntity<PatientDashboard> getPatientDashboard(@PathVariable Long id) {
+    logger.info("Received request: Get patient dashboard for id: {}", id);
+    Long authenticatedUserId =
+        Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+    if (!authenticatedUserId.equals(id)) {
+      logger.warn(
+          "Access denied: Authenticated user {} attempted to access the dashboard for id: {}",
+          authenticatedUserId,
+          id);
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(patientDashboardService.getDashboard(id));
+  }
+
+  @Operation(
+      summary = "Get patient summary by phone number",
+      description =
+          "Retrieves the patient's ID, name, phone number and account flags without the medical,"
+              + " insurance or other detail sections. Use fields to return only some of them.",
+      parameters = {
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "phoneNumber",
+            description = "Phone number of the patient",
+            required = true,
+            example = "9876543210"),
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "fields",
+            description =
+                "Comma-separated fields to return: id, name, phoneNumber, usingDefaultPassword,"
+                    + " active, lastLoginAt. All fields are returned when omitted.",
+            example = "id,name")
+      },
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Patient found",
+            content = @Content(schema = @Schema(implementation = PatientSummary.class))),
+        @ApiResponse(responseCode = "400", description = "Unknown field", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Patient not found", content = @Content)
+      })
+  @GetMapping("/summary/by-phone")
+  public ResponseEntity<Map<String, Object>> getPatientSummaryByPhoneNumber(
+      @RequestParam String phoneNumber, @RequestParam(required = false) List<String> fields) {
+    logger.info("Received request: Get patient summary by phone number: {}", phoneNumber);
+    PatientSummary summary = patientService.getPatientSummaryByPhoneNumber(phoneNumber);
+    if (summary == null) {
+      logger.warn("Patient not found for phone number: {}", phoneNumber);
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(summary.select(fields));
+  }
+
+  @Operation(
+      summary = "Get patient summaries by ids",
+      description =
+          "Retrieves the summaries of many patients in one request, in the order requested."
+              + " IDs with no patient are listed in missingIds. Use fields to return only some of"
+              + " the summary fields.",
+      parameters = {
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "ids",
+            description = "Comma-separated patient IDs, at most app.patient.batch-fetch.max-ids",
+            required = true,
+            example = "1,2,3"),
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "fields",
+            description =
+                "Comma-separated fields to return: id, name, phoneNumber, usingDefaultPassword,"
+                    + " active, lastLoginAt. All fields are returned when omitted.",
+            example = "id,name")
+      },
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Summaries of the patients found",
+            content =
+                @Content(
+                    schema =
+                        @Schema(
+                            type = "object",
+                            example =
+                                "{\"patients\": [{\"id\": 1, \"name\": \"Rohan\"}],"
+                                    + " \"missingIds\": [3]}"))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Too many IDs or unknown field",
+            content = @Content),
+        @ApiResponse(responseCode = "403", description = "Caller is not staff", content = @Content)
+      })
+  @GetMapping("/summary/by-ids")
+  public ResponseEntity<Map<String, Object>> getPatientSummaries(
+      @RequestParam List<Long> ids, @RequestParam(required = false) List<String> fields) {
+    logger.info("Received request: Get patient summaries for {} ids", ids.size());
+    PatientSummaryBatch batch = patientService.getPatientSummaries(ids);
+    List<Map<String, Object>> patients =
+        batch.patients().stream().map(summary -> summary.select(fields)).toList();
+    return ResponseEntity.ok(Map.of("patients", patients, "missingIds", batch.missingIds()));
+  }
+
+  @Operation(
+      summary = "Search patients",
+      description =
+          "Finds patients whose name, email or phone number contains the query, prefixes first,"
+              + " followed by close matches such as a mistyped name. Use fields to return only"
+              + " some of the summary fields.",
+      parameters = {
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "q",
+            description = "Text to search for, at least 3 characters",
+            required = true,
+            example = "rohan"),
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "limit",
+            description = "Maximum number of results, at most app.patient.search.max-results",
+            example = "20"),
+        @io.swagger.v3.oas.annotations.Parameter(
+            name = "fields",
+            description =
+                "Comma-separated fields to return: id, name, phoneNumber, usingDefaultPassword,"
+                    + " active, lastLoginAt. All fields are returned when omitted.",
+            example = "id,name,phoneNumber")
+      },
+      responses = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Matching patients, best match first",
+            content = @Content(schema = @Schema(implementation = PatientSummary.class))),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Query too short or unknown field",
+            content = @Content),
+        @ApiResponse(responseCode = "403", description = "Caller is not staff", content = @Content)
+      })
+  @GetMapping("/search")
+  public ResponseEntity<List<Map<String, Object>>> searchPatients(
+      @RequestParam("q") String query,
+      @RequestParam(defaultValue = "20") int limit,
+      @RequestParam(required = false) List<String> fields) {
+    logger.info("Received request: Search patients");
+    List<Map<String, Object>> patients =
+        patientService.searchPatients(query, limit).stream()
+            .map(summary -> summary.select(fields))
+            .toList();
+    return ResponseEntity.ok(patients);
   }
 
   @Operation(
@@ -175,11 +408,20 @@ public class PatientController {
             description = "Patient updated successfully",
             content = @Content(schema = @Schema(implementation = Patient.class))),
         @ApiResponse(responseCode = "404", description = "Patient not found", content = @Content),
-        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content),
+        @ApiResponse(
+            responseCode = "412",
+            description = "Patient modified since the ETag in If-Match",
+            content = @Content)
       })
   @PutMapping("/{id}")
   public ResponseEntity<Patient> updatePatient(
       @PathVariable Long id,
+      @io.swagger.v3.oas.annotations.Parameter(
+              description =
+                  "ETag from by-id; the update is rejected with 412 if the patient has changed since")
+          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+          String ifMatch,
       @io.swagger.v3.oas.annotations.parameters.RequestBody(
               description = "Patient object with fields to update")
           @org.springframework.web.bind.annotation.RequestBody
@@ -205,14 +447,88 @@ public class PatientController {
     }
     logger.debug("Update request data: {}", patient);
 
-    Patient updatedPatient = patientService.updatePatient(id, patient);
+    Patient updatedPatient = patientService.updatePatient(id, patient, parseIfMatch(ifMatch));
     if (updatedPatient == null) {
       logger.warn("Patient not found for update with id: {}", id);
       return ResponseEntity.notFound().build();
     }
     logger.info("Successfully updated patient with id: {}", id);
     logger.debug("Successfully updated patient with id: {}", id);
-    return ResponseEntity.ok(updatedPatient);
+    return ResponseEntity.ok()
+        .eTag(String.valueOf(updatedPatient.getVersion()))
+        .body(updatedPatient);
+  }
+
+  /**
+   * Reads the version from an {@code If-Match} header holding one ETag, as sent by by-id.
+   *
+   * @return the version, or {@code null} if the header is absent or {@code *}
+   * @throws PreconditionFailedException if the header holds anything else, as no version matches
+   */
+  private static Long parseIfMatch(String ifMatch) {
+    if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+      return null;
+    }
+    String tag = ifMatch.strip();
+    if (tag.startsWith("W/")) {
+      tag = tag.substring(2);
+    }
+    if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+      try {
+        return Long.valueOf(tag.substring(1, tag.length() - 1));
+      } catch (NumberFormatException e) {
+        // Not one of our ETags; falls through to a failed precondition
+      }
+    }
+    throw new PreconditionFailedException("If-Match does not match the patient's ETag: " + ifMatch);
+  }
+
+  @Operation(
+      summary = "Partially update patient information",
+      description =
+          "Sets or removes individual fields of the patient's profile sections, for example"
+              + " {\"personalDetails\": {\"email\": \"new@domain.com\"}}. A field set to null is"
+              + " removed; nested objects such as an address are replaced as a whole. Only the"
+              + " affected sections are written.",
+      parameters =
+          @io.swagger.v3.oas.annotations.Parameter(
+              name = "id",
+              description = "ID of the patient to update",
+              required = true,
+              example = "1"),
+      responses = {
+        @ApiResponse(
+            responseCode = "204",
+            description = "Patient updated successfully",
+            content = @Content),
+        @ApiResponse(responseCode = "404", description = "Patient not found", content = @Content),
+        @ApiResponse(responseCode = "400", description = "Invalid input", content = @Content)
+      })
+  @PatchMapping(
+      value = "/{id}",
+      consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+  public ResponseEntity<Void> patchPatient(
+      @PathVariable Long id, @org.springframework.web.bind.annotation.RequestBody JsonNode patch) {
+    logger.info("Received request: Patch patient with id: {}", id);
+    // Get the authenticated user's ID from the security context
+    Long authenticatedUserId =
+        Long.valueOf(SecurityContextHolder.getContext().getAuthentication().getName());
+
+    // Check if the requested ID matches the authenticated user's ID
+    if (!authenticatedUserId.equals(id)) {
+      logger.warn(
+          "Access denied: Authenticated user {} attempted to patch patient data for id: {}",
+          authenticatedUserId,
+          id);
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    if (!patientService.patchPatient(id, patch)) {
+      logger.warn("Patient not found for patch with id: {}", id);
+      return ResponseEntity.notFound().build();
+    }
+    logger.info("Successfully patched patient with id: {}", id);
+    return ResponseEntity.noContent().build();
   }
 
   @Operation(
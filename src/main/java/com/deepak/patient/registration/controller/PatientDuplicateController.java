@@ -0,0 +1,102 @@
+package com.deepak.patient.registration.controller;
+
+import com.deepak.patient.registration.model.patient.DuplicateCandidate;
+import com.deepak.patient.registration.model.patient.DuplicateScanReport;
+import com.deepak.patient.registration.service.DuplicatePatientService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Controller for reviewing patients registered more than once. */
+@Tag(name = "Patients", description = "Operations related to patient registration and management")
+@RestController
+@RequestMapping(value = "v1/api/patients", produces = MediaType.APPLICATION_JSON_VALUE)
+public class PatientDuplicateController {
+
+  private static final Logger logger = LoggerFactory.getLogger(PatientDuplicateController.class);
+
+  private final DuplicatePatientService duplicatePatientService;
+
+  public PatientDuplicateController(DuplicatePatientService duplicatePatientService) {
+    this.duplicatePatientService = duplicatePatientService;
+  }
+
+  /**
+   * Returns the report of the latest duplicate scan.
+   *
+   * @return the report, or no content if no scan has completed yet
+   */
+  @Operation(
+      summary = "Get probable duplicate patients",
+      description =
+          "Returns the pairs of patients the latest scan found to be probably the same person, "
+              + "highest score first, for staff to review and merge.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Latest scan report",
+        content = @Content(schema = @Schema(implementation = DuplicateScanReport.class))),
+    @ApiResponse(responseCode = "204", description = "No scan has completed yet"),
+    @ApiResponse(responseCode = "403", description = "Caller is not staff")
+  })
+  @GetMapping("/duplicates")
+  public ResponseEntity<DuplicateScanReport> getDuplicates() {
+    logger.info("GET /v1/api/patients/duplicates called");
+    DuplicateScanReport report = duplicatePatientService.getLastReport();
+    return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+  }
+
+  /**
+   * Scans every patient for probable duplicates now.
+   *
+   * @return the scan report
+   */
+  @Operation(
+      summary = "Scan for duplicate patients",
+      description =
+          "Compares patients with similar names and the same birth year, or postal code when the "
+              + "birthdate is unknown, and replaces the latest report. Scans also run nightly.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "Scan completed",
+        content = @Content(schema = @Schema(implementation = DuplicateScanReport.class))),
+    @ApiResponse(responseCode = "403", description = "Caller is not staff"),
+    @ApiResponse(responseCode = "429", description = "Another scan is in progress")
+  })
+  @PostMapping("/duplicates/scan")
+  public ResponseEntity<DuplicateScanReport> scanForDuplicates() {
+    logger.info("POST /v1/api/patients/duplicates/scan called");
+    return ResponseEntity.ok(duplicatePatientService.scan());
+  }
+
+  /**
+   * Returns the probable duplicates of one patient found by the latest scan.
+   *
+   * @param id the patient ID
+   * @return the pairs involving the patient, highest score first
+   */
+  @Operation(summary = "Get probable duplicates of a patient")
+  @ApiResponses({
+    @ApiResponse(responseCode = "200", description = "Pairs involving the patient"),
+    @ApiResponse(responseCode = "403", description = "Caller is not staff")
+  })
+  @GetMapping("/{id}/duplicates")
+  public ResponseEntity<List<DuplicateCandidate>> getDuplicatesOf(@PathVariable Long id) {
+    logger.info("GET /v1/api/patients/{}/duplicates called", id);
+    return ResponseEntity.ok(duplicatePatientService.getDuplicatesOf(id));
+  }
+}
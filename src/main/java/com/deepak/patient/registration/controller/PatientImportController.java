@@ -0,0 +1,68 @@
+package com.deepak.patient.registration.controller;
+
+import com.deepak.patient.registration.model.patient.PatientImportReport;
+import com.deepak.patient.registration.service.PatientImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.io.InputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/** Controller for importing patients in bulk. */
+@Tag(name = "Patients", description = "Operations related to patient registration and management")
+@RestController
+@RequestMapping(value = "v1/api/patients", produces = MediaType.APPLICATION_JSON_VALUE)
+public class PatientImportController {
+
+  private static final Logger logger = LoggerFactory.getLogger(PatientImportController.class);
+
+  private final PatientImportService patientImportService;
+
+  public PatientImportController(PatientImportService patientImportService) {
+    this.patientImportService = patientImportService;
+  }
+
+  /**
+   * Streams a patient file and registers every new patient in it.
+   *
+   * @param contentType {@code text/csv} (with a header row) or {@code application/x-ndjson}
+   * @param body the raw patient file
+   * @return the per-row import report
+   */
+  @Operation(
+      summary = "Import patients in bulk",
+      description =
+          "Registers each row as a new patient whose default password is their phone number. Rows "
+              + "need a 10-digit phoneNumber and may carry name, email, birthdate (yyyy-MM-dd), sex, "
+              + "occupation, street, city, state, postalCode and country. Already registered phone "
+              + "numbers are reported as duplicates.")
+  @ApiResponses({
+    @ApiResponse(
+        responseCode = "200",
+        description = "File processed; see the per-row report for outcomes",
+        content = @Content(schema = @Schema(implementation = PatientImportReport.class))),
+    @ApiResponse(responseCode = "400", description = "Unsupported file type"),
+    @ApiResponse(responseCode = "429", description = "Another import is in progress")
+  })
+  @PostMapping(
+      value = "/import",
+      consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+  public ResponseEntity<PatientImportReport> importPatients(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+    logger.info("POST /v1/api/patients/import called with content type {}", contentType);
+    PatientImportReport report =
+        patientImportService.importPatients(body, MediaType.parseMediaType(contentType));
+    return ResponseEntity.ok(report);
+  }
+}
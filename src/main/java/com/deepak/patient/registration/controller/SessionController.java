@@ -3,6 +3,7 @@ package com.deepak.patient.registration.controller;
 import com.deepak.patient.registration.model.patient.LoginRequest;
 import com.deepak.patient.registration.model.patient.LoginResponse;
 import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientSummary;
 import com.deepak.patient.registration.model.patient.auth.RefreshToken;
 import com.deepak.patient.registration.security.TokenProvider;
 import com.deepak.patient.registration.service.BlacklistedAccessTokenService;
@@ -69,7 +70,8 @@ public class SessionController {
                     schema =
                         @Schema(
                             type = "object",
-                            example = "{\"valid\": true, \"patient\": { ... }}",
+                            example =
+                                "{\"valid\": true, \"patient\": {\"id\": 1, \"name\": \"Rohan\"}}",
                             description = "Response when token is valid"))),
         @ApiResponse(
             responseCode = "401",
@@ -113,7 +115,7 @@ public class SessionController {
       }
       String userId = tokenProvider.getUserIdFromToken(token);
       Long patientId = Long.valueOf(userId);
-      Patient patient = patientService.getPatientById(patientId);
+      PatientSummary patient = patientService.getPatientSummaryById(patientId);
       if (patient == null) {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
             .body(Map.of("valid", false, "message", "Patient not found"));
@@ -252,7 +254,11 @@ public class SessionController {
             responseCode = "200",
             description = "Login successful",
             content = @Content(schema = @Schema(implementation = LoginResponse.class))),
-        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content)
+        @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content),
+        @ApiResponse(
+            responseCode = "423",
+            description = "Account locked after too many failed logins",
+            content = @Content)
       })
   @PostMapping("/login")
   public ResponseEntity<LoginResponse> login(
@@ -1,17 +1,14 @@
 package com.deepak.patient.registration.exception;
 
-import com.deepak.patient.registration.repository.PatientRepository;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
 import java.time.LocalDateTime;
-import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
-import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
@@ -33,7 +30,6 @@ import org.springframework.web.servlet.resource.NoResourceFoundException;
  * Global exception handler for the patient registration service. Handles various types of
  * exceptions and returns appropriate HTTP responses.
  */
-@RequiredArgsConstructor
 @RestControllerAdvice
 @org.springframework.stereotype.Component("patientGlobalExceptionHandler")
 public class GlobalExceptionHandler {
@@ -42,8 +38,6 @@ public class GlobalExceptionHandler {
   private static final DateTimeFormatter FORMATTER =
       DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
-  private final PatientRepository patientRepository;
-
   @ExceptionHandler(Exception.class)
   @SuppressWarnings("CallToPrintStackTrace")
   public ResponseEntity<ErrorDetails> handleGlobalException(Exception ex, WebRequest request) {
@@ -86,28 +80,6 @@ public class GlobalExceptionHandler {
       BadCredentialsException ex, WebRequest request) {
     LOGGER.warn("Authentication failed: {}", ex.getMessage());
 
-    // Extract phone number from request body (since we use phone for login)
-    String phoneNumber = extractPhoneNumberFromRequest(request);
-
-    // Update failed login attempts if we found the phone number
-    if (phoneNumber != null && !phoneNumber.isBlank()) {
-      patientRepository
-          .findByPhoneNumber(phoneNumber)
-          .ifPresent(
-              patient -> {
-                int attempts = patient.getFailedLoginAttempts() + 1;
-                patient.setFailedLoginAttempts(attempts);
-
-                // Lock the account after too many failed attempts
-                if (attempts >= 5) { // Assuming 5 failed attempts before lockout
-                  patient.setLockedUntil(OffsetDateTime.now().plusHours(1)); // Lock for 1 hour
-                  LOGGER.warn("Account locked for phone number: {}", phoneNumber);
-                }
-
-                patientRepository.save(patient);
-              });
-    }
-
     ErrorDetails errorDetails =
         new ErrorDetails(
             LocalDateTime.now(), "Invalid phone number or password", request.getDescription(false));
@@ -193,35 +165,6 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(errorDetails, HttpStatus.NOT_FOUND);
   }
 
-  /**
-   * Extracts phone number from the web request.
-   *
-   * @param request The web request
-   * @return The extracted phone number or null if not found
-   */
-  private String extractPhoneNumberFromRequest(WebRequest request) {
-    try {
-      String body = request.getParameter("phoneNumber");
-      if (body != null) {
-        return body;
-      } else {
-        // Try to parse from request description if possible
-        String desc = request.getDescription(false);
-        if (desc.contains("phoneNumber")) {
-          int idx = desc.indexOf("phoneNumber=");
-          if (idx != -1) {
-            int end = desc.indexOf(',', idx);
-            if (end == -1) end = desc.length();
-            return desc.substring(idx + 11, end).replaceAll("[&=]", "").trim();
-          }
-        }
-      }
-    } catch (Exception ignored) {
-      // Ignore if we can't extract the phone number
-    }
-    return null;
-  }
-
   /** Error details model for consistent error responses. */
   public record ErrorDetails(LocalDateTime timestamp, String message, String details) {}
 }
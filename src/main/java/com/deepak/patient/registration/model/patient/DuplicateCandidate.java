@@ -0,0 +1,16 @@
+package com.deepak.patient.registration.model.patient;
+
+import java.util.List;
+
+/**
+ * Two patients that are probably the same person, for example registered by different clinics under
+ * different phone numbers.
+ *
+ * @param patientId the lower of the two patient IDs
+ * @param duplicateId the higher of the two patient IDs
+ * @param score how alike the two patients are, from 0 to 1
+ * @param matchedOn the personal details that matched: {@code name}, {@code birthdate}, {@code
+ *     address} and {@code sex}
+ */
+public record DuplicateCandidate(
+    Long patientId, Long duplicateId, double score, List<String> matchedOn) {}
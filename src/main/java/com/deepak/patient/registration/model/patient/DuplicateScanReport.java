@@ -0,0 +1,24 @@
+package com.deepak.patient.registration.model.patient;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Result of one scan for duplicate patients.
+ *
+ * @param completedAt when the scan finished
+ * @param patientsScanned the number of patients read
+ * @param blocks the number of blocks of two or more patients that were compared
+ * @param skippedBlocks the number of blocks too large to compare
+ * @param comparisons the number of pairs scored
+ * @param tookMillis how long the scan took
+ * @param candidates the probable duplicates, highest score first
+ */
+public record DuplicateScanReport(
+    OffsetDateTime completedAt,
+    int patientsScanned,
+    int blocks,
+    int skippedBlocks,
+    long comparisons,
+    long tookMillis,
+    List<DuplicateCandidate> candidates) {}
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.*;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -15,6 +16,7 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EqualsAndHashCode
 public class MedicalInfo {
   @Pattern(regexp = "^(A|B|AB|O)[+-]$", message = "Invalid blood group")
   @Schema(description = "Blood group of the patient", example = "B+")
@@ -5,6 +5,7 @@ import com.deepak.patient.registration.model.patient.converter.EmergencyContactC
 import com.deepak.patient.registration.model.patient.converter.InsuranceDetailsConverter;
 import com.deepak.patient.registration.model.patient.converter.MedicalInfoConverter;
 import com.deepak.patient.registration.model.patient.converter.PersonalDetailsConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.Hidden;
@@ -12,25 +13,40 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.Column;
 import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Pattern;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.SQLRestriction;
 
-/** Entity representing a patient in the system. Maps to the 'patients' table in the database. */
+/**
+ * Entity representing a patient in the system. Maps to the 'patients' table in the database.
+ * Deleted patients are kept as inactive rows until archived and are never loaded.
+ *
+ * <p>The PHI columns, {@code medical_info} and {@code insurance_details}, are mapped as stored, as
+ * encryption binds them to the patient's ID, which a converter never sees. {@link
+ * PatientEncryptionListener} decrypts them on first use and stores values set since; plaintext
+ * values are parsed on first use.
+ */
 @Entity
+@EntityListeners(PatientEncryptionListener.class)
 @Table(name = "patients", uniqueConstraints = @UniqueConstraint(columnNames = "phone_number"))
+@SQLRestriction("is_active = TRUE")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -41,6 +57,11 @@ import lombok.Setter;
 @Schema(description = "Patient entity containing all registration details")
 public class Patient {
 
+  private static final MedicalInfoConverter MEDICAL_INFO_CONVERTER = new MedicalInfoConverter();
+
+  private static final InsuranceDetailsConverter INSURANCE_DETAILS_CONVERTER =
+      new InsuranceDetailsConverter();
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   @Schema(description = "Unique identifier for the patient", example = "1")
@@ -52,13 +73,40 @@ public class Patient {
   @Schema(description = "Patient's phone number", example = "9876543210")
   private String phoneNumber;
 
+  /**
+   * HMAC of {@code phoneNumber} under the blind index key, so a patient can be found by phone
+   * number with an equality lookup that does not need the number itself.
+   */
+  @JsonIgnore
+  @Hidden
+  @Column(name = "phone_number_hash", length = 32)
+  private byte[] phoneNumberHash;
+
   @Convert(converter = PersonalDetailsConverter.class)
   @Column(columnDefinition = "json", name = "personal_details")
   @Schema(description = "Personal details of the patient")
   private PersonalDetails personalDetails;
 
-  @Convert(converter = MedicalInfoConverter.class)
+  /**
+   * {@code medicalInfo} as stored: JSON, or JSON encrypted under the patient's ID, unless it is
+   * packed. Read it with {@link #getMedicalInfo()}.
+   */
+  @JsonIgnore
+  @Hidden
   @Column(columnDefinition = "json", name = "medical_info")
+  private String storedMedicalInfo;
+
+  /**
+   * {@code medicalInfo} in the packed format, stored instead of the JSON column when {@code
+   * app.patient.medical-info-storage.packed} is set, and encrypted like it. Only unpacked when it
+   * is first read.
+   */
+  @JsonIgnore
+  @Hidden
+  @Column(columnDefinition = "mediumblob", name = "medical_info_packed")
+  private byte[] packedMedicalInfo;
+
+  @Transient
   @Schema(description = "Medical information of the patient")
   private MedicalInfo medicalInfo;
 
@@ -67,11 +115,27 @@ public class Patient {
   @Schema(description = "Emergency contact details")
   private EmergencyContact emergencyContact;
 
-  @Convert(converter = InsuranceDetailsConverter.class)
+  /**
+   * {@code insuranceDetails} as stored: JSON, or JSON encrypted under the patient's ID. Read it
+   * with {@link #getInsuranceDetails()}.
+   */
+  @JsonIgnore
+  @Hidden
   @Column(columnDefinition = "json", name = "insurance_details")
+  private String storedInsuranceDetails;
+
+  @Transient
   @Schema(description = "Insurance details of the patient")
   private InsuranceDetails insuranceDetails;
 
+  /** Decrypts the PHI columns on first use; set when Hibernate loads the patient. */
+  @Transient
+  @JsonIgnore
+  @Hidden
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private PatientEncryptionListener decryption;
+
   @Convert(converter = ClinicPreferencesConverter.class)
   @Column(columnDefinition = "json", name = "clinic_preferences")
   @Schema(description = "Clinic communication preferences")
@@ -112,6 +176,94 @@ public class Patient {
   @Schema(description = "Timestamp of the last successful login")
   private OffsetDateTime lastLoginAt;
 
+  /**
+   * Incremented by every write to the patient, and sent to clients as the ETag so updates can be
+   * made conditional on {@code If-Match}.
+   */
+  @JsonIgnore
+  @Hidden
+  @Version
+  @Builder.Default
+  @Column(name = "version", nullable = false)
+  private long version = 0;
+
+  /**
+   * Copy of {@code personalDetails.name} kept by the database as a generated column, so summaries
+   * can show the name without reading the JSON columns.
+   */
+  @JsonIgnore
+  @Hidden
+  @Column(name = "full_name", length = 50, insertable = false, updatable = false)
+  private String fullName;
+
+  /** Copy of {@code personalDetails.email} kept by the database as an indexed generated column. */
+  @JsonIgnore
+  @Hidden
+  @Column(name = "email", insertable = false, updatable = false)
+  private String email;
+
+  /**
+   * Returns the medical information, decrypting, reading or unpacking the stored copy on first use.
+   *
+   * @return the medical information, or {@code null} if there is none
+   * @throws IllegalStateException if the stored copy was encrypted for another patient or column
+   */
+  public MedicalInfo getMedicalInfo() {
+    if (medicalInfo == null && decryption != null) {
+      medicalInfo = decryption.decryptMedicalInfo(this);
+    }
+    if (medicalInfo == null && storedMedicalInfo != null) {
+      medicalInfo = MEDICAL_INFO_CONVERTER.convertToEntityAttribute(storedMedicalInfo);
+    } else if (medicalInfo == null && packedMedicalInfo != null) {
+      medicalInfo = MEDICAL_INFO_CONVERTER.convertPackedToEntityAttribute(packedMedicalInfo);
+    }
+    return medicalInfo;
+  }
+
+  /**
+   * Replaces the medical information, dropping the stored copies; the repository decides how the
+   * new value is stored.
+   *
+   * @param medicalInfo the medical information
+   */
+  public void setMedicalInfo(MedicalInfo medicalInfo) {
+    this.medicalInfo = medicalInfo;
+    this.storedMedicalInfo = null;
+    this.packedMedicalInfo = null;
+  }
+
+  /**
+   * Returns the insurance details, decrypting or reading the stored copy on first use.
+   *
+   * @return the insurance details, or {@code null} if there are none
+   * @throws IllegalStateException if the stored copy was encrypted for another patient or column
+   */
+  public InsuranceDetails getInsuranceDetails() {
+    if (insuranceDetails == null && decryption != null) {
+      insuranceDetails = decryption.decryptInsuranceDetails(this);
+    }
+    if (insuranceDetails == null && storedInsuranceDetails != null) {
+      insuranceDetails =
+          INSURANCE_DETAILS_CONVERTER.convertToEntityAttribute(storedInsuranceDetails);
+    }
+    return insuranceDetails;
+  }
+
+  /**
+   * Replaces the insurance details, dropping the stored copy.
+   *
+   * @param insuranceDetails the insurance details
+   */
+  public void setInsuranceDetails(InsuranceDetails insuranceDetails) {
+    this.insuranceDetails = insuranceDetails;
+    this.storedInsuranceDetails = null;
+  }
+
+  /** Has the encrypted stored copies decrypted by {@code decryption} when first read. */
+  void decryptWith(PatientEncryptionListener decryption) {
+    this.decryption = decryption;
+  }
+
   /** Sets the createdAt timestamp before persisting a new entity. */
   @PrePersist
   protected void onCreate() {
@@ -137,11 +289,11 @@ public class Patient {
         + ", personalDetails="
         + personalDetails
         + ", medicalInfo="
-        + medicalInfo
+        + getMedicalInfo()
         + ", emergencyContact="
         + emergencyContact
         + ", insuranceDetails="
-        + insuranceDetails
+        + getInsuranceDetails()
         + ", clinicPreferences="
         + clinicPreferences
         + ", passwordHash='[MASKED]'"
@@ -0,0 +1,9 @@
+package com.deepak.patient.registration.model.patient;
+
+/**
+ * The columns of a patient needed to authenticate them, loaded without the JSON columns.
+ *
+ * @param id the patient ID
+ * @param passwordHash the hashed password
+ */
+public record PatientCredentials(Long id, String passwordHash) {}
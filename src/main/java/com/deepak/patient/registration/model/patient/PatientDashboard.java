@@ -0,0 +1,19 @@
+package com.deepak.patient.registration.model.patient;
+
+import com.deepak.appointment.registration.dto.AppointmentResponse;
+import com.deepak.appointment.registration.dto.QueuePosition;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+/**
+ * What the app shows a patient after login, loaded in one request.
+ *
+ * @param profile the patient's identity and account flags
+ * @param upcomingAppointments the patient's active appointments from today on, soonest first
+ * @param queuePositions where the patient stands in each doctor queue from today on
+ */
+@Schema(description = "Patient profile, upcoming appointments and queue positions")
+public record PatientDashboard(
+    PatientSummary profile,
+    List<AppointmentResponse> upcomingAppointments,
+    List<QueuePosition> queuePositions) {}
@@ -0,0 +1,128 @@
+package com.deepak.patient.registration.model.patient;
+
+import com.deepak.patient.registration.model.patient.converter.InsuranceDetailsConverter;
+import com.deepak.patient.registration.model.patient.converter.MedicalInfoConverter;
+import com.deepak.patient.registration.security.FieldEncryption;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decrypts the PHI columns of a {@link Patient} loaded by Hibernate on first use, and stores values
+ * set on it since, encrypted under the patient's ID.
+ *
+ * <p>Hibernate creates its entity listeners through Spring, so the configured {@link
+ * FieldEncryption} is injected rather than looked up. On load the patient is only handed this
+ * listener, so reads that never touch its PHI, such as logins, summaries and conditional updates,
+ * do not pay for decrypting it. Values written before encryption was enabled are left for {@link
+ * Patient} to parse on first use.
+ */
+@Component
+public class PatientEncryptionListener {
+
+  private static final MedicalInfoConverter MEDICAL_INFO_CONVERTER = new MedicalInfoConverter();
+
+  private static final InsuranceDetailsConverter INSURANCE_DETAILS_CONVERTER =
+      new InsuranceDetailsConverter();
+
+  private final FieldEncryption fieldEncryption;
+
+  public PatientEncryptionListener(FieldEncryption fieldEncryption) {
+    this.fieldEncryption = fieldEncryption;
+  }
+
+  /**
+   * Lets a loaded patient decrypt its PHI columns when they are first read.
+   *
+   * @param patient the patient
+   */
+  @PostLoad
+  public void decrypt(Patient patient) {
+    patient.decryptWith(this);
+  }
+
+  /**
+   * Decrypts the medical information of a loaded patient.
+   *
+   * @param patient the patient
+   * @return the medical information, or {@code null} if it is not stored encrypted
+   * @throws IllegalStateException if the value was written for another patient or column
+   */
+  MedicalInfo decryptMedicalInfo(Patient patient) {
+    String column = PatientJsonColumn.MEDICAL_INFO.getColumn();
+    String medicalInfo = patient.getStoredMedicalInfo();
+    byte[] packedMedicalInfo = patient.getPackedMedicalInfo();
+    if (FieldEncryption.isEncrypted(medicalInfo)) {
+      return MEDICAL_INFO_CONVERTER.convertUtf8ToEntityAttribute(
+          fieldEncryption.decryptToUtf8(medicalInfo, column, patient.getId()));
+    }
+    if (FieldEncryption.isEncrypted(packedMedicalInfo)) {
+      return MEDICAL_INFO_CONVERTER.convertPackedToEntityAttribute(
+          fieldEncryption.decrypt(packedMedicalInfo, column, patient.getId()));
+    }
+    return null;
+  }
+
+  /**
+   * Decrypts the insurance details of a loaded patient.
+   *
+   * @param patient the patient
+   * @return the insurance details, or {@code null} if they are not stored encrypted
+   * @throws IllegalStateException if the value was written for another patient or column
+   */
+  InsuranceDetails decryptInsuranceDetails(Patient patient) {
+    String insuranceDetails = patient.getStoredInsuranceDetails();
+    return FieldEncryption.isEncrypted(insuranceDetails)
+        ? INSURANCE_DETAILS_CONVERTER.convertUtf8ToEntityAttribute(
+            fieldEncryption.decryptToUtf8(
+                insuranceDetails, PatientJsonColumn.INSURANCE_DETAILS.getColumn(), patient.getId()))
+        : null;
+  }
+
+  /**
+   * Stores the PHI set on a patient since it was loaded, encrypted under its ID.
+   *
+   * @param patient the patient
+   */
+  @PreUpdate
+  public void encrypt(Patient patient) {
+    if (patient.getStoredMedicalInfo() == null && patient.getPackedMedicalInfo() == null) {
+      patient.setStoredMedicalInfo(
+          fieldEncryption.encrypt(
+              PatientJsonColumn.MEDICAL_INFO.toDatabaseColumn(patient),
+              PatientJsonColumn.MEDICAL_INFO.getColumn(),
+              patient.getId()));
+    }
+    if (patient.getStoredInsuranceDetails() == null) {
+      patient.setStoredInsuranceDetails(
+          fieldEncryption.encrypt(
+              PatientJsonColumn.INSURANCE_DETAILS.toDatabaseColumn(patient),
+              PatientJsonColumn.INSURANCE_DETAILS.getColumn(),
+              patient.getId()));
+    }
+  }
+
+  /**
+   * Stores the PHI of a new patient. Its ID is only generated by the insert, so PHI can only be
+   * encrypted afterwards, which {@code PatientRepository#insertPatient} does.
+   *
+   * @param patient the patient
+   * @throws IllegalStateException if encryption is enabled and the patient has PHI
+   */
+  @PrePersist
+  public void encryptNew(Patient patient) {
+    if (fieldEncryption.isEnabled()
+        && (patient.getMedicalInfo() != null || patient.getInsuranceDetails() != null)) {
+      throw new IllegalStateException(
+          "Patients with PHI are registered through PatientRepository#insertPatient");
+    }
+    if (patient.getStoredMedicalInfo() == null && patient.getPackedMedicalInfo() == null) {
+      patient.setStoredMedicalInfo(PatientJsonColumn.MEDICAL_INFO.toDatabaseColumn(patient));
+    }
+    if (patient.getStoredInsuranceDetails() == null) {
+      patient.setStoredInsuranceDetails(
+          PatientJsonColumn.INSURANCE_DETAILS.toDatabaseColumn(patient));
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.deepak.patient.registration.model.patient;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Report returned after importing a patient file. */
+@Data
+@NoArgsConstructor
+public class PatientImportReport {
+  private int totalRows;
+  private int created;
+  private int duplicates;
+  private int invalid;
+
+  /** Why the import stopped before the end of the file, or {@code null} if it completed. */
+  private String error;
+
+  private List<RowResult> rows = new ArrayList<>();
+
+  /** Records the outcome of a single import row and updates the summary counters. */
+  public void add(RowResult result) {
+    rows.add(result);
+    totalRows++;
+    switch (result.getOutcome()) {
+      case CREATED -> created++;
+      case DUPLICATE -> duplicates++;
+      case INVALID -> invalid++;
+    }
+  }
+
+  /** Outcome of importing one row. */
+  public enum Outcome {
+    CREATED,
+    DUPLICATE,
+    INVALID
+  }
+
+  /** Per-row import result. */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RowResult {
+    private long rowNumber;
+    private String phoneNumber;
+    private Long patientId;
+    private Outcome outcome;
+    private String message;
+  }
+}
@@ -0,0 +1,28 @@
+package com.deepak.patient.registration.model.patient;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Raw row of a patient import file (CSV or NDJSON). All fields are kept as strings so that a single
+ * malformed value is reported against its row instead of aborting the whole file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PatientImportRow {
+  private String phoneNumber;
+  private String name;
+  private String email;
+  private String birthdate;
+  private String sex;
+  private String occupation;
+  private String street;
+  private String city;
+  private String state;
+  private String postalCode;
+  private String country;
+}
@@ -0,0 +1,73 @@
+package com.deepak.patient.registration.model.patient;
+
+import com.deepak.patient.registration.model.patient.converter.ClinicPreferencesConverter;
+import com.deepak.patient.registration.model.patient.converter.EmergencyContactConverter;
+import com.deepak.patient.registration.model.patient.converter.InsuranceDetailsConverter;
+import com.deepak.patient.registration.model.patient.converter.JsonConverter;
+import com.deepak.patient.registration.model.patient.converter.MedicalInfoConverter;
+import com.deepak.patient.registration.model.patient.converter.PersonalDetailsConverter;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** The JSON columns of {@link Patient}, with the property and converter each one maps to. */
+@Getter
+@RequiredArgsConstructor
+public enum PatientJsonColumn {
+  PERSONAL_DETAILS(
+      "personalDetails",
+      "personal_details",
+      new PersonalDetailsConverter(),
+      Patient::getPersonalDetails,
+      false),
+  MEDICAL_INFO(
+      "medicalInfo", "medical_info", new MedicalInfoConverter(), Patient::getMedicalInfo, true),
+  INSURANCE_DETAILS(
+      "insuranceDetails",
+      "insurance_details",
+      new InsuranceDetailsConverter(),
+      Patient::getInsuranceDetails,
+      true),
+  EMERGENCY_CONTACT(
+      "emergencyContact",
+      "emergency_contact",
+      new EmergencyContactConverter(),
+      Patient::getEmergencyContact,
+      false),
+  CLINIC_PREFERENCES(
+      "clinicPreferences",
+      "clinic_preferences",
+      new ClinicPreferencesConverter(),
+      Patient::getClinicPreferences,
+      false);
+
+  /** Name of the property on {@link Patient} and in the API. */
+  private final String property;
+
+  /** Name of the column in the {@code patients} table. */
+  private final String column;
+
+  private final JsonConverter<?> converter;
+
+  private final Function<Patient, Object> accessor;
+
+  /** Whether the column holds PHI, which is encrypted under the patient's ID when enabled. */
+  private final boolean phi;
+
+  /**
+   * Renders this column's value for a patient as JSON, before any encryption.
+   *
+   * @param patient the patient
+   * @return the JSON text, or {@code null} if the patient has no value for this column
+   */
+  @SuppressWarnings("unchecked")
+  public String toDatabaseColumn(Patient patient) {
+    return ((JsonConverter<Object>) converter).convertToDatabaseColumn(accessor.apply(patient));
+  }
+
+  public static Optional<PatientJsonColumn> forProperty(String property) {
+    return Arrays.stream(values()).filter(c -> c.property.equals(property)).findFirst();
+  }
+}
@@ -0,0 +1,89 @@
+package com.deepak.patient.registration.model.patient;
+
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The identity and account flags of a patient, loaded without the JSON columns.
+ *
+ * @param id the patient ID
+ * @param name the patient's name
+ * @param phoneNumber the patient's phone number
+ * @param usingDefaultPassword whether the patient still uses the default password
+ * @param active whether the account is active
+ * @param lastLoginAt when the patient last logged in, or {@code null} if never
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Patient identity and account flags")
+public record PatientSummary(
+    Long id,
+    String name,
+    String phoneNumber,
+    boolean usingDefaultPassword,
+    boolean active,
+    OffsetDateTime lastLoginAt) {
+
+  private static final Map<String, Function<PatientSummary, Object>> FIELDS = fields();
+
+  /**
+   * Summarises a patient that is already loaded.
+   *
+   * @param patient the patient
+   * @return the patient's summary
+   */
+  public static PatientSummary of(Patient patient) {
+    String name =
+        patient.getPersonalDetails() != null
+            ? patient.getPersonalDetails().getName()
+            : patient.getFullName();
+    return new PatientSummary(
+        patient.getId(),
+        name,
+        patient.getPhoneNumber(),
+        patient.isUsingDefaultPassword(),
+        patient.isActive(),
+        patient.getLastLoginAt());
+  }
+
+  /**
+   * Returns the requested fields of this summary, in the order requested. Fields whose value is
+   * {@code null} are left out.
+   *
+   * @param fields the field names, or {@code null} or empty for every field
+   * @return the selected fields keyed by name
+   * @throws BadRequestException if a field name is unknown
+   */
+  public Map<String, Object> select(Collection<String> fields) {
+    Collection<String> names = fields == null || fields.isEmpty() ? FIELDS.keySet() : fields;
+    Map<String, Object> selected = new LinkedHashMap<>();
+    for (String name : names) {
+      Function<PatientSummary, Object> accessor = FIELDS.get(name);
+      if (accessor == null) {
+        throw new BadRequestException(
+            "Unknown field '" + name + "', expected any of " + FIELDS.keySet());
+      }
+      Object value = accessor.apply(this);
+      if (value != null) {
+        selected.put(name, value);
+      }
+    }
+    return selected;
+  }
+
+  private static Map<String, Function<PatientSummary, Object>> fields() {
+    Map<String, Function<PatientSummary, Object>> fields = new LinkedHashMap<>();
+    fields.put("id", PatientSummary::id);
+    fields.put("name", PatientSummary::name);
+    fields.put("phoneNumber", PatientSummary::phoneNumber);
+    fields.put("usingDefaultPassword", PatientSummary::usingDefaultPassword);
+    fields.put("active", PatientSummary::active);
+    fields.put("lastLoginAt", PatientSummary::lastLoginAt);
+    return fields;
+  }
+}
@@ -0,0 +1,11 @@
+package com.deepak.patient.registration.model.patient;
+
+import java.util.List;
+
+/**
+ * The summaries found for a batch of patient IDs.
+ *
+ * @param patients the summaries of the patients found, in the order their IDs were requested
+ * @param missingIds the requested IDs with no patient, in the order they were requested
+ */
+public record PatientSummaryBatch(List<PatientSummary> patients, List<Long> missingIds) {}
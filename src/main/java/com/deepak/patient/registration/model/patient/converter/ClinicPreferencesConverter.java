@@ -1,7 +1,9 @@
 package com.deepak.patient.registration.model.patient.converter;
 
 import com.deepak.patient.registration.model.patient.ClinicPreferences;
+import org.hibernate.annotations.Mutability;
 
+@Mutability(JsonMutabilityPlan.class)
 public class ClinicPreferencesConverter extends JsonConverter<ClinicPreferences> {
   public ClinicPreferencesConverter() {
     super(ClinicPreferences.class);
@@ -1,7 +1,9 @@
 package com.deepak.patient.registration.model.patient.converter;
 
 import com.deepak.patient.registration.model.patient.EmergencyContact;
+import org.hibernate.annotations.Mutability;
 
+@Mutability(JsonMutabilityPlan.class)
 public class EmergencyContactConverter extends JsonConverter<EmergencyContact> {
   public EmergencyContactConverter() {
     super(EmergencyContact.class);
@@ -1,7 +1,9 @@
 package com.deepak.patient.registration.model.patient.converter;
 
 import com.deepak.patient.registration.model.patient.InsuranceDetails;
+import org.hibernate.annotations.Mutability;
 
+@Mutability(JsonMutabilityPlan.class)
 public class InsuranceDetailsConverter extends JsonConverter<InsuranceDetails> {
   public InsuranceDetailsConverter() {
     super(InsuranceDetails.class);
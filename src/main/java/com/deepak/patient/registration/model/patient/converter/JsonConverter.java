@@ -1,28 +1,80 @@
 package com.deepak.patient.registration.model.patient.converter;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import jakarta.persistence.AttributeConverter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
+/**
+ * Converts a value object to and from a JSON column.
+ *
+ * <p>Each converter resolves its {@link ObjectReader} and {@link ObjectWriter} once, so rows are
+ * read and written without looking up serializers per call. SQL {@code NULL} maps to {@code null}
+ * in both directions. Subclasses should be annotated with {@code @Mutability(JsonMutabilityPlan
+ * .class)} so Hibernate snapshots and compares values without a JSON round trip.
+ *
+ * <p>Values can also be stored packed in a binary column: the same JSON, deflated, behind a
+ * one-byte format marker so other encodings can be added without rewriting existing rows.
+ */
 public class JsonConverter<T> implements AttributeConverter<T, String> {
 
-  private final Class<T> clazz;
-  private static final ObjectMapper objectMapper = new ObjectMapper();
+  static final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Format marker of a packed value holding deflated UTF-8 JSON. */
+  static final byte DEFLATED_JSON = 1;
+
+  /**
+   * Idle compressors kept for reuse, as each one allocates native zlib state that costs more to set
+   * up than compressing a document. Extra ones made under load are released after use. The fastest
+   * level compresses these short, repetitive documents almost as well as the default.
+   */
+  private static final BlockingQueue<Deflater> deflaters = new ArrayBlockingQueue<>(16);
+
+  private static final BlockingQueue<Inflater> inflaters = new ArrayBlockingQueue<>(16);
 
   static {
     objectMapper.registerModule(new JavaTimeModule());
     objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
   }
 
+  private final ObjectReader reader;
+  private final ObjectReader strictReader;
+  private final ObjectWriter writer;
+
   public JsonConverter(Class<T> clazz) {
-    this.clazz = clazz;
+    this.reader = objectMapper.readerFor(clazz);
+    this.strictReader = reader.with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.writer = objectMapper.writerFor(clazz);
   }
 
   @Override
   public String convertToDatabaseColumn(T attribute) {
+    if (attribute == null) {
+      return null;
+    }
     try {
-      return objectMapper.writeValueAsString(attribute);
+      return writer.writeValueAsString(attribute);
     } catch (Exception e) {
       throw new RuntimeException("Error converting to JSON", e);
     }
@@ -30,10 +82,177 @@ public class JsonConverter<T> implements AttributeConverter<T, String> {
 
   @Override
   public T convertToEntityAttribute(String dbData) {
+    if (dbData == null) {
+      return null;
+    }
     try {
-      return objectMapper.readValue(dbData, clazz);
+      return reader.readValue(dbData);
     } catch (Exception e) {
       throw new RuntimeException("Error reading JSON", e);
     }
   }
+
+  /**
+   * Reads a value from JSON text held as UTF-8, such as a decrypted column, without decoding it
+   * into a {@code String} first.
+   *
+   * @param json the JSON text between the position and limit of an array-backed buffer
+   * @return the value, or {@code null} if {@code json} is {@code null}
+   */
+  public T convertUtf8ToEntityAttribute(ByteBuffer json) {
+    if (json == null) {
+      return null;
+    }
+    try {
+      return reader.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining());
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading JSON", e);
+    }
+  }
+
+  /**
+   * Writes a value in the packed format, streaming its JSON straight into the compressor.
+   *
+   * @param attribute the value to write
+   * @return the packed bytes, or {@code null} if the value is {@code null}
+   */
+  public byte[] convertToPackedColumn(T attribute) {
+    if (attribute == null) {
+      return null;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(DEFLATED_JSON);
+    Deflater deflater = acquireDeflater();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+      writer.writeValue(out, attribute);
+    } catch (IOException e) {
+      throw new RuntimeException("Error converting to packed JSON", e);
+    } finally {
+      release(deflater);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads a value written by {@link #convertToPackedColumn} or {@link #pack}.
+   *
+   * @param dbData the packed bytes
+   * @return the value, or {@code null} if {@code dbData} is {@code null}
+   */
+  public T convertPackedToEntityAttribute(byte[] dbData) {
+    if (dbData == null) {
+      return null;
+    }
+    Inflater inflater = acquireInflater();
+    try (InputStream in = openPacked(dbData, inflater)) {
+      return reader.readValue(in);
+    } catch (IOException e) {
+      throw new RuntimeException("Error reading packed JSON", e);
+    } finally {
+      release(inflater);
+    }
+  }
+
+  /**
+   * Packs JSON text as stored in a JSON column.
+   *
+   * @param json the JSON text
+   * @return the packed bytes
+   */
+  public static byte[] pack(String json) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(DEFLATED_JSON);
+    Deflater deflater = acquireDeflater();
+    try (DeflaterOutputStream out = new DeflaterOutputStream(bytes, deflater)) {
+      out.write(json.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      release(deflater);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Unpacks a packed value back to its JSON text.
+   *
+   * @param packed the packed bytes
+   * @return the JSON text
+   */
+  public static String unpack(byte[] packed) {
+    Inflater inflater = acquireInflater();
+    try (InputStream in = openPacked(packed, inflater)) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      release(inflater);
+    }
+  }
+
+  private static InputStream openPacked(byte[] packed, Inflater inflater) {
+    if (packed.length == 0 || packed[0] != DEFLATED_JSON) {
+      throw new IllegalStateException(
+          "Unknown packed JSON format " + (packed.length == 0 ? "(empty)" : packed[0]));
+    }
+    return new InflaterInputStream(
+        new ByteArrayInputStream(packed, 1, packed.length - 1), inflater);
+  }
+
+  private static Deflater acquireDeflater() {
+    Deflater deflater = deflaters.poll();
+    return deflater != null ? deflater : new Deflater(Deflater.BEST_SPEED);
+  }
+
+  private static void release(Deflater deflater) {
+    deflater.reset();
+    if (!deflaters.offer(deflater)) {
+      deflater.end();
+    }
+  }
+
+  private static Inflater acquireInflater() {
+    Inflater inflater = inflaters.poll();
+    return inflater != null ? inflater : new Inflater();
+  }
+
+  private static void release(Inflater inflater) {
+    inflater.reset();
+    if (!inflaters.offer(inflater)) {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Reads a value holding only some of its properties, as sent in a partial update.
+   *
+   * @param fields a JSON object with the properties to read
+   * @return the value, with every other property {@code null}
+   * @throws IllegalArgumentException if a property is unknown or has an invalid value
+   */
+  public T readPartial(JsonNode fields) {
+    try {
+      return strictReader.readValue(fields);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException(e.getOriginalMessage(), e);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Renders properties of a value as the JSON they are stored as in the column.
+   *
+   * @param value the value to render
+   * @param properties the properties to render
+   * @return each property mapped to its JSON text
+   */
+  public Map<String, String> toStoredFields(T value, Collection<String> properties) {
+    ObjectNode stored = objectMapper.valueToTree(value);
+    Map<String, String> fields = new LinkedHashMap<>();
+    for (String property : properties) {
+      fields.put(property, stored.get(property).toString());
+    }
+    return fields;
+  }
 }
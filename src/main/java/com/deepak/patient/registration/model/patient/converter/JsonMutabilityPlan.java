@@ -0,0 +1,65 @@
+package com.deepak.patient.registration.model.patient.converter;
+
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.Serializable;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.type.descriptor.java.MutabilityPlan;
+
+/**
+ * Mutability plan for JSON value objects mapped with a {@link JsonConverter}.
+ *
+ * <p>Without it Hibernate snapshots a converted attribute by writing it to a JSON string and
+ * parsing it back. This plan copies the object through a Jackson token buffer instead, which skips
+ * text encoding and decoding. Dirty checking then compares the snapshot with {@code equals}, so the
+ * value types must implement value equality.
+ */
+public class JsonMutabilityPlan implements MutabilityPlan<Object> {
+
+  @Override
+  public boolean isMutable() {
+    return true;
+  }
+
+  @Override
+  public Object deepCopy(Object value) {
+    if (value == null) {
+      return null;
+    }
+    try (TokenBuffer buffer = new TokenBuffer(JsonConverter.objectMapper, false)) {
+      JsonConverter.objectMapper.writeValue(buffer, value);
+      return JsonConverter.objectMapper.readValue(buffer.asParser(), value.getClass());
+    } catch (IOException e) {
+      throw new IllegalStateException("Error copying " + value.getClass().getSimpleName(), e);
+    }
+  }
+
+  @Override
+  public Serializable disassemble(Object value, SharedSessionContract session) {
+    if (value == null) {
+      return null;
+    }
+    try {
+      return new Disassembled(
+          value.getClass(), JsonConverter.objectMapper.writeValueAsString(value));
+    } catch (IOException e) {
+      throw new IllegalStateException("Error writing " + value.getClass().getSimpleName(), e);
+    }
+  }
+
+  @Override
+  public Object assemble(Serializable cached, SharedSessionContract session) {
+    if (cached == null) {
+      return null;
+    }
+    Disassembled disassembled = (Disassembled) cached;
+    try {
+      return JsonConverter.objectMapper.readValue(disassembled.json(), disassembled.type());
+    } catch (IOException e) {
+      throw new IllegalStateException("Error reading " + disassembled.type().getSimpleName(), e);
+    }
+  }
+
+  /** Cached form of a value: its type and JSON. */
+  private record Disassembled(Class<?> type, String json) implements Serializable {}
+}
@@ -1,7 +1,9 @@
 package com.deepak.patient.registration.model.patient.converter;
 
 import com.deepak.patient.registration.model.patient.MedicalInfo;
+import org.hibernate.annotations.Mutability;
 
+@Mutability(JsonMutabilityPlan.class)
 public class MedicalInfoConverter extends JsonConverter<MedicalInfo> {
   public MedicalInfoConverter() {
     super(MedicalInfo.class);
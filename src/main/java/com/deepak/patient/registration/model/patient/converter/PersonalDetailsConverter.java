@@ -1,7 +1,9 @@
 package com.deepak.patient.registration.model.patient.converter;
 
 import com.deepak.patient.registration.model.patient.PersonalDetails;
+import org.hibernate.annotations.Mutability;
 
+@Mutability(JsonMutabilityPlan.class)
 public class PersonalDetailsConverter extends JsonConverter<PersonalDetails> {
   public PersonalDetailsConverter() {
     super(PersonalDetails.class);
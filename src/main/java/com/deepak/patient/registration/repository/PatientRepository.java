@@ -1,11 +1,130 @@
 package com.deepak.patient.registration.repository;
 
 import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientCredentials;
+import com.deepak.patient.registration.model.patient.PatientSummary;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientRepositoryCustom {
   Optional<Patient> findByPhoneNumber(String phoneNumber);
+
+  /**
+   * Finds a patient by the blind index of their phone number.
+   *
+   * @param phoneNumberHash the blind index, see {@code FieldEncryption#blindIndex}
+   * @return the patient, if one has this index
+   */
+  Optional<Patient> findByPhoneNumberHash(byte[] phoneNumberHash);
+
+  /**
+   * Loads the credentials of a patient by ID without reading or parsing the JSON columns.
+   *
+   * @param id the patient ID
+   * @return the patient's credentials, if the patient exists
+   */
+  @Query(
+      "SELECT new com.deepak.patient.registration.model.patient.PatientCredentials("
+          + "p.id, p.passwordHash) FROM Patient p WHERE p.id = :id")
+  Optional<PatientCredentials> findCredentialsById(@Param("id") Long id);
+
+  /**
+   * Loads the credentials of a patient by phone number without reading or parsing the JSON columns.
+   *
+   * @param phoneNumber the patient's phone number
+   * @return the patient's credentials, if the patient exists
+   */
+  @Query(
+      "SELECT new com.deepak.patient.registration.model.patient.PatientCredentials("
+          + "p.id, p.passwordHash) FROM Patient p WHERE p.phoneNumber = :phoneNumber")
+  Optional<PatientCredentials> findCredentialsByPhoneNumber(
+      @Param("phoneNumber") String phoneNumber);
+
+  /**
+   * Loads the summary of a patient by ID without reading or parsing the JSON columns.
+   *
+   * @param id the patient ID
+   * @return the patient's summary, if the patient exists
+   */
+  @Query(
+      "SELECT new com.deepak.patient.registration.model.patient.PatientSummary("
+          + "p.id, p.fullName, p.phoneNumber, p.usingDefaultPassword, p.active, p.lastLoginAt) "
+          + "FROM Patient p WHERE p.id = :id")
+  Optional<PatientSummary> findSummaryById(@Param("id") Long id);
+
+  /**
+   * Loads the summary of a patient by phone number without reading or parsing the JSON columns.
+   *
+   * @param phoneNumber the patient's phone number
+   * @return the patient's summary, if the patient exists
+   */
+  @Query(
+      "SELECT new com.deepak.patient.registration.model.patient.PatientSummary("
+          + "p.id, p.fullName, p.phoneNumber, p.usingDefaultPassword, p.active, p.lastLoginAt) "
+          + "FROM Patient p WHERE p.phoneNumber = :phoneNumber")
+  Optional<PatientSummary> findSummaryByPhoneNumber(@Param("phoneNumber") String phoneNumber);
+
+  /**
+   * Loads the summaries of many patients in one query without reading the JSON columns.
+   *
+   * @param ids the patient IDs
+   * @return the summaries of the patients that exist, in no particular order
+   */
+  @Query(
+      "SELECT new com.deepak.patient.registration.model.patient.PatientSummary("
+          + "p.id, p.fullName, p.phoneNumber, p.usingDefaultPassword, p.active, p.lastLoginAt) "
+          + "FROM Patient p WHERE p.id IN :ids")
+  List<PatientSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+  /**
+   * Finds patients whose name, email or phone number starts with a prefix, using the indexed
+   * generated columns rather than the JSON columns.
+   *
+   * @param prefix the prefix followed by {@code %}, with {@code %} and {@code _} in it escaped
+   * @param pageable the number of results to return
+   * @return the summaries of the matching patients, ordered by name
+   */
+  @Query(
+      "SELECT new com.deepak.patient.registration.model.patient.PatientSummary("
+          + "p.id, p.fullName, p.phoneNumber, p.usingDefaultPassword, p.active, p.lastLoginAt) "
+          + "FROM Patient p WHERE p.fullName LIKE :prefix OR p.email LIKE :prefix "
+          + "OR p.phoneNumber LIKE :prefix ORDER BY p.fullName, p.id")
+  List<PatientSummary> searchSummariesByPrefix(@Param("prefix") String prefix, Pageable pageable);
+
+  /**
+   * Replaces a patient's password hash without rewriting the rest of the row.
+   *
+   * @param id the patient ID
+   * @param passwordHash the new password hash
+   * @return the number of rows updated
+   */
+  @Transactional
+  @Modifying
+  @Query("UPDATE Patient p SET p.passwordHash = :passwordHash WHERE p.id = :id")
+  int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+
+  /**
+   * Soft-deletes a patient by marking it inactive. The row stays in {@code patients}, hidden from
+   * every query, until {@link #archiveInactivePatients} moves it to the archive.
+   *
+   * @param id the patient ID
+   * @param now the new {@code updated_at} timestamp, from which the archival delay counts
+   * @return the number of rows updated, {@code 0} if there is no active patient with this ID
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      "UPDATE Patient p SET p.active = false, p.updatedAt = :now, p.version = p.version + 1 "
+          + "WHERE p.id = :id AND p.active = true")
+  int deactivate(@Param("id") Long id, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,221 @@
+package com.deepak.patient.registration.repository;
+
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientCredentials;
+import com.deepak.patient.registration.model.patient.PatientJsonColumn;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/** Operations on {@code patients} that bypass the persistence context. */
+public interface PatientRepositoryCustom {
+
+  /**
+   * Sets and removes top-level fields of a patient's JSON columns in a single statement, without
+   * reading the row. On MySQL this runs as {@code JSON_SET}/{@code JSON_REMOVE}; on other databases
+   * the affected columns are read, merged and written back in one transaction. A packed or
+   * encrypted document is always read, merged and written back, as MySQL cannot edit it in place.
+   * The version is incremented either way.
+   *
+   * @param id the patient ID
+   * @param patches the changes, at most one per column
+   * @param updatedAt the new {@code updated_at} timestamp
+   * @return the number of rows updated, {@code 0} if the patient does not exist
+   */
+  int patchJsonColumns(Long id, List<JsonColumnPatch> patches, LocalDateTime updatedAt);
+
+  /**
+   * Writes every JSON column of a patient in a single {@code UPDATE} that applies only while the
+   * row still has the expected version, and increments the version. No lock is taken; a concurrent
+   * write makes the update match no row instead.
+   *
+   * @param patient the patient, with its ID and the JSON columns to store
+   * @param expectedVersion the version the patient was read at
+   * @param updatedAt the new {@code updated_at} timestamp
+   * @return the number of rows updated, {@code 0} if the patient does not exist or has a newer
+   *     version
+   */
+  int updateJsonColumnsIfVersion(Patient patient, long expectedVersion, LocalDateTime updatedAt);
+
+  /**
+   * Passes the searchable columns of every patient to {@code action}, reading the table in ID order
+   * in pages so the whole result is never held in memory. The JSON columns are not read.
+   *
+   * @param action receives each patient's searchable columns
+   */
+  void forEachSearchEntry(Consumer<SearchEntry> action);
+
+  /**
+   * Passes the personal details of every patient to {@code action}, reading the table in ID order
+   * in pages so the whole result is never held in memory. The other JSON columns are not read.
+   *
+   * @param action receives each patient ID with its personal details, which may be {@code null}
+   */
+  void forEachPersonalDetails(BiConsumer<Long, PersonalDetails> action);
+
+  /**
+   * Checks whether a phone number is taken using only the phone number index. Deleted patients that
+   * are not archived yet still hold their number in {@code uq_phone_number}, so they count too,
+   * unlike in the entity queries that only see active patients.
+   *
+   * @param phoneNumber the phone number
+   * @return {@code true} if a patient, active or deleted, has this phone number
+   */
+  boolean existsByPhoneNumber(String phoneNumber);
+
+  /**
+   * Checks whether a phone number is taken using only the blind index, counting deleted patients
+   * that are not archived yet like {@link #existsByPhoneNumber}.
+   *
+   * @param phoneNumberHash the blind index, see {@code FieldEncryption#blindIndex}
+   * @return {@code true} if a patient, active or deleted, has this index
+   */
+  boolean existsByPhoneNumberHash(byte[] phoneNumberHash);
+
+  /**
+   * Loads the searchable columns of one patient without reading the JSON columns.
+   *
+   * @param id the patient ID
+   * @return the patient's searchable columns, if the patient exists
+   */
+  Optional<SearchEntry> findSearchEntry(Long id);
+
+  /**
+   * Registers a patient, password hash included, with a single insert that goes straight to the
+   * database without loading or flushing a persistence context.
+   *
+   * @param patient the patient to insert
+   * @return the new patient ID
+   * @throws org.springframework.dao.DuplicateKeyException if the phone number is already registered
+   */
+  long insertPatient(Patient patient);
+
+  /**
+   * Moves up to {@code limit} patients that were deactivated before {@code cutoff}, with all their
+   * appointments, into {@code patients_archive} and {@code appointments_archive} in a single
+   * transaction. Patients with an upcoming active appointment, or an appointment still in {@code
+   * queue_management}, are left for a later run.
+   *
+   * @param cutoff patients deactivated earlier are archived
+   * @param limit the maximum number of patients to move
+   * @return the number of patients and appointments archived
+   */
+  ArchivedPatients archiveInactivePatients(LocalDateTime cutoff, int limit);
+
+  /**
+   * Moves up to {@code limit} active patients that have not logged in since {@code lastSeenBefore},
+   * or registered before it and never logged in, into the archive tables like {@link
+   * #archiveInactivePatients}, skipping the same patients with appointments still due.
+   *
+   * @param lastSeenBefore patients last seen earlier are archived
+   * @param limit the maximum number of patients to move
+   * @return the patients and the number of appointments archived
+   */
+  ArchivedPatients archiveDormantPatients(LocalDateTime lastSeenBefore, int limit);
+
+  /**
+   * Brings up to {@code limit} patients after {@code afterId} to the configured storage: {@code
+   * medical_info} in the configured format, PHI encrypted under the active key or decrypted, and
+   * {@code phone_number_hash} under the current blind index key. Rows already stored that way are
+   * skipped. A row is only rewritten while it still has the version it was read at; neither the
+   * version nor {@code updated_at} changes, as the stored documents stay the same.
+   *
+   * @param afterId rows with a greater ID are read
+   * @param limit the maximum number of rows to read
+   * @return the rows read and rewritten, and the last ID read
+   */
+  RewrittenPatients rewriteStoredColumns(long afterId, int limit);
+
+  /**
+   * Inserts new patients in JDBC batches with {@code INSERT IGNORE}, so a phone number that is
+   * already registered skips its row instead of failing the batch. Only the phone number, password
+   * hash, personal details, account flags and timestamps are written; the other JSON columns are
+   * left empty. Use {@link #findCredentialsByPhoneNumbers} afterwards to learn which rows were
+   * inserted.
+   *
+   * @param patients the patients to insert
+   */
+  void insertPatients(List<Patient> patients);
+
+  /**
+   * Loads the credentials of the patients registered under any of the given phone numbers.
+   *
+   * @param phoneNumbers the phone numbers to look up
+   * @return the credentials of each registered number, keyed by phone number
+   */
+  Map<String, PatientCredentials> findCredentialsByPhoneNumbers(Collection<String> phoneNumbers);
+
+  /**
+   * Sets {@code last_login_at} for many patients in JDBC batches, touching no other column.
+   *
+   * @param lastLogins the last login time of each patient, keyed by patient ID
+   * @return the number of patients updated
+   */
+  int updateLastLoginTimes(Map<Long, OffsetDateTime> lastLogins);
+
+  /**
+   * Sets {@code failed_login_attempts} and {@code locked_until} for many patients in JDBC batches.
+   *
+   * @param loginAttempts the attempt state of each patient, keyed by patient ID
+   * @return the number of patients updated
+   */
+  int updateLoginAttempts(Map<Long, LoginAttempts> loginAttempts);
+
+  /**
+   * The columns of one patient that patient search matches on.
+   *
+   * @param id the patient ID
+   * @param name the patient's name, or {@code null}
+   * @param email the patient's email, or {@code null}
+   * @param phoneNumber the patient's phone number
+   */
+  record SearchEntry(Long id, String name, String email, String phoneNumber) {}
+
+  /**
+   * Failed login state of one patient.
+   *
+   * @param failedLoginAttempts consecutive failed logins
+   * @param lockedUntil when the lockout ends, or {@code null} if the account is not locked
+   */
+  record LoginAttempts(int failedLoginAttempts, OffsetDateTime lockedUntil) {}
+
+  /**
+   * Changes to the top-level fields of one JSON column.
+   *
+   * @param column the column to change
+   * @param set the fields to set, mapped to their new value as JSON text
+   * @param remove the fields to remove
+   */
+  record JsonColumnPatch(PatientJsonColumn column, Map<String, String> set, Set<String> remove) {}
+
+  /**
+   * The rows moved by one call to {@link #archiveInactivePatients} or {@link
+   * #archiveDormantPatients}.
+   *
+   * @param patientIds the IDs of the patients archived
+   * @param appointments the number of their appointments archived
+   */
+  record ArchivedPatients(List<Long> patientIds, int appointments) {
+
+    /** The number of patients archived. */
+    public int patients() {
+      return patientIds.size();
+    }
+  }
+
+  /**
+   * The rows handled by one call to {@link #rewriteStoredColumns}.
+   *
+   * @param lastId the ID of the last row read, to continue from
+   * @param read the number of rows read
+   * @param rewritten the number of rows rewritten into the configured storage
+   */
+  record RewrittenPatients(long lastId, int read, int rewritten) {}
+}
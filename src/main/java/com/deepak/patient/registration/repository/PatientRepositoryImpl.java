@@ -0,0 +1,677 @@
+package com.deepak.patient.registration.repository;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientCredentials;
+import com.deepak.patient.registration.model.patient.PatientJsonColumn;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.model.patient.converter.JsonConverter;
+import com.deepak.patient.registration.model.patient.converter.PersonalDetailsConverter;
+import com.deepak.patient.registration.security.FieldEncryption;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * JDBC-backed implementation of {@link PatientRepositoryCustom}. JSON patches use MySQL's in-place
+ * JSON functions; any other database (H2 in tests) falls back to a read-merge-write of the affected
+ * columns. {@code medical_info} is written to whichever of its two columns the configured storage
+ * format selects, and the other is cleared. PHI columns are encrypted under the patient's ID, and
+ * {@code phone_number_hash} is written with every new phone number.
+ */
+public class PatientRepositoryImpl implements PatientRepositoryCustom {
+
+  private static final int PAGE_SIZE = 10_000;
+
+  private static final int BATCH_SIZE = 500;
+
+  private static final String INSERT_PATIENT_SQL =
+      "INSERT IGNORE INTO patients (phone_number, password_hash, personal_details, "
+          + "using_default_password, is_active, failed_login_attempts, created_at, updated_at, "
+          + "phone_number_hash, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+  private static final String INSERT_NEW_PATIENT_SQL =
+      "INSERT INTO patients (phone_number, password_hash, personal_details, emergency_contact, "
+          + "clinic_preferences, using_default_password, is_active, failed_login_attempts, "
+          + "created_at, updated_at, phone_number_hash, version) "
+          + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+  // updated_at is assigned to itself so MySQL's ON UPDATE does not touch it
+  private static final String UPDATE_PHI_COLUMNS_SQL =
+      "UPDATE patients SET medical_info = ?, medical_info_packed = ?, insurance_details = ?, "
+          + "updated_at = updated_at WHERE id = ?";
+
+  private static final String UPDATE_JSON_COLUMNS_IF_VERSION_SQL =
+      "UPDATE patients SET personal_details = ?, medical_info = ?, medical_info_packed = ?, "
+          + "insurance_details = ?, emergency_contact = ?, clinic_preferences = ?, updated_at = ?, "
+          + "version = version + 1 WHERE id = ? AND version = ? AND is_active = TRUE";
+
+  private static final String UPDATE_LAST_LOGIN_SQL =
+      "UPDATE patients SET last_login_at = ? WHERE id = ?";
+
+  private static final String UPDATE_LOGIN_ATTEMPTS_SQL =
+      "UPDATE patients SET failed_login_attempts = ?, locked_until = ? WHERE id = ?";
+
+  private static final String SELECT_PHONE_NUMBER_TAKEN_SQL =
+      "SELECT 1 FROM patients WHERE phone_number = ? LIMIT 1";
+
+  private static final String SELECT_PHONE_NUMBER_HASH_TAKEN_SQL =
+      "SELECT 1 FROM patients WHERE phone_number_hash = ? LIMIT 1";
+
+  private static final String SELECT_SEARCH_ENTRIES_SQL =
+      "SELECT id, full_name, email, phone_number FROM patients WHERE id > ? "
+          + "AND is_active = TRUE ORDER BY id LIMIT ?";
+
+  private static final String SELECT_PERSONAL_DETAILS_SQL =
+      "SELECT id, personal_details FROM patients WHERE id > ? AND is_active = TRUE "
+          + "ORDER BY id LIMIT ?";
+
+  private static final PersonalDetailsConverter PERSONAL_DETAILS_CONVERTER =
+      new PersonalDetailsConverter();
+
+  private static final String SELECT_SEARCH_ENTRY_SQL =
+      "SELECT id, full_name, email, phone_number FROM patients WHERE id = ? AND is_active = TRUE";
+
+  private static final String ARCHIVABLE_PATIENT_SQL =
+      "AND NOT EXISTS (SELECT 1 FROM appointments a WHERE a.patient_id = p.id "
+          + "AND a.active = TRUE AND a.appointment_date >= ?) "
+          + "AND NOT EXISTS (SELECT 1 FROM appointments a JOIN queue_management q "
+          + "ON q.appointment_id = a.appointment_id WHERE a.patient_id = p.id) "
+          + "ORDER BY p.id LIMIT ?";
+
+  private static final String SELECT_ARCHIVABLE_DELETED_PATIENT_IDS_SQL =
+      "SELECT p.id FROM patients p WHERE p.is_active = FALSE AND p.updated_at < ? "
+          + ARCHIVABLE_PATIENT_SQL;
+
+  private static final String SELECT_ARCHIVABLE_DORMANT_PATIENT_IDS_SQL =
+      "SELECT p.id FROM patients p WHERE p.is_active = TRUE "
+          + "AND COALESCE(p.last_login_at, p.created_at) < ? "
+          + ARCHIVABLE_PATIENT_SQL;
+
+  private static final String ARCHIVED_PATIENT_COLUMNS =
+      "id, phone_number, password_hash, personal_details, medical_info, medical_info_packed, "
+          + "insurance_details, emergency_contact, clinic_preferences, created_at, updated_at, "
+          + "using_default_password, is_active, failed_login_attempts, locked_until, "
+          + "last_login_at, version, phone_number_hash";
+
+  private static final String ARCHIVED_APPOINTMENT_COLUMNS =
+      "appointment_id, patient_id, appointment_type, appointment_for, appointment_for_name, "
+          + "appointment_for_age, symptom, other_symptoms, appointment_date, slot_id, doctor_id, "
+          + "clinic_id, active";
+
+  private static final String SELECT_STORED_COLUMNS_SQL =
+      "SELECT id, version, phone_number, phone_number_hash, medical_info, medical_info_packed, "
+          + "insurance_details FROM patients WHERE id > ? ORDER BY id LIMIT ?";
+
+  // updated_at is assigned to itself so MySQL's ON UPDATE does not touch it
+  private static final String UPDATE_STORED_COLUMNS_SQL =
+      "UPDATE patients SET phone_number_hash = ?, medical_info = ?, medical_info_packed = ?, "
+          + "insurance_details = ?, updated_at = updated_at WHERE id = ? AND version = ?";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PatientProperties.MedicalInfoStorage medicalInfoStorage;
+  private final FieldEncryption fieldEncryption;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private volatile Boolean mysql;
+
+  public PatientRepositoryImpl(
+      JdbcTemplate jdbcTemplate,
+      PatientProperties patientProperties,
+      FieldEncryption fieldEncryption) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.medicalInfoStorage = patientProperties.getMedicalInfoStorage();
+    this.fieldEncryption = fieldEncryption;
+  }
+
+  @Override
+  @Transactional
+  public int patchJsonColumns(Long id, List<JsonColumnPatch> patches, LocalDateTime updatedAt) {
+    if (!isMySql() || patches.stream().anyMatch(this::cannotPatchInPlace)) {
+      return patchByRewrite(id, patches, updatedAt);
+    }
+    int updated = patchInPlace(id, patches, updatedAt);
+    // The in-place patch skips rows holding a packed or encrypted document
+    return updated == 0 && patches.stream().anyMatch(PatientRepositoryImpl::isGuarded)
+        ? patchByRewrite(id, patches, updatedAt)
+        : updated;
+  }
+
+  /** Whether the new value of a patched column must be packed or encrypted. */
+  private boolean cannotPatchInPlace(JsonColumnPatch patch) {
+    return (patch.column().isPhi() && fieldEncryption.isEnabled())
+        || (patch.column() == PatientJsonColumn.MEDICAL_INFO && medicalInfoStorage.isPacked());
+  }
+
+  /** Whether a column may hold a packed or encrypted document that JSON functions cannot edit. */
+  private static boolean isGuarded(JsonColumnPatch patch) {
+    return patch.column() == PatientJsonColumn.MEDICAL_INFO
+        || patch.column() == PatientJsonColumn.INSURANCE_DETAILS;
+  }
+
+  @Override
+  public int updateJsonColumnsIfVersion(
+      Patient patient, long expectedVersion, LocalDateTime updatedAt) {
+    long id = patient.getId();
+    Object[] medicalInfo =
+        storedMedicalInfo(PatientJsonColumn.MEDICAL_INFO.toDatabaseColumn(patient), id);
+    return jdbcTemplate.update(
+        UPDATE_JSON_COLUMNS_IF_VERSION_SQL,
+        PatientJsonColumn.PERSONAL_DETAILS.toDatabaseColumn(patient),
+        medicalInfo[0],
+        medicalInfo[1],
+        storedJson(PatientJsonColumn.INSURANCE_DETAILS, patient, id),
+        PatientJsonColumn.EMERGENCY_CONTACT.toDatabaseColumn(patient),
+        PatientJsonColumn.CLINIC_PREFERENCES.toDatabaseColumn(patient),
+        Timestamp.valueOf(updatedAt),
+        patient.getId(),
+        expectedVersion);
+  }
+
+  @Override
+  public void forEachSearchEntry(Consumer<SearchEntry> action) {
+    forEachPage(
+        SELECT_SEARCH_ENTRIES_SQL,
+        rs ->
+            action.accept(
+                new SearchEntry(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4))));
+  }
+
+  @Override
+  public void forEachPersonalDetails(BiConsumer<Long, PersonalDetails> action) {
+    forEachPage(
+        SELECT_PERSONAL_DETAILS_SQL,
+        rs ->
+            action.accept(
+                rs.getLong(1),
+                PERSONAL_DETAILS_CONVERTER.convertToEntityAttribute(rs.getString(2))));
+  }
+
+  @Override
+  public boolean existsByPhoneNumber(String phoneNumber) {
+    return !jdbcTemplate
+        .queryForList(SELECT_PHONE_NUMBER_TAKEN_SQL, Integer.class, phoneNumber)
+        .isEmpty();
+  }
+
+  @Override
+  public boolean existsByPhoneNumberHash(byte[] phoneNumberHash) {
+    return !jdbcTemplate
+        .queryForList(SELECT_PHONE_NUMBER_HASH_TAKEN_SQL, Integer.class, phoneNumberHash)
+        .isEmpty();
+  }
+
+  @Override
+  public Optional<SearchEntry> findSearchEntry(Long id) {
+    return jdbcTemplate
+        .query(
+            SELECT_SEARCH_ENTRY_SQL,
+            (rs, rowNum) ->
+                new SearchEntry(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4)),
+            id)
+        .stream()
+        .findFirst();
+  }
+
+  /** Runs a keyset-paged query whose first column is the ID, passing each row to {@code row}. */
+  private void forEachPage(String sql, RowCallbackHandler row) {
+    long lastId = 0;
+    int rows;
+    do {
+      long[] pageLastId = {lastId};
+      rows =
+          jdbcTemplate
+              .query(
+                  sql,
+                  (rs, rowNum) -> {
+                    pageLastId[0] = rs.getLong(1);
+                    row.processRow(rs);
+                    return Boolean.TRUE;
+                  },
+                  lastId,
+                  PAGE_SIZE)
+              .size();
+      lastId = pageLastId[0];
+    } while (rows == PAGE_SIZE);
+  }
+
+  @Override
+  @Transactional
+  public long insertPatient(Patient patient) {
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcTemplate.update(
+        con -> {
+          PreparedStatement ps =
+              con.prepareStatement(INSERT_NEW_PATIENT_SQL, Statement.RETURN_GENERATED_KEYS);
+          ps.setString(1, patient.getPhoneNumber());
+          ps.setString(2, patient.getPasswordHash());
+          ps.setString(3, PatientJsonColumn.PERSONAL_DETAILS.toDatabaseColumn(patient));
+          ps.setString(4, PatientJsonColumn.EMERGENCY_CONTACT.toDatabaseColumn(patient));
+          ps.setString(5, PatientJsonColumn.CLINIC_PREFERENCES.toDatabaseColumn(patient));
+          ps.setBoolean(6, patient.isUsingDefaultPassword());
+          ps.setBoolean(7, patient.isActive());
+          ps.setInt(8, patient.getFailedLoginAttempts());
+          ps.setTimestamp(9, Timestamp.valueOf(patient.getCreatedAt()));
+          ps.setTimestamp(10, Timestamp.valueOf(patient.getUpdatedAt()));
+          ps.setBytes(11, fieldEncryption.blindIndex(patient.getPhoneNumber()));
+          return ps;
+        },
+        keyHolder);
+    long id = keyHolder.getKeyAs(Number.class).longValue();
+    // PHI is bound to the patient's ID, which only exists once the row does
+    String medicalInfo = PatientJsonColumn.MEDICAL_INFO.toDatabaseColumn(patient);
+    String insuranceDetails = storedJson(PatientJsonColumn.INSURANCE_DETAILS, patient, id);
+    if (medicalInfo != null || insuranceDetails != null) {
+      Object[] storedMedicalInfo = storedMedicalInfo(medicalInfo, id);
+      jdbcTemplate.update(
+          UPDATE_PHI_COLUMNS_SQL, storedMedicalInfo[0], storedMedicalInfo[1], insuranceDetails, id);
+    }
+    return id;
+  }
+
+  @Override
+  public void insertPatients(List<Patient> patients) {
+    jdbcTemplate.batchUpdate(
+        INSERT_PATIENT_SQL,
+        patients,
+        BATCH_SIZE,
+        (ps, patient) -> {
+          ps.setString(1, patient.getPhoneNumber());
+          ps.setString(2, patient.getPasswordHash());
+          ps.setString(3, PatientJsonColumn.PERSONAL_DETAILS.toDatabaseColumn(patient));
+          ps.setBoolean(4, patient.isUsingDefaultPassword());
+          ps.setBoolean(5, patient.isActive());
+          ps.setInt(6, patient.getFailedLoginAttempts());
+          ps.setTimestamp(7, Timestamp.valueOf(patient.getCreatedAt()));
+          ps.setTimestamp(8, Timestamp.valueOf(patient.getUpdatedAt()));
+          ps.setBytes(9, fieldEncryption.blindIndex(patient.getPhoneNumber()));
+        });
+  }
+
+  @Override
+  public Map<String, PatientCredentials> findCredentialsByPhoneNumbers(
+      Collection<String> phoneNumbers) {
+    Map<String, PatientCredentials> credentials = new HashMap<>();
+    if (phoneNumbers.isEmpty()) {
+      return credentials;
+    }
+    String placeholders = String.join(", ", Collections.nCopies(phoneNumbers.size(), "?"));
+    jdbcTemplate.query(
+        "SELECT id, phone_number, password_hash FROM patients WHERE phone_number IN ("
+            + placeholders
+            + ")",
+        rs -> {
+          credentials.put(rs.getString(2), new PatientCredentials(rs.getLong(1), rs.getString(3)));
+        },
+        phoneNumbers.toArray());
+    return credentials;
+  }
+
+  @Override
+  public int updateLastLoginTimes(Map<Long, OffsetDateTime> lastLogins) {
+    int[][] counts =
+        jdbcTemplate.batchUpdate(
+            UPDATE_LAST_LOGIN_SQL,
+            List.copyOf(lastLogins.entrySet()),
+            BATCH_SIZE,
+            (ps, lastLogin) -> {
+              ps.setTimestamp(1, Timestamp.from(lastLogin.getValue().toInstant()));
+              ps.setLong(2, lastLogin.getKey());
+            });
+    return rowsAffected(counts);
+  }
+
+  @Override
+  public int updateLoginAttempts(Map<Long, LoginAttempts> loginAttempts) {
+    int[][] counts =
+        jdbcTemplate.batchUpdate(
+            UPDATE_LOGIN_ATTEMPTS_SQL,
+            List.copyOf(loginAttempts.entrySet()),
+            BATCH_SIZE,
+            (ps, entry) -> {
+              LoginAttempts attempts = entry.getValue();
+              ps.setInt(1, attempts.failedLoginAttempts());
+              ps.setTimestamp(
+                  2,
+                  attempts.lockedUntil() != null
+                      ? Timestamp.from(attempts.lockedUntil().toInstant())
+                      : null);
+              ps.setLong(3, entry.getKey());
+            });
+    return rowsAffected(counts);
+  }
+
+  @Override
+  @Transactional
+  public ArchivedPatients archiveInactivePatients(LocalDateTime cutoff, int limit) {
+    return archivePatients(SELECT_ARCHIVABLE_DELETED_PATIENT_IDS_SQL, cutoff, limit);
+  }
+
+  @Override
+  @Transactional
+  public ArchivedPatients archiveDormantPatients(LocalDateTime lastSeenBefore, int limit) {
+    return archivePatients(SELECT_ARCHIVABLE_DORMANT_PATIENT_IDS_SQL, lastSeenBefore, limit);
+  }
+
+  /** Moves the patients picked by {@code selectIdsSql}, with their appointments, to the archive. */
+  private ArchivedPatients archivePatients(String selectIdsSql, LocalDateTime cutoff, int limit) {
+    List<Long> ids =
+        jdbcTemplate.queryForList(
+            selectIdsSql,
+            Long.class,
+            Timestamp.valueOf(cutoff),
+            Timestamp.valueOf(LocalDateTime.now()),
+            limit);
+    if (ids.isEmpty()) {
+      return new ArchivedPatients(List.of(), 0);
+    }
+    String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+    Object[] args = ids.toArray();
+    // Appointments first, as they reference the patients
+    jdbcTemplate.update(
+        "INSERT INTO appointments_archive ("
+            + ARCHIVED_APPOINTMENT_COLUMNS
+            + ") SELECT "
+            + ARCHIVED_APPOINTMENT_COLUMNS
+            + " FROM appointments WHERE patient_id IN ("
+            + placeholders
+            + ")",
+        args);
+    int appointments =
+        jdbcTemplate.update(
+            "DELETE FROM appointments WHERE patient_id IN (" + placeholders + ")", args);
+    Object[] insertArgs = new Object[args.length + 1];
+    insertArgs[0] = Timestamp.valueOf(LocalDateTime.now());
+    System.arraycopy(args, 0, insertArgs, 1, args.length);
+    jdbcTemplate.update(
+        "INSERT INTO patients_archive ("
+            + ARCHIVED_PATIENT_COLUMNS
+            + ", archived_at) SELECT "
+            + ARCHIVED_PATIENT_COLUMNS
+            + ", ? FROM patients WHERE id IN ("
+            + placeholders
+            + ")",
+        insertArgs);
+    jdbcTemplate.update("DELETE FROM patients WHERE id IN (" + placeholders + ")", args);
+    return new ArchivedPatients(ids, appointments);
+  }
+
+  @Override
+  public RewrittenPatients rewriteStoredColumns(long afterId, int limit) {
+    String medicalInfoColumn = PatientJsonColumn.MEDICAL_INFO.getColumn();
+    String insuranceColumn = PatientJsonColumn.INSURANCE_DETAILS.getColumn();
+    long[] lastId = {afterId};
+    List<Object[]> rewrites = new ArrayList<>();
+    int read =
+        jdbcTemplate
+            .query(
+                SELECT_STORED_COLUMNS_SQL,
+                (rs, rowNum) -> {
+                  long id = rs.getLong("id");
+                  lastId[0] = id;
+                  byte[] phoneNumberHash = rs.getBytes("phone_number_hash");
+                  String medicalInfo = rs.getString("medical_info");
+                  byte[] packedMedicalInfo = rs.getBytes("medical_info_packed");
+                  String insuranceDetails = rs.getString("insurance_details");
+
+                  byte[] targetHash = fieldEncryption.blindIndex(rs.getString("phone_number"));
+                  Object[] targetMedicalInfo =
+                      storedMedicalInfo(
+                          medicalInfo != null || packedMedicalInfo == null
+                              ? fieldEncryption.decrypt(medicalInfo, medicalInfoColumn, id)
+                              : JsonConverter.unpack(
+                                  fieldEncryption.decrypt(
+                                      packedMedicalInfo, medicalInfoColumn, id)),
+                          id);
+                  String targetInsurance =
+                      insuranceDetails == null || isStoredAsConfigured(insuranceDetails)
+                          ? insuranceDetails
+                          : fieldEncryption.encrypt(
+                              fieldEncryption.decrypt(insuranceDetails, insuranceColumn, id),
+                              insuranceColumn,
+                              id);
+                  boolean unchanged =
+                      Arrays.equals(phoneNumberHash, targetHash)
+                          && storageFormat(medicalInfo, packedMedicalInfo)
+                              .equals(
+                                  storageFormat(
+                                      (String) targetMedicalInfo[0], (byte[]) targetMedicalInfo[1]))
+                          && Objects.equals(insuranceDetails, targetInsurance);
+                  if (!unchanged) {
+                    rewrites.add(
+                        new Object[] {
+                          targetHash,
+                          targetMedicalInfo[0],
+                          targetMedicalInfo[1],
+                          targetInsurance,
+                          id,
+                          rs.getLong("version")
+                        });
+                  }
+                  return Boolean.TRUE;
+                },
+                afterId,
+                limit)
+            .size();
+    int[][] counts =
+        jdbcTemplate.batchUpdate(
+            UPDATE_STORED_COLUMNS_SQL,
+            rewrites,
+            BATCH_SIZE,
+            (ps, rewrite) -> {
+              ps.setBytes(1, (byte[]) rewrite[0]);
+              ps.setString(2, (String) rewrite[1]);
+              ps.setBytes(3, (byte[]) rewrite[2]);
+              ps.setString(4, (String) rewrite[3]);
+              ps.setLong(5, (Long) rewrite[4]);
+              ps.setLong(6, (Long) rewrite[5]);
+            });
+    return new RewrittenPatients(lastId[0], read, rowsAffected(counts));
+  }
+
+  /** Whether a stored JSON column value is encrypted, or not, as configured now. */
+  private boolean isStoredAsConfigured(String stored) {
+    String keyId = FieldEncryption.keyIdOf(stored);
+    return fieldEncryption.isEnabled()
+        ? keyId != null && keyId.equals(fieldEncryption.getActiveKeyId())
+        : keyId == null;
+  }
+
+  /** Describes how {@code medical_info} is stored: the column used and the key, if any. */
+  private static String storageFormat(String json, byte[] packed) {
+    if (json != null) {
+      return "json:" + FieldEncryption.keyIdOf(json);
+    }
+    return packed != null ? "packed:" + FieldEncryption.keyIdOf(packed) : "none";
+  }
+
+  /**
+   * Returns the {@code medical_info} and {@code medical_info_packed} values that store a document
+   * in the configured format, encrypted under the patient's ID if enabled; the unused one is {@code
+   * null}.
+   */
+  private Object[] storedMedicalInfo(String json, long id) {
+    String column = PatientJsonColumn.MEDICAL_INFO.getColumn();
+    if (json == null
+        || !medicalInfoStorage.isPacked()
+        || json.length() < medicalInfoStorage.getMinPackedLength()) {
+      return new Object[] {fieldEncryption.encrypt(json, column, id), null};
+    }
+    return new Object[] {null, fieldEncryption.encrypt(JsonConverter.pack(json), column, id)};
+  }
+
+  /** Renders a JSON column of a patient as stored, encrypted under its ID if it holds PHI. */
+  private String storedJson(PatientJsonColumn column, Patient patient, long id) {
+    return storedJson(column, column.toDatabaseColumn(patient), id);
+  }
+
+  private String storedJson(PatientJsonColumn column, String json, long id) {
+    return column.isPhi() ? fieldEncryption.encrypt(json, column.getColumn(), id) : json;
+  }
+
+  private int patchInPlace(Long id, List<JsonColumnPatch> patches, LocalDateTime updatedAt) {
+    StringBuilder sql = new StringBuilder("UPDATE patients SET ");
+    List<Object> args = new ArrayList<>();
+    for (JsonColumnPatch patch : patches) {
+      String column = patch.column().getColumn();
+      String expression = "COALESCE(" + column + ", JSON_OBJECT())";
+      if (!patch.set().isEmpty()) {
+        StringBuilder set = new StringBuilder("JSON_SET(").append(expression);
+        patch
+            .set()
+            .forEach(
+                (field, json) -> {
+                  set.append(", ?, CAST(? AS JSON)");
+                  args.add("$." + field);
+                  args.add(json);
+                });
+        expression = set.append(')').toString();
+      }
+      if (!patch.remove().isEmpty()) {
+        StringBuilder remove = new StringBuilder("JSON_REMOVE(").append(expression);
+        patch
+            .remove()
+            .forEach(
+                field -> {
+                  remove.append(", ?");
+                  args.add("$." + field);
+                });
+        expression = remove.append(')').toString();
+      }
+      sql.append(column).append(" = ").append(expression).append(", ");
+    }
+    sql.append("updated_at = ?, version = version + 1 WHERE id = ? AND is_active = TRUE");
+    for (JsonColumnPatch patch : patches) {
+      if (isGuarded(patch)) {
+        String column = patch.column().getColumn();
+        sql.append(" AND (").append(column).append(" IS NULL OR JSON_TYPE(");
+        sql.append(column).append(") = 'OBJECT')");
+      }
+      if (patch.column() == PatientJsonColumn.MEDICAL_INFO) {
+        sql.append(" AND medical_info_packed IS NULL");
+      }
+    }
+    args.add(Timestamp.valueOf(updatedAt));
+    args.add(id);
+    return jdbcTemplate.update(sql.toString(), args.toArray());
+  }
+
+  private int patchByRewrite(Long id, List<JsonColumnPatch> patches, LocalDateTime updatedAt) {
+    String columns =
+        patches.stream()
+            .map(
+                patch ->
+                    patch.column() == PatientJsonColumn.MEDICAL_INFO
+                        ? "medical_info, medical_info_packed"
+                        : patch.column().getColumn())
+            .collect(Collectors.joining(", "));
+    List<Map<String, String>> rows =
+        jdbcTemplate.query(
+            "SELECT " + columns + " FROM patients WHERE id = ? AND is_active = TRUE FOR UPDATE",
+            (rs, rowNum) -> {
+              Map<String, String> row = new HashMap<>();
+              for (JsonColumnPatch patch : patches) {
+                String column = patch.column().getColumn();
+                String json = rs.getString(column);
+                if (patch.column().isPhi()) {
+                  json = fieldEncryption.decrypt(json, column, id);
+                }
+                if (json == null && patch.column() == PatientJsonColumn.MEDICAL_INFO) {
+                  byte[] packed = rs.getBytes("medical_info_packed");
+                  json =
+                      packed == null
+                          ? null
+                          : JsonConverter.unpack(fieldEncryption.decrypt(packed, column, id));
+                }
+                row.put(column, json);
+              }
+              return row;
+            },
+            id);
+    if (rows.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, String> row = rows.get(0);
+    List<Object> args = new ArrayList<>();
+    for (JsonColumnPatch patch : patches) {
+      String current = row.get(patch.column().getColumn());
+      try {
+        ObjectNode document =
+            current == null
+                ? objectMapper.createObjectNode()
+                : (ObjectNode) objectMapper.readTree(current);
+        for (Map.Entry<String, String> field : patch.set().entrySet()) {
+          document.set(field.getKey(), objectMapper.readTree(field.getValue()));
+        }
+        document.remove(patch.remove());
+        String json = objectMapper.writeValueAsString(document);
+        if (patch.column() == PatientJsonColumn.MEDICAL_INFO) {
+          args.addAll(Arrays.asList(storedMedicalInfo(json, id)));
+        } else {
+          args.add(storedJson(patch.column(), json, id));
+        }
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException(
+            "Stored " + patch.column().getColumn() + " of patient " + id + " is not valid JSON", e);
+      }
+    }
+    args.add(Timestamp.valueOf(updatedAt));
+    args.add(id);
+    String assignments =
+        patches.stream()
+            .map(
+                patch ->
+                    patch.column() == PatientJsonColumn.MEDICAL_INFO
+                        ? "medical_info = ?, medical_info_packed = ?"
+                        : patch.column().getColumn() + " = ?")
+            .collect(Collectors.joining(", "));
+    return jdbcTemplate.update(
+        "UPDATE patients SET "
+            + assignments
+            + ", updated_at = ?, version = version + 1 WHERE id = ?",
+        args.toArray());
+  }
+
+  private boolean isMySql() {
+    Boolean result = mysql;
+    if (result == null) {
+      String product =
+          jdbcTemplate.execute(
+              (ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+      result = product != null && product.toLowerCase().contains("mysql");
+      mysql = result;
+    }
+    return result;
+  }
+
+  private static int rowsAffected(int[][] counts) {
+    // rewriteBatchedStatements reports SUCCESS_NO_INFO for rewritten statements
+    return Arrays.stream(counts)
+        .flatMapToInt(Arrays::stream)
+        .map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0))
+        .sum();
+  }
+}
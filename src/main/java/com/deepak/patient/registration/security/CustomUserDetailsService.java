@@ -1,9 +1,12 @@
 package com.deepak.patient.registration.security;
 
-import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientCredentials;
 import com.deepak.patient.registration.repository.PatientRepository;
-import java.util.Collections;
+import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -14,27 +17,35 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
+  /** Authority of clinic staff, who may act on patients other than themselves. */
+  public static final String STAFF_AUTHORITY = "STAFF";
+
   private final PatientRepository patientRepository;
 
+  /** IDs of the accounts that belong to clinic staff. */
+  @Value("${app.security.staff-account-ids:}")
+  private Set<Long> staffAccountIds = Set.of();
+
   @Override
   public UserDetails loadUserByUsername(String userId) throws UsernameNotFoundException {
     // Since we're using phone number as username in our system
     // But here userId could be the actual userId (from JWT) or phone number
-    Patient patient;
+    // Only the credentials are loaded; the patient's JSON columns are not needed here
+    PatientCredentials patient;
 
     try {
       // Try to parse as long (patient ID)
       Long id = Long.parseLong(userId);
       patient =
           patientRepository
-              .findById(id)
+              .findCredentialsById(id)
               .orElseThrow(
                   () -> new UsernameNotFoundException("User not found with id: " + userId));
     } catch (NumberFormatException e) {
       // If not a number, treat as phone number
       patient =
           patientRepository
-              .findByPhoneNumber(userId)
+              .findCredentialsByPhoneNumber(userId)
               .orElseThrow(
                   () -> new UsernameNotFoundException("User not found with phone: " + userId));
     }
@@ -42,12 +53,12 @@ public class CustomUserDetailsService implements UserDetailsService {
     // Create a UserDetails object with the patient's ID as the username
     // The password hash is not used for token authentication, but is required by UserDetails
     return User.builder()
-        .username(patient.getId().toString())
-        .password(patient.getPasswordHash())
-        .authorities(Collections.emptyList()) // No
-        // special
-        // roles
-        // for now
+        .username(patient.id().toString())
+        .password(patient.passwordHash())
+        .authorities(
+            staffAccountIds.contains(patient.id())
+                ? List.of(new SimpleGrantedAuthority(STAFF_AUTHORITY))
+                : List.of())
         .build();
   }
 }
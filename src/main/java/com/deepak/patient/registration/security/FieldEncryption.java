@@ -0,0 +1,316 @@
+package com.deepak.patient.registration.security;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.regex.Pattern;
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * AES-GCM encryption of PHI columns, and the HMAC blind index that lets {@code phone_number} be
+ * looked up without reading it.
+ *
+ * <p>Keys are decoded once, and {@link Cipher} and {@link Mac} instances are pooled, so a value
+ * costs one {@code init} and one pass over its bytes. The JDK's AES-GCM uses the CPU's AES and
+ * carry-less multiply instructions where available. Each ciphertext names the key it was written
+ * with and is bound to its column and patient ID, so retired keys keep decrypting and a value
+ * cannot be moved to another column or another patient's row.
+ *
+ * <p>{@code phone_number} itself stays in plaintext for now: it carries {@code uq_phone_number},
+ * and search, import and login still match on it. Once lookups run on the blind index, uniqueness
+ * moves to {@code uq_phone_number_hash} and the number can be encrypted like the other columns.
+ */
+public class FieldEncryption {
+
+  /** Prefix of an encrypted JSON column value, which is stored as a JSON string. */
+  private static final String TEXT_PREFIX = "\"phi:1:";
+
+  /** Format marker of an encrypted packed value; see {@code JsonConverter}. */
+  public static final byte ENCRYPTED = 2;
+
+  private static final int IV_LENGTH = 12;
+
+  private static final int TAG_BITS = 128;
+
+  private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9_-]{1,32}");
+
+  private final boolean enabled;
+  private final String activeKeyId;
+  private final Map<String, SecretKey> keys = new HashMap<>();
+  private final SecretKey blindIndexKey;
+  private final SecureRandom random = new SecureRandom();
+  private final BlockingQueue<Cipher> ciphers = new ArrayBlockingQueue<>(32);
+  private final BlockingQueue<Mac> macs = new ArrayBlockingQueue<>(32);
+
+  /**
+   * Decodes and checks the configured keys.
+   *
+   * @param settings the encryption settings
+   * @throws IllegalStateException if encryption is enabled without a valid active key and blind
+   *     index key, or a key is not 256 bits
+   */
+  public FieldEncryption(PatientProperties.Encryption settings) {
+    settings
+        .getKeys()
+        .forEach(
+            (id, key) -> {
+              if (!KEY_ID.matcher(id).matches()) {
+                throw new IllegalStateException("Invalid PHI key ID: " + id);
+              }
+              keys.put(id, new SecretKeySpec(decodeKey(key, "PHI key " + id), "AES"));
+            });
+    String blindIndex = settings.getBlindIndexKey();
+    this.blindIndexKey =
+        blindIndex == null || blindIndex.isBlank()
+            ? null
+            : new SecretKeySpec(decodeKey(blindIndex, "blind index key"), "HmacSHA256");
+    this.enabled = settings.isEnabled();
+    this.activeKeyId = settings.getActiveKeyId();
+    if (enabled && (!keys.containsKey(activeKeyId) || blindIndexKey == null)) {
+      throw new IllegalStateException(
+          "PHI encryption needs an active key in app.patient.encryption.keys and a blind index key");
+    }
+  }
+
+  private static byte[] decodeKey(String base64, String name) {
+    byte[] key = Base64.getDecoder().decode(base64.trim());
+    if (key.length != 32) {
+      throw new IllegalStateException(name + " must be 256 bits, base64 encoded");
+    }
+    return key;
+  }
+
+  /** Whether new values are encrypted. Encrypted values are decrypted either way. */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /** Returns the ID of the key new values are encrypted with. */
+  public String getActiveKeyId() {
+    return activeKeyId;
+  }
+
+  /**
+   * Encrypts JSON text for a JSON column, as a JSON string naming the key.
+   *
+   * @param json the JSON text
+   * @param column the column, bound into the ciphertext
+   * @param patientId the ID of the patient's row, bound into the ciphertext
+   * @return the encrypted value, or {@code json} unchanged if encryption is disabled
+   */
+  public String encrypt(String json, String column, long patientId) {
+    if (!enabled || json == null) {
+      return json;
+    }
+    byte[] sealed = seal(json.getBytes(StandardCharsets.UTF_8), column, patientId);
+    return TEXT_PREFIX + activeKeyId + ":" + Base64.getEncoder().encodeToString(sealed) + "\"";
+  }
+
+  /**
+   * Decrypts a JSON column value written by {@link #encrypt(String, String, long)}.
+   *
+   * @param stored the stored value
+   * @param column the column it was read from
+   * @param patientId the ID of the row it was read from
+   * @return the JSON text, or {@code stored} unchanged if it is not encrypted
+   * @throws IllegalStateException if the value was written for another column or patient
+   */
+  public String decrypt(String stored, String column, long patientId) {
+    if (!isEncrypted(stored)) {
+      return stored;
+    }
+    ByteBuffer json = decryptToUtf8(stored, column, patientId);
+    return new String(json.array(), json.position(), json.remaining(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Decrypts a JSON column value written by {@link #encrypt(String, String, long)} to its UTF-8
+   * bytes, which a JSON parser reads without the value being copied into a {@code String} first.
+   * The value is decoded once and decrypted in place.
+   *
+   * @param stored the stored value, which must be encrypted
+   * @param column the column it was read from
+   * @param patientId the ID of the row it was read from
+   * @return the JSON text as UTF-8, between the position and limit of an array-backed buffer
+   * @throws IllegalStateException if the value was written for another column or patient
+   */
+  public ByteBuffer decryptToUtf8(String stored, String column, long patientId) {
+    int keyEnd = stored.indexOf(':', TEXT_PREFIX.length());
+    String keyId = stored.substring(TEXT_PREFIX.length(), keyEnd);
+    byte[] text = stored.getBytes(StandardCharsets.ISO_8859_1);
+    ByteBuffer sealed =
+        Base64.getDecoder().decode(ByteBuffer.wrap(text, keyEnd + 1, text.length - keyEnd - 2));
+    return open(sealed.array(), sealed.remaining(), keyId, column, patientId);
+  }
+
+  /**
+   * Encrypts a packed value, prefixing it with {@link #ENCRYPTED} and the key ID.
+   *
+   * @param packed the packed value
+   * @param column the column, bound into the ciphertext
+   * @param patientId the ID of the patient's row, bound into the ciphertext
+   * @return the encrypted value, or {@code packed} unchanged if encryption is disabled
+   */
+  public byte[] encrypt(byte[] packed, String column, long patientId) {
+    if (!enabled || packed == null) {
+      return packed;
+    }
+    byte[] keyId = activeKeyId.getBytes(StandardCharsets.US_ASCII);
+    byte[] sealed = seal(packed, column, patientId);
+    return ByteBuffer.allocate(2 + keyId.length + sealed.length)
+        .put(ENCRYPTED)
+        .put((byte) keyId.length)
+        .put(keyId)
+        .put(sealed)
+        .array();
+  }
+
+  /**
+   * Decrypts a packed value written by {@link #encrypt(byte[], String, long)}.
+   *
+   * @param stored the stored value
+   * @param column the column it was read from
+   * @param patientId the ID of the row it was read from
+   * @return the packed value, or {@code stored} unchanged if it is not encrypted
+   * @throws IllegalStateException if the value was written for another column or patient
+   */
+  public byte[] decrypt(byte[] stored, String column, long patientId) {
+    if (!isEncrypted(stored)) {
+      return stored;
+    }
+    String keyId = new String(stored, 2, stored[1], StandardCharsets.US_ASCII);
+    byte[] sealed = Arrays.copyOfRange(stored, 2 + stored[1], stored.length);
+    ByteBuffer packed = open(sealed, sealed.length, keyId, column, patientId);
+    return Arrays.copyOfRange(packed.array(), packed.position(), packed.limit());
+  }
+
+  /** Whether a JSON column value was written by {@link #encrypt(String, String, long)}. */
+  public static boolean isEncrypted(String stored) {
+    return stored != null && stored.startsWith(TEXT_PREFIX);
+  }
+
+  /** Whether a packed value was written by {@link #encrypt(byte[], String, long)}. */
+  public static boolean isEncrypted(byte[] stored) {
+    return stored != null && stored.length > 0 && stored[0] == ENCRYPTED;
+  }
+
+  /**
+   * Returns the ID of the key a stored value was encrypted with.
+   *
+   * @param stored a JSON column value
+   * @return the key ID, or {@code null} if the value is not encrypted
+   */
+  public static String keyIdOf(String stored) {
+    return isEncrypted(stored)
+        ? stored.substring(TEXT_PREFIX.length(), stored.indexOf(':', TEXT_PREFIX.length()))
+        : null;
+  }
+
+  /**
+   * Returns the ID of the key a stored packed value was encrypted with.
+   *
+   * @param stored a packed value
+   * @return the key ID, or {@code null} if the value is not encrypted
+   */
+  public static String keyIdOf(byte[] stored) {
+    return isEncrypted(stored) ? new String(stored, 2, stored[1], StandardCharsets.US_ASCII) : null;
+  }
+
+  /**
+   * Computes the blind index of a phone number: its HMAC-SHA256 under the blind index key, which
+   * finds the row by equality without revealing the number.
+   *
+   * @param phoneNumber the phone number
+   * @return the 32-byte index, or {@code null} if no blind index key is configured
+   */
+  public byte[] blindIndex(String phoneNumber) {
+    if (blindIndexKey == null || phoneNumber == null) {
+      return null;
+    }
+    Mac mac = macs.poll();
+    try {
+      if (mac == null) {
+        mac = Mac.getInstance("HmacSHA256");
+        mac.init(blindIndexKey);
+      }
+      return mac.doFinal(phoneNumber.getBytes(StandardCharsets.US_ASCII));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Error computing the phone number index", e);
+    } finally {
+      if (mac != null) {
+        macs.offer(mac);
+      }
+    }
+  }
+
+  /** Encrypts under the active key, returning the IV followed by the ciphertext and tag. */
+  private byte[] seal(byte[] plaintext, String column, long patientId) {
+    byte[] iv = new byte[IV_LENGTH];
+    random.nextBytes(iv);
+    byte[] sealed = new byte[IV_LENGTH + plaintext.length + TAG_BITS / 8];
+    System.arraycopy(iv, 0, sealed, 0, IV_LENGTH);
+    Cipher cipher = acquireCipher();
+    try {
+      cipher.init(Cipher.ENCRYPT_MODE, keys.get(activeKeyId), new GCMParameterSpec(TAG_BITS, iv));
+      cipher.updateAAD(associatedData(column, patientId));
+      cipher.doFinal(plaintext, 0, plaintext.length, sealed, IV_LENGTH);
+      return sealed;
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Error encrypting " + column, e);
+    } finally {
+      ciphers.offer(cipher);
+    }
+  }
+
+  /**
+   * Decrypts the first {@code length} bytes of {@code sealed}, the IV followed by the ciphertext
+   * and tag, in place, returning the plaintext as a view of the same array.
+   */
+  private ByteBuffer open(byte[] sealed, int length, String keyId, String column, long patientId) {
+    SecretKey key = keys.get(keyId);
+    if (key == null) {
+      throw new IllegalStateException(column + " is encrypted with unknown key " + keyId);
+    }
+    Cipher cipher = acquireCipher();
+    try {
+      cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, sealed, 0, IV_LENGTH));
+      cipher.updateAAD(associatedData(column, patientId));
+      int plaintext = cipher.doFinal(sealed, IV_LENGTH, length - IV_LENGTH, sealed, IV_LENGTH);
+      return ByteBuffer.wrap(sealed, IV_LENGTH, plaintext);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Error decrypting " + column + " of patient " + patientId, e);
+    } finally {
+      ciphers.offer(cipher);
+    }
+  }
+
+  /** The column name followed by the patient ID, which the tag authenticates along the value. */
+  private static byte[] associatedData(String column, long patientId) {
+    byte[] name = column.getBytes(StandardCharsets.US_ASCII);
+    return ByteBuffer.allocate(name.length + Long.BYTES).put(name).putLong(patientId).array();
+  }
+
+  private Cipher acquireCipher() {
+    Cipher cipher = ciphers.poll();
+    if (cipher != null) {
+      return cipher;
+    }
+    try {
+      return Cipher.getInstance("AES/GCM/NoPadding");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("AES-GCM is not available", e);
+    }
+  }
+}
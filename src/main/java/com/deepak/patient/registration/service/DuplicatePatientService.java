@@ -0,0 +1,496 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Address;
+import com.deepak.patient.registration.model.patient.DuplicateCandidate;
+import com.deepak.patient.registration.model.patient.DuplicateScanReport;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.repository.PatientRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Finds patients registered more than once, typically by different clinics under different phone
+ * numbers, by comparing their personal details.
+ *
+ * <p>Comparing every pair of patients is quadratic, so patients are first grouped into blocks by
+ * keys a duplicate would almost certainly share: the Soundex codes of the first and last name, in
+ * either order, with the birth year, and the same codes with the postal code, so a mistyped birth
+ * year or a move is still caught by the other key. Only patients in the same block are compared,
+ * which keeps the work close to linear while blocks stay small; blocks over {@code max-block-size}
+ * are skipped and counted in the report. Blocks are scored in parallel on a fork/join pool, each
+ * pair by name similarity (Jaro-Winkler, also with the name parts sorted so reordered names match),
+ * birthdate, address and sex. The name is compared last, and only if the other details leave the
+ * pair a chance of reaching {@code min-score}.
+ *
+ * <p>Every blocking key starts with the name codes, so patients are split into {@code partitions}
+ * by those codes and each partition is read and scored in its own pass over the table. Only one
+ * partition's profiles are in memory at a time, at the cost of reading the table once per pass.
+ *
+ * <p>A scan runs on a schedule and on demand. The latest report is kept in memory for staff to
+ * review and merge the duplicates it lists.
+ */
+@Service
+public class DuplicatePatientService {
+
+  private static final Logger logger = LoggerFactory.getLogger(DuplicatePatientService.class);
+
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+  /** Blocks scored by one fork/join task before it stops splitting. */
+  private static final int BLOCKS_PER_TASK = 64;
+
+  private static final double NAME_WEIGHT = 0.55;
+  private static final double BIRTHDATE_WEIGHT = 0.30;
+  private static final double ADDRESS_WEIGHT = 0.10;
+  private static final double SEX_WEIGHT = 0.05;
+
+  /** Name similarity from which the names are reported as matching. */
+  private static final double NAME_MATCH = 0.9;
+
+  private static final Comparator<DuplicateCandidate> HIGHEST_SCORE_FIRST =
+      Comparator.comparingDouble(DuplicateCandidate::score)
+          .reversed()
+          .thenComparing(DuplicateCandidate::patientId)
+          .thenComparing(DuplicateCandidate::duplicateId);
+
+  private final PatientRepository patientRepository;
+  private final PatientProperties.Deduplication properties;
+  private final Semaphore running = new Semaphore(1);
+
+  /** Report of the latest completed scan; {@code null} until one completes. */
+  private volatile DuplicateScanReport lastReport;
+
+  public DuplicatePatientService(
+      PatientRepository patientRepository, PatientProperties patientProperties) {
+    this.patientRepository = patientRepository;
+    this.properties = patientProperties.getDeduplication();
+  }
+
+  /**
+   * Returns the report of the latest completed scan.
+   *
+   * @return the report, or {@code null} if no scan has completed yet
+   */
+  public DuplicateScanReport getLastReport() {
+    return lastReport;
+  }
+
+  /**
+   * Returns the probable duplicates of one patient found by the latest scan.
+   *
+   * @param patientId the patient ID
+   * @return the pairs involving the patient, highest score first
+   */
+  public List<DuplicateCandidate> getDuplicatesOf(Long patientId) {
+    DuplicateScanReport report = lastReport;
+    if (report == null) {
+      return List.of();
+    }
+    return report.candidates().stream()
+        .filter(c -> c.patientId().equals(patientId) || c.duplicateId().equals(patientId))
+        .toList();
+  }
+
+  /** Runs the scheduled scan, unless a scan is already running. */
+  @Scheduled(cron = "${app.patient.deduplication.scan-cron:0 0 4 * * *}")
+  public void scheduledScan() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    try {
+      scan();
+    } catch (TooManyRequestsException e) {
+      logger.info("Skipping scheduled duplicate scan, another scan is in progress");
+    } catch (RuntimeException e) {
+      logger.error("Scheduled duplicate scan failed", e);
+    }
+  }
+
+  /**
+   * Scans every patient for probable duplicates and keeps the report for later review.
+   *
+   * @return the scan report
+   * @throws TooManyRequestsException if another scan is already running
+   */
+  public DuplicateScanReport scan() {
+    if (!running.tryAcquire()) {
+      throw new TooManyRequestsException(
+          "A duplicate scan is already in progress, please retry later", RETRY_AFTER);
+    }
+    try {
+      long start = System.currentTimeMillis();
+      int partitions = Math.max(1, properties.getPartitions());
+      int parallelism =
+          properties.getParallelism() > 0
+              ? properties.getParallelism()
+              : Runtime.getRuntime().availableProcessors();
+      int patients = 0;
+      int blockCount = 0;
+      int skipped = 0;
+      long comparisons = 0;
+      List<DuplicateCandidate> candidates = List.of();
+      ForkJoinPool pool = new ForkJoinPool(parallelism);
+      try {
+        for (int partition = 0; partition < partitions; partition++) {
+          Map<String, List<Profile>> blocksByKey = new HashMap<>();
+          int[] loaded = {0};
+          int current = partition;
+          patientRepository.forEachPersonalDetails(
+              (id, details) -> {
+                Profile profile = Profile.of(id, details);
+                if (profile == null || profile.partition(partitions) != current) {
+                  return;
+                }
+                loaded[0]++;
+                for (String key : profile.blockingKeys()) {
+                  blocksByKey.computeIfAbsent(key, k -> new ArrayList<>(2)).add(profile);
+                }
+              });
+          patients += loaded[0];
+
+          List<List<Profile>> blocks = new ArrayList<>();
+          for (List<Profile> block : blocksByKey.values()) {
+            if (block.size() > properties.getMaxBlockSize()) {
+              skipped++;
+            } else if (block.size() > 1) {
+              blocks.add(block);
+            }
+          }
+          blockCount += blocks.size();
+
+          Scored scored =
+              pool.invoke(new ScoreBlocks(blocks, 0, blocks.size(), properties.getMinScore()));
+          comparisons += scored.comparisons();
+          candidates = best(candidates, scored.candidates());
+        }
+      } finally {
+        pool.shutdown();
+      }
+
+      DuplicateScanReport report =
+          new DuplicateScanReport(
+              OffsetDateTime.now(),
+              patients,
+              blockCount,
+              skipped,
+              comparisons,
+              System.currentTimeMillis() - start,
+              candidates);
+      lastReport = report;
+      logger.info(
+          "Duplicate scan compared {} pairs of {} patients in {} blocks ({} skipped), "
+              + "found {} probable duplicates in {} ms",
+          report.comparisons(),
+          report.patientsScanned(),
+          report.blocks(),
+          report.skippedBlocks(),
+          candidates.size(),
+          report.tookMillis());
+      return report;
+    } finally {
+      running.release();
+    }
+  }
+
+  /** Merges the pairs found so far with those of another partition, keeping the best. */
+  private List<DuplicateCandidate> best(
+      List<DuplicateCandidate> found, List<DuplicateCandidate> more) {
+    // A pair sharing several blocking keys is scored once per block, always alike
+    return Stream.concat(found.stream(), more.stream())
+        .distinct()
+        .sorted(HIGHEST_SCORE_FIRST)
+        .limit(properties.getMaxCandidates())
+        .toList();
+  }
+
+  /**
+   * Scores how alike two patients are.
+   *
+   * @return the pair, or {@code null} if it scores below {@code minScore}
+   */
+  private static DuplicateCandidate score(Profile a, Profile b, double minScore) {
+    double birthdate = birthdateSimilarity(a.birthdate(), b.birthdate());
+    double address = addressSimilarity(a, b);
+    double sex = a.sex() == null || b.sex() == null ? 0.5 : a.sex().equals(b.sex()) ? 1.0 : 0.0;
+    double score = BIRTHDATE_WEIGHT * birthdate + ADDRESS_WEIGHT * address + SEX_WEIGHT * sex;
+    if (score + NAME_WEIGHT < minScore) {
+      return null;
+    }
+    double name =
+        Math.max(jaroWinkler(a.name(), b.name()), jaroWinkler(a.sortedName(), b.sortedName()));
+    score += NAME_WEIGHT * name;
+    if (score < minScore) {
+      return null;
+    }
+    List<String> matchedOn = new ArrayList<>(4);
+    if (name >= NAME_MATCH) {
+      matchedOn.add("name");
+    }
+    if (birthdate == 1.0) {
+      matchedOn.add("birthdate");
+    }
+    if (address == 1.0) {
+      matchedOn.add("address");
+    }
+    if (sex == 1.0) {
+      matchedOn.add("sex");
+    }
+    long low = Math.min(a.id(), b.id());
+    long high = Math.max(a.id(), b.id());
+    return new DuplicateCandidate(low, high, Math.round(score * 1000) / 1000.0, matchedOn);
+  }
+
+  /** Equal dates score 1; a swapped day and month, a common typing slip, scores 0.8. */
+  private static double birthdateSimilarity(LocalDate a, LocalDate b) {
+    if (a == null || b == null) {
+      return 0.5;
+    }
+    if (a.equals(b)) {
+      return 1.0;
+    }
+    if (a.getYear() == b.getYear()
+        && a.getMonthValue() == b.getDayOfMonth()
+        && a.getDayOfMonth() == b.getMonthValue()) {
+      return 0.8;
+    }
+    return a.getYear() == b.getYear() && a.getMonthValue() == b.getMonthValue() ? 0.4 : 0.0;
+  }
+
+  /** The same postal code scores 1, the same city 0.5, and an unknown address 0.25. */
+  private static double addressSimilarity(Profile a, Profile b) {
+    if (a.postalCode() != null && a.postalCode().equals(b.postalCode())) {
+      return 1.0;
+    }
+    if (a.city() != null && a.city().equals(b.city())) {
+      return 0.5;
+    }
+    return (a.postalCode() == null && a.city() == null)
+            || (b.postalCode() == null && b.city() == null)
+        ? 0.25
+        : 0.0;
+  }
+
+  /** Jaro-Winkler similarity, from 0 for nothing in common to 1 for equal strings. */
+  static double jaroWinkler(String a, String b) {
+    if (a.equals(b)) {
+      return 1.0;
+    }
+    int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+    boolean[] aMatched = new boolean[a.length()];
+    boolean[] bMatched = new boolean[b.length()];
+    int matches = 0;
+    for (int i = 0; i < a.length(); i++) {
+      int from = Math.max(0, i - window);
+      int to = Math.min(b.length(), i + window + 1);
+      for (int j = from; j < to; j++) {
+        if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+          aMatched[i] = true;
+          bMatched[j] = true;
+          matches++;
+          break;
+        }
+      }
+    }
+    if (matches == 0) {
+      return 0.0;
+    }
+    int transpositions = 0;
+    for (int i = 0, j = 0; i < a.length(); i++) {
+      if (aMatched[i]) {
+        while (!bMatched[j]) {
+          j++;
+        }
+        if (a.charAt(i) != b.charAt(j)) {
+          transpositions++;
+        }
+        j++;
+      }
+    }
+    double m = matches;
+    double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3.0;
+    int prefix = 0;
+    while (prefix < 4
+        && prefix < a.length()
+        && prefix < b.length()
+        && a.charAt(prefix) == b.charAt(prefix)) {
+      prefix++;
+    }
+    return jaro + prefix * 0.1 * (1.0 - jaro);
+  }
+
+  /** American Soundex code of a word, or the word itself if it has no Latin letters. */
+  static String soundex(String word) {
+    String letters = word.replaceAll("[^a-z]", "");
+    if (letters.isEmpty()) {
+      return word;
+    }
+    StringBuilder code = new StringBuilder(4).append(Character.toUpperCase(letters.charAt(0)));
+    char previous = soundexDigit(letters.charAt(0));
+    for (int i = 1; i < letters.length() && code.length() < 4; i++) {
+      char letter = letters.charAt(i);
+      char digit = soundexDigit(letter);
+      if (digit != '0' && digit != previous) {
+        code.append(digit);
+      }
+      // H and W do not separate letters with the same code; vowels do
+      if (letter != 'h' && letter != 'w') {
+        previous = digit;
+      }
+    }
+    while (code.length() < 4) {
+      code.append('0');
+    }
+    return code.toString();
+  }
+
+  private static char soundexDigit(char letter) {
+    return switch (letter) {
+      case 'b', 'f', 'p', 'v' -> '1';
+      case 'c', 'g', 'j', 'k', 'q', 's', 'x', 'z' -> '2';
+      case 'd', 't' -> '3';
+      case 'l' -> '4';
+      case 'm', 'n' -> '5';
+      case 'r' -> '6';
+      default -> '0';
+    };
+  }
+
+  private static String lowerCase(String value) {
+    return value == null || value.isBlank() ? null : value.strip().toLowerCase(Locale.ROOT);
+  }
+
+  /** The personal details of one patient that duplicates are matched on, normalized. */
+  private record Profile(
+      long id,
+      String name,
+      String sortedName,
+      String firstCode,
+      String lastCode,
+      LocalDate birthdate,
+      String sex,
+      String postalCode,
+      String city) {
+
+    /** Builds the profile of a patient, or returns {@code null} if the patient has no name. */
+    static Profile of(Long id, PersonalDetails details) {
+      if (details == null || details.getName() == null) {
+        return null;
+      }
+      String name =
+          details
+              .getName()
+              .toLowerCase(Locale.ROOT)
+              .replaceAll("[^\\p{L} ]", " ")
+              .replaceAll("\\s+", " ")
+              .strip();
+      if (name.isEmpty()) {
+        return null;
+      }
+      String[] parts = name.split(" ");
+      Address address = details.getAddress();
+      return new Profile(
+          id,
+          name,
+          Arrays.stream(parts).sorted().collect(Collectors.joining(" ")),
+          soundex(parts[0]),
+          soundex(parts[parts.length - 1]),
+          details.getBirthdate(),
+          lowerCase(details.getSex()),
+          address != null && address.getPostalCode() != null
+              ? address.getPostalCode().replaceAll("\\s", "")
+              : null,
+          address != null ? lowerCase(address.getCity()) : null);
+    }
+
+    /** The name codes in a fixed order, shared by every blocking key of this patient. */
+    String codes() {
+      return firstCode.compareTo(lastCode) <= 0
+          ? firstCode + "+" + lastCode
+          : lastCode + "+" + firstCode;
+    }
+
+    /** Partition of the scan this patient is read in; all its blocks fall in the same one. */
+    int partition(int partitions) {
+      return Math.floorMod(codes().hashCode(), partitions);
+    }
+
+    /** Keys of the blocks this patient is compared within; none if it cannot be blocked. */
+    List<String> blockingKeys() {
+      String codes = codes();
+      List<String> keys = new ArrayList<>(2);
+      if (birthdate != null) {
+        keys.add(codes + "|" + birthdate.getYear());
+      }
+      if (postalCode != null) {
+        keys.add(codes + "|" + postalCode);
+      }
+      return keys;
+    }
+  }
+
+  /** Pairs scored by a task and the probable duplicates among them. */
+  private record Scored(long comparisons, List<DuplicateCandidate> candidates) {}
+
+  /** Scores every pair within a range of blocks, splitting large ranges across the pool. */
+  private static final class ScoreBlocks extends RecursiveTask<Scored> {
+    private final List<List<Profile>> blocks;
+    private final int from;
+    private final int to;
+    private final double minScore;
+
+    ScoreBlocks(List<List<Profile>> blocks, int from, int to, double minScore) {
+      this.blocks = blocks;
+      this.from = from;
+      this.to = to;
+      this.minScore = minScore;
+    }
+
+    @Override
+    protected Scored compute() {
+      if (to - from > BLOCKS_PER_TASK) {
+        int middle = (from + to) >>> 1;
+        ScoreBlocks left = new ScoreBlocks(blocks, from, middle, minScore);
+        left.fork();
+        Scored right = new ScoreBlocks(blocks, middle, to, minScore).compute();
+        Scored joined = left.join();
+        List<DuplicateCandidate> candidates = new ArrayList<>(joined.candidates());
+        candidates.addAll(right.candidates());
+        return new Scored(joined.comparisons() + right.comparisons(), candidates);
+      }
+      long comparisons = 0;
+      List<DuplicateCandidate> candidates = new ArrayList<>();
+      for (int b = from; b < to; b++) {
+        List<Profile> block = blocks.get(b);
+        for (int i = 0; i < block.size(); i++) {
+          for (int j = i + 1; j < block.size(); j++) {
+            comparisons++;
+            DuplicateCandidate candidate = score(block.get(i), block.get(j), minScore);
+            if (candidate != null) {
+              candidates.add(candidate);
+            }
+          }
+        }
+      }
+      return new Scored(comparisons, candidates);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.repository.PatientRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Buffers last-login timestamps and writes them in JDBC batches that touch only {@code
+ * last_login_at}, so a login does not wait for a write.
+ *
+ * <p>Each patient has at most one buffered timestamp, the latest, so the buffer is bounded by the
+ * number of patients who logged in since the last flush. Once it reaches its capacity, logins are
+ * written inline. A crash loses at most one flush interval of timestamps, which only delays the
+ * last login shown to the patient.
+ */
+@Service
+public class LastLoginWriteBehindService {
+
+  private static final Logger logger = LoggerFactory.getLogger(LastLoginWriteBehindService.class);
+
+  private final PatientRepository patientRepository;
+  private final PatientProperties.LastLogin properties;
+  private final ConcurrentHashMap<Long, OffsetDateTime> pending = new ConcurrentHashMap<>();
+
+  public LastLoginWriteBehindService(
+      PatientRepository patientRepository, PatientProperties patientProperties) {
+    this.patientRepository = patientRepository;
+    this.properties = patientProperties.getLastLogin();
+  }
+
+  /**
+   * Records a successful login, to be written on the next flush.
+   *
+   * @param patientId the patient ID
+   * @param loginAt when the patient logged in
+   */
+  public void recordLogin(Long patientId, OffsetDateTime loginAt) {
+    if (properties.isEnabled()
+        && (pending.size() < properties.getCapacity() || pending.containsKey(patientId))) {
+      pending.merge(patientId, loginAt, (a, b) -> a.isAfter(b) ? a : b);
+      return;
+    }
+    patientRepository.updateLastLoginTimes(Map.of(patientId, loginAt));
+  }
+
+  /** Writes buffered timestamps; they are retried on the next run if the update fails. */
+  @Scheduled(fixedDelayString = "${app.patient.last-login.flush-interval:5s}")
+  public synchronized void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<Long, OffsetDateTime> batch = Map.copyOf(pending);
+    try {
+      int updated = patientRepository.updateLastLoginTimes(batch);
+      logger.debug("Flushed {} last-login timestamps, {} updated", batch.size(), updated);
+    } catch (DataAccessException e) {
+      logger.error("Failed to flush {} last-login timestamps, will retry", batch.size(), e);
+      return;
+    }
+    // Keep entries that a newer login replaced while the batch was being written
+    batch.forEach(pending::remove);
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+    if (!pending.isEmpty()) {
+      logger.warn("{} last-login timestamps were not flushed on shutdown", pending.size());
+    }
+  }
+}
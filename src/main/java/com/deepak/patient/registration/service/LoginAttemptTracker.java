@@ -0,0 +1,193 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.appointment.registration.exception.AccountLockedException;
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.repository.PatientRepository;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.LoginAttempts;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts failed logins per phone number in memory and locks accounts that reach the limit.
+ *
+ * <p>Locked numbers are turned away by {@link #checkNotLocked(String)} before the patient is loaded
+ * or any password is hashed, so a brute-force attempt costs a map lookup. Counters live in a
+ * bounded Caffeine map whose per-entry atomic updates keep concurrent attempts on different numbers
+ * from contending; failures older than the lock duration are forgotten. Changes for registered
+ * patients are written to {@code failed_login_attempts} and {@code locked_until} in periodic
+ * batches, and a lock found on a loaded patient is picked up again after a restart.
+ */
+@Component
+public class LoginAttemptTracker {
+
+  private static final Logger logger = LoggerFactory.getLogger(LoginAttemptTracker.class);
+
+  private static final LoginAttempts CLEARED = new LoginAttempts(0, null);
+
+  private final PatientRepository patientRepository;
+  private final PatientCache patientCache;
+  private final PatientProperties.Lockout properties;
+  private final Cache<String, Attempts> attempts;
+  private final ConcurrentHashMap<Long, LoginAttempts> pending = new ConcurrentHashMap<>();
+
+  public LoginAttemptTracker(
+      PatientRepository patientRepository,
+      PatientCache patientCache,
+      PatientProperties patientProperties) {
+    this.patientRepository = patientRepository;
+    this.patientCache = patientCache;
+    this.properties = patientProperties.getLockout();
+    this.attempts =
+        Caffeine.newBuilder()
+            .maximumSize(properties.getMaxTrackedNumbers())
+            .expireAfterWrite(properties.getLockDuration())
+            .build();
+  }
+
+  /**
+   * Rejects a login for a phone number that is currently locked.
+   *
+   * @param phoneNumber the phone number logging in
+   * @throws AccountLockedException if the number is locked
+   */
+  public void checkNotLocked(String phoneNumber) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    Attempts current = attempts.getIfPresent(phoneNumber);
+    if (current != null) {
+      rejectIfLocked(current.lockedUntil());
+    }
+  }
+
+  /**
+   * Rejects a login for a loaded patient whose stored lock has not expired, remembering the lock so
+   * later attempts are turned away before the patient is loaded.
+   *
+   * @param patient the patient logging in
+   * @throws AccountLockedException if the patient is locked
+   */
+  public void checkNotLocked(Patient patient) {
+    if (!properties.isEnabled() || patient.getLockedUntil() == null) {
+      return;
+    }
+    Instant lockedUntil = patient.getLockedUntil().toInstant();
+    if (lockedUntil.isAfter(Instant.now())) {
+      attempts
+          .asMap()
+          .merge(
+              patient.getPhoneNumber(),
+              new Attempts(patient.getFailedLoginAttempts(), lockedUntil),
+              (existing, stored) -> existing.isLocked() ? existing : stored);
+      rejectIfLocked(lockedUntil);
+    }
+  }
+
+  /**
+   * Records a failed login, locking the account once the limit is reached.
+   *
+   * @param phoneNumber the phone number that failed to log in
+   * @param patientId the patient's ID, or {@code null} if no patient has this number
+   */
+  public void recordFailure(String phoneNumber, Long patientId) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    Attempts updated =
+        attempts
+            .asMap()
+            .compute(
+                phoneNumber,
+                (phone, current) -> {
+                  int failures = (current == null ? 0 : current.failures()) + 1;
+                  Instant lockedUntil =
+                      failures >= properties.getMaxFailedAttempts()
+                          ? Instant.now().plus(properties.getLockDuration())
+                          : null;
+                  return new Attempts(failures, lockedUntil);
+                });
+    if (updated.isLocked()) {
+      logger.warn(
+          "Account locked after {} failed logins for phone number: {}",
+          updated.failures(),
+          phoneNumber);
+    }
+    if (patientId != null) {
+      pending.put(patientId, updated.toLoginAttempts());
+    }
+  }
+
+  /**
+   * Records a successful login, clearing the patient's failed attempts.
+   *
+   * @param patient the patient who logged in
+   */
+  public void recordSuccess(Patient patient) {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    Attempts previous = attempts.asMap().remove(patient.getPhoneNumber());
+    if (previous != null || patient.getFailedLoginAttempts() > 0) {
+      pending.put(patient.getId(), CLEARED);
+    }
+  }
+
+  /** Writes changed attempt counts; they are retried on the next run if the update fails. */
+  @Scheduled(fixedDelayString = "${app.patient.lockout.flush-interval:5s}")
+  public synchronized void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Map<Long, LoginAttempts> batch = Map.copyOf(pending);
+    try {
+      patientRepository.updateLoginAttempts(batch);
+    } catch (DataAccessException e) {
+      logger.error("Failed to flush login attempts for {} patients, will retry", batch.size(), e);
+      return;
+    }
+    batch.forEach(pending::remove);
+    // Cached patients must not hide a stored lock once the in-memory entry is evicted
+    batch.keySet().forEach(id -> patientCache.invalidate(id, null));
+  }
+
+  @PreDestroy
+  void flushOnShutdown() {
+    flush();
+  }
+
+  private static void rejectIfLocked(Instant lockedUntil) {
+    if (lockedUntil == null) {
+      return;
+    }
+    Duration remaining = Duration.between(Instant.now(), lockedUntil);
+    if (!remaining.isNegative() && !remaining.isZero()) {
+      throw new AccountLockedException(
+          "Account is locked after too many failed logins. Please try again later.", remaining);
+    }
+  }
+
+  /** Failed login state of one phone number. */
+  private record Attempts(int failures, Instant lockedUntil) {
+
+    boolean isLocked() {
+      return lockedUntil != null && lockedUntil.isAfter(Instant.now());
+    }
+
+    LoginAttempts toLoginAttempts() {
+      return new LoginAttempts(
+          failures, lockedUntil != null ? lockedUntil.atOffset(ZoneOffset.UTC) : null);
+    }
+  }
+}
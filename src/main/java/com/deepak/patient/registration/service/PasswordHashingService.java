@@ -0,0 +1,270 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.deepak.patient.registration.config.PatientProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs every BCrypt hash and verification on a small fixed pool of platform threads.
+ *
+ * <p>Request threads are virtual, so hashing inline would let a login flood run as many BCrypt
+ * rounds in parallel as there are requests and starve every other endpoint of CPU. Here at most one
+ * hash per pool thread runs at a time and a bounded queue absorbs short bursts. When the queue is
+ * full, callers are turned away immediately with a 429 instead of piling up. Background work such
+ * as bulk imports keeps at most one hash per thread queued and waits for space rather than being
+ * turned away.
+ *
+ * <p>Unless configured explicitly, the BCrypt cost is calibrated at startup: the highest cost whose
+ * hash fits the configured latency budget on this hardware, within fixed bounds. Stored hashes with
+ * a lower cost are upgraded on the next successful login (see {@link #needsRehash}). Hashes with a
+ * higher cost are kept, so instances that calibrate differently never rehash each other's hashes
+ * back and forth; set {@code app.patient.password-hashing.strength} to use one cost everywhere.
+ *
+ * <p>Publishes {@code patient.password.hash} (time spent hashing, tagged by operation), {@code
+ * patient.password.hash.queue.depth}, {@code patient.password.hash.rejected} and {@code
+ * patient.password.hash.strength}.
+ */
+@Service
+public class PasswordHashingService {
+
+  private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+  /** How long background work waits before offering a hash to a full queue again. */
+  private static final long BACKGROUND_RETRY_MILLIS = 50;
+
+  /** Hashes measured per calibration, keeping the fastest to discount startup noise. */
+  private static final int CALIBRATION_SAMPLES = 3;
+
+  private final int strength;
+  private final BCryptPasswordEncoder encoder;
+  private final ThreadPoolExecutor executor;
+  private final Semaphore backgroundSlots;
+  private final Duration retryAfter;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejected;
+
+  public PasswordHashingService(PatientProperties patientProperties, MeterRegistry meterRegistry) {
+    PatientProperties.PasswordHashing properties = patientProperties.getPasswordHashing();
+    this.strength = properties.getStrength() > 0 ? properties.getStrength() : calibrate(properties);
+    this.encoder = new BCryptPasswordEncoder(strength);
+    int threads =
+        properties.getThreads() > 0
+            ? properties.getThreads()
+            : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            task -> {
+              Thread thread = new Thread(task, "password-hash-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    this.backgroundSlots = new Semaphore(threads);
+    this.retryAfter = properties.getRetryAfter();
+
+    this.encodeTimer =
+        Timer.builder("patient.password.hash")
+            .description("Time spent hashing or verifying a password")
+            .tag("operation", "encode")
+            .register(meterRegistry);
+    this.matchesTimer =
+        Timer.builder("patient.password.hash")
+            .description("Time spent hashing or verifying a password")
+            .tag("operation", "matches")
+            .register(meterRegistry);
+    this.rejected =
+        Counter.builder("patient.password.hash.rejected")
+            .description("Password hashes turned away because the queue was full")
+            .register(meterRegistry);
+    Gauge.builder("patient.password.hash.queue.depth", executor, e -> e.getQueue().size())
+        .description("Password hashes waiting for a thread")
+        .register(meterRegistry);
+    Gauge.builder("patient.password.hash.strength", this, PasswordHashingService::strength)
+        .description("BCrypt cost used for new password hashes")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns the BCrypt cost used for new hashes.
+   *
+   * @return the BCrypt cost
+   */
+  public int strength() {
+    return strength;
+  }
+
+  /**
+   * Checks whether a stored hash was made with a lower cost than new hashes, so that it should be
+   * strengthened the next time the password is known. A hash with a higher cost, for example from
+   * an instance that calibrated on faster hardware, is left alone.
+   *
+   * @param passwordHash the stored BCrypt hash
+   * @return {@code true} if the hash should be recomputed
+   */
+  public boolean needsRehash(String passwordHash) {
+    // BCrypt hashes look like $2a$10$..., with the cost in the third field
+    if (passwordHash == null || passwordHash.length() < 7 || passwordHash.charAt(3) != '$') {
+      return false;
+    }
+    try {
+      return Integer.parseInt(passwordHash.substring(4, 6)) < strength;
+    } catch (NumberFormatException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Hashes a password.
+   *
+   * @param rawPassword the password to hash
+   * @return the BCrypt hash
+   * @throws TooManyRequestsException if too many hashes are already waiting
+   */
+  public String encode(CharSequence rawPassword) {
+    return run(() -> encoder.encode(rawPassword), encodeTimer);
+  }
+
+  /**
+   * Checks a password against a stored hash.
+   *
+   * @param rawPassword the password to check
+   * @param passwordHash the stored BCrypt hash
+   * @return {@code true} if the password matches
+   * @throws TooManyRequestsException if too many hashes are already waiting
+   */
+  public boolean matches(CharSequence rawPassword, String passwordHash) {
+    return run(() -> encoder.matches(rawPassword, passwordHash), matchesTimer);
+  }
+
+  /**
+   * Hashes a password for background work. The calling thread waits until the hash can be queued
+   * without crowding out interactive callers; the hash itself completes asynchronously.
+   *
+   * @param rawPassword the password to hash
+   * @return the BCrypt hash, once computed
+   * @throws InterruptedException if interrupted while waiting to queue the hash
+   */
+  public CompletableFuture<String> encodeInBackground(CharSequence rawPassword)
+      throws InterruptedException {
+    backgroundSlots.acquire();
+    CompletableFuture<String> result = new CompletableFuture<>();
+    Runnable task =
+        () -> {
+          try {
+            result.complete(encodeTimer.record(() -> encoder.encode(rawPassword)));
+          } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+          } finally {
+            backgroundSlots.release();
+          }
+        };
+    while (true) {
+      try {
+        executor.execute(task);
+        return result;
+      } catch (RejectedExecutionException e) {
+        if (executor.isShutdown()) {
+          backgroundSlots.release();
+          throw e;
+        }
+        Thread.sleep(BACKGROUND_RETRY_MILLIS);
+      }
+    }
+  }
+
+  private <T> T run(Callable<T> hash, Timer timer) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timer.recordCallable(hash));
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      logger.warn("Password hash rejected - {} already queued", executor.getQueue().size());
+      throw new TooManyRequestsException(
+          "Too many sign-in requests in progress, please retry", retryAfter);
+    }
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new TooManyRequestsException(
+          "Password check was interrupted, please retry", retryAfter);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  /**
+   * Picks the highest cost within the configured bounds whose hash fits the latency budget. Each
+   * extra round of cost doubles the hash time, so one measurement at the lowest cost is enough.
+   */
+  private static int calibrate(PatientProperties.PasswordHashing properties) {
+    int strength = properties.getMinStrength();
+    long nanos = measure(strength);
+    long budget = properties.getTargetLatency().toNanos();
+    while (strength < properties.getMaxStrength() && nanos * 2 <= budget) {
+      strength++;
+      nanos *= 2;
+    }
+    if (nanos > budget) {
+      logger.warn(
+          "BCrypt cost {} takes {} ms, over the {} ms target",
+          strength,
+          nanos / 1_000_000,
+          properties.getTargetLatency().toMillis());
+    } else {
+      logger.info(
+          "Calibrated BCrypt cost {} - about {} ms per hash, target {} ms",
+          strength,
+          nanos / 1_000_000,
+          properties.getTargetLatency().toMillis());
+    }
+    return strength;
+  }
+
+  private static long measure(int strength) {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+    encoder.encode("calibration");
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+      long start = System.nanoTime();
+      encoder.encode("calibration");
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return fastest;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+}
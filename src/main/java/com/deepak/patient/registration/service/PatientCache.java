@@ -0,0 +1,202 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.patient.registration.config.PatientCacheConfig;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caches patients by ID, with an index from phone number to ID, in front of the patient queries.
+ *
+ * <p>Every caller gets its own copy of the cached patient, so setting a field on a returned patient
+ * never changes what other callers see. The detail sections are shared between copies and must be
+ * treated as read-only; writers load the patient from the repository instead. The cache is local to
+ * each instance and only invalidated there, so it must not be used for anything that has to see
+ * another instance's writes at once, such as checking a password.
+ *
+ * <p>Patients are weighed by an estimate of their size so the cache is bounded by memory rather
+ * than entry count. Missing patients are not cached. Writers must call {@link #invalidate} after
+ * their change is committed. A load that overlaps an invalidation does not keep its result, so a
+ * row read before a commit cannot be cached after it. The hit ratio is published as the {@code
+ * patient.cache.hit.ratio} gauge, next to the standard {@code cache.*} metrics.
+ */
+@Component
+public class PatientCache {
+
+  /** Fixed per-entry weight, in KB, for the entity itself and the cache's bookkeeping. */
+  private static final int BASE_WEIGHT = 1;
+
+  /** Estimated size in bytes of a populated detail section such as personal details. */
+  private static final int SECTION_BYTES = 512;
+
+  /** Estimated ratio of unpacked medical information to its packed size. */
+  private static final int PACKED_EXPANSION = 4;
+
+  private final Cache<Long, Patient> byId;
+  private final Cache<String, Long> idByPhone;
+
+  /** Incremented by every invalidation, so that loads can tell whether they overlapped one. */
+  private final AtomicLong invalidations = new AtomicLong();
+
+  @SuppressWarnings("unchecked")
+  public PatientCache(CacheManager cacheManager, MeterRegistry meterRegistry) {
+    this.byId =
+        (Cache<Long, Patient>)
+            cacheManager.getCache(PatientCacheConfig.PATIENT_CACHE).getNativeCache();
+    this.idByPhone =
+        (Cache<String, Long>)
+            cacheManager.getCache(PatientCacheConfig.PATIENT_PHONE_INDEX_CACHE).getNativeCache();
+    Gauge.builder("patient.cache.hit.ratio", this, PatientCache::hitRatio)
+        .description("Fraction of patient lookups served from the cache")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Returns a patient by ID, loading and caching it on a miss.
+   *
+   * @param id the patient ID
+   * @param loader loads the patient, returning {@code null} if it does not exist
+   * @return a copy of the patient, or {@code null} if it does not exist
+   */
+  public Patient getById(Long id, Function<Long, Patient> loader) {
+    Patient patient = byId.getIfPresent(id);
+    if (patient != null) {
+      return copy(patient);
+    }
+    long stamp = invalidations.get();
+    patient = loader.apply(id);
+    if (patient != null) {
+      put(patient, stamp);
+    }
+    return patient;
+  }
+
+  /**
+   * Returns a patient by phone number, loading and caching it on a miss.
+   *
+   * @param phoneNumber the patient's phone number
+   * @param loader loads the patient, returning {@code null} if it does not exist
+   * @return a copy of the patient, or {@code null} if it does not exist
+   */
+  public Patient getByPhoneNumber(String phoneNumber, Function<String, Patient> loader) {
+    Long id = idByPhone.getIfPresent(phoneNumber);
+    if (id != null) {
+      Patient patient = byId.getIfPresent(id);
+      if (patient != null) {
+        return copy(patient);
+      }
+    }
+    long stamp = invalidations.get();
+    Patient patient = loader.apply(phoneNumber);
+    if (patient != null) {
+      put(patient, stamp);
+    }
+    return patient;
+  }
+
+  /**
+   * Returns the cached patients among the given IDs without loading any that are missing.
+   *
+   * @param ids the patient IDs
+   * @return copies of the cached patients, keyed by ID
+   */
+  public Map<Long, Patient> getAllPresent(Collection<Long> ids) {
+    Map<Long, Patient> present = new HashMap<>(byId.getAllPresent(ids));
+    present.replaceAll((id, patient) -> copy(patient));
+    return present;
+  }
+
+  /**
+   * Removes a patient from the cache. Call after the change to the patient has been committed.
+   *
+   * @param id the patient ID
+   * @param phoneNumber the patient's phone number, or {@code null} if unknown
+   */
+  public void invalidate(Long id, String phoneNumber) {
+    invalidations.incrementAndGet();
+    if (id != null) {
+      Patient cached = byId.getIfPresent(id);
+      byId.invalidate(id);
+      if (cached != null && cached.getPhoneNumber() != null) {
+        idByPhone.invalidate(cached.getPhoneNumber());
+      }
+    }
+    if (phoneNumber != null) {
+      idByPhone.invalidate(phoneNumber);
+    }
+  }
+
+  /**
+   * Returns the fraction of lookups by ID that were served from the cache.
+   *
+   * @return the hit ratio, or {@code 1.0} if there have been no lookups
+   */
+  public double hitRatio() {
+    return byId.stats().hitRate();
+  }
+
+  /** Caches a copy of a loaded patient, so the caller that loaded it can change it freely. */
+  private void put(Patient loaded, long stamp) {
+    Patient patient = copy(loaded);
+    byId.put(patient.getId(), patient);
+    if (patient.getPhoneNumber() != null) {
+      idByPhone.put(patient.getPhoneNumber(), patient.getId());
+    }
+    // An invalidation since the load started may have run before the put; drop the stale copy
+    if (invalidations.get() != stamp) {
+      byId.asMap().remove(patient.getId(), patient);
+    }
+  }
+
+  private static Patient copy(Patient patient) {
+    return patient.toBuilder().build();
+  }
+
+  /**
+   * Weighs a cached patient in KB from the detail sections it has, which dominate its footprint.
+   * The medical information and insurance details are weighed from their stored columns, which are
+   * only parsed when first read, so putting a patient costs no parsing or serialization.
+   *
+   * @param key the cache key
+   * @param value the cached value
+   * @return the weight of the entry
+   */
+  public static int weigh(Object key, Object value) {
+    if (!(value instanceof Patient patient)) {
+      return BASE_WEIGHT;
+    }
+    long bytes = 0;
+    for (Object section :
+        new Object[] {
+          patient.getPersonalDetails(),
+          patient.getEmergencyContact(),
+          patient.getClinicPreferences()
+        }) {
+      if (section != null) {
+        bytes += SECTION_BYTES;
+      }
+    }
+    // The getters below only run when nothing is stored, so they never parse
+    if (patient.getPackedMedicalInfo() != null) {
+      bytes += (long) patient.getPackedMedicalInfo().length * PACKED_EXPANSION;
+    } else if (patient.getStoredMedicalInfo() != null) {
+      bytes += patient.getStoredMedicalInfo().length();
+    } else if (patient.getMedicalInfo() != null) {
+      bytes += SECTION_BYTES;
+    }
+    if (patient.getStoredInsuranceDetails() != null) {
+      bytes += patient.getStoredInsuranceDetails().length();
+    } else if (patient.getInsuranceDetails() != null) {
+      bytes += SECTION_BYTES;
+    }
+    return BASE_WEIGHT + (int) Math.min(bytes / 1024, Integer.MAX_VALUE - BASE_WEIGHT);
+  }
+}
@@ -0,0 +1,114 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.appointment.registration.dto.AppointmentResponse;
+import com.deepak.appointment.registration.dto.QueuePosition;
+import com.deepak.appointment.registration.exception.NotFoundException;
+import com.deepak.appointment.registration.service.AppointmentService;
+import com.deepak.appointment.registration.service.QueueManagementService;
+import com.deepak.patient.registration.model.patient.PatientDashboard;
+import com.deepak.patient.registration.model.patient.PatientSummary;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads a patient's dashboard: the profile summary, upcoming appointments and live queue positions.
+ *
+ * <p>The three parts do not depend on each other, so each is loaded on its own virtual thread and
+ * the dashboard takes about as long as the slowest part rather than the sum of all three. The first
+ * part to fail has its exception rethrown at once, and parts that have not started yet are
+ * cancelled. Parts already running are not interrupted, since an interrupt in the middle of a JDBC
+ * call can leave the connection unusable; they finish their query on their own thread, return the
+ * connection and their result is dropped. Each part runs its own read-only transaction, so a
+ * dashboard holds at most three pooled connections at once, each only for its own query.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class PatientDashboardService {
+
+  private final PatientService patientService;
+  private final AppointmentService appointmentService;
+  private final QueueManagementService queueManagementService;
+
+  /**
+   * Loads a patient's dashboard, with appointments and queue positions from today on.
+   *
+   * @param patientId the patient ID
+   * @return the dashboard
+   * @throws NotFoundException if the patient is not found
+   */
+  public PatientDashboard getDashboard(Long patientId) {
+    log.debug("Loading dashboard for patient ID: {}", patientId);
+    LocalDate today = LocalDate.now();
+    CompletableFuture<Void> failure = new CompletableFuture<>();
+    ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    try {
+      CompletableFuture<PatientSummary> profile =
+          fork(executor, failure, () -> loadProfile(patientId));
+      CompletableFuture<List<AppointmentResponse>> appointments =
+          fork(
+              executor,
+              failure,
+              () -> appointmentService.getUpcomingAppointments(patientId, today));
+      CompletableFuture<List<QueuePosition>> queuePositions =
+          fork(executor, failure, () -> queueManagementService.getQueuePositions(patientId, today));
+      try {
+        CompletableFuture.anyOf(
+                CompletableFuture.allOf(profile, appointments, queuePositions), failure)
+            .join();
+      } catch (CompletionException e) {
+        profile.cancel(false);
+        appointments.cancel(false);
+        queuePositions.cancel(false);
+        throw e.getCause() instanceof RuntimeException cause ? cause : e;
+      }
+      return new PatientDashboard(profile.join(), appointments.join(), queuePositions.join());
+    } finally {
+      // Does not wait for parts still running after a failure
+      executor.shutdown();
+    }
+  }
+
+  private PatientSummary loadProfile(Long patientId) {
+    PatientSummary profile = patientService.getPatientSummaryById(patientId);
+    if (profile == null) {
+      throw new NotFoundException("Patient not found with ID: " + patientId);
+    }
+    return profile;
+  }
+
+  /**
+   * Starts a part on its own thread with the caller's logging context, completing {@code failure}
+   * if it fails.
+   */
+  private static <T> CompletableFuture<T> fork(
+      ExecutorService executor, CompletableFuture<Void> failure, Supplier<T> part) {
+    Map<String, String> context = MDC.getCopyOfContextMap();
+    CompletableFuture<T> result =
+        CompletableFuture.supplyAsync(
+            () -> {
+              if (context != null) {
+                MDC.setContextMap(context);
+              }
+              return part.get();
+            },
+            executor);
+    result.whenComplete(
+        (value, error) -> {
+          if (error != null) {
+            failure.completeExceptionally(error);
+          }
+        });
+    return result;
+  }
+}
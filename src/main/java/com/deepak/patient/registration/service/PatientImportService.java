@@ -0,0 +1,330 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Address;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientCredentials;
+import com.deepak.patient.registration.model.patient.PatientImportReport;
+import com.deepak.patient.registration.model.patient.PatientImportReport.Outcome;
+import com.deepak.patient.registration.model.patient.PatientImportReport.RowResult;
+import com.deepak.patient.registration.model.patient.PatientImportRow;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.repository.PatientRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+/**
+ * Registers patients in bulk from a CSV or NDJSON file, for example when onboarding a clinic.
+ *
+ * <p>The file is streamed in chunks. Rows that are invalid, repeated in the file or already
+ * registered are reported without hashing. The default passwords of the remaining rows are hashed
+ * in parallel on the shared {@link PasswordHashingService} pool, as background work that never
+ * crowds out logins, and the rows are inserted with a JDBC batch. Only one import runs at a time.
+ * Each chunk is committed on its own.
+ */
+@Service
+public class PatientImportService {
+
+  public static final MediaType TEXT_CSV = MediaType.valueOf("text/csv");
+
+  private static final Logger logger = LoggerFactory.getLogger(PatientImportService.class);
+
+  private static final Pattern PHONE_NUMBER = Pattern.compile("^[0-9]{10}$");
+
+  private static final Duration RETRY_AFTER = Duration.ofSeconds(30);
+
+  private final PatientRepository patientRepository;
+  private final PatientSearchIndex patientSearchIndex;
+  private final Validator validator;
+  private final PasswordHashingService passwordHashingService;
+  private final PatientProperties.BulkImport properties;
+  private final Semaphore running = new Semaphore(1);
+  private final ObjectReader ndjsonReader;
+  private final ObjectReader csvReader;
+
+  public PatientImportService(
+      PatientRepository patientRepository,
+      PatientSearchIndex patientSearchIndex,
+      Validator validator,
+      PasswordHashingService passwordHashingService,
+      PatientProperties patientProperties) {
+    this.patientRepository = patientRepository;
+    this.patientSearchIndex = patientSearchIndex;
+    this.validator = validator;
+    this.passwordHashingService = passwordHashingService;
+    this.properties = patientProperties.getBulkImport();
+
+    this.ndjsonReader =
+        new ObjectMapper()
+            .readerFor(PatientImportRow.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.csvReader =
+        new CsvMapper()
+            .readerFor(PatientImportRow.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+  }
+
+  /**
+   * Imports a patient file. Each patient's default password is their phone number, as for {@link
+   * PatientService#createPatient}.
+   *
+   * @param body the file contents
+   * @param contentType {@code text/csv} or {@code application/x-ndjson}
+   * @return the per-row import report; if the file turns out to be malformed part way through, the
+   *     rows before the malformed one are still imported and {@code error} describes the problem.
+   *     Chunks already imported stay committed if a later chunk fails
+   * @throws BadRequestException if the content type is unsupported
+   * @throws TooManyRequestsException if another import is already running
+   */
+  public PatientImportReport importPatients(InputStream body, MediaType contentType) {
+    ObjectReader reader = readerFor(contentType);
+    if (!running.tryAcquire()) {
+      throw new TooManyRequestsException(
+          "Another patient import is in progress, please retry later", RETRY_AFTER);
+    }
+
+    long start = System.currentTimeMillis();
+    PatientImportReport report = new PatientImportReport();
+    Set<String> seenPhoneNumbers = new HashSet<>();
+    List<ParsedRow> chunk = new ArrayList<>(properties.getChunkSize());
+    long rowNumber = 0;
+    try (MappingIterator<PatientImportRow> rows = reader.readValues(body)) {
+      while (rows.hasNextValue()) {
+        PatientImportRow raw = rows.nextValue();
+        chunk.add(parse(++rowNumber, raw));
+        if (chunk.size() == properties.getChunkSize()) {
+          importChunk(chunk, seenPhoneNumbers, report);
+          chunk.clear();
+        }
+      }
+      importChunk(chunk, seenPhoneNumbers, report);
+    } catch (IOException e) {
+      // The rows read before the malformed one are still imported
+      logger.warn("Patient import file malformed at row {}: {}", rowNumber + 1, e.getMessage());
+      report.setError("Malformed file at row " + (rowNumber + 1) + ": " + e.getMessage());
+      importRemainder(chunk, seenPhoneNumbers, report);
+    } catch (RuntimeException e) {
+      logger.error("Patient import failed after {} rows", report.getTotalRows(), e);
+      report.setError("Import failed after " + report.getTotalRows() + " rows: " + e.getMessage());
+    } finally {
+      running.release();
+    }
+
+    logger.info(
+        "Patient import processed - rows: {}, created: {}, duplicates: {}, invalid: {}, took {} ms",
+        report.getTotalRows(),
+        report.getCreated(),
+        report.getDuplicates(),
+        report.getInvalid(),
+        System.currentTimeMillis() - start);
+    return report;
+  }
+
+  private void importRemainder(
+      List<ParsedRow> chunk, Set<String> seenPhoneNumbers, PatientImportReport report) {
+    try {
+      importChunk(chunk, seenPhoneNumbers, report);
+    } catch (RuntimeException e) {
+      logger.error("Patient import failed after {} rows", report.getTotalRows(), e);
+    }
+  }
+
+  private ObjectReader readerFor(MediaType contentType) {
+    if (contentType != null && contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+      return ndjsonReader;
+    }
+    if (contentType != null && contentType.isCompatibleWith(TEXT_CSV)) {
+      return csvReader;
+    }
+    throw new BadRequestException("Unsupported patient import file type: " + contentType);
+  }
+
+  private void importChunk(
+      List<ParsedRow> chunk, Set<String> seenPhoneNumbers, PatientImportReport report) {
+    if (chunk.isEmpty()) {
+      return;
+    }
+    List<RowResult> results = new ArrayList<>(chunk.size());
+
+    // Reject what can be rejected without hashing
+    List<ParsedRow> candidates = new ArrayList<>(chunk.size());
+    for (ParsedRow row : chunk) {
+      if (row.error() != null) {
+        results.add(result(row, null, Outcome.INVALID, row.error()));
+      } else if (!seenPhoneNumbers.add(row.phoneNumber())) {
+        results.add(result(row, null, Outcome.DUPLICATE, "Phone number repeated in file"));
+      } else {
+        candidates.add(row);
+      }
+    }
+    Map<String, PatientCredentials> registered =
+        patientRepository.findCredentialsByPhoneNumbers(
+            candidates.stream().map(ParsedRow::phoneNumber).toList());
+    List<ParsedRow> toInsert = new ArrayList<>(candidates.size());
+    for (ParsedRow row : candidates) {
+      PatientCredentials existing = registered.get(row.phoneNumber());
+      if (existing != null) {
+        results.add(
+            result(row, existing.id(), Outcome.DUPLICATE, "Phone number already registered"));
+      } else {
+        toInsert.add(row);
+      }
+    }
+
+    if (!toInsert.isEmpty()) {
+      // Hash in parallel on the shared pool, then insert the whole chunk in one batch
+      List<CompletableFuture<String>> hashes = new ArrayList<>(toInsert.size());
+      for (ParsedRow row : toInsert) {
+        hashes.add(hashDefaultPassword(row.phoneNumber()));
+      }
+      LocalDateTime now = LocalDateTime.now();
+      List<Patient> patients = new ArrayList<>(toInsert.size());
+      for (int i = 0; i < toInsert.size(); i++) {
+        patients.add(toPatient(toInsert.get(i), hashes.get(i).join(), now));
+      }
+      patientRepository.insertPatients(patients);
+
+      // A row whose stored hash is not ours lost a race with another registration
+      Map<String, PatientCredentials> stored =
+          patientRepository.findCredentialsByPhoneNumbers(
+              patients.stream().map(Patient::getPhoneNumber).toList());
+      for (int i = 0; i < toInsert.size(); i++) {
+        ParsedRow row = toInsert.get(i);
+        Patient patient = patients.get(i);
+        PatientCredentials credentials = stored.get(patient.getPhoneNumber());
+        if (credentials != null && patient.getPasswordHash().equals(credentials.passwordHash())) {
+          patient.setId(credentials.id());
+          patientSearchIndex.put(patient);
+          results.add(result(row, credentials.id(), Outcome.CREATED, null));
+        } else {
+          results.add(
+              result(
+                  row,
+                  credentials != null ? credentials.id() : null,
+                  Outcome.DUPLICATE,
+                  "Phone number registered during import"));
+        }
+      }
+    }
+
+    results.sort(Comparator.comparingLong(RowResult::getRowNumber));
+    results.forEach(report::add);
+  }
+
+  private CompletableFuture<String> hashDefaultPassword(String phoneNumber) {
+    try {
+      return passwordHashingService.encodeInBackground(phoneNumber);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing passwords", e);
+    }
+  }
+
+  private Patient toPatient(ParsedRow row, String passwordHash, LocalDateTime now) {
+    return Patient.builder()
+        .phoneNumber(row.phoneNumber())
+        .passwordHash(passwordHash)
+        .usingDefaultPassword(true)
+        .personalDetails(row.personalDetails())
+        .createdAt(now)
+        .updatedAt(now)
+        .build();
+  }
+
+  private ParsedRow parse(long rowNumber, PatientImportRow raw) {
+    String phoneNumber = trimToNull(raw.getPhoneNumber());
+    if (phoneNumber == null || !PHONE_NUMBER.matcher(phoneNumber).matches()) {
+      return new ParsedRow(rowNumber, phoneNumber, null, "phoneNumber must be exactly 10 digits");
+    }
+
+    PersonalDetails details;
+    try {
+      String birthdate = trimToNull(raw.getBirthdate());
+      Address address =
+          Address.builder()
+              .street(trimToNull(raw.getStreet()))
+              .city(trimToNull(raw.getCity()))
+              .state(trimToNull(raw.getState()))
+              .postalCode(trimToNull(raw.getPostalCode()))
+              .country(trimToNull(raw.getCountry()))
+              .build();
+      boolean hasAddress =
+          address.getStreet() != null
+              || address.getCity() != null
+              || address.getState() != null
+              || address.getPostalCode() != null
+              || address.getCountry() != null;
+      details =
+          PersonalDetails.builder()
+              .name(trimToNull(raw.getName()))
+              .phoneNumber(phoneNumber)
+              .email(trimToNull(raw.getEmail()))
+              .birthdate(birthdate != null ? LocalDate.parse(birthdate) : null)
+              .sex(trimToNull(raw.getSex()))
+              .occupation(trimToNull(raw.getOccupation()))
+              .address(hasAddress ? address : null)
+              .build();
+    } catch (DateTimeParseException e) {
+      return new ParsedRow(rowNumber, phoneNumber, null, "birthdate must be yyyy-MM-dd");
+    }
+
+    Set<ConstraintViolation<?>> violations = new HashSet<>(validator.validate(details));
+    if (details.getAddress() != null) {
+      violations.addAll(validator.validate(details.getAddress()));
+    }
+    if (!violations.isEmpty()) {
+      String error =
+          violations.stream()
+              .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+              .sorted()
+              .collect(Collectors.joining("; "));
+      return new ParsedRow(rowNumber, phoneNumber, null, error);
+    }
+    return new ParsedRow(rowNumber, phoneNumber, details, null);
+  }
+
+  private static RowResult result(ParsedRow row, Long patientId, Outcome outcome, String message) {
+    return new RowResult(row.rowNumber(), row.phoneNumber(), patientId, outcome, message);
+  }
+
+  private static String trimToNull(String value) {
+    if (value == null) {
+      return null;
+    }
+    String trimmed = value.trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  /** An import row after validation; {@code error} is set when the row is unusable. */
+  private record ParsedRow(
+      long rowNumber, String phoneNumber, PersonalDetails personalDetails, String error) {}
+}
@@ -0,0 +1,585 @@
+package com.deepak.patient.registration.service;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.repository.PatientRepository;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.SearchEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory trigram index of patient names, emails and phone numbers.
+ *
+ * <p>Every field is lower-cased, padded with a space on each side and split into overlapping
+ * three-character trigrams; each trigram maps to the sorted list of entries containing it. A search
+ * first intersects the lists of the query's trigrams to find patients containing the query, ranking
+ * prefixes of a field or name before other matches and otherwise keeping the order patients were
+ * indexed in. If that leaves room, patients sharing at least {@code min-similarity} of the query's
+ * padded trigrams are added as fuzzy matches, which tolerates a mistyped letter. Both steps only
+ * touch the lists of the query's trigrams, so a search costs milliseconds over a million patients
+ * at the price of holding every searchable field in memory.
+ *
+ * <p>Patients are indexed when created or updated and dropped when deleted. An update indexes the
+ * patient again and leaves its old trigrams pointing at a dead entry until the next scheduled
+ * rebuild. The first load runs on a background thread once the application is ready, so it does not
+ * delay startup. Until it completes, or if there are more than {@code max-patients} patients to
+ * index, {@link #isReady()} is {@code false} and callers should search the database instead.
+ */
+@Component
+public class PatientSearchIndex {
+
+  private static final Logger logger = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+  /** Shortest query the index can answer; shorter queries have no trigram. */
+  public static final int MIN_QUERY_LENGTH = 3;
+
+  /** Longest query searched; longer queries are cut to this length. */
+  private static final int MAX_QUERY_LENGTH = 64;
+
+  /** Separates the fields of a patient in the text the index keeps for it. */
+  private static final String FIELD_SEPARATOR = "\n";
+
+  private static final Comparator<Match> BEST_FIRST =
+      Comparator.comparingInt(Match::rank)
+          .thenComparing(Comparator.comparingDouble(Match::similarity).reversed())
+          .thenComparingInt(Match::ordinal);
+
+  private final PatientRepository patientRepository;
+  private final PatientProperties.Search properties;
+
+  /** Index answering searches; {@code null} until the first load completes. */
+  private volatile Generation current;
+
+  /** Index being rebuilt, which must also receive changes; {@code null} when idle. */
+  private volatile Generation building;
+
+  public PatientSearchIndex(
+      PatientRepository patientRepository, PatientProperties patientProperties) {
+    this.patientRepository = patientRepository;
+    this.properties = patientProperties.getSearch();
+  }
+
+  /**
+   * Checks whether the index is enabled and loaded.
+   *
+   * @return {@code true} if {@link #search} can be used
+   */
+  public boolean isReady() {
+    return properties.isEnabled() && current != null;
+  }
+
+  /**
+   * Indexes a patient, replacing any previous entry. Call after the patient has been committed.
+   *
+   * @param patient the patient, with its ID
+   */
+  public void put(Patient patient) {
+    if (patient.getId() == null) {
+      return;
+    }
+    PersonalDetails details = patient.getPersonalDetails();
+    put(
+        new SearchEntry(
+            patient.getId(),
+            details != null ? details.getName() : null,
+            details != null ? details.getEmail() : null,
+            patient.getPhoneNumber()));
+  }
+
+  /**
+   * Indexes a patient's searchable columns, replacing any previous entry.
+   *
+   * @param searchEntry the patient's searchable columns
+   */
+  public void put(SearchEntry searchEntry) {
+    Entry entry = Entry.of(searchEntry);
+    apply(generation -> generation.put(entry));
+  }
+
+  /**
+   * Drops a patient from the index. Call after the deletion has been committed.
+   *
+   * @param id the patient ID
+   */
+  public void remove(Long id) {
+    apply(generation -> generation.remove(id));
+  }
+
+  /**
+   * Finds patients whose name, email or phone number contains the query, followed by close matches.
+   *
+   * @param query the text to search for, at least {@link #MIN_QUERY_LENGTH} characters
+   * @param limit the maximum number of results
+   * @return the IDs of the best matches, best first; empty if the index is not ready
+   */
+  public List<Long> search(String query, int limit) {
+    Generation generation = current;
+    String normalized = normalize(query);
+    if (generation == null || normalized == null || normalized.length() < MIN_QUERY_LENGTH) {
+      return List.of();
+    }
+    if (normalized.length() > MAX_QUERY_LENGTH) {
+      normalized = normalized.substring(0, MAX_QUERY_LENGTH);
+    }
+    return generation.search(normalized, limit, properties.getMinSimilarity());
+  }
+
+  private void apply(Consumer<Generation> change) {
+    Generation generation = current;
+    if (generation != null) {
+      change.accept(generation);
+    }
+    Generation next = building;
+    if (next != null) {
+      change.accept(next);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  void load() {
+    if (properties.isEnabled()) {
+      Thread.ofVirtual().name("patient-search-index-load").start(this::rebuild);
+    }
+  }
+
+  /** Rebuilds the index from the database, dropping entries left behind by updates. */
+  @Scheduled(cron = "${app.patient.search.rebuild-cron:0 45 3 * * *}")
+  public synchronized void rebuild() {
+    if (!properties.isEnabled()) {
+      return;
+    }
+    long start = System.currentTimeMillis();
+    Generation next = new Generation();
+    // Patients changed while the scan runs are applied to the new index by put() and remove()
+    building = next;
+    try {
+      int maxPatients = properties.getMaxPatients();
+      patientRepository.forEachSearchEntry(
+          entry -> {
+            if (next.size() >= maxPatients) {
+              throw new IndexFullException();
+            }
+            next.put(Entry.of(entry));
+          });
+      next.trim();
+      current = next;
+      logger.info(
+          "Indexed {} patients for search ({} trigrams) in {} ms",
+          next.size(),
+          next.trigramCount(),
+          System.currentTimeMillis() - start);
+    } catch (IndexFullException e) {
+      current = null;
+      logger.warn(
+          "More than {} patients to index, searching the database instead",
+          properties.getMaxPatients());
+    } catch (RuntimeException e) {
+      logger.error("Failed to rebuild patient search index, keeping the previous one", e);
+    } finally {
+      building = null;
+    }
+  }
+
+  /** Stops a rebuild that would index more than {@code max-patients} patients. */
+  private static final class IndexFullException extends RuntimeException {
+    IndexFullException() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * Lower-cases a field or query and collapses runs of whitespace.
+   *
+   * @param value the text
+   * @return the normalized text, or {@code null} if it is blank
+   */
+  static String normalize(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+  }
+
+  /** Adds every three-character substring of {@code text} to {@code trigrams}. */
+  private static void addTrigrams(String text, Set<String> trigrams) {
+    for (int i = 0; i + MIN_QUERY_LENGTH <= text.length(); i++) {
+      trigrams.add(text.substring(i, i + MIN_QUERY_LENGTH));
+    }
+  }
+
+  /** Normalized searchable fields of one patient. */
+  private record Entry(long id, String name, String email, String phoneNumber) {
+
+    static Entry of(SearchEntry entry) {
+      return new Entry(
+          entry.id(),
+          normalize(entry.name()),
+          normalize(entry.email()),
+          normalize(entry.phoneNumber()));
+    }
+
+    Set<String> trigrams() {
+      Set<String> trigrams = new LinkedHashSet<>();
+      for (String field : fields()) {
+        addTrigrams(" " + field + " ", trigrams);
+      }
+      return trigrams;
+    }
+
+    /**
+     * Joins the fields into the one string the index keeps per patient. Normalized fields have no
+     * line breaks, so a query never matches across two of them.
+     */
+    String text() {
+      return String.join(FIELD_SEPARATOR, fields());
+    }
+
+    private List<String> fields() {
+      return Stream.of(name, email, phoneNumber).filter(Objects::nonNull).toList();
+    }
+  }
+
+  /**
+   * Ranks how well an entry's text contains the query: {@code 0} if a field or a word of the name
+   * starts with it, {@code 1} if a field contains it, {@code -1} if none does.
+   */
+  private static int rank(String text, String query) {
+    int rank = -1;
+    for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + 1)) {
+      if (i == 0 || text.charAt(i - 1) == ' ' || text.charAt(i - 1) == '\n') {
+        return 0;
+      }
+      rank = 1;
+    }
+    return rank;
+  }
+
+  /** A search result with its rank: {@code 0} prefix, {@code 1} substring, {@code 2} fuzzy. */
+  private record Match(long id, int ordinal, int rank, double similarity) {}
+
+  /** Sorted, append-only list of entry ordinals containing one trigram. */
+  private static final class Postings {
+    private int[] ordinals = new int[4];
+    private int size;
+
+    void add(int ordinal) {
+      if (size == ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size * 2);
+      }
+      ordinals[size++] = ordinal;
+    }
+
+    boolean contains(int ordinal) {
+      return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+    }
+
+    /** Drops the spare capacity left by growing the list. */
+    void trim() {
+      if (size < ordinals.length) {
+        ordinals = Arrays.copyOf(ordinals, size);
+      }
+    }
+  }
+
+  /**
+   * Map from patient ID to ordinal with open addressing over primitive arrays, which takes a fifth
+   * of the memory of a {@code HashMap<Long, Integer>}. Patient IDs are positive, so {@code 0} marks
+   * an empty slot.
+   */
+  private static final class OrdinalsById {
+    private long[] ids = new long[1024];
+    private int[] ordinals = new int[1024];
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    /** Returns the ordinal of a patient, or {@code -1} if it is not indexed. */
+    int get(long id) {
+      for (int slot = slot(id); ids[slot] != 0; slot = next(slot)) {
+        if (ids[slot] == id) {
+          return ordinals[slot];
+        }
+      }
+      return -1;
+    }
+
+    /** Sets the ordinal of a patient, returning its previous one or {@code -1}. */
+    int put(long id, int ordinal) {
+      int slot = slot(id);
+      for (; ids[slot] != 0; slot = next(slot)) {
+        if (ids[slot] == id) {
+          int previous = ordinals[slot];
+          ordinals[slot] = ordinal;
+          return previous;
+        }
+      }
+      ids[slot] = id;
+      ordinals[slot] = ordinal;
+      if (++size > ids.length / 2) {
+        resize();
+      }
+      return -1;
+    }
+
+    /** Removes a patient, returning its ordinal or {@code -1}. */
+    int remove(long id) {
+      int slot = slot(id);
+      while (ids[slot] != id) {
+        if (ids[slot] == 0) {
+          return -1;
+        }
+        slot = next(slot);
+      }
+      int ordinal = ordinals[slot];
+      size--;
+      // Shift back later entries of the probe run so lookups never stop at the hole
+      int hole = slot;
+      for (slot = next(slot); ids[slot] != 0; slot = next(slot)) {
+        int home = slot(ids[slot]);
+        if ((slot > hole && (home <= hole || home > slot))
+            || (slot < hole && home <= hole && home > slot)) {
+          ids[hole] = ids[slot];
+          ordinals[hole] = ordinals[slot];
+          hole = slot;
+        }
+      }
+      ids[hole] = 0;
+      return ordinal;
+    }
+
+    private int slot(long id) {
+      return (int) (Long.hashCode(id * 0x9E3779B97F4A7C15L) & (ids.length - 1));
+    }
+
+    private int next(int slot) {
+      return (slot + 1) & (ids.length - 1);
+    }
+
+    private void resize() {
+      long[] oldIds = ids;
+      int[] oldOrdinals = ordinals;
+      ids = new long[oldIds.length * 2];
+      ordinals = new int[oldIds.length * 2];
+      size = 0;
+      for (int i = 0; i < oldIds.length; i++) {
+        if (oldIds[i] != 0) {
+          put(oldIds[i], oldOrdinals[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * One generation of the index. Every put gives the patient a new, higher ordinal, so posting
+   * lists stay sorted without being rewritten; the previous ordinal is marked dead.
+   */
+  private static final class Generation {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final OrdinalsById ordinalsById = new OrdinalsById();
+
+    /** Patient ID and joined fields by ordinal; the text is {@code null} for a dead ordinal. */
+    private long[] ids = new long[1024];
+
+    private String[] texts = new String[1024];
+    private int nextOrdinal;
+
+    void put(Entry entry) {
+      lock.writeLock().lock();
+      try {
+        int ordinal = nextOrdinal++;
+        if (ordinal == texts.length) {
+          ids = Arrays.copyOf(ids, ids.length * 2);
+          texts = Arrays.copyOf(texts, texts.length * 2);
+        }
+        ids[ordinal] = entry.id();
+        texts[ordinal] = entry.text();
+        int previous = ordinalsById.put(entry.id(), ordinal);
+        if (previous >= 0) {
+          texts[previous] = null;
+        }
+        for (String trigram : entry.trigrams()) {
+          postings.computeIfAbsent(trigram, t -> new Postings()).add(ordinal);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    void remove(Long id) {
+      lock.writeLock().lock();
+      try {
+        int ordinal = ordinalsById.remove(id);
+        if (ordinal >= 0) {
+          texts[ordinal] = null;
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    int size() {
+      lock.readLock().lock();
+      try {
+        return ordinalsById.size();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    /** Drops the spare capacity of the posting lists once the generation is loaded. */
+    void trim() {
+      lock.writeLock().lock();
+      try {
+        postings.values().forEach(Postings::trim);
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+
+    int trigramCount() {
+      lock.readLock().lock();
+      try {
+        return postings.size();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    List<Long> search(String query, int limit, double minSimilarity) {
+      lock.readLock().lock();
+      try {
+        // Keeps the best `limit` matches, worst at the head
+        PriorityQueue<Match> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        addContainingMatches(query, limit, best);
+        if (best.size() < limit) {
+          addFuzzyMatches(query, limit, minSimilarity, best);
+        }
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(BEST_FIRST);
+        return matches.stream().map(Match::id).toList();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
+    /**
+     * Adds entries containing the query, found by intersecting its trigrams' posting lists in
+     * ordinal order. Prefix matches rank first and ties keep ordinal order, so the scan stops once
+     * {@code limit} prefix matches are found.
+     */
+    private void addContainingMatches(String query, int limit, PriorityQueue<Match> best) {
+      Set<String> trigrams = new LinkedHashSet<>();
+      addTrigrams(query, trigrams);
+      List<Postings> lists = postingsOf(trigrams);
+      if (lists.size() < trigrams.size()) {
+        return;
+      }
+      Postings smallest = lists.get(0);
+      int prefixMatches = 0;
+      for (int i = 0; i < smallest.size && prefixMatches < limit; i++) {
+        int ordinal = smallest.ordinals[i];
+        String text = texts[ordinal];
+        if (text == null || !containedInAll(ordinal, lists, 1)) {
+          continue;
+        }
+        int rank = rank(text, query);
+        if (rank >= 0) {
+          offer(best, new Match(ids[ordinal], ordinal, rank, 1.0), limit);
+          if (rank == 0) {
+            prefixMatches++;
+          }
+        }
+      }
+    }
+
+    /**
+     * Adds entries sharing enough of the padded query's trigrams, counting each entry's shared
+     * trigrams in one pass over the query's posting lists.
+     */
+    private void addFuzzyMatches(
+        String query, int limit, double minSimilarity, PriorityQueue<Match> best) {
+      Set<String> trigrams = new LinkedHashSet<>();
+      addTrigrams(" " + query + " ", trigrams);
+      int needed = Math.max(1, (int) Math.ceil(trigrams.size() * minSimilarity));
+      List<Postings> lists = postingsOf(trigrams);
+      if (lists.size() < needed) {
+        return;
+      }
+      // Queries are capped at MAX_QUERY_LENGTH, so a count never overflows a byte
+      byte[] shared = new byte[nextOrdinal];
+      Postings candidates = new Postings();
+      for (Postings list : lists) {
+        for (int i = 0; i < list.size; i++) {
+          int ordinal = list.ordinals[i];
+          if (++shared[ordinal] == needed) {
+            candidates.add(ordinal);
+          }
+        }
+      }
+      BitSet found = new BitSet(nextOrdinal);
+      best.forEach(match -> found.set(match.ordinal()));
+      for (int i = 0; i < candidates.size; i++) {
+        int ordinal = candidates.ordinals[i];
+        if (texts[ordinal] != null && !found.get(ordinal)) {
+          offer(
+              best,
+              new Match(ids[ordinal], ordinal, 2, (double) shared[ordinal] / trigrams.size()),
+              limit);
+        }
+      }
+    }
+
+    /** Returns the posting lists of the trigrams that have one, shortest first. */
+    private List<Postings> postingsOf(Set<String> trigrams) {
+      List<Postings> lists = new ArrayList<>(trigrams.size());
+      for (String trigram : trigrams) {
+        Postings list = postings.get(trigram);
+        if (list != null) {
+          lists.add(list);
+        }
+      }
+      lists.sort(Comparator.comparingInt(list -> list.size));
+      return lists;
+    }
+
+    private static boolean containedInAll(int ordinal, List<Postings> lists, int from) {
+      for (int i = from; i < lists.size(); i++) {
+        if (!lists.get(i).contains(ordinal)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static void offer(PriorityQueue<Match> best, Match match, int limit) {
+      best.offer(match);
+      if (best.size() > limit) {
+        best.poll();
+      }
+    }
+  }
+}
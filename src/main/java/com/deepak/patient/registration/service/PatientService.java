@@ -1,13 +1,38 @@
 package com.deepak.patient.registration.service;
 
+import com.deepak.appointment.registration.exception.AccountLockedException;
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.appointment.registration.exception.ConflictException;
+import com.deepak.appointment.registration.exception.PreconditionFailedException;
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.deepak.patient.registration.config.PatientProperties;
 import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientJsonColumn;
+import com.deepak.patient.registration.model.patient.PatientSummary;
+import com.deepak.patient.registration.model.patient.PatientSummaryBatch;
 import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.model.patient.converter.JsonConverter;
 import com.deepak.patient.registration.repository.PatientRepository;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.ArchivedPatients;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.JsonColumnPatch;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.RewrittenPatients;
+import com.deepak.patient.registration.security.FieldEncryption;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.Validator;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
@@ -20,158 +45,545 @@ public class PatientService {
 
   private static final Logger logger = LoggerFactory.getLogger(PatientService.class);
 
+  /** Attempts at an unconditional update before giving up on a patient that keeps changing. */
+  private static final int UPDATE_ATTEMPTS = 3;
+
   private final PatientRepository patientRepository;
+  private final Validator validator;
+  private final PatientCache patientCache;
+  private final PasswordHashingService passwordHashingService;
+  private final LastLoginWriteBehindService lastLoginWriteBehindService;
+  private final LoginAttemptTracker loginAttemptTracker;
+  private final PatientProperties patientProperties;
+  private final PatientSearchIndex patientSearchIndex;
+  private final FieldEncryption fieldEncryption;
 
-  public PatientService(PatientRepository patientRepository) {
+  public PatientService(
+      PatientRepository patientRepository,
+      Validator validator,
+      PatientCache patientCache,
+      PasswordHashingService passwordHashingService,
+      LastLoginWriteBehindService lastLoginWriteBehindService,
+      LoginAttemptTracker loginAttemptTracker,
+      PatientProperties patientProperties,
+      PatientSearchIndex patientSearchIndex,
+      FieldEncryption fieldEncryption) {
     this.patientRepository = patientRepository;
+    this.validator = validator;
+    this.patientCache = patientCache;
+    this.passwordHashingService = passwordHashingService;
+    this.lastLoginWriteBehindService = lastLoginWriteBehindService;
+    this.loginAttemptTracker = loginAttemptTracker;
+    this.patientProperties = patientProperties;
+    this.patientSearchIndex = patientSearchIndex;
+    this.fieldEncryption = fieldEncryption;
   }
 
   /**
-   * Creates a new patient record. If a phone number is provided, it is used as the default
-   * password, which is then hashed. The {@code usingDefaultPassword} flag is set to true.
+   * Creates a new patient record. A phone number that is already registered is rejected with an
+   * index-only lookup before any CPU is spent hashing. The phone number is then hashed as the
+   * default password, outside any transaction so no connection is held while BCrypt runs, and the
+   * patient is stored with a single insert with the {@code usingDefaultPassword} flag set to true.
+   * A concurrent registration of the same number that wins the race is caught by the unique key.
    *
    * @param patient The patient object to be created.
    * @return The saved patient object with its generated ID.
+   * @throws BadRequestException if the patient has no phone number.
+   * @throws ConflictException if the phone number is already registered.
    */
   public Patient createPatient(Patient patient) {
     logger.debug("Creating patient: {}", patient);
-    // Set default password as phone number if provided, then hash it.
-    // This is a temporary measure for initial account setup.
-    // The user is expected to change this default password.
-    if (patient.getPhoneNumber() != null && !patient.getPhoneNumber().trim().isEmpty()) {
-      BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-      patient.setPasswordHash(encoder.encode(patient.getPhoneNumber()));
-      patient.setUsingDefaultPassword(true); // Mark that the patient is using the default password
-    } else {
-      patient.setPasswordHash(null);
-      patient.setUsingDefaultPassword(false);
+    String phoneNumber = patient.getPhoneNumber();
+    if (phoneNumber == null || phoneNumber.isBlank()) {
+      throw new BadRequestException("Phone number is required");
+    }
+    LocalDateTime now = LocalDateTime.now();
+    patient.setCreatedAt(now);
+    patient.setUpdatedAt(now);
+    if (existsByPhoneNumber(phoneNumber)) {
+      throw new ConflictException("Phone number " + phoneNumber + " is already registered");
+    }
+    // The phone number is the default password; the user is expected to change it.
+    patient.setUsingDefaultPassword(true);
+    patient.setPasswordHash(passwordHashingService.encode(phoneNumber));
+    try {
+      patient.setId(patientRepository.insertPatient(patient));
+    } catch (DuplicateKeyException e) {
+      throw new ConflictException("Phone number " + phoneNumber + " is already registered");
     }
-    return patientRepository.save(patient);
+    patientSearchIndex.put(patient);
+    return patient;
   }
 
   public Patient getPatientByPhoneNumber(String phoneNumber) {
     logger.debug("Fetching patient by phone number: {}", phoneNumber);
+    return patientCache.getByPhoneNumber(phoneNumber, this::loadByPhoneNumber);
+  }
+
+  /** Loads a patient by phone number, through the blind index once lookups use it. */
+  private Patient loadByPhoneNumber(String phoneNumber) {
+    if (patientProperties.getEncryption().isBlindIndexLookups()) {
+      return patientRepository
+          .findByPhoneNumberHash(fieldEncryption.blindIndex(phoneNumber))
+          .orElse(null);
+    }
     return patientRepository.findByPhoneNumber(phoneNumber).orElse(null);
   }
 
+  /**
+   * Checks whether a phone number is registered with an index-only lookup that does not load the
+   * patient. A deleted patient keeps the number until it is archived, so it counts as registered,
+   * as it does for the unique key a registration would run into.
+   *
+   * @param phoneNumber The phone number to check.
+   * @return {@code true} if a patient with the given phone number exists.
+   */
   public boolean existsByPhoneNumber(String phoneNumber) {
-    return patientRepository.findByPhoneNumber(phoneNumber).isPresent();
+    if (patientProperties.getEncryption().isBlindIndexLookups()) {
+      return patientRepository.existsByPhoneNumberHash(fieldEncryption.blindIndex(phoneNumber));
+    }
+    return patientRepository.existsByPhoneNumber(phoneNumber);
+  }
+
+  /**
+   * Checks whether a patient exists without loading the patient's JSON columns.
+   *
+   * @param id The ID of the patient.
+   * @return {@code true} if a patient with the given ID exists.
+   */
+  public boolean existsById(Long id) {
+    return patientRepository.existsById(id);
   }
 
   public Patient getPatientById(Long id) {
     logger.debug("Fetching patient by id: {}", id);
-    return patientRepository.findById(id).orElse(null);
+    return patientCache.getById(id, key -> patientRepository.findById(key).orElse(null));
+  }
+
+  /**
+   * Loads a patient's identity and account flags without reading the JSON columns.
+   *
+   * @param id The ID of the patient.
+   * @return The patient's summary, or {@code null} if the patient was not found.
+   */
+  public PatientSummary getPatientSummaryById(Long id) {
+    logger.debug("Fetching patient summary by id: {}", id);
+    return patientRepository.findSummaryById(id).orElse(null);
+  }
+
+  /**
+   * Loads a patient's identity and account flags by phone number without reading the JSON columns.
+   *
+   * @param phoneNumber The patient's phone number.
+   * @return The patient's summary, or {@code null} if the patient was not found.
+   */
+  public PatientSummary getPatientSummaryByPhoneNumber(String phoneNumber) {
+    logger.debug("Fetching patient summary by phone number: {}", phoneNumber);
+    return patientRepository.findSummaryByPhoneNumber(phoneNumber).orElse(null);
+  }
+
+  /**
+   * Loads the identity and account flags of many patients. Patients already in the cache are
+   * summarised from it; the rest are loaded with a single query that skips the JSON columns.
+   *
+   * @param ids The patient IDs, duplicates ignored.
+   * @return The summaries found, in request order, and the IDs with no patient.
+   * @throws BadRequestException if no IDs or more than the configured maximum are requested.
+   */
+  public PatientSummaryBatch getPatientSummaries(List<Long> ids) {
+    Set<Long> requested = new LinkedHashSet<>(ids);
+    requested.remove(null);
+    int maxIds = patientProperties.getBatchFetch().getMaxIds();
+    if (requested.isEmpty() || requested.size() > maxIds) {
+      throw new BadRequestException("Between 1 and " + maxIds + " patient IDs must be requested");
+    }
+    logger.debug("Fetching summaries for {} patients", requested.size());
+    return loadSummaries(requested);
+  }
+
+  /**
+   * Searches patients by name, email or phone number. Patients containing the query come first,
+   * prefixes before other matches, followed by close matches such as a mistyped name. Until the
+   * search index is loaded, or when it is disabled, only prefix matches are found, through the
+   * indexed name, email and phone number columns.
+   *
+   * @param query The text to search for, at least three characters.
+   * @param limit The maximum number of results, capped by the configured maximum.
+   * @return The summaries of the matching patients, best match first.
+   * @throws BadRequestException if the query is too short.
+   */
+  public List<PatientSummary> searchPatients(String query, int limit) {
+    String text = query != null ? query.strip() : "";
+    if (text.length() < PatientSearchIndex.MIN_QUERY_LENGTH) {
+      throw new BadRequestException(
+          "Search query must be at least " + PatientSearchIndex.MIN_QUERY_LENGTH + " characters");
+    }
+    int maxResults = Math.min(Math.max(limit, 1), patientProperties.getSearch().getMaxResults());
+    if (!patientSearchIndex.isReady()) {
+      logger.debug("Search index not ready, searching the database by prefix");
+      String prefix = text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+      return patientRepository.searchSummariesByPrefix(prefix, PageRequest.of(0, maxResults));
+    }
+    List<Long> ids = patientSearchIndex.search(text, maxResults);
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    // IDs of patients deleted since they were indexed come back missing and are dropped
+    return loadSummaries(new LinkedHashSet<>(ids)).patients();
+  }
+
+  /** Summarises patients from the cache where possible and loads the rest in one query. */
+  private PatientSummaryBatch loadSummaries(Set<Long> requested) {
+    Map<Long, PatientSummary> found = new HashMap<>();
+    patientCache
+        .getAllPresent(requested)
+        .forEach((id, patient) -> found.put(id, PatientSummary.of(patient)));
+    if (found.size() < requested.size()) {
+      List<Long> uncached = requested.stream().filter(id -> !found.containsKey(id)).toList();
+      patientRepository
+          .findSummariesByIdIn(uncached)
+          .forEach(summary -> found.put(summary.id(), summary));
+    }
+
+    List<PatientSummary> patients = new ArrayList<>(found.size());
+    List<Long> missingIds = new ArrayList<>();
+    for (Long id : requested) {
+      PatientSummary summary = found.get(id);
+      if (summary != null) {
+        patients.add(summary);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    return new PatientSummaryBatch(patients, missingIds);
   }
 
   /**
    * Updates an existing patient's details. Retrieves the patient by ID and updates fields if new
-   * values are provided in {@code updatedPatient}.
+   * values are provided in {@code updatedPatient}. The result is written with a single {@code
+   * UPDATE} conditional on the version that was read, so a concurrent edit is never silently
+   * overwritten and no lock is held. Without an expected version, the update is merged onto the
+   * latest version, retrying if the patient changes in between.
    *
    * @param id The ID of the patient to update.
    * @param updatedPatient A patient object containing the fields to update.
+   * @param expectedVersion The version the client last read, from {@code If-Match}, or {@code null}
+   *     to update whatever the current version is.
    * @return The updated patient object, or {@code null} if the patient was not found.
+   * @throws PreconditionFailedException if the patient no longer has the expected version.
+   * @throws ConflictException if the patient kept changing while the update was retried.
    */
-  public Patient updatePatient(Long id, Patient updatedPatient) {
+  public Patient updatePatient(Long id, Patient updatedPatient, Long expectedVersion) {
     logger.debug("Updating patient with id: {}", id);
-    return patientRepository
-        .findById(id)
-        .map(
-            existingPatient -> {
-              // Update only the fields that are not null in updatedPatient
-              if (updatedPatient.getPersonalDetails() != null) {
-                // If existing personal details is null, set the new one directly
-                if (existingPatient.getPersonalDetails() == null) {
-                  existingPatient.setPersonalDetails(updatedPatient.getPersonalDetails());
-                } else {
-                  // Otherwise, update only non-null fields from the updated details
-                  PersonalDetails existingDetails = existingPatient.getPersonalDetails();
-                  PersonalDetails newDetails = updatedPatient.getPersonalDetails();
-
-                  if (newDetails.getName() != null) {
-                    existingDetails.setName(newDetails.getName());
-                  }
-                  if (newDetails.getEmail() != null) {
-                    existingDetails.setEmail(newDetails.getEmail());
-                  }
-                  if (newDetails.getPhoneNumber() != null) {
-                    existingDetails.setPhoneNumber(newDetails.getPhoneNumber());
-                  }
-                  if (newDetails.getBirthdate() != null) {
-                    existingDetails.setBirthdate(newDetails.getBirthdate());
-                  }
-                  if (newDetails.getSex() != null) {
-                    existingDetails.setSex(newDetails.getSex());
-                  }
-                  if (newDetails.getAddress() != null) {
-                    existingDetails.setAddress(newDetails.getAddress());
-                  }
-                  if (newDetails.getOccupation() != null) {
-                    existingDetails.setOccupation(newDetails.getOccupation());
-                  }
-                }
-              }
-
-              // Update other fields if they are not null in the updated patient
-              if (updatedPatient.getMedicalInfo() != null) {
-                existingPatient.setMedicalInfo(updatedPatient.getMedicalInfo());
-              }
-              if (updatedPatient.getInsuranceDetails() != null) {
-                existingPatient.setInsuranceDetails(updatedPatient.getInsuranceDetails());
-              }
-              if (updatedPatient.getEmergencyContact() != null) {
-                existingPatient.setEmergencyContact(updatedPatient.getEmergencyContact());
-              }
-              if (updatedPatient.getClinicPreferences() != null) {
-                existingPatient.setClinicPreferences(updatedPatient.getClinicPreferences());
-              }
-
-              // Update the timestamp
-              existingPatient.setUpdatedAt(LocalDateTime.now());
-              return patientRepository.save(existingPatient);
-            })
-        .orElse(null); // Return null if patient with the given ID is not found
+    for (int attempt = 1; attempt <= UPDATE_ATTEMPTS; attempt++) {
+      Patient existingPatient = patientRepository.findById(id).orElse(null);
+      if (existingPatient == null) {
+        return null; // Return null if patient with the given ID is not found
+      }
+      if (expectedVersion != null && existingPatient.getVersion() != expectedVersion) {
+        throw staleVersion(existingPatient, expectedVersion);
+      }
+      mergeUpdate(existingPatient, updatedPatient);
+
+      long version = existingPatient.getVersion();
+      LocalDateTime now = LocalDateTime.now();
+      if (patientRepository.updateJsonColumnsIfVersion(existingPatient, version, now) > 0) {
+        existingPatient.setVersion(version + 1);
+        existingPatient.setUpdatedAt(now);
+        patientCache.invalidate(id, existingPatient.getPhoneNumber());
+        patientSearchIndex.put(existingPatient);
+        return existingPatient;
+      }
+      if (expectedVersion != null) {
+        throw staleVersion(existingPatient, expectedVersion);
+      }
+      logger.debug("Patient {} changed during update, retrying", id);
+    }
+    throw new ConflictException("Patient " + id + " is being modified concurrently, please retry");
+  }
+
+  /**
+   * Rejects an update whose {@code If-Match} names an older version. The ETag a client sends comes
+   * from by-id, which may have served it from this instance's cache after another instance changed
+   * the patient; the cached copy is dropped so the client's next read sees the current version.
+   */
+  private PreconditionFailedException staleVersion(Patient patient, long expectedVersion) {
+    patientCache.invalidate(patient.getId(), patient.getPhoneNumber());
+    return new PreconditionFailedException(
+        "Patient " + patient.getId() + " has been modified since version " + expectedVersion);
+  }
+
+  /** Copies the non-null fields of {@code updatedPatient} onto {@code existingPatient}. */
+  private void mergeUpdate(Patient existingPatient, Patient updatedPatient) {
+    // Update only the fields that are not null in updatedPatient
+    if (updatedPatient.getPersonalDetails() != null) {
+      // If existing personal details is null, set the new one directly
+      if (existingPatient.getPersonalDetails() == null) {
+        existingPatient.setPersonalDetails(updatedPatient.getPersonalDetails());
+      } else {
+        // Otherwise, update only non-null fields from the updated details
+        PersonalDetails existingDetails = existingPatient.getPersonalDetails();
+        PersonalDetails newDetails = updatedPatient.getPersonalDetails();
+
+        if (newDetails.getName() != null) {
+          existingDetails.setName(newDetails.getName());
+        }
+        if (newDetails.getEmail() != null) {
+          existingDetails.setEmail(newDetails.getEmail());
+        }
+        if (newDetails.getPhoneNumber() != null) {
+          existingDetails.setPhoneNumber(newDetails.getPhoneNumber());
+        }
+        if (newDetails.getBirthdate() != null) {
+          existingDetails.setBirthdate(newDetails.getBirthdate());
+        }
+        if (newDetails.getSex() != null) {
+          existingDetails.setSex(newDetails.getSex());
+        }
+        if (newDetails.getAddress() != null) {
+          existingDetails.setAddress(newDetails.getAddress());
+        }
+        if (newDetails.getOccupation() != null) {
+          existingDetails.setOccupation(newDetails.getOccupation());
+        }
+      }
+    }
+
+    // Update other fields if they are not null in the updated patient
+    if (updatedPatient.getMedicalInfo() != null) {
+      existingPatient.setMedicalInfo(updatedPatient.getMedicalInfo());
+    }
+    if (updatedPatient.getInsuranceDetails() != null) {
+      existingPatient.setInsuranceDetails(updatedPatient.getInsuranceDetails());
+    }
+    if (updatedPatient.getEmergencyContact() != null) {
+      existingPatient.setEmergencyContact(updatedPatient.getEmergencyContact());
+    }
+    if (updatedPatient.getClinicPreferences() != null) {
+      existingPatient.setClinicPreferences(updatedPatient.getClinicPreferences());
+    }
+  }
+
+  /**
+   * Applies a partial update to a patient's profile without loading the patient. Each top-level
+   * property of {@code patch} names a JSON column such as {@code personalDetails}; inside it,
+   * fields with a value are set and fields set to {@code null} are removed. Nested objects such as
+   * an address are replaced as a whole. Only the affected columns are written.
+   *
+   * @param id The ID of the patient to update.
+   * @param patch A JSON object with the changes, in the shape of the patient resource.
+   * @return {@code true} if the patient exists and was updated, {@code false} otherwise.
+   * @throws BadRequestException if a field is unknown or a value is invalid.
+   */
+  public boolean patchPatient(Long id, JsonNode patch) {
+    logger.debug("Patching patient with id: {}", id);
+    if (patch == null || !patch.isObject() || patch.isEmpty()) {
+      throw new BadRequestException("Patch must be a non-empty JSON object");
+    }
+
+    List<JsonColumnPatch> patches = new ArrayList<>();
+    for (Map.Entry<String, JsonNode> entry : patch.properties()) {
+      PatientJsonColumn column =
+          PatientJsonColumn.forProperty(entry.getKey())
+              .orElseThrow(
+                  () -> new BadRequestException("Field cannot be patched: " + entry.getKey()));
+      if (!entry.getValue().isObject()) {
+        throw new BadRequestException(entry.getKey() + " must be a JSON object");
+      }
+      patches.add(columnPatch(column, column.getConverter(), entry.getValue()));
+    }
+
+    boolean updated = patientRepository.patchJsonColumns(id, patches, LocalDateTime.now()) > 0;
+    patientCache.invalidate(id, null);
+    if (updated && patch.has(PatientJsonColumn.PERSONAL_DETAILS.getProperty())) {
+      // The name or email may have changed; index the generated columns rather than the JSON
+      patientRepository.findSearchEntry(id).ifPresent(patientSearchIndex::put);
+    }
+    return updated;
   }
 
+  private <T> JsonColumnPatch columnPatch(
+      PatientJsonColumn column, JsonConverter<T> converter, JsonNode fields) {
+    T value;
+    try {
+      value = converter.readPartial(fields);
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(column.getProperty() + ": " + e.getMessage(), e);
+    }
+
+    // Validate only the fields being changed; a removed field is validated as null
+    List<String> errors =
+        validator.validate(value).stream()
+            .filter(v -> fields.has(v.getPropertyPath().iterator().next().getName()))
+            .map(v -> column.getProperty() + "." + v.getPropertyPath() + ": " + v.getMessage())
+            .sorted()
+            .toList();
+    if (!errors.isEmpty()) {
+      throw new BadRequestException(String.join("; ", errors));
+    }
+
+    Set<String> set = new LinkedHashSet<>();
+    Set<String> remove = new LinkedHashSet<>();
+    for (Map.Entry<String, JsonNode> field : fields.properties()) {
+      (field.getValue().isNull() ? remove : set).add(field.getKey());
+    }
+    return new JsonColumnPatch(column, converter.toStoredFields(value, set), remove);
+  }
+
+  /**
+   * Soft-deletes a patient. The patient is marked inactive, which hides it from every lookup but
+   * {@link #existsByPhoneNumber}, and is moved to the archive tables by {@link
+   * #archiveInactivePatients()} after the retention period, which frees its phone number.
+   *
+   * @param id The ID of the patient to delete.
+   * @throws RuntimeException if there is no active patient with the given ID.
+   */
   public void deletePatient(Long id) {
     logger.debug("Deleting patient with id: {}", id);
-    if (patientRepository.existsById(id)) {
-      patientRepository.deleteById(id);
+    if (patientRepository.deactivate(id, LocalDateTime.now()) > 0) {
+      patientCache.invalidate(id, null);
+      patientSearchIndex.remove(id);
     } else {
       logger.warn("Patient not found for deletion with id: {}", id);
       throw new RuntimeException("Patient not found with id: " + id);
     }
   }
 
+  /**
+   * Moves patients deleted longer ago than the retention period, with their appointments, to the
+   * archive tables in chunks, so {@code patients} only holds active patients and each transaction
+   * only locks a bounded range of rows. When {@code dormant-days} is set, active patients that have
+   * not logged in for that long are archived the same way.
+   *
+   * @return the number of patients archived
+   */
+  @Scheduled(cron = "${app.patient.archive.cron:0 30 3 * * *}")
+  public int archiveInactivePatients() {
+    PatientProperties.Archive archive = patientProperties.getArchive();
+    if (!archive.isEnabled()) {
+      return 0;
+    }
+    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime deletedBefore = now.minusDays(archive.getRetentionDays());
+    int patients =
+        archiveInChunks(
+            limit -> patientRepository.archiveInactivePatients(deletedBefore, limit),
+            "deleted before " + deletedBefore);
+    if (archive.getDormantDays() > 0) {
+      LocalDateTime lastSeenBefore = now.minusDays(archive.getDormantDays());
+      patients +=
+          archiveInChunks(
+              limit -> patientRepository.archiveDormantPatients(lastSeenBefore, limit),
+              "last seen before " + lastSeenBefore);
+    }
+    return patients;
+  }
+
+  /** Archives chunks until one is partial, dropping the archived patients from memory. */
+  private int archiveInChunks(IntFunction<ArchivedPatients> archiveChunk, String which) {
+    int chunkSize = patientProperties.getArchive().getChunkSize();
+    int patients = 0;
+    int appointments = 0;
+    ArchivedPatients archived;
+    do {
+      archived = archiveChunk.apply(chunkSize);
+      patients += archived.patients();
+      appointments += archived.appointments();
+      for (Long id : archived.patientIds()) {
+        patientCache.invalidate(id, null);
+        patientSearchIndex.remove(id);
+      }
+    } while (archived.patients() == chunkSize);
+    logger.info(
+        "Archived {} patients {} and {} of their appointments", patients, which, appointments);
+    return patients;
+  }
+
+  /**
+   * Rewrites every patient to match the storage settings, in chunks: {@code medical_info} in the
+   * configured format, PHI encrypted under the active key, and the phone number blind index. Run it
+   * after changing {@code app.patient.medical-info-storage} or {@code app.patient.encryption};
+   * reads handle every stored form meanwhile. Rows changed while the job runs are left for the next
+   * run.
+   *
+   * @return the number of patients rewritten
+   */
+  @Scheduled(cron = "${app.patient.storage-migration.cron:-}")
+  public int migratePatientStorage() {
+    int chunkSize = patientProperties.getStorageMigration().getChunkSize();
+    long lastId = 0;
+    int rewritten = 0;
+    RewrittenPatients chunk;
+    do {
+      chunk = patientRepository.rewriteStoredColumns(lastId, chunkSize);
+      lastId = chunk.lastId();
+      rewritten += chunk.rewritten();
+    } while (chunk.read() == chunkSize);
+    logger.info("Rewrote the stored columns of {} patients", rewritten);
+    return rewritten;
+  }
+
   /**
    * Validates patient login credentials. Fetches the patient by phone number and compares the
-   * provided password with the stored hashed password using BCrypt.
+   * provided password with the stored hashed password using BCrypt. The patient is read from the
+   * database rather than the {@link PatientCache}, so a password changed or an account locked on
+   * another instance takes effect at once. The login time is recorded through {@link
+   * LastLoginWriteBehindService}, and failed attempts through {@link LoginAttemptTracker}.
    *
    * @param phoneNumber The patient's phone number.
    * @param password The plain text password to validate.
    * @return The {@link Patient} object if login is successful, {@code null} otherwise.
+   * @throws AccountLockedException if the account is locked after too many failed logins.
    */
   public Patient validateLogin(String phoneNumber, String password) {
-    // Retrieve the patient by phone number
-    Patient patient = getPatientByPhoneNumber(phoneNumber);
+    // Turn away locked numbers before touching the database or hashing
+    loginAttemptTracker.checkNotLocked(phoneNumber);
+
+    // Retrieve the patient by phone number, bypassing the per-instance cache
+    Patient patient = loadByPhoneNumber(phoneNumber);
     if (patient == null) {
       logger.warn("Login failed: patient not found for phone number {}", phoneNumber);
+      loginAttemptTracker.recordFailure(phoneNumber, null);
       return null; // Patient not found
     }
+    loginAttemptTracker.checkNotLocked(patient);
 
     // Verify the provided password against the stored hash
-    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-    if (encoder.matches(password, patient.getPasswordHash())) {
+    if (passwordHashingService.matches(password, patient.getPasswordHash())) {
+      loginAttemptTracker.recordSuccess(patient);
       // Password matches
-      patient.setLastLoginAt(OffsetDateTime.now());
-      patientRepository.save(patient);
+      if (passwordHashingService.needsRehash(patient.getPasswordHash())) {
+        rehash(patient, password);
+      }
+      // Only last_login_at changes; it is written in the background
+      OffsetDateTime loginAt = OffsetDateTime.now();
+      patient.setLastLoginAt(loginAt);
+      lastLoginWriteBehindService.recordLogin(patient.getId(), loginAt);
       return patient;
     } else {
       // Password does not match
       logger.warn("Login failed: invalid password for phone number {}", phoneNumber);
+      loginAttemptTracker.recordFailure(phoneNumber, patient.getId());
       return null;
     }
   }
 
+  /**
+   * Replaces a patient's stored hash with one made at the current BCrypt cost. Skipped when the
+   * hashing pool is busy; the next login will try again.
+   */
+  private void rehash(Patient patient, String password) {
+    try {
+      String passwordHash = passwordHashingService.encode(password);
+      patientRepository.updatePasswordHash(patient.getId(), passwordHash);
+      patient.setPasswordHash(passwordHash);
+      patientCache.invalidate(patient.getId(), patient.getPhoneNumber());
+      logger.debug("Rehashed password for patient id: {}", patient.getId());
+    } catch (TooManyRequestsException e) {
+      logger.debug("Skipped password rehash for patient id {}: pool busy", patient.getId());
+    }
+  }
+
   /**
    * Updates the password for a given patient. The new password is required and will be hashed using
    * BCrypt. The {@code usingDefaultPassword} flag is set to false after a successful password
@@ -195,8 +607,7 @@ public class PatientService {
             .orElseThrow(() -> new RuntimeException("Patient not found with id: " + patientId));
 
     // Hash the new password using BCrypt
-    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
-    patient.setPasswordHash(encoder.encode(newPassword));
+    patient.setPasswordHash(passwordHashingService.encode(newPassword));
 
     // Update the 'updatedAt' timestamp
     patient.setUpdatedAt(LocalDateTime.now());
@@ -205,6 +616,7 @@ public class PatientService {
     patient.setUsingDefaultPassword(false);
 
     patientRepository.save(patient);
+    patientCache.invalidate(patientId, patient.getPhoneNumber());
     logger.info("Password updated successfully for patient id: {}", patientId);
   }
 }
@@ -9,9 +9,11 @@ CREATE TABLE
     IF NOT EXISTS patients (
         id BIGINT AUTO_INCREMENT PRIMARY KEY,
         phone_number CHAR(10) NOT NULL,
+        phone_number_hash BINARY(32),
         password_hash VARCHAR(255) NOT NULL,
         personal_details JSON,
         medical_info JSON,
+        medical_info_packed MEDIUMBLOB,
         insurance_details JSON,
         emergency_contact JSON,
         clinic_preferences JSON,
@@ -22,7 +24,54 @@ CREATE TABLE
         failed_login_attempts INT NOT NULL DEFAULT 0,
         locked_until TIMESTAMP NULL,
         last_login_at TIMESTAMP NULL,
-        UNIQUE KEY uq_phone_number (phone_number)
+        version BIGINT NOT NULL DEFAULT 0,
+        full_name VARCHAR(50) GENERATED ALWAYS AS (personal_details ->> '$.name') STORED,
+        email VARCHAR(255) GENERATED ALWAYS AS (personal_details ->> '$.email') STORED,
+        UNIQUE KEY uq_phone_number (phone_number),
+        UNIQUE KEY uq_phone_number_hash (phone_number_hash),
+        INDEX idx_patients_full_name (full_name),
+        INDEX idx_patients_email (email),
+        INDEX idx_patients_inactive (is_active, updated_at)
+    );
+
+-- Existing databases: copy the name out of personal_details so summaries skip the JSON columns
+-- ALTER TABLE patients ADD COLUMN full_name VARCHAR(50) GENERATED ALWAYS AS (personal_details ->> '$.name') STORED;
+-- Existing databases: index name and email for patient search
+-- ALTER TABLE patients ADD COLUMN email VARCHAR(255) GENERATED ALWAYS AS (personal_details ->> '$.email') STORED, ADD INDEX idx_patients_full_name (full_name), ADD INDEX idx_patients_email (email);
+-- Existing databases: version the rows for optimistic concurrency on updates
+-- ALTER TABLE patients ADD COLUMN version BIGINT NOT NULL DEFAULT 0 AFTER last_login_at;
+-- Existing databases: find deleted patients due for archival without a table scan
+-- ALTER TABLE patients ADD INDEX idx_patients_inactive (is_active, updated_at);
+-- Existing databases: optional deflated storage of medical_info
+-- ALTER TABLE patients ADD COLUMN medical_info_packed MEDIUMBLOB AFTER medical_info;
+-- ALTER TABLE patients_archive ADD COLUMN medical_info_packed MEDIUMBLOB AFTER medical_info;
+-- Existing databases: blind index of the phone number, filled by the storage migration job
+-- ALTER TABLE patients ADD COLUMN phone_number_hash BINARY(32) AFTER phone_number, ADD UNIQUE KEY uq_phone_number_hash (phone_number_hash);
+-- ALTER TABLE patients_archive ADD COLUMN phone_number_hash BINARY(32) AFTER phone_number;
+
+-- Patients Archive Table (deleted patients moved out of patients, no keys but the ID)
+CREATE TABLE
+    IF NOT EXISTS patients_archive (
+        id BIGINT PRIMARY KEY,
+        phone_number CHAR(10) NOT NULL,
+        phone_number_hash BINARY(32),
+        password_hash VARCHAR(255) NOT NULL,
+        personal_details JSON,
+        medical_info JSON,
+        medical_info_packed MEDIUMBLOB,
+        insurance_details JSON,
+        emergency_contact JSON,
+        clinic_preferences JSON,
+        created_at DATETIME NOT NULL,
+        updated_at DATETIME NOT NULL,
+        using_default_password BOOLEAN NOT NULL,
+        is_active BOOLEAN NOT NULL,
+        failed_login_attempts INT NOT NULL,
+        locked_until TIMESTAMP NULL,
+        last_login_at TIMESTAMP NULL,
+        version BIGINT NOT NULL,
+        archived_at DATETIME NOT NULL,
+        INDEX idx_patients_archive_phone_number (phone_number)
     );
 
 -- Appointments Table
@@ -48,6 +97,29 @@ CREATE TABLE
         UNIQUE KEY uq_slot_id (slot_id)
     );
 
+-- Appointments Archive Table (appointments of archived patients, no foreign keys and no unique slot,
+-- as a slot freed by an archived appointment can be booked and archived again)
+CREATE TABLE
+    IF NOT EXISTS appointments_archive (
+        appointment_id BIGINT PRIMARY KEY,
+        patient_id BIGINT NOT NULL,
+        appointment_type VARCHAR(50) NOT NULL,
+        appointment_for VARCHAR(10) NOT NULL,
+        appointment_for_name VARCHAR(255) NOT NULL,
+        appointment_for_age INTEGER,
+        symptom VARCHAR(255),
+        other_symptoms VARCHAR(255),
+        appointment_date DATETIME NOT NULL,
+        slot_id BIGINT,
+        doctor_id VARCHAR(50) NOT NULL,
+        clinic_id INTEGER NOT NULL,
+        active BOOLEAN NOT NULL DEFAULT TRUE,
+        INDEX idx_appointments_archive_patient_id (patient_id)
+    );
+
+-- Existing databases: drop the slot key copied from appointments
+-- ALTER TABLE appointments_archive DROP INDEX uq_slot_id;
+
 -- Queue Management Table
 CREATE TABLE
     IF NOT EXISTS queue_management (
@@ -70,12 +142,28 @@ CREATE TABLE
         transaction_id_consultation_fee VARCHAR(255),
         transaction_id_advance_revert VARCHAR(255),
         queue_date DATE,
+        UNIQUE KEY uq_queue_appointment (appointment_id),
+        INDEX idx_queue_doctor_date (doctor_id, queue_date),
+        INDEX idx_queue_date (queue_date),
         FOREIGN KEY (slot_id) REFERENCES slot_information (slot_id),
         FOREIGN KEY (appointment_id) REFERENCES appointments (appointment_id),
         FOREIGN KEY (clinic_id) REFERENCES clinic_information (clinic_id),
         FOREIGN KEY (doctor_id) REFERENCES doctor_information (doctor_id)
     );
 
+-- Existing databases: add the per-day indexes and key queue_date to the slot date
+-- ALTER TABLE queue_management ADD INDEX idx_queue_doctor_date (doctor_id, queue_date), ADD INDEX idx_queue_date (queue_date);
+-- Existing databases: keep the first entry of each appointment, then add the unique key
+-- DELETE q FROM queue_management q JOIN queue_management k ON k.appointment_id = q.appointment_id AND k.queue_management_id < q.queue_management_id;
+-- ALTER TABLE queue_management ADD UNIQUE KEY uq_queue_appointment (appointment_id);
+UPDATE queue_management q
+JOIN slot_information s ON s.slot_id = q.slot_id
+SET q.queue_date = s.slot_date
+WHERE q.queue_date IS NULL OR q.queue_date <> s.slot_date;
+
+-- Queue Management Archive Table (past days moved out of queue_management, no foreign keys)
+CREATE TABLE IF NOT EXISTS queue_management_archive LIKE queue_management;
+
 CREATE TABLE
     IF NOT EXISTS blacklisted_access_tokens (
         id BIGINT NOT NULL AUTO_INCREMENT,
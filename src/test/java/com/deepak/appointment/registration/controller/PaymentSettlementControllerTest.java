@@ -0,0 +1,82 @@
+package com.deepak.appointment.registration.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deepak.appointment.registration.dto.PaymentSettlementReport;
+import com.deepak.appointment.registration.service.PaymentSettlementService;
+import com.deepak.patient.registration.config.SecurityConfig;
+import com.deepak.patient.registration.security.CustomUserDetailsService;
+import com.deepak.patient.registration.security.JwtAuthenticationFilter;
+import com.deepak.patient.registration.security.TokenProvider;
+import com.deepak.patient.registration.service.BlacklistedAccessTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+@SpringJUnitWebConfig(PaymentSettlementControllerTest.Config.class)
+@TestPropertySource(properties = "app.cors.allowed-origins=http://localhost:3000")
+class PaymentSettlementControllerTest {
+
+  private static final String FILE =
+      "transactionId,appointmentId,paymentType,status,amount\nTX1,10,ADVANCE,SUCCESS,100\n";
+
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  @Import({SecurityConfig.class, JwtAuthenticationFilter.class, PaymentSettlementController.class})
+  static class Config {}
+
+  @Autowired private WebApplicationContext context;
+
+  @MockBean private PaymentSettlementService paymentSettlementService;
+
+  @MockBean private TokenProvider tokenProvider;
+
+  @MockBean private CustomUserDetailsService customUserDetailsService;
+
+  @MockBean private BlacklistedAccessTokenService blacklistedAccessTokenService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @WithMockUser(username = "1")
+  void ingestSettlementFile_shouldBeForbidden_forAPatient() throws Exception {
+    mockMvc
+        .perform(post("/v1/api/payments/settlements").contentType("text/csv").content(FILE))
+        .andExpect(status().isForbidden());
+
+    verifyNoInteractions(paymentSettlementService);
+  }
+
+  @Test
+  @WithMockUser(username = "2", authorities = CustomUserDetailsService.STAFF_AUTHORITY)
+  void ingestSettlementFile_shouldIngest_forStaff() throws Exception {
+    when(paymentSettlementService.ingest(any(), any())).thenReturn(new PaymentSettlementReport());
+
+    mockMvc
+        .perform(post("/v1/api/payments/settlements").contentType("text/csv").content(FILE))
+        .andExpect(status().isOk());
+
+    verify(paymentSettlementService).ingest(any(), any());
+  }
+}
@@ -0,0 +1,76 @@
+package com.deepak.appointment.registration.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deepak.appointment.registration.service.QueueManagementService;
+import com.deepak.patient.registration.config.SecurityConfig;
+import com.deepak.patient.registration.security.CustomUserDetailsService;
+import com.deepak.patient.registration.security.JwtAuthenticationFilter;
+import com.deepak.patient.registration.security.TokenProvider;
+import com.deepak.patient.registration.service.BlacklistedAccessTokenService;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+@SpringJUnitWebConfig(QueueManagementControllerTest.Config.class)
+@TestPropertySource(properties = "app.cors.allowed-origins=http://localhost:3000")
+class QueueManagementControllerTest {
+
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  @Import({SecurityConfig.class, JwtAuthenticationFilter.class, QueueManagementController.class})
+  static class Config {}
+
+  @Autowired private WebApplicationContext context;
+
+  @MockBean private QueueManagementService queueManagementService;
+
+  @MockBean private TokenProvider tokenProvider;
+
+  @MockBean private CustomUserDetailsService customUserDetailsService;
+
+  @MockBean private BlacklistedAccessTokenService blacklistedAccessTokenService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @WithMockUser(username = "1")
+  void getDoctorQueue_shouldBeForbidden_forAPatient() throws Exception {
+    mockMvc.perform(get("/v1/api/queue/doctors/D1")).andExpect(status().isForbidden());
+
+    verifyNoInteractions(queueManagementService);
+  }
+
+  @Test
+  @WithMockUser(username = "2", authorities = CustomUserDetailsService.STAFF_AUTHORITY)
+  void getDoctorQueue_shouldReturnTheQueue_forStaff() throws Exception {
+    when(queueManagementService.getDoctorQueue(eq("D1"), any())).thenReturn(List.of());
+
+    mockMvc.perform(get("/v1/api/queue/doctors/D1")).andExpect(status().isOk());
+
+    verify(queueManagementService).getDoctorQueue(eq("D1"), any());
+  }
+}
@@ -0,0 +1,188 @@
+package com.deepak.appointment.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.config.BookingProperties;
+import com.deepak.appointment.registration.config.CacheConfig;
+import com.deepak.appointment.registration.entity.SlotInformation;
+import com.deepak.appointment.registration.exception.ConflictException;
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.deepak.appointment.registration.repository.SlotInformationRepository;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+@ExtendWith(MockitoExtension.class)
+class BookingAdmissionServiceTest {
+
+  private static final LocalDate DATE = LocalDate.now();
+
+  @Mock private SlotInformationService slotInformationService;
+
+  @Mock private SlotInformationRepository slotInformationRepository;
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(slotInformationService.getSlot(5L)).thenReturn(slot());
+  }
+
+  private static SlotInformation slot() {
+    SlotInformation slot = new SlotInformation();
+    slot.setSlotId(5L);
+    slot.setClinicId(1);
+    slot.setDoctorId("doc1");
+    slot.setSlotDate(DATE);
+    return slot;
+  }
+
+  private BookingAdmissionService service(int maxConcurrent, Duration maxWait) {
+    return service(slotInformationService, maxConcurrent, maxWait);
+  }
+
+  private static BookingAdmissionService service(
+      SlotInformationService slotInformationService, int maxConcurrent, Duration maxWait) {
+    BookingProperties properties = new BookingProperties();
+    properties.getAdmission().setMaxConcurrent(maxConcurrent);
+    properties.getAdmission().setMaxWait(maxWait);
+    return new BookingAdmissionService(slotInformationService, properties);
+  }
+
+  @Test
+  void admit_shouldTurnAwayBookersOfAFullDay_withoutTouchingTheRepository() {
+    // Arrange: the day's snapshot is precomputed with one free slot, which is then booked
+    SlotInformationService cachedSlots =
+        new SlotInformationService(
+            slotInformationRepository,
+            new CaffeineCacheManager(CacheConfig.SLOT_AVAILABILITY_CACHE));
+    when(slotInformationRepository.findAvailableSlotsByDate(DATE)).thenReturn(List.of(slot()));
+    cachedSlots.precomputeAvailability(DATE);
+    BookingAdmissionService service = service(cachedSlots, 2, Duration.ofSeconds(1));
+    assertEquals("booked", service.admit("5", () -> "booked"));
+    // The first booker to find the day full rechecks it once
+    when(slotInformationRepository.countAvailableSlotsByClinicDoctorAndDate(1, "doc1", DATE))
+        .thenReturn(0);
+    assertThrows(
+        ConflictException.class, () -> service.admit("5", () -> fail("Booking should not run")));
+    clearInvocations(slotInformationRepository);
+
+    // Act & Assert
+    assertThrows(
+        ConflictException.class, () -> service.admit("5", () -> fail("Booking should not run")));
+    verifyNoInteractions(slotInformationRepository);
+  }
+
+  @Test
+  void admit_shouldRejectImmediately_whenAllFreeSlotsAreClaimed() {
+    // Arrange
+    when(slotInformationService.countAvailableSlots(1, "doc1", DATE)).thenReturn(1);
+    BookingAdmissionService service = service(2, Duration.ofSeconds(1));
+
+    // Act
+    String first = service.admit("5", () -> "booked");
+
+    // Assert
+    assertEquals("booked", first);
+    when(slotInformationService.countAvailableSlotsInDatabase(1, "doc1", DATE)).thenReturn(0);
+    assertThrows(
+        ConflictException.class, () -> service.admit("5", () -> fail("Booking should not run")));
+    assertThrows(
+        ConflictException.class, () -> service.admit("5", () -> fail("Booking should not run")));
+    verify(slotInformationService, times(1)).countAvailableSlots(1, "doc1", DATE);
+    // A full day is rechecked once per interval, not on every rejected booker
+    verify(slotInformationService, times(1)).countAvailableSlotsInDatabase(1, "doc1", DATE);
+  }
+
+  @Test
+  void admit_shouldOfferAReleasedSlotAgain_whenTheDatabaseHasFreeSlots() {
+    // Arrange: the cached count says the day is full, but a slot has since been released
+    when(slotInformationService.countAvailableSlots(1, "doc1", DATE)).thenReturn(0);
+    when(slotInformationService.countAvailableSlotsInDatabase(1, "doc1", DATE)).thenReturn(1);
+    BookingAdmissionService service = service(2, Duration.ofSeconds(1));
+
+    // Act & Assert
+    assertEquals("booked", service.admit("5", () -> "booked"));
+  }
+
+  @Test
+  void admit_shouldGateOnTheDoctorDayOfTheBookedSlot() {
+    // Arrange
+    when(slotInformationService.countAvailableSlots(1, "doc1", DATE)).thenReturn(1);
+    BookingAdmissionService service = service(2, Duration.ofSeconds(1));
+
+    // Act
+    service.admit("5", () -> "booked");
+
+    // Assert
+    verify(slotInformationService).getSlot(5L);
+    verify(slotInformationService).countAvailableSlots(1, "doc1", DATE);
+  }
+
+  @Test
+  void admit_shouldReturnClaim_whenBookingFails() {
+    // Arrange
+    when(slotInformationService.countAvailableSlots(1, "doc1", DATE)).thenReturn(1);
+    BookingAdmissionService service = service(2, Duration.ofSeconds(1));
+
+    // Act
+    assertThrows(
+        ConflictException.class,
+        () ->
+            service.admit(
+                "5",
+                () -> {
+                  throw new ConflictException("The selected slot is already booked");
+                }));
+
+    // Assert
+    assertEquals("booked", service.admit("5", () -> "booked"));
+  }
+
+  @Test
+  void admit_shouldAskToRetry_whenNoTurnFreesUpInTime() throws Exception {
+    // Arrange
+    when(slotInformationService.countAvailableSlots(1, "doc1", DATE)).thenReturn(5);
+    BookingAdmissionService service = service(1, Duration.ofMillis(50));
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    try {
+      Future<String> slowBooking =
+          executor.submit(
+              () ->
+                  service.admit(
+                      "5",
+                      () -> {
+                        started.countDown();
+                        try {
+                          release.await();
+                        } catch (InterruptedException e) {
+                          Thread.currentThread().interrupt();
+                        }
+                        return "booked";
+                      }));
+      started.await();
+
+      // Act & Assert
+      TooManyRequestsException ex =
+          assertThrows(TooManyRequestsException.class, () -> service.admit("5", () -> "booked"));
+      assertEquals(Duration.ofMillis(50), ex.getRetryAfter());
+
+      release.countDown();
+      assertEquals("booked", slowBooking.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
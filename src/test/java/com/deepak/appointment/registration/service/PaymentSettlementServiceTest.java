@@ -0,0 +1,119 @@
+package com.deepak.appointment.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.dto.PaymentSettlementReport;
+import com.deepak.appointment.registration.dto.PaymentSettlementReport.Outcome;
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.appointment.registration.model.PaymentType;
+import com.deepak.appointment.registration.model.QueueManagement;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import com.deepak.appointment.registration.repository.QueueManagementRepositoryCustom.PaymentUpdate;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentSettlementServiceTest {
+
+  @Mock private QueueManagementRepository queueManagementRepository;
+
+  @InjectMocks private PaymentSettlementService paymentSettlementService;
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static QueueManagement queueEntry(int id, long appointmentId) {
+    QueueManagement entry = new QueueManagement();
+    entry.setQueueManagementId(id);
+    entry.setAppointmentId(appointmentId);
+    return entry;
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<PaymentUpdate> capturedUpdates() {
+    ArgumentCaptor<List<PaymentUpdate>> captor = ArgumentCaptor.forClass(List.class);
+    verify(queueManagementRepository).applyPaymentUpdates(captor.capture());
+    return captor.getValue();
+  }
+
+  @Test
+  void ingest_shouldMatchCsvRowsByAppointmentId_andReportUnmatchedAndInvalidRows() {
+    // Arrange
+    when(queueManagementRepository.findByAnyTransactionIdIn(anyCollection()))
+        .thenReturn(Collections.emptyList());
+    when(queueManagementRepository.findByAppointmentIdIn(anyCollection()))
+        .thenReturn(List.of(queueEntry(7, 100L)));
+    String csv =
+        """
+        transactionId,appointmentId,paymentType,status,amount
+        TXN-1,100,CONSULTATION,SUCCESS,350.00
+        TXN-2,999,ADVANCE,SUCCESS,
+        TXN-3,100,UNKNOWN,SUCCESS,
+        """;
+
+    // Act
+    PaymentSettlementReport report =
+        paymentSettlementService.ingest(stream(csv), PaymentSettlementService.TEXT_CSV);
+
+    // Assert
+    assertEquals(3, report.getTotalRows());
+    assertEquals(1, report.getUpdated());
+    assertEquals(1, report.getUnmatched());
+    assertEquals(1, report.getInvalid());
+    assertEquals(Outcome.UPDATED, report.getRows().getFirst().getOutcome());
+    assertEquals(7, report.getRows().getFirst().getQueueManagementId());
+
+    List<PaymentUpdate> updates = capturedUpdates();
+    assertEquals(1, updates.size());
+    assertEquals(
+        new PaymentUpdate(7, PaymentType.CONSULTATION, "TXN-1", true, 350.0), updates.getFirst());
+  }
+
+  @Test
+  void ingest_shouldPreferTransactionMatch_andFlagDuplicatesInNdjson() {
+    // Arrange
+    QueueManagement alreadySettled = queueEntry(3, 200L);
+    alreadySettled.setTransactionIdAdvanceFee("TXN-9");
+    when(queueManagementRepository.findByAnyTransactionIdIn(anyCollection()))
+        .thenReturn(List.of(alreadySettled));
+    String ndjson =
+        """
+        {"transactionId":"TXN-9","paymentType":"advance","status":"FAILED"}
+        {"transactionId":"TXN-9","paymentType":"advance","status":"FAILED"}
+        """;
+
+    // Act
+    PaymentSettlementReport report =
+        paymentSettlementService.ingest(stream(ndjson), MediaType.APPLICATION_NDJSON);
+
+    // Assert
+    assertEquals(2, report.getTotalRows());
+    assertEquals(1, report.getUpdated());
+    assertEquals(1, report.getDuplicates());
+    assertEquals(
+        List.of(new PaymentUpdate(3, PaymentType.ADVANCE, "TXN-9", false, null)),
+        capturedUpdates());
+    verify(queueManagementRepository, never()).findByAppointmentIdIn(anyCollection());
+  }
+
+  @Test
+  void ingest_shouldRejectUnsupportedContentType() {
+    assertThrows(
+        BadRequestException.class,
+        () -> paymentSettlementService.ingest(stream("{}"), MediaType.APPLICATION_XML));
+    verifyNoInteractions(queueManagementRepository);
+  }
+}
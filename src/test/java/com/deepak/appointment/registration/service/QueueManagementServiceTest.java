@@ -0,0 +1,52 @@
+package com.deepak.appointment.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.config.QueueProperties;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class QueueManagementServiceTest {
+
+  @Mock private QueueManagementRepository queueManagementRepository;
+
+  private QueueManagementService service(boolean enabled) {
+    QueueProperties properties = new QueueProperties();
+    properties.getArchive().setEnabled(enabled);
+    properties.getArchive().setRetentionDays(7);
+    properties.getArchive().setChunkSize(2);
+    return new QueueManagementService(queueManagementRepository, properties);
+  }
+
+  @Test
+  void archivePastQueues_shouldArchiveInChunks_untilAChunkIsNotFull() {
+    // Arrange
+    LocalDate cutoff = LocalDate.now().minusDays(7);
+    when(queueManagementRepository.archiveQueueEntriesBefore(cutoff, 2)).thenReturn(2, 2, 1);
+
+    // Act
+    int archived = service(true).archivePastQueues();
+
+    // Assert
+    assertEquals(5, archived);
+    verify(queueManagementRepository, times(3)).archiveQueueEntriesBefore(eq(cutoff), eq(2));
+  }
+
+  @Test
+  void archivePastQueues_shouldDoNothing_whenDisabled() {
+    // Act
+    int archived = service(false).archivePastQueues();
+
+    // Assert
+    assertEquals(0, archived);
+    verify(queueManagementRepository, never()).archiveQueueEntriesBefore(any(), anyInt());
+  }
+}
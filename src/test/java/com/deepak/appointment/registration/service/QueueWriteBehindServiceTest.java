@@ -0,0 +1,118 @@
+package com.deepak.appointment.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.config.QueueProperties;
+import com.deepak.appointment.registration.model.QueueManagement;
+import com.deepak.appointment.registration.repository.QueueManagementRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class QueueWriteBehindServiceTest {
+
+  @Mock private QueueManagementRepository queueManagementRepository;
+
+  @AfterEach
+  void clearSynchronization() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private QueueWriteBehindService service(boolean enabled, int capacity) {
+    QueueProperties properties = new QueueProperties();
+    properties.getWriteBehind().setEnabled(enabled);
+    properties.getWriteBehind().setCapacity(capacity);
+    return new QueueWriteBehindService(queueManagementRepository, properties);
+  }
+
+  private static QueueManagement entry(long appointmentId) {
+    QueueManagement entry = new QueueManagement();
+    entry.setAppointmentId(appointmentId);
+    return entry;
+  }
+
+  private static void completeTransaction(int status) {
+    List<TransactionSynchronization> synchronizations =
+        TransactionSynchronizationManager.getSynchronizations();
+    TransactionSynchronizationManager.clearSynchronization();
+    synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+  }
+
+  @Test
+  void enqueueAfterCommit_shouldBufferEntry_andFlushItAfterCommit() {
+    // Arrange
+    QueueWriteBehindService service = service(true, 10);
+    TransactionSynchronizationManager.initSynchronization();
+    QueueManagement entry = entry(1L);
+
+    // Act
+    boolean buffered = service.enqueueAfterCommit(entry);
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    service.flush();
+
+    // Assert
+    assertTrue(buffered);
+    verify(queueManagementRepository).insertQueueEntries(List.of(entry));
+  }
+
+  @Test
+  void enqueueAfterCommit_shouldDropEntry_whenTransactionRollsBack() {
+    // Arrange
+    QueueWriteBehindService service = service(true, 1);
+    TransactionSynchronizationManager.initSynchronization();
+
+    // Act
+    service.enqueueAfterCommit(entry(1L));
+    completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+    service.flush();
+
+    // Assert
+    verifyNoInteractions(queueManagementRepository);
+    TransactionSynchronizationManager.initSynchronization();
+    assertTrue(service.enqueueAfterCommit(entry(2L)), "Rolled back entry should free its space");
+  }
+
+  @Test
+  void enqueueAfterCommit_shouldReturnFalse_whenDisabledOrFull() {
+    // Arrange
+    TransactionSynchronizationManager.initSynchronization();
+    QueueWriteBehindService disabled = service(false, 10);
+    QueueWriteBehindService full = service(true, 1);
+
+    // Act & Assert
+    assertFalse(disabled.enqueueAfterCommit(entry(1L)));
+    assertTrue(full.enqueueAfterCommit(entry(2L)));
+    assertFalse(full.enqueueAfterCommit(entry(3L)));
+  }
+
+  @Test
+  void flush_shouldRetryEntries_whenInsertFails() {
+    // Arrange
+    QueueWriteBehindService service = service(true, 10);
+    TransactionSynchronizationManager.initSynchronization();
+    QueueManagement entry = entry(1L);
+    service.enqueueAfterCommit(entry);
+    completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    when(queueManagementRepository.insertQueueEntries(anyList()))
+        .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+        .thenReturn(1);
+
+    // Act
+    service.flush();
+    service.flush();
+
+    // Assert
+    verify(queueManagementRepository, times(2)).insertQueueEntries(List.of(entry));
+  }
+}
@@ -1,6 +1,7 @@
 package com.deepak.appointment.registration.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import com.deepak.appointment.registration.entity.SlotInformation;
@@ -14,13 +15,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 
 @ExtendWith(MockitoExtension.class)
 class SlotInformationServiceTest {
 
   @Mock private SlotInformationRepository slotInformationRepository;
 
+  @Spy private ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
   @InjectMocks private SlotInformationService slotInformationService;
 
   @Test
@@ -115,4 +120,38 @@ class SlotInformationServiceTest {
     verify(slotInformationRepository, times(1))
         .findAvailableSlotsByClinicDoctorAndDate(clinicId, doctorId, date);
   }
+
+  private static SlotInformation slot(long id, int hour) {
+    SlotInformation slot = new SlotInformation();
+    slot.setSlotId(id);
+    slot.setClinicId(1);
+    slot.setDoctorId("doc1");
+    slot.setSlotDate(LocalDate.now());
+    slot.setShiftTime("Morning");
+    slot.setSlotTime(LocalTime.of(hour, 0));
+    slot.setIsAvailable(true);
+    return slot;
+  }
+
+  @Test
+  void getAvailableSlots_shouldServeFromPrecomputedSnapshot_andHideBookedSlots() {
+    // Arrange
+    LocalDate date = LocalDate.now();
+    SlotInformation booked = slot(1L, 9);
+    when(slotInformationRepository.findAvailableSlotsByDate(date))
+        .thenReturn(List.of(booked, slot(2L, 10)));
+
+    // Act
+    int doctorDays = slotInformationService.precomputeAvailability(date);
+    slotInformationService.markSlotBooked(booked);
+    Map<String, List<Map<String, String>>> slotsMap =
+        slotInformationService.getAvailableSlots(1, "doc1", date);
+
+    // Assert
+    assertEquals(1, doctorDays);
+    assertEquals(1, slotsMap.get("Morning").size());
+    assertEquals("2", slotsMap.get("Morning").getFirst().get("slotId"));
+    verify(slotInformationRepository, never())
+        .findAvailableSlotsByClinicDoctorAndDate(any(), any(), any());
+  }
 }
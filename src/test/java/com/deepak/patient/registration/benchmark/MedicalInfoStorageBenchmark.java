@@ -0,0 +1,150 @@
+package com.deepak.patient.registration.benchmark;
+
+import com.deepak.patient.registration.model.patient.FamilyHistory;
+import com.deepak.patient.registration.model.patient.MedicalInfo;
+import com.deepak.patient.registration.model.patient.converter.MedicalInfoConverter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares storing {@code medical_info} as JSON text against the packed (deflated) format, for a
+ * typical patient and a chronic patient with long lists of conditions and medications.
+ *
+ * <p>Each write converts the document and updates one row, and each read selects one row and
+ * converts it back, against an in-memory H2 database through plain JDBC. The stored size of each
+ * format is printed when the trial starts. On MySQL the JSON column is also parsed and validated on
+ * every write, which H2's {@code VARCHAR} stand-in does not measure. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=MedicalInfoStorageBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MedicalInfoStorageBenchmark {
+
+  private static final int PATIENTS = 1_000;
+
+  private final MedicalInfoConverter converter = new MedicalInfoConverter();
+
+  @Param({"typical", "chronic"})
+  private String profile;
+
+  @Param({"json", "packed"})
+  private String format;
+
+  private MedicalInfo medicalInfo;
+  private Connection connection;
+  private PreparedStatement update;
+  private PreparedStatement select;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    medicalInfo = "chronic".equals(profile) ? medicalInfo(25, 40) : medicalInfo(2, 3);
+    connection = DriverManager.getConnection("jdbc:h2:mem:medical_info_bench;MODE=MySQL");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE patients (id BIGINT PRIMARY KEY, medical_info VARCHAR(65535), "
+              + "medical_info_packed BLOB)");
+    }
+    String column = isPacked() ? "medical_info_packed" : "medical_info";
+    try (PreparedStatement insert =
+        connection.prepareStatement("INSERT INTO patients (id, " + column + ") VALUES (?, ?)")) {
+      for (long id = 1; id <= PATIENTS; id++) {
+        insert.setLong(1, id);
+        bind(insert, 2);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+    update = connection.prepareStatement("UPDATE patients SET " + column + " = ? WHERE id = ?");
+    select = connection.prepareStatement("SELECT " + column + " FROM patients WHERE id = ?");
+
+    int textBytes = converter.convertToDatabaseColumn(medicalInfo).length();
+    int packedBytes = converter.convertToPackedColumn(medicalInfo).length;
+    System.out.printf(
+        "%n%s medical_info: %d bytes as JSON, %d bytes packed (%.0f%%)%n",
+        profile, textBytes, packedBytes, 100.0 * packedBytes / textBytes);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  private boolean isPacked() {
+    return "packed".equals(format);
+  }
+
+  private void bind(PreparedStatement statement, int index) throws SQLException {
+    if (isPacked()) {
+      statement.setBytes(index, converter.convertToPackedColumn(medicalInfo));
+    } else {
+      statement.setString(index, converter.convertToDatabaseColumn(medicalInfo));
+    }
+  }
+
+  /** Converts the document and writes it to one row. */
+  @Benchmark
+  public int write() throws SQLException {
+    bind(update, 1);
+    update.setLong(2, ThreadLocalRandom.current().nextLong(1, PATIENTS + 1));
+    return update.executeUpdate();
+  }
+
+  /** Reads one row and converts it back to the document. */
+  @Benchmark
+  public MedicalInfo read() throws SQLException {
+    select.setLong(1, ThreadLocalRandom.current().nextLong(1, PATIENTS + 1));
+    try (ResultSet rs = select.executeQuery()) {
+      rs.next();
+      return isPacked()
+          ? converter.convertPackedToEntityAttribute(rs.getBytes(1))
+          : converter.convertToEntityAttribute(rs.getString(1));
+    }
+  }
+
+  private static MedicalInfo medicalInfo(int conditions, int medications) {
+    List<String> existingConditions = new ArrayList<>();
+    for (int i = 0; i < conditions; i++) {
+      existingConditions.add("Chronic condition " + i + " under review");
+    }
+    List<String> currentMedications = new ArrayList<>();
+    for (int i = 0; i < medications; i++) {
+      currentMedications.add("Medication " + i + " " + (5 * (i % 8 + 1)) + "mg twice daily");
+    }
+    return MedicalInfo.builder()
+        .bloodGroup("B+")
+        .allergies(List.of("Penicillin", "Dust", "Peanuts"))
+        .existingConditions(existingConditions)
+        .currentMedications(currentMedications)
+        .familyHistory(new FamilyHistory(true, true, false))
+        .build();
+  }
+}
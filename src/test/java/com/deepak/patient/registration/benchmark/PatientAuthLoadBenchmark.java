@@ -0,0 +1,163 @@
+package com.deepak.patient.registration.benchmark;
+
+import com.deepak.patient.registration.model.patient.ClinicPreferences;
+import com.deepak.patient.registration.model.patient.EmergencyContact;
+import com.deepak.patient.registration.model.patient.InsuranceDetails;
+import com.deepak.patient.registration.model.patient.MedicalInfo;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.model.patient.converter.ClinicPreferencesConverter;
+import com.deepak.patient.registration.model.patient.converter.EmergencyContactConverter;
+import com.deepak.patient.registration.model.patient.converter.InsuranceDetailsConverter;
+import com.deepak.patient.registration.model.patient.converter.MedicalInfoConverter;
+import com.deepak.patient.registration.model.patient.converter.PersonalDetailsConverter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the per-request cost of authenticating a patient by loading the full row and parsing its
+ * five JSON columns (what {@code findById} did) against loading only the credentials projection.
+ *
+ * <p>Runs against an in-memory H2 database through plain JDBC and the entity's attribute
+ * converters, so it measures the row transfer and JSON parsing rather than Hibernate overhead. Run
+ * with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=PatientAuthLoadBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientAuthLoadBenchmark {
+
+  private static final int PATIENTS = 1_000;
+
+  private static final String PERSONAL_DETAILS =
+      "{\"name\":\"Rohan Kumar\",\"phoneNumber\":\"+919876543210\",\"email\":\"rohan@domain.com\","
+          + "\"birthdate\":\"1995-08-15\",\"sex\":\"M\",\"address\":{\"street\":\"12 MG Road\","
+          + "\"city\":\"Bengaluru\",\"state\":\"Karnataka\",\"postalCode\":\"560001\","
+          + "\"country\":\"India\"},\"occupation\":\"Software Engineer\"}";
+  private static final String MEDICAL_INFO =
+      "{\"bloodGroup\":\"O+\",\"allergies\":[\"Penicillin\",\"Peanuts\"],"
+          + "\"existingConditions\":[\"Asthma\"],\"currentMedications\":[\"Salbutamol\"],"
+          + "\"familyHistory\":{\"diabetes\":true,\"hypertension\":false,\"heartDisease\":false}}";
+  private static final String EMERGENCY_CONTACT =
+      "{\"name\":\"Priya Kumar\",\"relationship\":\"Spouse\",\"phoneNumber\":\"9876543211\","
+          + "\"address\":\"12 MG Road, Bengaluru\"}";
+  private static final String INSURANCE_DETAILS =
+      "{\"provider\":\"Star Health\",\"policyNumber\":\"SH-1234567\",\"validTill\":\"2030-12-31\"}";
+  private static final String CLINIC_PREFERENCES =
+      "{\"preferredLanguage\":\"English\",\"communicationMethod\":[\"SMS\",\"Email\"]}";
+
+  private final PersonalDetailsConverter personalDetailsConverter = new PersonalDetailsConverter();
+  private final MedicalInfoConverter medicalInfoConverter = new MedicalInfoConverter();
+  private final EmergencyContactConverter emergencyContactConverter =
+      new EmergencyContactConverter();
+  private final InsuranceDetailsConverter insuranceDetailsConverter =
+      new InsuranceDetailsConverter();
+  private final ClinicPreferencesConverter clinicPreferencesConverter =
+      new ClinicPreferencesConverter();
+
+  private Connection connection;
+  private PreparedStatement fullRow;
+  private PreparedStatement credentials;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:auth_bench;MODE=MySQL");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE patients (id BIGINT PRIMARY KEY, phone_number CHAR(10) NOT NULL, "
+              + "password_hash VARCHAR(255) NOT NULL, personal_details VARCHAR(4000), "
+              + "medical_info VARCHAR(4000), insurance_details VARCHAR(4000), "
+              + "emergency_contact VARCHAR(4000), clinic_preferences VARCHAR(4000))");
+    }
+    try (PreparedStatement insert =
+        connection.prepareStatement("INSERT INTO patients VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+      for (long id = 1; id <= PATIENTS; id++) {
+        insert.setLong(1, id);
+        insert.setString(2, String.valueOf(9_000_000_000L + id));
+        insert.setString(3, "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3vYq5s7Z6x8V8b6N9QZb2xK");
+        insert.setString(4, PERSONAL_DETAILS);
+        insert.setString(5, MEDICAL_INFO);
+        insert.setString(6, INSURANCE_DETAILS);
+        insert.setString(7, EMERGENCY_CONTACT);
+        insert.setString(8, CLINIC_PREFERENCES);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+    fullRow = connection.prepareStatement("SELECT * FROM patients WHERE id = ?");
+    credentials =
+        connection.prepareStatement("SELECT id, password_hash FROM patients WHERE id = ?");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  private static long randomId() {
+    return ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+  }
+
+  /** Loads the whole row and parses every JSON column, as the full entity load does. */
+  @Benchmark
+  public void fullEntity(Blackhole blackhole) throws SQLException {
+    fullRow.setLong(1, randomId());
+    try (ResultSet rs = fullRow.executeQuery()) {
+      rs.next();
+      blackhole.consume(rs.getLong("id"));
+      blackhole.consume(rs.getString("password_hash"));
+      PersonalDetails personalDetails =
+          personalDetailsConverter.convertToEntityAttribute(rs.getString("personal_details"));
+      MedicalInfo medicalInfo =
+          medicalInfoConverter.convertToEntityAttribute(rs.getString("medical_info"));
+      InsuranceDetails insuranceDetails =
+          insuranceDetailsConverter.convertToEntityAttribute(rs.getString("insurance_details"));
+      EmergencyContact emergencyContact =
+          emergencyContactConverter.convertToEntityAttribute(rs.getString("emergency_contact"));
+      ClinicPreferences clinicPreferences =
+          clinicPreferencesConverter.convertToEntityAttribute(rs.getString("clinic_preferences"));
+      blackhole.consume(personalDetails);
+      blackhole.consume(medicalInfo);
+      blackhole.consume(insuranceDetails);
+      blackhole.consume(emergencyContact);
+      blackhole.consume(clinicPreferences);
+    }
+  }
+
+  /** Loads only the ID and password hash, as the credentials projection does. */
+  @Benchmark
+  public void credentialsProjection(Blackhole blackhole) throws SQLException {
+    credentials.setLong(1, randomId());
+    try (ResultSet rs = credentials.executeQuery()) {
+      rs.next();
+      blackhole.consume(rs.getLong(1));
+      blackhole.consume(rs.getString(2));
+    }
+  }
+}
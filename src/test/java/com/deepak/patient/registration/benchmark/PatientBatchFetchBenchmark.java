@@ -0,0 +1,133 @@
+package com.deepak.patient.registration.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares resolving the summaries of a dashboard's worth of patients with one query per patient
+ * (what one {@code by-id} call per patient does) against a single {@code IN} query, as the batch
+ * summary lookup does.
+ *
+ * <p>Runs against an in-memory H2 database through plain JDBC, so it measures statement round trips
+ * rather than HTTP or Hibernate overhead; over a network each round trip also adds the database
+ * latency. Run with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.openjdk.jmh.Main -Dexec.args=PatientBatchFetchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientBatchFetchBenchmark {
+
+  private static final int PATIENTS = 10_000;
+
+  private static final String SUMMARY_COLUMNS =
+      "id, full_name, phone_number, using_default_password, is_active, last_login_at";
+
+  @Param({"10", "50", "100"})
+  private int batchSize;
+
+  private Connection connection;
+  private PreparedStatement single;
+  private PreparedStatement batch;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection("jdbc:h2:mem:batch_fetch_bench;MODE=MySQL");
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE TABLE patients (id BIGINT PRIMARY KEY, phone_number CHAR(10) NOT NULL, "
+              + "full_name VARCHAR(50), using_default_password BOOLEAN NOT NULL, "
+              + "is_active BOOLEAN NOT NULL, last_login_at TIMESTAMP)");
+    }
+    try (PreparedStatement insert =
+        connection.prepareStatement(
+            "INSERT INTO patients VALUES (?, ?, ?, FALSE, TRUE, CURRENT_TIMESTAMP)")) {
+      for (long id = 1; id <= PATIENTS; id++) {
+        insert.setLong(1, id);
+        insert.setString(2, String.valueOf(9_000_000_000L + id));
+        insert.setString(3, "Patient " + id);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+    single =
+        connection.prepareStatement("SELECT " + SUMMARY_COLUMNS + " FROM patients WHERE id = ?");
+    batch =
+        connection.prepareStatement(
+            "SELECT "
+                + SUMMARY_COLUMNS
+                + " FROM patients WHERE id IN ("
+                + String.join(", ", Collections.nCopies(batchSize, "?"))
+                + ")");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  private static long randomId() {
+    return ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+  }
+
+  /** Loads each patient with its own query, as one by-id call per patient does. */
+  @Benchmark
+  public void sequential(Blackhole blackhole) throws SQLException {
+    for (int i = 0; i < batchSize; i++) {
+      single.setLong(1, randomId());
+      try (ResultSet rs = single.executeQuery()) {
+        consume(rs, blackhole);
+      }
+    }
+  }
+
+  /** Loads every patient with one {@code IN} query, as the batch summary lookup does. */
+  @Benchmark
+  public void singleInQuery(Blackhole blackhole) throws SQLException {
+    for (int i = 0; i < batchSize; i++) {
+      batch.setLong(i + 1, randomId());
+    }
+    try (ResultSet rs = batch.executeQuery()) {
+      consume(rs, blackhole);
+    }
+  }
+
+  private static void consume(ResultSet rs, Blackhole blackhole) throws SQLException {
+    while (rs.next()) {
+      blackhole.consume(rs.getLong(1));
+      blackhole.consume(rs.getString(2));
+      blackhole.consume(rs.getString(3));
+      blackhole.consume(rs.getBoolean(4));
+      blackhole.consume(rs.getBoolean(5));
+      blackhole.consume(rs.getTimestamp(6));
+    }
+  }
+}
@@ -0,0 +1,222 @@
+package com.deepak.patient.registration.benchmark;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Address;
+import com.deepak.patient.registration.model.patient.ClinicPreferences;
+import com.deepak.patient.registration.model.patient.EmergencyContact;
+import com.deepak.patient.registration.model.patient.FamilyHistory;
+import com.deepak.patient.registration.model.patient.InsuranceDetails;
+import com.deepak.patient.registration.model.patient.MedicalInfo;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientEncryptionListener;
+import com.deepak.patient.registration.model.patient.PatientJsonColumn;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.model.patient.converter.ClinicPreferencesConverter;
+import com.deepak.patient.registration.model.patient.converter.EmergencyContactConverter;
+import com.deepak.patient.registration.model.patient.converter.PersonalDetailsConverter;
+import com.deepak.patient.registration.security.FieldEncryption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures what encrypting {@code medical_info} and {@code insurance_details} adds to reading a
+ * patient that is not cached: one row selected by ID and converted as Hibernate and {@code
+ * PatientEncryptionListener} do, with or without then reading its PHI, which is decrypted on first
+ * use.
+ *
+ * <p>Runs against an in-memory H2 database through plain JDBC, on one shared core. A read that does
+ * not touch the PHI decrypts nothing: it measured 4.7 us plaintext and 5.1 us encrypted, a
+ * difference within the error of the run that is left to reading the longer encrypted values. A
+ * read of the PHI measured 7.9 and 9.7 us. Without the database, decrypting and parsing both PHI
+ * columns costs 3.0 us against 1.6 us for parsing them, most of it the JDK's per-value AES-GCM
+ * setup; decrypting through an intermediate {@code String} cost 3.4 us. Reads of the PHI therefore
+ * still miss the 5% target on this path, by about 1.4 us per patient. What that adds to a read from
+ * MySQL, where the query costs more, has not been measured. Run with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *     org.openjdk.jmh.Main PatientReadEncryptionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class PatientReadEncryptionBenchmark {
+
+  private static final int PATIENTS = 10_000;
+
+  private static final PatientJsonColumn[] COLUMNS = {
+    PatientJsonColumn.PERSONAL_DETAILS,
+    PatientJsonColumn.MEDICAL_INFO,
+    PatientJsonColumn.INSURANCE_DETAILS,
+    PatientJsonColumn.EMERGENCY_CONTACT,
+    PatientJsonColumn.CLINIC_PREFERENCES
+  };
+
+  private static final PersonalDetailsConverter PERSONAL_DETAILS_CONVERTER =
+      new PersonalDetailsConverter();
+
+  private static final EmergencyContactConverter EMERGENCY_CONTACT_CONVERTER =
+      new EmergencyContactConverter();
+
+  private static final ClinicPreferencesConverter CLINIC_PREFERENCES_CONVERTER =
+      new ClinicPreferencesConverter();
+
+  @Param({"false", "true"})
+  private boolean encrypted;
+
+  @Param({"false", "true"})
+  private boolean phiRead;
+
+  private FieldEncryption fieldEncryption;
+  private PatientEncryptionListener listener;
+  private Connection connection;
+  private PreparedStatement select;
+
+  @Setup(Level.Trial)
+  public void setUp() throws SQLException {
+    PatientProperties.Encryption settings = new PatientProperties.Encryption();
+    settings.setEnabled(encrypted);
+    settings.setActiveKeyId("k1");
+    settings.getKeys().put("k1", Base64.getEncoder().encodeToString(new byte[32]));
+    settings.setBlindIndexKey(Base64.getEncoder().encodeToString(new byte[32]));
+    fieldEncryption = new FieldEncryption(settings);
+    listener = new PatientEncryptionListener(fieldEncryption);
+
+    connection = DriverManager.getConnection("jdbc:h2:mem:patient_read_bench;MODE=MySQL");
+    StringBuilder columns = new StringBuilder();
+    StringBuilder definitions = new StringBuilder();
+    for (PatientJsonColumn column : COLUMNS) {
+      columns.append(", ").append(column.getColumn());
+      definitions.append(", ").append(column.getColumn()).append(" VARCHAR(8000)");
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE patients (id BIGINT PRIMARY KEY" + definitions + ")");
+    }
+    try (PreparedStatement insert =
+        connection.prepareStatement(
+            "INSERT INTO patients (id" + columns + ") VALUES (?, ?, ?, ?, ?, ?)")) {
+      for (long id = 1; id <= PATIENTS; id++) {
+        Patient patient = patient(id);
+        insert.setLong(1, id);
+        for (int i = 0; i < COLUMNS.length; i++) {
+          insert.setString(i + 2, stored(COLUMNS[i], COLUMNS[i].toDatabaseColumn(patient), id));
+        }
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+    select =
+        connection.prepareStatement(
+            "SELECT " + columns.substring(2) + " FROM patients WHERE id = ?");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  /**
+   * Loads one patient as Hibernate does: the plaintext JSON columns are converted, the PHI columns
+   * are kept as stored and {@code PatientEncryptionListener} runs; the PHI is then read if {@code
+   * phiRead} is set.
+   */
+  @Benchmark
+  public void read(Blackhole blackhole) throws SQLException {
+    long id = ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+    select.setLong(1, id);
+    try (ResultSet rs = select.executeQuery()) {
+      rs.next();
+      Patient patient =
+          Patient.builder()
+              .id(id)
+              .personalDetails(PERSONAL_DETAILS_CONVERTER.convertToEntityAttribute(rs.getString(1)))
+              .storedMedicalInfo(rs.getString(2))
+              .storedInsuranceDetails(rs.getString(3))
+              .emergencyContact(
+                  EMERGENCY_CONTACT_CONVERTER.convertToEntityAttribute(rs.getString(4)))
+              .clinicPreferences(
+                  CLINIC_PREFERENCES_CONVERTER.convertToEntityAttribute(rs.getString(5)))
+              .build();
+      listener.decrypt(patient);
+      if (phiRead) {
+        blackhole.consume(patient.getMedicalInfo());
+        blackhole.consume(patient.getInsuranceDetails());
+      }
+      blackhole.consume(patient);
+    }
+  }
+
+  private String stored(PatientJsonColumn column, String json, long id) {
+    return column.isPhi() ? fieldEncryption.encrypt(json, column.getColumn(), id) : json;
+  }
+
+  private static Patient patient(long id) {
+    return Patient.builder()
+        .id(id)
+        .phoneNumber(String.valueOf(9_000_000_000L + id))
+        .personalDetails(
+            PersonalDetails.builder()
+                .name("Patient " + id)
+                .email("patient" + id + "@mail.com")
+                .birthdate(LocalDate.of(1980, 1, 1).plusDays(id % 10_000))
+                .sex("Female")
+                .address(
+                    Address.builder()
+                        .street(id + " Main Road")
+                        .city("Pune")
+                        .state("Maharashtra")
+                        .postalCode("411001")
+                        .build())
+                .build())
+        .medicalInfo(
+            MedicalInfo.builder()
+                .bloodGroup("B+")
+                .allergies(List.of("Penicillin", "Dust"))
+                .existingConditions(List.of("Asthma", "Hypertension"))
+                .currentMedications(List.of("Salbutamol inhaler", "Amlodipine 5mg"))
+                .familyHistory(new FamilyHistory(true, false, true))
+                .build())
+        .insuranceDetails(
+            InsuranceDetails.builder()
+                .provider("Star Health")
+                .policyNumber("POL" + id)
+                .validTill(LocalDate.of(2030, 3, 31))
+                .build())
+        .emergencyContact(
+            EmergencyContact.builder()
+                .name("Contact " + id)
+                .relationship("Spouse")
+                .phoneNumber(String.valueOf(9_100_000_000L + id))
+                .build())
+        .clinicPreferences(ClinicPreferences.builder().build())
+        .build();
+  }
+}
@@ -0,0 +1,87 @@
+package com.deepak.patient.registration.controller;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deepak.patient.registration.config.SecurityConfig;
+import com.deepak.patient.registration.model.patient.PatientSummaryBatch;
+import com.deepak.patient.registration.security.CustomUserDetailsService;
+import com.deepak.patient.registration.security.JwtAuthenticationFilter;
+import com.deepak.patient.registration.security.TokenProvider;
+import com.deepak.patient.registration.service.BlacklistedAccessTokenService;
+import com.deepak.patient.registration.service.PatientDashboardService;
+import com.deepak.patient.registration.service.PatientService;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/** Checks which callers may use the patient endpoints that list other patients. */
+@SpringJUnitWebConfig(PatientControllerAuthorizationTest.Config.class)
+@TestPropertySource(properties = "app.cors.allowed-origins=http://localhost:3000")
+class PatientControllerAuthorizationTest {
+
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  @Import({SecurityConfig.class, JwtAuthenticationFilter.class, PatientController.class})
+  static class Config {}
+
+  @Autowired private WebApplicationContext context;
+
+  @MockBean private PatientService patientService;
+
+  @MockBean private PatientDashboardService patientDashboardService;
+
+  @MockBean private TokenProvider tokenProvider;
+
+  @MockBean private CustomUserDetailsService customUserDetailsService;
+
+  @MockBean private BlacklistedAccessTokenService blacklistedAccessTokenService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @WithMockUser(username = "1")
+  void searchAndBatchSummaries_shouldBeForbidden_forAPatient() throws Exception {
+    mockMvc
+        .perform(get("/v1/api/patients/search").param("q", "rohan"))
+        .andExpect(status().isForbidden());
+    mockMvc
+        .perform(get("/v1/api/patients/summary/by-ids").param("ids", "1,2,3"))
+        .andExpect(status().isForbidden());
+
+    verifyNoInteractions(patientService);
+  }
+
+  @Test
+  @WithMockUser(username = "2", authorities = CustomUserDetailsService.STAFF_AUTHORITY)
+  void searchAndBatchSummaries_shouldBeAllowed_forStaff() throws Exception {
+    when(patientService.searchPatients("rohan", 20)).thenReturn(List.of());
+    when(patientService.getPatientSummaries(List.of(1L, 2L)))
+        .thenReturn(new PatientSummaryBatch(List.of(), List.of(1L, 2L)));
+
+    mockMvc.perform(get("/v1/api/patients/search").param("q", "rohan")).andExpect(status().isOk());
+    mockMvc
+        .perform(get("/v1/api/patients/summary/by-ids").param("ids", "1,2"))
+        .andExpect(status().isOk());
+  }
+}
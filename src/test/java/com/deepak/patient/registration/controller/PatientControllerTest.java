@@ -10,6 +10,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.deepak.patient.registration.model.patient.Patient;
 import com.deepak.patient.registration.model.patient.PersonalDetails;
 import com.deepak.patient.registration.model.patient.UpdatePasswordRequest;
+import com.deepak.patient.registration.service.PatientDashboardService;
 import com.deepak.patient.registration.service.PatientService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDateTime;
@@ -34,6 +35,8 @@ class PatientControllerTest {
 
   @MockBean private PatientService patientService;
 
+  @MockBean private PatientDashboardService patientDashboardService;
+
   @MockBean
   private com.deepak.appointment.registration.service.ClinicInformationService
       clinicInformationService; // To prevent loading ClinicInformationController and its deps
@@ -194,7 +197,8 @@ class PatientControllerTest {
     resultPatient.setId(1L);
     resultPatient.setPersonalDetails(pdUpdated);
 
-    when(patientService.updatePatient(eq(1L), any(Patient.class))).thenReturn(resultPatient);
+    when(patientService.updatePatient(eq(1L), any(Patient.class), isNull()))
+        .thenReturn(resultPatient);
 
     mockMvc
         .perform(
@@ -237,7 +241,7 @@ class PatientControllerTest {
   void updatePatient_shouldReturnNotFound_WhenPatientMissingAndAuthorized() throws Exception {
     Patient updates = new Patient();
     updates.setId(1L); // This ID is part of the updates DTO but path param is primary
-    when(patientService.updatePatient(eq(1L), any(Patient.class)))
+    when(patientService.updatePatient(eq(1L), any(Patient.class), isNull()))
         .thenReturn(null); // Service indicates not found
 
     mockMvc
@@ -0,0 +1,84 @@
+package com.deepak.patient.registration.controller;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deepak.patient.registration.config.SecurityConfig;
+import com.deepak.patient.registration.model.patient.DuplicateScanReport;
+import com.deepak.patient.registration.security.CustomUserDetailsService;
+import com.deepak.patient.registration.security.JwtAuthenticationFilter;
+import com.deepak.patient.registration.security.TokenProvider;
+import com.deepak.patient.registration.service.BlacklistedAccessTokenService;
+import com.deepak.patient.registration.service.DuplicatePatientService;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+@SpringJUnitWebConfig(PatientDuplicateControllerTest.Config.class)
+@TestPropertySource(properties = "app.cors.allowed-origins=http://localhost:3000")
+class PatientDuplicateControllerTest {
+
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  @Import({SecurityConfig.class, JwtAuthenticationFilter.class, PatientDuplicateController.class})
+  static class Config {}
+
+  @Autowired private WebApplicationContext context;
+
+  @MockBean private DuplicatePatientService duplicatePatientService;
+
+  @MockBean private TokenProvider tokenProvider;
+
+  @MockBean private CustomUserDetailsService customUserDetailsService;
+
+  @MockBean private BlacklistedAccessTokenService blacklistedAccessTokenService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @WithMockUser(username = "1")
+  void duplicates_shouldBeForbidden_forAPatient() throws Exception {
+    mockMvc.perform(get("/v1/api/patients/duplicates")).andExpect(status().isForbidden());
+    mockMvc.perform(post("/v1/api/patients/duplicates/scan")).andExpect(status().isForbidden());
+    mockMvc.perform(get("/v1/api/patients/1/duplicates")).andExpect(status().isForbidden());
+
+    verifyNoInteractions(duplicatePatientService);
+  }
+
+  @Test
+  @WithMockUser(username = "2", authorities = CustomUserDetailsService.STAFF_AUTHORITY)
+  void duplicates_shouldBeServed_forStaff() throws Exception {
+    when(duplicatePatientService.scan())
+        .thenReturn(new DuplicateScanReport(OffsetDateTime.now(), 0, 0, 0, 0, 0, List.of()));
+    when(duplicatePatientService.getDuplicatesOf(1L)).thenReturn(List.of());
+
+    mockMvc.perform(get("/v1/api/patients/duplicates")).andExpect(status().isNoContent());
+    mockMvc.perform(post("/v1/api/patients/duplicates/scan")).andExpect(status().isOk());
+    mockMvc.perform(get("/v1/api/patients/1/duplicates")).andExpect(status().isOk());
+
+    verify(duplicatePatientService).scan();
+    verify(duplicatePatientService).getDuplicatesOf(1L);
+  }
+}
@@ -0,0 +1,81 @@
+package com.deepak.patient.registration.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.deepak.patient.registration.config.SecurityConfig;
+import com.deepak.patient.registration.model.patient.PatientImportReport;
+import com.deepak.patient.registration.security.CustomUserDetailsService;
+import com.deepak.patient.registration.security.JwtAuthenticationFilter;
+import com.deepak.patient.registration.security.TokenProvider;
+import com.deepak.patient.registration.service.BlacklistedAccessTokenService;
+import com.deepak.patient.registration.service.PatientImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+@SpringJUnitWebConfig(PatientImportControllerTest.Config.class)
+@TestPropertySource(properties = "app.cors.allowed-origins=http://localhost:3000")
+class PatientImportControllerTest {
+
+  private static final String FILE = "phoneNumber,name\n9000000001,Asha\n";
+
+  @Configuration
+  @EnableWebMvc
+  @EnableWebSecurity
+  @Import({SecurityConfig.class, JwtAuthenticationFilter.class, PatientImportController.class})
+  static class Config {}
+
+  @Autowired private WebApplicationContext context;
+
+  @MockBean private PatientImportService patientImportService;
+
+  @MockBean private TokenProvider tokenProvider;
+
+  @MockBean private CustomUserDetailsService customUserDetailsService;
+
+  @MockBean private BlacklistedAccessTokenService blacklistedAccessTokenService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @Test
+  @WithMockUser(username = "1")
+  void importPatients_shouldBeForbidden_forAPatient() throws Exception {
+    mockMvc
+        .perform(post("/v1/api/patients/import").contentType("text/csv").content(FILE))
+        .andExpect(status().isForbidden());
+
+    verifyNoInteractions(patientImportService);
+  }
+
+  @Test
+  @WithMockUser(username = "2", authorities = CustomUserDetailsService.STAFF_AUTHORITY)
+  void importPatients_shouldImport_forStaff() throws Exception {
+    when(patientImportService.importPatients(any(), any())).thenReturn(new PatientImportReport());
+
+    mockMvc
+        .perform(post("/v1/api/patients/import").contentType("text/csv").content(FILE))
+        .andExpect(status().isOk());
+
+    verify(patientImportService).importPatients(any(), any());
+  }
+}
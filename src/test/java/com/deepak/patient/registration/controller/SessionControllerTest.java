@@ -10,6 +10,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.deepak.appointment.registration.service.ClinicInformationService;
 import com.deepak.patient.registration.model.patient.LoginRequest;
 import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientSummary;
 import com.deepak.patient.registration.model.patient.PersonalDetails;
 import com.deepak.patient.registration.security.TokenProvider;
 import com.deepak.patient.registration.service.PatientService;
@@ -88,7 +89,7 @@ class SessionControllerTest {
     String token = "valid-token";
     when(tokenProvider.validateAccessToken(token)).thenReturn(true);
     when(tokenProvider.getUserIdFromToken(token)).thenReturn("1");
-    when(patientService.getPatientById(1L)).thenReturn(patient);
+    when(patientService.getPatientSummaryById(1L)).thenReturn(PatientSummary.of(patient));
 
     MvcResult result =
         mockMvc
@@ -148,7 +149,7 @@ class SessionControllerTest {
     when(tokenProvider.validateAccessToken("valid-token-unknown-user")).thenReturn(true);
     when(tokenProvider.getUserIdFromToken("valid-token-unknown-user"))
         .thenReturn("99"); // Valid format, but no patient
-    when(patientService.getPatientById(99L)).thenReturn(null);
+    when(patientService.getPatientSummaryById(99L)).thenReturn(null);
 
     mockMvc
         .perform(
@@ -0,0 +1,124 @@
+package com.deepak.patient.registration.model.patient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.security.FieldEncryption;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class PatientEncryptionListenerTest {
+
+  private final FieldEncryption fieldEncryption = new FieldEncryption(settings());
+  private final PatientEncryptionListener listener = new PatientEncryptionListener(fieldEncryption);
+
+  private static PatientProperties.Encryption settings() {
+    PatientProperties.Encryption settings = new PatientProperties.Encryption();
+    settings.setEnabled(true);
+    settings.setActiveKeyId("k1");
+    settings.getKeys().put("k1", Base64.getEncoder().encodeToString(new byte[32]));
+    settings.setBlindIndexKey(Base64.getEncoder().encodeToString(new byte[32]));
+    return settings;
+  }
+
+  private static MedicalInfo medicalInfo() {
+    return MedicalInfo.builder().bloodGroup("O+").build();
+  }
+
+  private static InsuranceDetails insuranceDetails() {
+    return InsuranceDetails.builder().provider("Star Health").policyNumber("POL1").build();
+  }
+
+  /** Returns a patient as loaded, with its PHI columns as {@code insertPatient} stores them. */
+  private Patient stored(long id) {
+    return Patient.builder()
+        .id(id)
+        .storedMedicalInfo(
+            fieldEncryption.encrypt(
+                "{\"bloodGroup\":\"O+\"}", PatientJsonColumn.MEDICAL_INFO.getColumn(), id))
+        .storedInsuranceDetails(
+            fieldEncryption.encrypt(
+                "{\"provider\":\"Star Health\",\"policyNumber\":\"POL1\"}",
+                PatientJsonColumn.INSURANCE_DETAILS.getColumn(),
+                id))
+        .build();
+  }
+
+  @Test
+  void decrypt_shouldReadThePhiColumnsOfALoadedPatient() {
+    // Arrange
+    Patient patient = stored(1L);
+
+    // Act
+    listener.decrypt(patient);
+
+    // Assert
+    assertEquals(medicalInfo(), patient.getMedicalInfo());
+    assertEquals(insuranceDetails(), patient.getInsuranceDetails());
+  }
+
+  @Test
+  void decrypt_shouldLeaveThePhiEncryptedUntilItIsRead() {
+    // Arrange
+    Patient patient = stored(2L);
+    patient.setStoredInsuranceDetails(stored(1L).getStoredInsuranceDetails());
+
+    // Act
+    listener.decrypt(patient);
+
+    // Assert
+    assertEquals(medicalInfo(), patient.getMedicalInfo());
+    assertThrows(IllegalStateException.class, patient::getInsuranceDetails);
+  }
+
+  @Test
+  void encrypt_shouldStoreTheValuesSetSinceLoad_underThePatientsId() {
+    // Arrange
+    Patient patient = stored(1L);
+    listener.decrypt(patient);
+    String unchangedMedicalInfo = patient.getStoredMedicalInfo();
+    InsuranceDetails changed = InsuranceDetails.builder().provider("Care").build();
+    patient.setInsuranceDetails(changed);
+
+    // Act
+    listener.encrypt(patient);
+
+    // Assert
+    assertSame(unchangedMedicalInfo, patient.getStoredMedicalInfo());
+    assertTrue(FieldEncryption.isEncrypted(patient.getStoredInsuranceDetails()));
+    Patient reloaded =
+        Patient.builder()
+            .id(1L)
+            .storedInsuranceDetails(patient.getStoredInsuranceDetails())
+            .build();
+    listener.decrypt(reloaded);
+    assertEquals(changed, reloaded.getInsuranceDetails());
+  }
+
+  @Test
+  void encryptNew_shouldRejectPhi_whenEncryptionIsEnabled() {
+    // Arrange
+    Patient patient = Patient.builder().medicalInfo(medicalInfo()).build();
+
+    // Act & Assert
+    assertThrows(IllegalStateException.class, () -> listener.encryptNew(patient));
+  }
+
+  @Test
+  void encryptNew_shouldStorePlaintext_whenEncryptionIsDisabled() {
+    // Arrange
+    PatientProperties.Encryption disabled = settings();
+    disabled.setEnabled(false);
+    PatientEncryptionListener plaintext =
+        new PatientEncryptionListener(new FieldEncryption(disabled));
+    Patient patient =
+        Patient.builder().medicalInfo(medicalInfo()).insuranceDetails(insuranceDetails()).build();
+
+    // Act
+    plaintext.encryptNew(patient);
+
+    // Assert
+    assertTrue(patient.getStoredMedicalInfo().startsWith("{\"bloodGroup\":\"O+\""));
+    assertTrue(patient.getStoredInsuranceDetails().startsWith("{\"provider\":\"Star Health\""));
+  }
+}
@@ -0,0 +1,82 @@
+package com.deepak.patient.registration.model.patient.converter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deepak.patient.registration.model.patient.FamilyHistory;
+import com.deepak.patient.registration.model.patient.MedicalInfo;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonConverterTest {
+
+  private final MedicalInfoConverter converter = new MedicalInfoConverter();
+  private final JsonMutabilityPlan mutabilityPlan = new JsonMutabilityPlan();
+
+  private static MedicalInfo medicalInfo() {
+    return MedicalInfo.builder()
+        .bloodGroup("O+")
+        .allergies(List.of("Penicillin"))
+        .familyHistory(new FamilyHistory(true, false, false))
+        .build();
+  }
+
+  @Test
+  void convert_shouldRoundTripValue() {
+    // Arrange
+    MedicalInfo medicalInfo = medicalInfo();
+
+    // Act
+    MedicalInfo read =
+        converter.convertToEntityAttribute(converter.convertToDatabaseColumn(medicalInfo));
+
+    // Assert
+    assertEquals(medicalInfo, read);
+  }
+
+  @Test
+  void convert_shouldMapNullToSqlNull() {
+    // Act & Assert
+    assertNull(converter.convertToDatabaseColumn(null));
+    assertNull(converter.convertToEntityAttribute(null));
+  }
+
+  @Test
+  void convertPacked_shouldRoundTripValue_andMatchPackedJsonText() {
+    // Arrange
+    MedicalInfo medicalInfo = medicalInfo();
+    String json = converter.convertToDatabaseColumn(medicalInfo);
+
+    // Act
+    byte[] packed = converter.convertToPackedColumn(medicalInfo);
+
+    // Assert
+    assertEquals(JsonConverter.DEFLATED_JSON, packed[0]);
+    assertEquals(medicalInfo, converter.convertPackedToEntityAttribute(packed));
+    assertEquals(json, JsonConverter.unpack(packed));
+    assertEquals(medicalInfo, converter.convertPackedToEntityAttribute(JsonConverter.pack(json)));
+    assertNull(converter.convertToPackedColumn(null));
+    assertNull(converter.convertPackedToEntityAttribute(null));
+  }
+
+  @Test
+  void unpack_shouldRejectUnknownFormat() {
+    assertThrows(IllegalStateException.class, () -> JsonConverter.unpack(new byte[] {9, 1, 2}));
+  }
+
+  @Test
+  void deepCopy_shouldReturnEqualIndependentCopy() {
+    // Arrange
+    MedicalInfo medicalInfo = medicalInfo();
+
+    // Act
+    MedicalInfo copy = (MedicalInfo) mutabilityPlan.deepCopy(medicalInfo);
+    copy.getFamilyHistory().setHypertension(true);
+
+    // Assert
+    assertNotSame(medicalInfo, copy);
+    assertFalse(medicalInfo.getFamilyHistory().getHypertension());
+    assertNotEquals(medicalInfo, copy);
+    assertEquals(
+        medicalInfo, mutabilityPlan.assemble(mutabilityPlan.disassemble(medicalInfo, null), null));
+  }
+}
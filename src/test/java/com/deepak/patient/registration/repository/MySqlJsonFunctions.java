@@ -0,0 +1,72 @@
+package com.deepak.patient.registration.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * H2 stand-ins for the MySQL {@code JSON_SET}, {@code JSON_REMOVE} and {@code JSON_TYPE} functions
+ * used by the in-place patch, limited to the top-level {@code $.field} paths it writes.
+ *
+ * <p>H2 converts a string to a JSON string rather than parsing it as MySQL does, so the values of
+ * {@code CAST(? AS JSON)} and a column coalesced with {@code JSON_OBJECT()} arrive wrapped in one;
+ * they are unwrapped before use.
+ */
+public final class MySqlJsonFunctions {
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+  private MySqlJsonFunctions() {}
+
+  /** Registers the functions in the database behind {@code jdbcTemplate}. */
+  static void register(JdbcTemplate jdbcTemplate) {
+    String type = MySqlJsonFunctions.class.getName();
+    jdbcTemplate.execute("CREATE ALIAS JSON_SET FOR '" + type + ".jsonSet'");
+    jdbcTemplate.execute("CREATE ALIAS JSON_REMOVE FOR '" + type + ".jsonRemove'");
+    jdbcTemplate.execute("CREATE ALIAS JSON_TYPE FOR '" + type + ".jsonType'");
+  }
+
+  public static String jsonSet(String document, String... pathsAndValues) {
+    ObjectNode object = document(document);
+    for (int i = 0; i < pathsAndValues.length; i += 2) {
+      object.set(field(pathsAndValues[i]), parse(parse(pathsAndValues[i + 1]).textValue()));
+    }
+    return object.toString();
+  }
+
+  public static String jsonRemove(String document, String... paths) {
+    ObjectNode object = document(document);
+    for (String path : paths) {
+      object.remove(field(path));
+    }
+    return object.toString();
+  }
+
+  public static String jsonType(String document) {
+    return document == null ? null : parse(document).getNodeType().name().toUpperCase(Locale.ROOT);
+  }
+
+  private static String field(String path) {
+    if (!path.startsWith("$.")) {
+      throw new IllegalArgumentException("Unsupported path: " + path);
+    }
+    return path.substring(2);
+  }
+
+  private static ObjectNode document(String json) {
+    JsonNode node = parse(json);
+    return (ObjectNode) (node.isTextual() ? parse(node.textValue()) : node);
+  }
+
+  private static JsonNode parse(String json) {
+    try {
+      return OBJECT_MAPPER.readTree(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,329 @@
+package com.deepak.patient.registration.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientJsonColumn;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.model.patient.converter.JsonConverter;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.ArchivedPatients;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.JsonColumnPatch;
+import com.deepak.patient.registration.security.FieldEncryption;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+class PatientRepositoryImplTest {
+
+  private static final LocalDateTime LONG_AGO = LocalDateTime.of(2020, 1, 15, 10, 0);
+
+  private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private JdbcTemplate jdbcTemplate;
+
+  private PatientProperties properties;
+
+  private PatientRepositoryImpl repository;
+
+  @BeforeEach
+  void setUp() {
+    DriverManagerDataSource dataSource =
+        new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE", "sa", "");
+    jdbcTemplate = spy(new JdbcTemplate(dataSource));
+    // Keeps the in-memory database open between the connections of one test
+    jdbcTemplate.execute("SET DB_CLOSE_DELAY -1");
+    new ResourceDatabasePopulator(new ClassPathResource("schema/patients.sql")).execute(dataSource);
+    MySqlJsonFunctions.register(jdbcTemplate);
+    properties = new PatientProperties();
+    // Encrypted values stay readable with encryption off, as after turning it off
+    properties.getEncryption().getKeys().put("k1", KEY);
+    properties.getEncryption().setActiveKeyId("k1");
+    properties.getEncryption().setBlindIndexKey(KEY);
+    repository = repository();
+  }
+
+  private PatientRepositoryImpl repository() {
+    return new PatientRepositoryImpl(
+        jdbcTemplate, properties, new FieldEncryption(properties.getEncryption()));
+  }
+
+  /** Makes the repository take the MySQL path, patching JSON columns in place. */
+  @SuppressWarnings("unchecked")
+  private void onMySql() {
+    doReturn("MySQL").when(jdbcTemplate).execute(any(ConnectionCallback.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbcTemplate.execute("SHUTDOWN");
+  }
+
+  private void insertPatient(long id, boolean active) {
+    jdbcTemplate.update(
+        "INSERT INTO patients (id, phone_number, password_hash, personal_details, medical_info, "
+            + "created_at, updated_at, is_active, version) VALUES (?, ?, 'hash', ?, ?, ?, ?, ?, 3)",
+        id,
+        "900000000" + id,
+        "{\"name\":\"Patient " + id + "\"}",
+        "{\"bloodGroup\":\"O+\"}",
+        Timestamp.valueOf(LONG_AGO),
+        Timestamp.valueOf(LONG_AGO),
+        active);
+  }
+
+  private void insertAppointment(long appointmentId, long patientId, long slotId) {
+    jdbcTemplate.update(
+        "INSERT INTO appointments (appointment_id, patient_id, appointment_type, appointment_for, "
+            + "appointment_for_name, symptom, appointment_date, slot_id, doctor_id, clinic_id, "
+            + "active) VALUES (?, ?, 'CONSULTATION', 'SELF', 'Patient', 'Fever', ?, ?, 'D1', 1, "
+            + "FALSE)",
+        appointmentId,
+        patientId,
+        Timestamp.valueOf(LONG_AGO),
+        slotId);
+  }
+
+  private int count(String sql, Object... args) {
+    return jdbcTemplate.queryForObject(sql, Integer.class, args);
+  }
+
+  @Test
+  void archiveInactivePatients_shouldMoveDeletedPatientsAndTheirAppointmentsToTheArchive() {
+    // Arrange
+    insertPatient(1L, false);
+    insertAppointment(10L, 1L, 100L);
+    insertAppointment(11L, 1L, 101L);
+    insertPatient(2L, true);
+    insertAppointment(20L, 2L, 200L);
+
+    // Act
+    ArchivedPatients archived = repository.archiveInactivePatients(LocalDateTime.now(), 10);
+
+    // Assert
+    assertEquals(List.of(1L), archived.patientIds());
+    assertEquals(2, archived.appointments());
+    Map<String, Object> patient =
+        jdbcTemplate.queryForMap("SELECT * FROM patients_archive WHERE id = 1");
+    assertEquals("9000000001", patient.get("phone_number"));
+    assertEquals("{\"bloodGroup\":\"O+\"}", patient.get("medical_info"));
+    assertEquals(false, patient.get("is_active"));
+    assertEquals(3L, patient.get("version"));
+    assertNotNull(patient.get("archived_at"));
+    assertEquals(
+        List.of(10L, 11L),
+        jdbcTemplate.queryForList(
+            "SELECT appointment_id FROM appointments_archive WHERE patient_id = 1 "
+                + "AND slot_id IS NOT NULL AND symptom = 'Fever' ORDER BY appointment_id",
+            Long.class));
+    assertEquals(0, count("SELECT COUNT(*) FROM patients WHERE id = 1"));
+    assertEquals(0, count("SELECT COUNT(*) FROM appointments WHERE patient_id = 1"));
+    assertEquals(1, count("SELECT COUNT(*) FROM patients WHERE id = 2"));
+    assertEquals(1, count("SELECT COUNT(*) FROM appointments WHERE patient_id = 2"));
+    assertEquals(0, count("SELECT COUNT(*) FROM appointments_archive WHERE patient_id = 2"));
+  }
+
+  @Test
+  void archiveInactivePatients_shouldKeepPatientsWithAQueueEntry() {
+    // Arrange
+    insertPatient(1L, false);
+    insertAppointment(10L, 1L, 100L);
+    jdbcTemplate.update("INSERT INTO queue_management (appointment_id, slot_id) VALUES (10, 100)");
+
+    // Act
+    ArchivedPatients archived = repository.archiveInactivePatients(LocalDateTime.now(), 10);
+
+    // Assert
+    assertEquals(0, archived.patients());
+    assertEquals(1, count("SELECT COUNT(*) FROM patients WHERE id = 1"));
+    assertEquals(0, count("SELECT COUNT(*) FROM patients_archive"));
+  }
+
+  private void insertPatient(long id, String personalDetails, String medicalInfo, byte[] packed) {
+    jdbcTemplate.update(
+        "INSERT INTO patients (id, phone_number, password_hash, personal_details, medical_info, "
+            + "medical_info_packed, version) VALUES (?, ?, 'hash', ?, ?, ?, 3)",
+        id,
+        "900000000" + id,
+        personalDetails,
+        medicalInfo,
+        packed);
+  }
+
+  private Map<String, Object> row(long id) {
+    return jdbcTemplate.queryForMap(
+        "SELECT personal_details, medical_info, medical_info_packed, version FROM patients "
+            + "WHERE id = ?",
+        id);
+  }
+
+  private void assertJson(String expected, Object actual) throws Exception {
+    assertEquals(objectMapper.readTree(expected), objectMapper.readTree((String) actual));
+  }
+
+  private static JsonColumnPatch patch(
+      PatientJsonColumn column, Map<String, String> set, String... remove) {
+    return new JsonColumnPatch(column, set, Set.of(remove));
+  }
+
+  private static Map<String, String> fields(String... namesAndValues) {
+    Map<String, String> fields = new LinkedHashMap<>();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      fields.put(namesAndValues[i], namesAndValues[i + 1]);
+    }
+    return fields;
+  }
+
+  private List<JsonColumnPatch> renameAndSetBloodGroup() {
+    return List.of(
+        patch(PatientJsonColumn.PERSONAL_DETAILS, fields("name", "\"Asha Rao\""), "email"),
+        patch(
+            PatientJsonColumn.MEDICAL_INFO,
+            fields("bloodGroup", "\"O+\"", "allergies", "null"),
+            "currentMedications"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void verifyRewritten(boolean rewritten) {
+    verify(jdbcTemplate, rewritten ? atLeastOnce() : never())
+        .query(contains("FOR UPDATE"), any(RowMapper.class), any(Object[].class));
+  }
+
+  @Test
+  void patchJsonColumns_shouldSetAndRemoveFieldsInPlace_onMySql() throws Exception {
+    // Arrange
+    onMySql();
+    insertPatient(1L, "{\"name\":\"Asha\",\"email\":\"asha@mail.com\",\"age\":30}", null, null);
+
+    // Act
+    int updated = repository.patchJsonColumns(1L, renameAndSetBloodGroup(), LocalDateTime.now());
+
+    // Assert
+    assertEquals(1, updated);
+    Map<String, Object> row = row(1L);
+    assertJson("{\"name\":\"Asha Rao\",\"age\":30}", row.get("personal_details"));
+    assertJson("{\"bloodGroup\":\"O+\",\"allergies\":null}", row.get("medical_info"));
+    assertEquals(4L, row.get("version"));
+    verify(jdbcTemplate).update(contains("JSON_SET"), any(Object[].class));
+    verifyRewritten(false);
+  }
+
+  @Test
+  void patchJsonColumns_shouldRewritePackedMedicalInfo_whenTheInPlacePatchSkipsIt()
+      throws Exception {
+    // Arrange
+    onMySql();
+    insertPatient(
+        1L,
+        "{\"name\":\"Asha\"}",
+        null,
+        JsonConverter.pack("{\"bloodGroup\":\"A+\",\"currentMedications\":[\"Metformin\"]}"));
+
+    // Act
+    int updated = repository.patchJsonColumns(1L, renameAndSetBloodGroup(), LocalDateTime.now());
+
+    // Assert
+    assertEquals(1, updated);
+    Map<String, Object> row = row(1L);
+    assertJson("{\"name\":\"Asha Rao\"}", row.get("personal_details"));
+    assertJson("{\"bloodGroup\":\"O+\",\"allergies\":null}", row.get("medical_info"));
+    assertNull(row.get("medical_info_packed"));
+    assertEquals(4L, row.get("version"));
+    verifyRewritten(true);
+  }
+
+  @Test
+  void patchJsonColumns_shouldRewriteEncryptedMedicalInfo_whenTheInPlacePatchSkipsIt()
+      throws Exception {
+    // Arrange
+    onMySql();
+    properties.getEncryption().setEnabled(true);
+    String encrypted =
+        new FieldEncryption(properties.getEncryption())
+            .encrypt("{\"bloodGroup\":\"A+\"}", PatientJsonColumn.MEDICAL_INFO.getColumn(), 1L);
+    properties.getEncryption().setEnabled(false);
+    insertPatient(1L, "{\"name\":\"Asha\"}", encrypted, null);
+
+    // Act
+    int updated = repository.patchJsonColumns(1L, renameAndSetBloodGroup(), LocalDateTime.now());
+
+    // Assert
+    assertEquals(1, updated);
+    Map<String, Object> row = row(1L);
+    assertJson("{\"bloodGroup\":\"O+\",\"allergies\":null}", row.get("medical_info"));
+    assertEquals(4L, row.get("version"));
+    verifyRewritten(true);
+  }
+
+  @Test
+  void patchJsonColumns_shouldRewriteTheColumns_onOtherDatabases() throws Exception {
+    // Arrange
+    insertPatient(
+        1L,
+        "{\"name\":\"Asha\",\"email\":\"asha@mail.com\"}",
+        "{\"bloodGroup\":\"A+\",\"currentMedications\":[\"Metformin\"]}",
+        null);
+
+    // Act
+    int updated = repository.patchJsonColumns(1L, renameAndSetBloodGroup(), LocalDateTime.now());
+
+    // Assert
+    assertEquals(1, updated);
+    Map<String, Object> row = row(1L);
+    assertJson("{\"name\":\"Asha Rao\"}", row.get("personal_details"));
+    assertJson("{\"bloodGroup\":\"O+\",\"allergies\":null}", row.get("medical_info"));
+    assertEquals(4L, row.get("version"));
+    verify(jdbcTemplate, never()).update(contains("JSON_SET"), any(Object[].class));
+    verifyRewritten(true);
+  }
+
+  @Test
+  void patchJsonColumns_shouldUpdateNothing_whenThePatientIsMissing() {
+    // Arrange
+    onMySql();
+
+    // Act & Assert
+    assertEquals(0, repository.patchJsonColumns(1L, renameAndSetBloodGroup(), LocalDateTime.now()));
+  }
+
+  @Test
+  void updateJsonColumnsIfVersion_shouldConflict_withAPatchMadeSinceTheRead() {
+    // Arrange
+    onMySql();
+    insertPatient(1L, "{\"name\":\"Asha\"}", null, null);
+    long readVersion = (Long) row(1L).get("version");
+    repository.patchJsonColumns(1L, renameAndSetBloodGroup(), LocalDateTime.now());
+    Patient stale =
+        Patient.builder()
+            .id(1L)
+            .personalDetails(PersonalDetails.builder().name("Asha").build())
+            .build();
+
+    // Act
+    int updated = repository.updateJsonColumnsIfVersion(stale, readVersion, LocalDateTime.now());
+
+    // Assert
+    assertEquals(0, updated);
+    assertEquals(readVersion + 1, row(1L).get("version"));
+  }
+}
@@ -0,0 +1,106 @@
+package com.deepak.patient.registration.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class FieldEncryptionTest {
+
+  private static String key(int seed) {
+    byte[] key = new byte[32];
+    key[0] = (byte) seed;
+    return Base64.getEncoder().encodeToString(key);
+  }
+
+  private static PatientProperties.Encryption settings(String activeKeyId) {
+    PatientProperties.Encryption settings = new PatientProperties.Encryption();
+    settings.setEnabled(true);
+    settings.setActiveKeyId(activeKeyId);
+    settings.getKeys().put("k1", key(1));
+    settings.getKeys().put("k2", key(2));
+    settings.setBlindIndexKey(key(9));
+    return settings;
+  }
+
+  @Test
+  void encrypt_shouldRoundTripJsonAsAJsonString_bindingTheColumnAndPatient() {
+    // Arrange
+    FieldEncryption encryption = new FieldEncryption(settings("k1"));
+    String json = "{\"bloodGroup\":\"O+\"}";
+
+    // Act
+    String stored = encryption.encrypt(json, "medical_info", 7L);
+
+    // Assert
+    assertTrue(stored.startsWith("\"phi:1:k1:") && stored.endsWith("\""));
+    assertNotEquals(stored, encryption.encrypt(json, "medical_info", 7L));
+    assertEquals(json, encryption.decrypt(stored, "medical_info", 7L));
+    assertEquals("k1", FieldEncryption.keyIdOf(stored));
+    assertThrows(
+        IllegalStateException.class, () -> encryption.decrypt(stored, "insurance_details", 7L));
+    assertThrows(IllegalStateException.class, () -> encryption.decrypt(stored, "medical_info", 8L));
+  }
+
+  @Test
+  void encrypt_shouldRoundTripPackedValues() {
+    // Arrange
+    FieldEncryption encryption = new FieldEncryption(settings("k2"));
+    byte[] packed = {1, 10, 20, 30};
+
+    // Act
+    byte[] stored = encryption.encrypt(packed, "medical_info", 7L);
+
+    // Assert
+    assertEquals(FieldEncryption.ENCRYPTED, stored[0]);
+    assertEquals("k2", FieldEncryption.keyIdOf(stored));
+    assertArrayEquals(packed, encryption.decrypt(stored, "medical_info", 7L));
+    assertArrayEquals(packed, encryption.decrypt(packed, "medical_info", 7L));
+    assertThrows(IllegalStateException.class, () -> encryption.decrypt(stored, "medical_info", 8L));
+  }
+
+  @Test
+  void decrypt_shouldReadValuesWrittenWithARetiredKey_andPassPlaintextThrough() {
+    // Arrange
+    String stored = new FieldEncryption(settings("k1")).encrypt("{}", "insurance_details", 7L);
+    PatientProperties.Encryption disabled = settings("k2");
+    disabled.setEnabled(false);
+    FieldEncryption rotated = new FieldEncryption(disabled);
+
+    // Act & Assert
+    assertEquals("{}", rotated.decrypt(stored, "insurance_details", 7L));
+    assertEquals("{}", rotated.encrypt("{}", "insurance_details", 7L));
+    assertNull(FieldEncryption.keyIdOf("{}"));
+  }
+
+  @Test
+  void blindIndex_shouldBeDeterministicPerKey() {
+    // Arrange
+    FieldEncryption encryption = new FieldEncryption(settings("k1"));
+    PatientProperties.Encryption otherKey = settings("k1");
+    otherKey.setBlindIndexKey(key(8));
+
+    // Act
+    byte[] index = encryption.blindIndex("9876543210");
+
+    // Assert
+    assertEquals(32, index.length);
+    assertArrayEquals(index, encryption.blindIndex("9876543210"));
+    assertFalse(Arrays.equals(index, encryption.blindIndex("9876543211")));
+    assertFalse(Arrays.equals(index, new FieldEncryption(otherKey).blindIndex("9876543210")));
+    assertFalse(new String(index, StandardCharsets.ISO_8859_1).contains("9876543210"));
+  }
+
+  @Test
+  void constructor_shouldRejectMissingOrShortKeys() {
+    PatientProperties.Encryption missing = settings("k3");
+    assertThrows(IllegalStateException.class, () -> new FieldEncryption(missing));
+
+    PatientProperties.Encryption shortKey = settings("k1");
+    shortKey.getKeys().put("k1", Base64.getEncoder().encodeToString(new byte[16]));
+    assertThrows(IllegalStateException.class, () -> new FieldEncryption(shortKey));
+  }
+}
@@ -0,0 +1,117 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Address;
+import com.deepak.patient.registration.model.patient.DuplicateCandidate;
+import com.deepak.patient.registration.model.patient.DuplicateScanReport;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.repository.PatientRepository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DuplicatePatientServiceTest {
+
+  @Mock private PatientRepository patientRepository;
+
+  private PatientProperties patientProperties;
+  private DuplicatePatientService duplicatePatientService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    patientProperties = new PatientProperties();
+    duplicatePatientService = new DuplicatePatientService(patientRepository, patientProperties);
+    lenient()
+        .doAnswer(
+            invocation -> {
+              BiConsumer<Long, PersonalDetails> action = invocation.getArgument(0);
+              action.accept(1L, details("Rohan Kumar", LocalDate.of(1995, 8, 15), "411001"));
+              action.accept(2L, details("Kumar Rohan", LocalDate.of(1995, 8, 15), "411001"));
+              action.accept(3L, details("Rohan Kumaar", LocalDate.of(1995, 8, 15), null));
+              action.accept(4L, details("Rohan Kumar", LocalDate.of(1972, 1, 3), "110001"));
+              action.accept(5L, details("Priya Sharma", LocalDate.of(1995, 8, 15), "411001"));
+              action.accept(6L, details("Priya Sharma", null, "411001"));
+              action.accept(7L, null);
+              return null;
+            })
+        .when(patientRepository)
+        .forEachPersonalDetails(any());
+  }
+
+  private static PersonalDetails details(String name, LocalDate birthdate, String postalCode) {
+    return PersonalDetails.builder()
+        .name(name)
+        .birthdate(birthdate)
+        .sex("Male")
+        .address(Address.builder().city("Pune").postalCode(postalCode).build())
+        .build();
+  }
+
+  @Test
+  void scan_shouldFindTheSamePairs_whateverTheNumberOfPartitions() {
+    // Arrange
+    patientProperties.getDeduplication().setPartitions(1);
+    DuplicateScanReport whole = duplicatePatientService.scan();
+    patientProperties.getDeduplication().setPartitions(5);
+
+    // Act
+    DuplicateScanReport partitioned = duplicatePatientService.scan();
+
+    // Assert
+    assertEquals(whole.patientsScanned(), partitioned.patientsScanned());
+    assertEquals(whole.blocks(), partitioned.blocks());
+    assertEquals(whole.candidates(), partitioned.candidates());
+    verify(patientRepository, times(1 + 5)).forEachPersonalDetails(any());
+  }
+
+  @Test
+  void scan_shouldPairPatientsWithSimilarNamesAndTheSameBirthdateOrPostalCode() {
+    // Act
+    DuplicateScanReport report = duplicatePatientService.scan();
+
+    // Assert
+    assertEquals(6, report.patientsScanned());
+    assertEquals(0, report.skippedBlocks());
+    assertEquals(
+        List.of(List.of(1L, 2L), List.of(1L, 3L), List.of(2L, 3L), List.of(5L, 6L)),
+        report.candidates().stream().map(c -> List.of(c.patientId(), c.duplicateId())).toList());
+    DuplicateCandidate reordered = report.candidates().get(0);
+    assertEquals(1.0, reordered.score());
+    assertEquals(List.of("name", "birthdate", "address", "sex"), reordered.matchedOn());
+    assertSame(report, duplicatePatientService.getLastReport());
+    assertEquals(2, duplicatePatientService.getDuplicatesOf(3L).size());
+    assertEquals(List.of(), duplicatePatientService.getDuplicatesOf(4L));
+  }
+
+  @Test
+  void scan_shouldSkipBlocksOverTheMaximumSize() {
+    // Arrange
+    patientProperties.getDeduplication().setMaxBlockSize(2);
+
+    // Act
+    DuplicateScanReport report = duplicatePatientService.scan();
+
+    // Assert
+    assertTrue(report.skippedBlocks() > 0);
+    assertTrue(report.candidates().stream().noneMatch(c -> c.duplicateId() == 3L));
+  }
+
+  @Test
+  void soundexAndJaroWinkler_shouldMatchKnownValues() {
+    assertEquals("R163", DuplicatePatientService.soundex("robert"));
+    assertEquals("R163", DuplicatePatientService.soundex("rupert"));
+    assertEquals("A261", DuplicatePatientService.soundex("ashcraft"));
+    assertEquals(0.961, DuplicatePatientService.jaroWinkler("martha", "marhta"), 0.001);
+  }
+}
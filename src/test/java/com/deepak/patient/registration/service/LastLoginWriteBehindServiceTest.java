@@ -0,0 +1,80 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.repository.PatientRepository;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class LastLoginWriteBehindServiceTest {
+
+  @Mock private PatientRepository patientRepository;
+
+  private LastLoginWriteBehindService service(boolean enabled, int capacity) {
+    PatientProperties properties = new PatientProperties();
+    properties.getLastLogin().setEnabled(enabled);
+    properties.getLastLogin().setCapacity(capacity);
+    return new LastLoginWriteBehindService(patientRepository, properties);
+  }
+
+  @Test
+  void recordLogin_shouldBufferLatestLoginPerPatient_andWriteThemInOneBatch() {
+    // Arrange
+    LastLoginWriteBehindService service = service(true, 10);
+    OffsetDateTime first = OffsetDateTime.now().minusMinutes(1);
+    OffsetDateTime second = OffsetDateTime.now();
+
+    // Act
+    service.recordLogin(1L, second);
+    service.recordLogin(1L, first);
+    service.recordLogin(2L, first);
+
+    // Assert
+    verifyNoInteractions(patientRepository);
+    service.flush();
+    verify(patientRepository).updateLastLoginTimes(Map.of(1L, second, 2L, first));
+    service.flush();
+    verifyNoMoreInteractions(patientRepository);
+  }
+
+  @Test
+  void recordLogin_shouldWriteInline_whenBufferIsFull() {
+    // Arrange
+    LastLoginWriteBehindService service = service(true, 1);
+    OffsetDateTime now = OffsetDateTime.now();
+    service.recordLogin(1L, now);
+
+    // Act
+    service.recordLogin(2L, now);
+
+    // Assert
+    verify(patientRepository).updateLastLoginTimes(Map.of(2L, now));
+  }
+
+  @Test
+  void flush_shouldKeepLogins_whenUpdateFails() {
+    // Arrange
+    LastLoginWriteBehindService service = service(true, 10);
+    OffsetDateTime now = OffsetDateTime.now();
+    service.recordLogin(1L, now);
+    when(patientRepository.updateLastLoginTimes(anyMap()))
+        .thenThrow(new DataAccessResourceFailureException("down"))
+        .thenReturn(1);
+
+    // Act
+    service.flush();
+    service.flush();
+
+    // Assert
+    verify(patientRepository, times(2)).updateLastLoginTimes(Map.of(1L, now));
+  }
+}
@@ -0,0 +1,94 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.exception.AccountLockedException;
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.repository.PatientRepository;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.LoginAttempts;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class LoginAttemptTrackerTest {
+
+  private static final String PHONE = "9000000001";
+
+  @Mock private PatientRepository patientRepository;
+
+  @Mock private PatientCache patientCache;
+
+  private LoginAttemptTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    PatientProperties properties = new PatientProperties();
+    properties.getLockout().setMaxFailedAttempts(3);
+    properties.getLockout().setLockDuration(Duration.ofMinutes(15));
+    tracker = new LoginAttemptTracker(patientRepository, patientCache, properties);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void recordFailure_shouldLockNumber_afterMaxAttempts_andFlushTheLock() {
+    // Act
+    tracker.recordFailure(PHONE, 1L);
+    tracker.recordFailure(PHONE, 1L);
+    assertDoesNotThrow(() -> tracker.checkNotLocked(PHONE));
+    tracker.recordFailure(PHONE, 1L);
+
+    // Assert
+    AccountLockedException locked =
+        assertThrows(AccountLockedException.class, () -> tracker.checkNotLocked(PHONE));
+    assertTrue(locked.getRetryAfter().compareTo(Duration.ofMinutes(14)) > 0);
+
+    tracker.flush();
+    ArgumentCaptor<Map<Long, LoginAttempts>> flushed = ArgumentCaptor.forClass(Map.class);
+    verify(patientRepository).updateLoginAttempts(flushed.capture());
+    assertEquals(3, flushed.getValue().get(1L).failedLoginAttempts());
+    assertNotNull(flushed.getValue().get(1L).lockedUntil());
+    verify(patientCache).invalidate(1L, null);
+  }
+
+  @Test
+  void recordSuccess_shouldClearFailures() {
+    // Arrange
+    Patient patient = Patient.builder().id(1L).phoneNumber(PHONE).build();
+    tracker.recordFailure(PHONE, 1L);
+    tracker.recordFailure(PHONE, 1L);
+
+    // Act
+    tracker.recordSuccess(patient);
+    tracker.recordFailure(PHONE, 1L);
+    tracker.recordFailure(PHONE, 1L);
+
+    // Assert: the count restarted, so two more failures do not lock
+    assertDoesNotThrow(() -> tracker.checkNotLocked(PHONE));
+  }
+
+  @Test
+  void checkNotLocked_shouldRememberLockStoredOnPatient() {
+    // Arrange
+    Patient patient =
+        Patient.builder()
+            .id(1L)
+            .phoneNumber(PHONE)
+            .failedLoginAttempts(5)
+            .lockedUntil(OffsetDateTime.now().plusMinutes(10))
+            .build();
+
+    // Act & Assert
+    assertThrows(AccountLockedException.class, () -> tracker.checkNotLocked(patient));
+    assertThrows(AccountLockedException.class, () -> tracker.checkNotLocked(PHONE));
+    verifyNoInteractions(patientRepository);
+  }
+}
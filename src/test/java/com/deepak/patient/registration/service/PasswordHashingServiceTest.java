@@ -0,0 +1,122 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deepak.appointment.registration.exception.TooManyRequestsException;
+import com.deepak.patient.registration.config.PatientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class PasswordHashingServiceTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private PasswordHashingService passwordHashingService;
+
+  @BeforeEach
+  void setUp() {
+    PatientProperties properties = new PatientProperties();
+    properties.getPasswordHashing().setThreads(1);
+    properties.getPasswordHashing().setQueueCapacity(1);
+    properties.getPasswordHashing().setStrength(6);
+    meterRegistry = new SimpleMeterRegistry();
+    passwordHashingService = new PasswordHashingService(properties, meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  @Test
+  void encodeAndMatches_shouldRoundTrip_andRecordHashTime() throws Exception {
+    String hash = passwordHashingService.encode("s3cret");
+
+    assertTrue(passwordHashingService.matches("s3cret", hash));
+    assertFalse(passwordHashingService.matches("wrong", hash));
+    assertTrue(passwordHashingService.encodeInBackground("s3cret").get().startsWith("$2a$06$"));
+    assertEquals(
+        2, meterRegistry.get("patient.password.hash").tag("operation", "encode").timer().count());
+    assertEquals(
+        2, meterRegistry.get("patient.password.hash").tag("operation", "matches").timer().count());
+  }
+
+  @Test
+  void needsRehash_shouldFlagOnlyHashesWithALowerCost() {
+    assertFalse(passwordHashingService.needsRehash(passwordHashingService.encode("s3cret")));
+    assertTrue(passwordHashingService.needsRehash(new BCryptPasswordEncoder(4).encode("s3cret")));
+    assertFalse(passwordHashingService.needsRehash(new BCryptPasswordEncoder(8).encode("s3cret")));
+    assertFalse(passwordHashingService.needsRehash("not-a-bcrypt-hash"));
+    assertFalse(passwordHashingService.needsRehash(null));
+  }
+
+  @Test
+  void calibration_shouldStayWithinBounds() {
+    PatientProperties properties = new PatientProperties();
+    properties.getPasswordHashing().setMinStrength(4);
+    properties.getPasswordHashing().setMaxStrength(6);
+
+    // No budget: the minimum cost is kept even though it is over the target
+    properties.getPasswordHashing().setTargetLatency(Duration.ZERO);
+    PasswordHashingService fastest = new PasswordHashingService(properties, meterRegistry);
+    // A generous budget: calibration stops at the maximum cost
+    properties.getPasswordHashing().setTargetLatency(Duration.ofMinutes(1));
+    PasswordHashingService slowest =
+        new PasswordHashingService(properties, new SimpleMeterRegistry());
+    fastest.shutdown();
+    slowest.shutdown();
+
+    assertEquals(4, fastest.strength());
+    assertEquals(6, slowest.strength());
+  }
+
+  @Test
+  void encode_shouldRejectCallers_whenQueueIsFull() throws Exception {
+    // One thread and one queue slot: of many simultaneous slow hashes, most must be turned away
+    PatientProperties properties = new PatientProperties();
+    properties.getPasswordHashing().setThreads(1);
+    properties.getPasswordHashing().setQueueCapacity(1);
+    properties.getPasswordHashing().setStrength(10);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    PasswordHashingService slowService = new PasswordHashingService(properties, registry);
+    int callers = 16;
+    ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < callers; i++) {
+      results.add(
+          pool.submit(
+              () -> {
+                start.await();
+                return slowService.encode("s3cret");
+              }));
+    }
+    start.countDown();
+
+    int rejected = 0;
+    for (Future<String> result : results) {
+      try {
+        result.get();
+      } catch (ExecutionException e) {
+        assertInstanceOf(TooManyRequestsException.class, e.getCause());
+        rejected++;
+      }
+    }
+    pool.shutdown();
+    slowService.shutdown();
+
+    assertTrue(rejected > 0);
+    assertTrue(rejected <= callers - 2);
+    assertEquals(rejected, registry.get("patient.password.hash.rejected").counter().count());
+  }
+}
@@ -0,0 +1,63 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.deepak.patient.registration.config.PatientCacheConfig;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+class PatientCacheTest {
+
+  /** Stored JSON that fails to parse, so any parse during a put shows up as an exception. */
+  private static final String UNPARSEABLE = "{\"bloodGroup\":";
+
+  private PatientCache patientCache;
+
+  @BeforeEach
+  void setUp() {
+    CaffeineCacheManager cacheManager =
+        new CaffeineCacheManager(
+            PatientCacheConfig.PATIENT_CACHE, PatientCacheConfig.PATIENT_PHONE_INDEX_CACHE);
+    cacheManager.setCaffeine(
+        Caffeine.newBuilder().maximumWeight(10_000).weigher(PatientCache::weigh));
+    patientCache = new PatientCache(cacheManager, new SimpleMeterRegistry());
+  }
+
+  @Test
+  void getById_shouldCacheAPatientWithoutParsingItsStoredDetails() {
+    // Arrange
+    Patient loaded =
+        Patient.builder()
+            .id(1L)
+            .phoneNumber("9000000001")
+            .storedMedicalInfo(UNPARSEABLE)
+            .storedInsuranceDetails(UNPARSEABLE)
+            .build();
+
+    // Act
+    Patient first = patientCache.getById(1L, id -> loaded);
+    Patient cached = patientCache.getById(1L, id -> fail("Patient should be cached"));
+
+    // Assert
+    assertSame(loaded, first);
+    assertEquals(UNPARSEABLE, cached.getStoredMedicalInfo());
+    assertEquals(UNPARSEABLE, cached.getStoredInsuranceDetails());
+  }
+
+  @Test
+  void weigh_shouldCountTheStoredColumns() {
+    // Arrange
+    Patient patient =
+        Patient.builder()
+            .storedMedicalInfo("x".repeat(4096))
+            .storedInsuranceDetails("x".repeat(2048))
+            .build();
+
+    // Act & Assert
+    assertEquals(1 + 6, PatientCache.weigh(1L, patient));
+  }
+}
@@ -0,0 +1,116 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.dto.AppointmentResponse;
+import com.deepak.appointment.registration.dto.QueuePosition;
+import com.deepak.appointment.registration.exception.NotFoundException;
+import com.deepak.appointment.registration.service.AppointmentService;
+import com.deepak.appointment.registration.service.QueueManagementService;
+import com.deepak.patient.registration.model.patient.PatientDashboard;
+import com.deepak.patient.registration.model.patient.PatientSummary;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+@ExtendWith(MockitoExtension.class)
+class PatientDashboardServiceTest {
+
+  @Mock private PatientService patientService;
+  @Mock private AppointmentService appointmentService;
+  @Mock private QueueManagementService queueManagementService;
+
+  private PatientDashboardService patientDashboardService;
+
+  @BeforeEach
+  void setUp() {
+    patientDashboardService =
+        new PatientDashboardService(patientService, appointmentService, queueManagementService);
+  }
+
+  @Test
+  void getDashboard_shouldLoadThePartsConcurrently() {
+    // Arrange: each part waits until all three have started, which only happens if they overlap
+    CountDownLatch started = new CountDownLatch(3);
+    PatientSummary profile = new PatientSummary(1L, "Rohan", "9876543210", false, true, null);
+    AppointmentResponse appointment = new AppointmentResponse();
+    appointment.setAppointmentId(10L);
+    QueuePosition position = new QueuePosition(10L, "D1", 1, LocalDate.now(), 4, "PENDING", 3L);
+    when(patientService.getPatientSummaryById(1L)).thenAnswer(afterAllStart(started, profile));
+    when(appointmentService.getUpcomingAppointments(eq(1L), any()))
+        .thenAnswer(afterAllStart(started, List.of(appointment)));
+    when(queueManagementService.getQueuePositions(eq(1L), any()))
+        .thenAnswer(afterAllStart(started, List.of(position)));
+
+    // Act
+    PatientDashboard dashboard = patientDashboardService.getDashboard(1L);
+
+    // Assert
+    assertSame(profile, dashboard.profile());
+    assertEquals(List.of(appointment), dashboard.upcomingAppointments());
+    assertEquals(List.of(position), dashboard.queuePositions());
+    verify(appointmentService).getUpcomingAppointments(1L, LocalDate.now());
+  }
+
+  @Test
+  void getDashboard_shouldFailFastWithoutInterruptingTheOtherParts_whenThePatientIsNotFound()
+      throws InterruptedException {
+    // Arrange: the profile fails while the appointments are still being loaded
+    CountDownLatch appointmentsStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch appointmentsFinished = new CountDownLatch(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    when(patientService.getPatientSummaryById(1L))
+        .thenAnswer(
+            invocation -> {
+              appointmentsStarted.await(5, TimeUnit.SECONDS);
+              return null;
+            });
+    when(appointmentService.getUpcomingAppointments(eq(1L), any()))
+        .thenAnswer(
+            invocation -> {
+              appointmentsStarted.countDown();
+              try {
+                release.await(10, TimeUnit.SECONDS);
+              } catch (InterruptedException e) {
+                interrupted.set(true);
+              } finally {
+                appointmentsFinished.countDown();
+              }
+              return List.of();
+            });
+    lenient().when(queueManagementService.getQueuePositions(eq(1L), any())).thenReturn(List.of());
+
+    // Act
+    long start = System.nanoTime();
+    assertThrows(NotFoundException.class, () -> patientDashboardService.getDashboard(1L));
+    long elapsed = System.nanoTime() - start;
+    boolean finishedBeforeRelease = appointmentsFinished.getCount() == 0;
+    release.countDown();
+
+    // Assert
+    assertTrue(TimeUnit.NANOSECONDS.toSeconds(elapsed) < 5);
+    assertFalse(finishedBeforeRelease);
+    assertTrue(appointmentsFinished.await(5, TimeUnit.SECONDS));
+    assertFalse(interrupted.get());
+  }
+
+  private static <T> Answer<T> afterAllStart(CountDownLatch started, T result) {
+    return invocation -> {
+      started.countDown();
+      assertTrue(started.await(5, TimeUnit.SECONDS), "parts did not run concurrently");
+      return result;
+    };
+  }
+}
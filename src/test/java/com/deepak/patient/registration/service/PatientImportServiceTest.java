@@ -0,0 +1,163 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientCredentials;
+import com.deepak.patient.registration.model.patient.PatientImportReport;
+import com.deepak.patient.registration.model.patient.PatientImportReport.Outcome;
+import com.deepak.patient.registration.repository.PatientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+@ExtendWith(MockitoExtension.class)
+class PatientImportServiceTest {
+
+  @Mock private PatientRepository patientRepository;
+
+  @Mock private PatientSearchIndex patientSearchIndex;
+
+  private PasswordHashingService passwordHashingService;
+
+  private PatientImportService patientImportService;
+
+  @BeforeEach
+  void setUp() {
+    PatientProperties properties = new PatientProperties();
+    properties.getBulkImport().setChunkSize(2);
+    properties.getPasswordHashing().setThreads(2);
+    properties.getPasswordHashing().setStrength(4);
+    passwordHashingService = new PasswordHashingService(properties, new SimpleMeterRegistry());
+    patientImportService =
+        new PatientImportService(
+            patientRepository,
+            patientSearchIndex,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            passwordHashingService,
+            properties);
+  }
+
+  @AfterEach
+  void tearDown() {
+    passwordHashingService.shutdown();
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importPatients_shouldCreateNewPatients_andReportDuplicatesAndInvalidRows() {
+    // Arrange: 9000000002 is already registered, 9000000003 is taken while the import runs
+    Map<String, PatientCredentials> stored = new HashMap<>();
+    stored.put("9000000002", new PatientCredentials(2L, "existing"));
+    doAnswer(
+            invocation -> {
+              for (Patient patient : (List<Patient>) invocation.getArgument(0)) {
+                stored.putIfAbsent(
+                    patient.getPhoneNumber(),
+                    patient.getPhoneNumber().equals("9000000003")
+                        ? new PatientCredentials(3L, "someone else")
+                        : new PatientCredentials(1L, patient.getPasswordHash()));
+              }
+              return null;
+            })
+        .when(patientRepository)
+        .insertPatients(anyList());
+    when(patientRepository.findCredentialsByPhoneNumbers(anyCollection()))
+        .thenAnswer(
+            invocation ->
+                ((Collection<String>) invocation.getArgument(0))
+                    .stream()
+                        .filter(stored::containsKey)
+                        .collect(Collectors.toMap(phone -> phone, stored::get)));
+    String csv =
+        """
+        phoneNumber,name,sex,birthdate,city
+        9000000001,Rohan Kumar,M,1995-08-15,Bengaluru
+        9000000002,Priya Kumar,F,,
+        9000000001,Rohan Again,M,,
+        12345,Bad Phone,M,,
+        9000000003,Late Comer,O,,
+        """;
+
+    // Act
+    PatientImportReport report =
+        patientImportService.importPatients(stream(csv), PatientImportService.TEXT_CSV);
+
+    // Assert
+    assertNull(report.getError());
+    assertEquals(5, report.getTotalRows());
+    assertEquals(1, report.getCreated());
+    assertEquals(3, report.getDuplicates());
+    assertEquals(1, report.getInvalid());
+    assertEquals(
+        List.of(
+            Outcome.CREATED,
+            Outcome.DUPLICATE,
+            Outcome.DUPLICATE,
+            Outcome.INVALID,
+            Outcome.DUPLICATE),
+        report.getRows().stream().map(PatientImportReport.RowResult::getOutcome).toList());
+    assertEquals(2L, report.getRows().get(1).getPatientId());
+    assertEquals(3L, report.getRows().get(4).getPatientId());
+
+    ArgumentCaptor<List<Patient>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(patientRepository, times(2)).insertPatients(inserted.capture());
+    Patient created = inserted.getAllValues().getFirst().getFirst();
+    assertTrue(new BCryptPasswordEncoder().matches("9000000001", created.getPasswordHash()));
+    assertTrue(created.isUsingDefaultPassword());
+    assertEquals("Bengaluru", created.getPersonalDetails().getAddress().getCity());
+  }
+
+  @Test
+  void importPatients_shouldKeepRowsBeforeMalformedNdjsonLine() {
+    // Arrange
+    when(patientRepository.findCredentialsByPhoneNumbers(anyCollection())).thenReturn(Map.of());
+    String ndjson =
+        """
+        {"phoneNumber":"9000000001","name":"Rohan Kumar","sex":"M"}
+        {"phoneNumber":"9000000002","name":
+        """;
+
+    // Act
+    PatientImportReport report =
+        patientImportService.importPatients(
+            stream(ndjson), MediaType.parseMediaType(MediaType.APPLICATION_NDJSON_VALUE));
+
+    // Assert
+    assertNotNull(report.getError());
+    assertEquals(1, report.getTotalRows());
+    verify(patientRepository).insertPatients(anyList());
+  }
+
+  @Test
+  void importPatients_shouldRejectUnsupportedContentType() {
+    assertThrows(
+        BadRequestException.class,
+        () -> patientImportService.importPatients(stream("{}"), MediaType.APPLICATION_XML));
+    verifyNoInteractions(patientRepository);
+  }
+}
@@ -0,0 +1,123 @@
+package com.deepak.patient.registration.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import com.deepak.patient.registration.config.PatientProperties;
+import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PersonalDetails;
+import com.deepak.patient.registration.repository.PatientRepository;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.SearchEntry;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PatientSearchIndexTest {
+
+  @Mock private PatientRepository patientRepository;
+
+  private PatientProperties properties;
+
+  private PatientSearchIndex index;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    properties = new PatientProperties();
+    properties.getSearch().setEnabled(true);
+    index = new PatientSearchIndex(patientRepository, properties);
+    doAnswer(
+            invocation -> {
+              Consumer<SearchEntry> action = invocation.getArgument(0);
+              action.accept(new SearchEntry(1L, "Rohan Kumar", "rohan@domain.com", "9876543210"));
+              action.accept(new SearchEntry(2L, "Priya Sharma", "priya@mail.com", "9123456780"));
+              action.accept(new SearchEntry(3L, "Arohan Das", null, "9000000003"));
+              return null;
+            })
+        .when(patientRepository)
+        .forEachSearchEntry(any());
+  }
+
+  @Test
+  void search_shouldRankPrefixMatchesBeforeSubstrings_andFindPartialPhoneNumbers() {
+    // Arrange
+    assertFalse(index.isReady());
+    index.rebuild();
+
+    // Act & Assert
+    assertTrue(index.isReady());
+    assertEquals(List.of(1L, 3L), index.search("ROHAN", 10));
+    assertEquals(2L, index.search("mail.com", 10).get(0));
+    assertEquals(List.of(2L), index.search("2345", 10));
+    assertEquals(List.of(1L), index.search("rohan", 1));
+  }
+
+  @Test
+  void rebuild_shouldLeaveSearchesOnTheDatabase_whenThereAreMorePatientsThanTheIndexHolds() {
+    // Arrange
+    properties.getSearch().setMaxPatients(2);
+
+    // Act
+    index.rebuild();
+
+    // Assert
+    assertFalse(index.isReady());
+    assertEquals(List.of(), index.search("rohan", 10));
+  }
+
+  @Test
+  void search_shouldFindMistypedNames() {
+    // Arrange
+    index.rebuild();
+
+    // Act & Assert
+    assertEquals(List.of(2L), index.search("priya sharna", 10));
+  }
+
+  @Test
+  void putAndRemove_shouldKeepIndexCurrent() {
+    // Arrange
+    index.rebuild();
+    Patient renamed =
+        Patient.builder()
+            .id(2L)
+            .phoneNumber("9123456780")
+            .personalDetails(PersonalDetails.builder().name("Priya Verma").build())
+            .build();
+
+    // Act
+    index.put(renamed);
+    index.remove(1L);
+
+    // Assert
+    assertEquals(List.of(2L), index.search("verma", 10));
+    assertEquals(List.of(), index.search("sharma", 10));
+    assertEquals(List.of(3L), index.search("rohan", 10));
+  }
+
+  @Test
+  void remove_shouldKeepFindingTheOtherPatients_acrossManyPatients() {
+    // Arrange
+    index.rebuild();
+    for (long id = 10; id < 2_010; id++) {
+      index.put(new SearchEntry(id, "Patient " + id, null, "98" + (10_000_000 + id)));
+    }
+
+    // Act
+    for (long id = 10; id < 2_010; id += 2) {
+      index.remove(id);
+    }
+
+    // Assert
+    for (long id = 10; id < 2_010; id++) {
+      List<Long> found = index.search("98" + (10_000_000 + id), 10);
+      assertEquals(id % 2 == 1, found.contains(id), "patient " + id);
+    }
+  }
+}
@@ -3,11 +3,32 @@ package com.deepak.patient.registration.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.deepak.appointment.registration.exception.AccountLockedException;
+import com.deepak.appointment.registration.exception.BadRequestException;
+import com.deepak.appointment.registration.exception.ConflictException;
+import com.deepak.appointment.registration.exception.PreconditionFailedException;
+import com.deepak.patient.registration.config.PatientCacheConfig;
+import com.deepak.patient.registration.config.PatientProperties;
 import com.deepak.patient.registration.model.patient.Patient;
+import com.deepak.patient.registration.model.patient.PatientJsonColumn;
+import com.deepak.patient.registration.model.patient.PatientSummary;
+import com.deepak.patient.registration.model.patient.PatientSummaryBatch;
 import com.deepak.patient.registration.model.patient.PersonalDetails;
 import com.deepak.patient.registration.repository.PatientRepository;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.ArchivedPatients;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.JsonColumnPatch;
+import com.deepak.patient.registration.repository.PatientRepositoryCustom.RewrittenPatients;
+import com.deepak.patient.registration.security.FieldEncryption;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -15,7 +36,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,8 +48,32 @@ class PatientServiceTest {
 
   @Mock private PatientRepository patientRepository;
 
-  // BCryptPasswordEncoder is instantiated directly in PatientService,
-  // so we'll use a real one here for assertions.
+  @Spy private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+  @Spy
+  private PatientCache patientCache =
+      new PatientCache(
+          new CaffeineCacheManager(
+              PatientCacheConfig.PATIENT_CACHE, PatientCacheConfig.PATIENT_PHONE_INDEX_CACHE),
+          new SimpleMeterRegistry());
+
+  @Mock private LastLoginWriteBehindService lastLoginWriteBehindService;
+
+  @Mock private LoginAttemptTracker loginAttemptTracker;
+
+  @Spy private PatientProperties patientProperties = new PatientProperties();
+
+  @Mock private PatientSearchIndex patientSearchIndex;
+
+  @Spy
+  private FieldEncryption fieldEncryption = new FieldEncryption(new PatientProperties.Encryption());
+
+  @Spy
+  private PasswordHashingService passwordHashingService =
+      new PasswordHashingService(hashingProperties(10), new SimpleMeterRegistry());
+
+  // PasswordHashingService hashes with BCrypt,
+  // so we'll use a real encoder here for assertions.
   private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
 
   @InjectMocks private PatientService patientService;
@@ -32,6 +81,12 @@ class PatientServiceTest {
   private Patient patient;
   private Patient patientWithDetails;
 
+  private static PatientProperties hashingProperties(int strength) {
+    PatientProperties properties = new PatientProperties();
+    properties.getPasswordHashing().setStrength(strength);
+    return properties;
+  }
+
   @BeforeEach
   void setUp() {
     patient = new Patient();
@@ -57,21 +112,13 @@ class PatientServiceTest {
   }
 
   @Test
-  void createPatient_shouldSavePatientWithHashedDefaultPasswordFromPhoneNumber() {
+  void createPatient_shouldStoreHashedDefaultPasswordWithASingleInsert() {
     Patient newPatient = new Patient();
     newPatient.setPhoneNumber("1234567890");
     // No passwordHash set, service should use phone number as default password
 
     ArgumentCaptor<Patient> patientCaptor = ArgumentCaptor.forClass(Patient.class);
-    when(patientRepository.save(patientCaptor.capture()))
-        .thenAnswer(
-            invocation -> {
-              Patient p = invocation.getArgument(0);
-              p.setId(2L); // Simulate save assigning an ID
-              // Simulate JPA @PrePersist if PatientService doesn't set timestamps
-              if (p.getUpdatedAt() == null) p.setUpdatedAt(LocalDateTime.now());
-              return p;
-            });
+    when(patientRepository.insertPatient(patientCaptor.capture())).thenReturn(2L);
 
     Patient savedPatient = patientService.createPatient(newPatient);
 
@@ -81,39 +128,47 @@ class PatientServiceTest {
     assertTrue(encoder.matches("1234567890", savedPatient.getPasswordHash()));
     assertTrue(savedPatient.isUsingDefaultPassword());
     assertNotNull(savedPatient.getUpdatedAt());
-    verify(patientRepository, times(1)).save(any(Patient.class));
+    verify(patientRepository, never()).updatePasswordHash(any(), any());
+    verify(patientRepository, never()).save(any(Patient.class));
 
     Patient captured = patientCaptor.getValue();
     assertEquals("1234567890", captured.getPhoneNumber());
-    assertTrue(encoder.matches("1234567890", captured.getPasswordHash()));
+    assertEquals(savedPatient.getPasswordHash(), captured.getPasswordHash());
     assertTrue(captured.isUsingDefaultPassword());
+    assertNotNull(captured.getCreatedAt());
   }
 
   @Test
-  void createPatient_shouldSavePatientWithNullPasswordHash_ifPhoneNumberNull() {
-    Patient newPatient = new Patient(); // No phone number
+  void createPatient_shouldRejectRegisteredPhoneNumber_withoutHashing() {
+    Patient newPatient = new Patient();
+    newPatient.setPhoneNumber("1234567890");
+    when(patientRepository.existsByPhoneNumber("1234567890")).thenReturn(true);
 
-    ArgumentCaptor<Patient> patientCaptor = ArgumentCaptor.forClass(Patient.class);
-    when(patientRepository.save(patientCaptor.capture()))
-        .thenAnswer(
-            invocation -> {
-              Patient p = invocation.getArgument(0);
-              p.setId(3L);
-              return p;
-            });
+    assertThrows(ConflictException.class, () -> patientService.createPatient(newPatient));
 
-    Patient savedPatient = patientService.createPatient(newPatient);
+    verify(passwordHashingService, never()).encode(any());
+    verify(patientRepository, never()).insertPatient(any());
+  }
 
-    assertNotNull(savedPatient);
-    assertNull(savedPatient.getPasswordHash()); // Password hash should be null
-    assertFalse(
-        savedPatient.isUsingDefaultPassword()); // Should be false as no default password was set
-    verify(patientRepository).save(newPatient);
+  @Test
+  void createPatient_shouldRejectPhoneNumberRegisteredConcurrently() {
+    Patient newPatient = new Patient();
+    newPatient.setPhoneNumber("1234567890");
+    when(patientRepository.insertPatient(newPatient))
+        .thenThrow(new DuplicateKeyException("Duplicate entry for key 'uq_phone_number'"));
 
-    Patient captured = patientCaptor.getValue();
-    assertNull(captured.getPhoneNumber());
-    assertNull(captured.getPasswordHash());
-    assertFalse(captured.isUsingDefaultPassword());
+    assertThrows(ConflictException.class, () -> patientService.createPatient(newPatient));
+
+    verify(patientSearchIndex, never()).put(any(Patient.class));
+  }
+
+  @Test
+  void createPatient_shouldRejectPatientWithoutPhoneNumber() {
+    Patient newPatient = new Patient(); // No phone number
+
+    assertThrows(BadRequestException.class, () -> patientService.createPatient(newPatient));
+
+    verify(patientRepository, never()).insertPatient(any());
   }
 
   @Test
@@ -135,17 +190,14 @@ class PatientServiceTest {
 
   @Test
   void existsByPhoneNumber_shouldReturnTrue_whenFound() {
-    // PatientService.existsByPhoneNumber directly calls repository.existsByPhoneNumber in the
-    // provided code,
-    // but the example test checks findByPhoneNumber. Let's assume it should use findByPhoneNumber
-    // as per example.
-    when(patientRepository.findByPhoneNumber("+919876543210")).thenReturn(Optional.of(patient));
+    when(patientRepository.existsByPhoneNumber("+919876543210")).thenReturn(true);
     assertTrue(patientService.existsByPhoneNumber("+919876543210"));
+    verify(patientRepository, never()).findByPhoneNumber(anyString());
   }
 
   @Test
   void existsByPhoneNumber_shouldReturnFalse_whenNotFound() {
-    when(patientRepository.findByPhoneNumber("unknown")).thenReturn(Optional.empty());
+    when(patientRepository.existsByPhoneNumber("unknown")).thenReturn(false);
     assertFalse(patientService.existsByPhoneNumber("unknown"));
   }
 
@@ -165,6 +217,193 @@ class PatientServiceTest {
     assertNull(found);
   }
 
+  @Test
+  void getPatientById_shouldServeRepeatLookupsFromCache() {
+    // Arrange
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(patientWithDetails));
+
+    // Act
+    patientService.getPatientById(1L);
+    Patient byId = patientService.getPatientById(1L);
+    Patient byPhone = patientService.getPatientByPhoneNumber("+919876543210");
+
+    // Assert
+    assertEquals(1L, byId.getId());
+    assertEquals(1L, byPhone.getId());
+    verify(patientRepository, times(1)).findById(1L);
+    verify(patientRepository, never()).findByPhoneNumber(anyString());
+  }
+
+  @Test
+  void getPatientById_shouldHandEachCallerItsOwnCopy() {
+    // Arrange
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(patientWithDetails));
+    String passwordHash = patientWithDetails.getPasswordHash();
+    Patient first = patientService.getPatientById(1L);
+
+    // Act
+    first.setPasswordHash("changed");
+    Patient second = patientService.getPatientById(1L);
+
+    // Assert
+    assertNotSame(first, second);
+    assertEquals(passwordHash, second.getPasswordHash());
+  }
+
+  @Test
+  void validateLogin_shouldCheckThePasswordStoredInTheDatabase_notTheCachedOne() {
+    // Arrange: the patient is cached with its old hash, then the password changes elsewhere
+    patientWithDetails.setPasswordHash(encoder.encode("oldPassword"));
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(patientWithDetails));
+    patientService.getPatientById(1L);
+    Patient updated =
+        patientWithDetails.toBuilder().passwordHash(encoder.encode("newPassword")).build();
+    when(patientRepository.findByPhoneNumber("+919876543210")).thenReturn(Optional.of(updated));
+
+    // Act & Assert
+    assertNull(patientService.validateLogin("+919876543210", "oldPassword"));
+    assertNotNull(patientService.validateLogin("+919876543210", "newPassword"));
+    assertNull(patientService.getPatientById(1L).getLastLoginAt());
+  }
+
+  @Test
+  void updatePassword_shouldInvalidateCachedPatient() {
+    // Arrange
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(patientWithDetails));
+    patientService.getPatientById(1L);
+
+    // Act
+    patientService.updatePassword(1L, "newPassword456");
+    patientService.getPatientById(1L);
+
+    // Assert
+    verify(patientRepository, times(3)).findById(1L);
+    verify(patientCache).invalidate(1L, "+919876543210");
+  }
+
+  @Test
+  void existsById_shouldNotLoadPatient() {
+    when(patientRepository.existsById(1L)).thenReturn(true);
+    assertTrue(patientService.existsById(1L));
+    verify(patientRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  void getPatientSummaryById_shouldSelectRequestedFields_withoutLoadingPatient() {
+    PatientSummary summary = new PatientSummary(1L, "Test", "+919876543210", false, true, null);
+    when(patientRepository.findSummaryById(1L)).thenReturn(Optional.of(summary));
+
+    PatientSummary found = patientService.getPatientSummaryById(1L);
+
+    assertEquals(summary, found);
+    assertEquals(List.of("name", "id"), List.copyOf(found.select(List.of("name", "id")).keySet()));
+    assertFalse(found.select(null).containsKey("lastLoginAt"));
+    assertThrows(BadRequestException.class, () -> found.select(List.of("medicalInfo")));
+    verify(patientRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  void getPatientSummaryByPhoneNumber_shouldReturnNull_whenNotFound() {
+    when(patientRepository.findSummaryByPhoneNumber("1111111111")).thenReturn(Optional.empty());
+    assertNull(patientService.getPatientSummaryByPhoneNumber("1111111111"));
+    verify(patientRepository, never()).findByPhoneNumber(anyString());
+  }
+
+  @Test
+  void getPatientSummaries_shouldUseCacheFirst_andKeepRequestOrder() {
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(patientWithDetails));
+    patientService.getPatientById(1L);
+    PatientSummary other = new PatientSummary(2L, "Other", "9000000002", true, true, null);
+    when(patientRepository.findSummariesByIdIn(List.of(3L, 2L))).thenReturn(List.of(other));
+
+    PatientSummaryBatch batch = patientService.getPatientSummaries(List.of(3L, 1L, 2L, 1L));
+
+    assertEquals(List.of(1L, 2L), batch.patients().stream().map(PatientSummary::id).toList());
+    assertEquals("Test", batch.patients().get(0).name());
+    assertEquals(List.of(3L), batch.missingIds());
+  }
+
+  @Test
+  void getPatientSummaries_shouldRejectTooManyIds() {
+    patientProperties.getBatchFetch().setMaxIds(2);
+    assertThrows(
+        BadRequestException.class, () -> patientService.getPatientSummaries(List.of(1L, 2L, 3L)));
+    verifyNoInteractions(patientRepository);
+  }
+
+  @Test
+  void searchPatients_shouldLoadIndexMatchesInRankOrder() {
+    when(patientSearchIndex.isReady()).thenReturn(true);
+    when(patientSearchIndex.search("rohan", 20)).thenReturn(List.of(2L, 1L));
+    PatientSummary first = new PatientSummary(2L, "Rohan", "9000000002", true, true, null);
+    PatientSummary second = new PatientSummary(1L, "Rohan Kumar", "9000000001", true, true, null);
+    when(patientRepository.findSummariesByIdIn(List.of(2L, 1L))).thenReturn(List.of(second, first));
+
+    assertEquals(List.of(first, second), patientService.searchPatients(" rohan ", 20));
+  }
+
+  @Test
+  void searchPatients_shouldSearchDatabaseByPrefix_untilIndexIsReady() {
+    when(patientSearchIndex.isReady()).thenReturn(false);
+
+    patientService.searchPatients("50%_off", 500);
+
+    verify(patientRepository).searchSummariesByPrefix("50\\%\\_off%", PageRequest.of(0, 50));
+    assertThrows(BadRequestException.class, () -> patientService.searchPatients("ro", 10));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void patchPatient_shouldWriteOnlyChangedFields_withoutLoadingPatient() throws Exception {
+    // Arrange
+    var patch =
+        new ObjectMapper()
+            .readTree(
+                "{\"personalDetails\": {\"email\": \"new@domain.com\", \"occupation\": null}}");
+    when(patientRepository.patchJsonColumns(eq(1L), anyList(), any(LocalDateTime.class)))
+        .thenReturn(1);
+
+    // Act
+    boolean patched = patientService.patchPatient(1L, patch);
+
+    // Assert
+    assertTrue(patched);
+    ArgumentCaptor<List<JsonColumnPatch>> captor = ArgumentCaptor.forClass(List.class);
+    verify(patientRepository).patchJsonColumns(eq(1L), captor.capture(), any(LocalDateTime.class));
+    JsonColumnPatch columnPatch = captor.getValue().get(0);
+    assertEquals(PatientJsonColumn.PERSONAL_DETAILS, columnPatch.column());
+    assertEquals(Map.of("email", "\"new@domain.com\""), columnPatch.set());
+    assertEquals(Set.of("occupation"), columnPatch.remove());
+    verify(patientRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  void patchPatient_shouldThrowBadRequest_whenFieldUnknownOrInvalid() throws Exception {
+    // Arrange
+    ObjectMapper mapper = new ObjectMapper();
+
+    // Act & Assert
+    assertThrows(
+        BadRequestException.class,
+        () -> patientService.patchPatient(1L, mapper.readTree("{\"phoneNumber\": {}}")));
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            patientService.patchPatient(
+                1L, mapper.readTree("{\"personalDetails\": {\"nickname\": \"Ro\"}}")));
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            patientService.patchPatient(
+                1L, mapper.readTree("{\"personalDetails\": {\"name\": null}}")));
+    assertThrows(
+        BadRequestException.class,
+        () ->
+            patientService.patchPatient(
+                1L, mapper.readTree("{\"personalDetails\": {\"email\": \"not-an-email\"}}")));
+    verifyNoInteractions(patientRepository);
+  }
+
   @Test
   @Disabled
   void updatePatient_shouldUpdateFields_whenPatientExists() {
@@ -188,7 +427,7 @@ class PatientServiceTest {
     when(patientRepository.save(patientCaptor.capture()))
         .thenAnswer(invocation -> invocation.getArgument(0));
 
-    Patient updatedPatient = patientService.updatePatient(1L, updates);
+    Patient updatedPatient = patientService.updatePatient(1L, updates, null);
 
     assertNotNull(updatedPatient);
     assertEquals("UpdatedName", updatedPatient.getPersonalDetails().getName());
@@ -232,7 +471,7 @@ class PatientServiceTest {
     when(patientRepository.save(any(Patient.class)))
         .thenAnswer(invocation -> invocation.getArgument(0));
 
-    Patient updated = patientService.updatePatient(1L, updates);
+    Patient updated = patientService.updatePatient(1L, updates, null);
 
     assertEquals("UpdatedFirst", updated.getPersonalDetails().getName());
     // Based on PatientService logic, if a field in updates.personalDetails is null, it will
@@ -267,7 +506,7 @@ class PatientServiceTest {
     when(patientRepository.save(any(Patient.class)))
         .thenAnswer(invocation -> invocation.getArgument(0));
 
-    Patient updated = patientService.updatePatient(1L, updates);
+    Patient updated = patientService.updatePatient(1L, updates, null);
 
     assertEquals(
         "OriginalFirst",
@@ -277,36 +516,161 @@ class PatientServiceTest {
     assertTrue(updated.getUpdatedAt().isAfter(initialUpdatedAt));
   }
 
+  @Test
+  void updatePatient_shouldWriteWithVersionCheck_andRetryWhenPatientChangesConcurrently() {
+    // Arrange
+    Patient stale = Patient.builder().id(1L).phoneNumber("9876543210").version(4).build();
+    Patient current = Patient.builder().id(1L).phoneNumber("9876543210").version(5).build();
+    Patient updates =
+        Patient.builder()
+            .personalDetails(PersonalDetails.builder().name("Updated").build())
+            .build();
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(stale), Optional.of(current));
+    when(patientRepository.updateJsonColumnsIfVersion(eq(stale), eq(4L), any())).thenReturn(0);
+    when(patientRepository.updateJsonColumnsIfVersion(eq(current), eq(5L), any())).thenReturn(1);
+
+    // Act
+    Patient updated = patientService.updatePatient(1L, updates, null);
+
+    // Assert
+    assertSame(current, updated);
+    assertEquals(6L, updated.getVersion());
+    assertEquals("Updated", updated.getPersonalDetails().getName());
+    verify(patientRepository, never()).save(any(Patient.class));
+    verify(patientCache).invalidate(1L, "9876543210");
+  }
+
+  @Test
+  void updatePatient_shouldFailPrecondition_whenVersionDoesNotMatch() {
+    // Arrange
+    Patient existing = Patient.builder().id(1L).version(5).build();
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(existing));
+
+    // Act & Assert
+    assertThrows(
+        PreconditionFailedException.class,
+        () -> patientService.updatePatient(1L, new Patient(), 4L));
+    verify(patientRepository, never()).updateJsonColumnsIfVersion(any(), anyLong(), any());
+  }
+
+  @Test
+  void updatePatient_shouldDropTheCachedPatient_whenIfMatchNamesAnOlderVersion() {
+    // Arrange
+    Patient cached = Patient.builder().id(1L).phoneNumber("9876543210").version(4).build();
+    Patient current = Patient.builder().id(1L).phoneNumber("9876543210").version(5).build();
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(cached), Optional.of(current));
+    assertEquals(4L, patientService.getPatientById(1L).getVersion());
+
+    // Act
+    assertThrows(
+        PreconditionFailedException.class,
+        () -> patientService.updatePatient(1L, new Patient(), 4L));
+
+    // Assert
+    verify(patientCache).invalidate(1L, "9876543210");
+    assertEquals(5L, patientService.getPatientById(1L).getVersion());
+  }
+
+  @Test
+  void updatePatient_shouldFailPrecondition_whenPatientChangesAfterItWasRead() {
+    // Arrange
+    Patient existing = Patient.builder().id(1L).version(5).build();
+    when(patientRepository.findById(1L)).thenReturn(Optional.of(existing));
+    when(patientRepository.updateJsonColumnsIfVersion(eq(existing), eq(5L), any())).thenReturn(0);
+
+    // Act & Assert
+    assertThrows(
+        PreconditionFailedException.class,
+        () -> patientService.updatePatient(1L, new Patient(), 5L));
+    verify(patientRepository, times(1)).findById(1L);
+    verify(patientCache).invalidate(1L, null);
+  }
+
   @Test
   void updatePatient_shouldReturnNull_whenPatientNotFound() {
     Patient updates = new Patient();
     when(patientRepository.findById(2L)).thenReturn(Optional.empty());
-    Patient updatedPatient = patientService.updatePatient(2L, updates);
+    Patient updatedPatient = patientService.updatePatient(2L, updates, null);
     assertNull(updatedPatient);
     verify(patientRepository, times(1)).findById(2L);
     verify(patientRepository, never()).save(any(Patient.class));
   }
 
   @Test
-  void deletePatient_shouldDelete_whenPatientExists() {
-    when(patientRepository.existsById(1L)).thenReturn(true);
-    doNothing().when(patientRepository).deleteById(1L);
+  void deletePatient_shouldDeactivate_whenPatientExists() {
+    when(patientRepository.deactivate(eq(1L), any(LocalDateTime.class))).thenReturn(1);
 
     assertDoesNotThrow(() -> patientService.deletePatient(1L));
 
-    verify(patientRepository, times(1)).existsById(1L);
-    verify(patientRepository, times(1)).deleteById(1L);
+    verify(patientRepository, never()).deleteById(anyLong());
+    verify(patientCache).invalidate(1L, null);
+    verify(patientSearchIndex).remove(1L);
   }
 
   @Test
   void deletePatient_shouldThrowRuntimeException_whenPatientNotFound() {
-    when(patientRepository.existsById(2L)).thenReturn(false);
+    when(patientRepository.deactivate(eq(2L), any(LocalDateTime.class))).thenReturn(0);
 
     RuntimeException exception =
         assertThrows(RuntimeException.class, () -> patientService.deletePatient(2L));
     assertEquals("Patient not found with id: 2", exception.getMessage()); // Corrected message
-    verify(patientRepository, times(1)).existsById(2L);
     verify(patientRepository, never()).deleteById(anyLong());
+    verify(patientSearchIndex, never()).remove(anyLong());
+  }
+
+  @Test
+  void archiveInactivePatients_shouldMoveChunksUntilOneIsPartial() {
+    // Arrange
+    patientProperties.getArchive().setChunkSize(2);
+    when(patientRepository.archiveInactivePatients(any(LocalDateTime.class), eq(2)))
+        .thenReturn(new ArchivedPatients(List.of(1L, 2L), 5), new ArchivedPatients(List.of(3L), 0));
+
+    // Act
+    int archived = patientService.archiveInactivePatients();
+
+    // Assert
+    assertEquals(3, archived);
+    ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(patientRepository, times(2)).archiveInactivePatients(cutoff.capture(), eq(2));
+    assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(29)));
+    verify(patientRepository, never()).archiveDormantPatients(any(), anyInt());
+    verify(patientSearchIndex).remove(3L);
+  }
+
+  @Test
+  void archiveInactivePatients_shouldAlsoArchiveDormantPatients_whenConfigured() {
+    // Arrange
+    patientProperties.getArchive().setDormantDays(730);
+    when(patientRepository.archiveInactivePatients(any(LocalDateTime.class), anyInt()))
+        .thenReturn(new ArchivedPatients(List.of(), 0));
+    when(patientRepository.archiveDormantPatients(any(LocalDateTime.class), anyInt()))
+        .thenReturn(new ArchivedPatients(List.of(4L), 2));
+
+    // Act
+    int archived = patientService.archiveInactivePatients();
+
+    // Assert
+    assertEquals(1, archived);
+    ArgumentCaptor<LocalDateTime> lastSeenBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(patientRepository).archiveDormantPatients(lastSeenBefore.capture(), anyInt());
+    assertTrue(lastSeenBefore.getValue().isBefore(LocalDateTime.now().minusDays(729)));
+    verify(patientCache).invalidate(4L, null);
+    verify(patientSearchIndex).remove(4L);
+  }
+
+  @Test
+  void migratePatientStorage_shouldContinueAfterTheLastIdReadUntilAChunkIsPartial() {
+    // Arrange
+    patientProperties.getStorageMigration().setChunkSize(2);
+    when(patientRepository.rewriteStoredColumns(0L, 2)).thenReturn(new RewrittenPatients(7L, 2, 1));
+    when(patientRepository.rewriteStoredColumns(7L, 2)).thenReturn(new RewrittenPatients(9L, 1, 1));
+
+    // Act
+    int rewritten = patientService.migratePatientStorage();
+
+    // Assert
+    assertEquals(2, rewritten);
+    verify(patientRepository, never()).rewriteStoredColumns(9L, 2);
   }
 
   @Test
@@ -318,6 +682,25 @@ class PatientServiceTest {
     Patient validatedPatient = patientService.validateLogin("+919876543210", "password123");
     assertNotNull(validatedPatient);
     assertEquals(patientWithDetails.getId(), validatedPatient.getId());
+    assertNotNull(validatedPatient.getLastLoginAt());
+    verify(lastLoginWriteBehindService).recordLogin(1L, validatedPatient.getLastLoginAt());
+    verify(patientRepository, never()).save(any(Patient.class));
+  }
+
+  @Test
+  void validateLogin_shouldRehashPassword_whenStoredCostIsLower() {
+    patientWithDetails.setPasswordHash(new BCryptPasswordEncoder(4).encode("password123"));
+    when(patientRepository.findByPhoneNumber("+919876543210"))
+        .thenReturn(Optional.of(patientWithDetails));
+
+    Patient validatedPatient = patientService.validateLogin("+919876543210", "password123");
+
+    assertNotNull(validatedPatient);
+    ArgumentCaptor<String> rehashed = ArgumentCaptor.forClass(String.class);
+    verify(patientRepository).updatePasswordHash(eq(1L), rehashed.capture());
+    assertTrue(rehashed.getValue().startsWith("$2a$10$"));
+    assertTrue(encoder.matches("password123", rehashed.getValue()));
+    assertEquals(rehashed.getValue(), validatedPatient.getPasswordHash());
   }
 
   @Test
@@ -330,6 +713,30 @@ class PatientServiceTest {
     assertNull(validatedPatient);
   }
 
+  @Test
+  void validateLogin_shouldRejectLockedNumber_beforeLoadingPatient() {
+    doThrow(new AccountLockedException("locked", Duration.ofMinutes(5)))
+        .when(loginAttemptTracker)
+        .checkNotLocked("+919876543210");
+
+    assertThrows(
+        AccountLockedException.class,
+        () -> patientService.validateLogin("+919876543210", "password123"));
+    verifyNoInteractions(patientRepository, passwordHashingService);
+  }
+
+  @Test
+  void validateLogin_shouldRecordFailure_whenPasswordIncorrect() {
+    patientWithDetails.setPasswordHash(encoder.encode("password123"));
+    when(patientRepository.findByPhoneNumber("+919876543210"))
+        .thenReturn(Optional.of(patientWithDetails));
+
+    patientService.validateLogin("+919876543210", "wrongPassword");
+
+    verify(loginAttemptTracker).recordFailure("+919876543210", 1L);
+    verify(loginAttemptTracker, never()).recordSuccess(any());
+  }
+
   @Test
   void validateLogin_shouldReturnNull_whenPatientNotFound() {
     when(patientRepository.findByPhoneNumber("unknown")).thenReturn(Optional.empty());
@@ -0,0 +1,94 @@
+-- H2 copy of the patient tables in init.sql for repository tests. JSON columns are VARCHAR, as H2
+-- stores a string bound to a JSON column as a JSON string; generated columns are plain columns and
+-- foreign keys to the doctor, clinic and slot tables are left out.
+CREATE TABLE patients (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    phone_number CHAR(10) NOT NULL,
+    phone_number_hash BINARY(32),
+    password_hash VARCHAR(255) NOT NULL,
+    personal_details VARCHAR(8000),
+    medical_info VARCHAR(8000),
+    medical_info_packed BLOB,
+    insurance_details VARCHAR(8000),
+    emergency_contact VARCHAR(8000),
+    clinic_preferences VARCHAR(8000),
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    using_default_password BOOLEAN NOT NULL DEFAULT TRUE,
+    is_active BOOLEAN NOT NULL DEFAULT TRUE,
+    failed_login_attempts INT NOT NULL DEFAULT 0,
+    locked_until TIMESTAMP NULL,
+    last_login_at TIMESTAMP NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    full_name VARCHAR(50),
+    email VARCHAR(255),
+    CONSTRAINT uq_phone_number UNIQUE (phone_number),
+    CONSTRAINT uq_phone_number_hash UNIQUE (phone_number_hash)
+);
+
+CREATE TABLE patients_archive (
+    id BIGINT PRIMARY KEY,
+    phone_number CHAR(10) NOT NULL,
+    phone_number_hash BINARY(32),
+    password_hash VARCHAR(255) NOT NULL,
+    personal_details VARCHAR(8000),
+    medical_info VARCHAR(8000),
+    medical_info_packed BLOB,
+    insurance_details VARCHAR(8000),
+    emergency_contact VARCHAR(8000),
+    clinic_preferences VARCHAR(8000),
+    created_at DATETIME NOT NULL,
+    updated_at DATETIME NOT NULL,
+    using_default_password BOOLEAN NOT NULL,
+    is_active BOOLEAN NOT NULL,
+    failed_login_attempts INT NOT NULL,
+    locked_until TIMESTAMP NULL,
+    last_login_at TIMESTAMP NULL,
+    version BIGINT NOT NULL,
+    archived_at DATETIME NOT NULL
+);
+
+CREATE TABLE appointments (
+    appointment_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    appointment_type VARCHAR(50) NOT NULL,
+    appointment_for VARCHAR(10) NOT NULL,
+    appointment_for_name VARCHAR(255) NOT NULL,
+    appointment_for_age INTEGER,
+    symptom VARCHAR(255),
+    other_symptoms VARCHAR(255),
+    appointment_date DATETIME NOT NULL,
+    slot_id BIGINT,
+    doctor_id VARCHAR(50) NOT NULL,
+    clinic_id INTEGER NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    CONSTRAINT patient_fk FOREIGN KEY (patient_id) REFERENCES patients (id),
+    CONSTRAINT uq_slot_id UNIQUE (slot_id)
+);
+
+CREATE TABLE appointments_archive (
+    appointment_id BIGINT PRIMARY KEY,
+    patient_id BIGINT NOT NULL,
+    appointment_type VARCHAR(50) NOT NULL,
+    appointment_for VARCHAR(10) NOT NULL,
+    appointment_for_name VARCHAR(255) NOT NULL,
+    appointment_for_age INTEGER,
+    symptom VARCHAR(255),
+    other_symptoms VARCHAR(255),
+    appointment_date DATETIME NOT NULL,
+    slot_id BIGINT,
+    doctor_id VARCHAR(50) NOT NULL,
+    clinic_id INTEGER NOT NULL,
+    active BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE queue_management (
+    queue_management_id INTEGER AUTO_INCREMENT PRIMARY KEY,
+    appointment_id BIGINT,
+    slot_id BIGINT,
+    clinic_id INTEGER,
+    doctor_id VARCHAR(50),
+    queue_date DATE,
+    CONSTRAINT uq_queue_appointment UNIQUE (appointment_id),
+    FOREIGN KEY (appointment_id) REFERENCES appointments (appointment_id)
+);